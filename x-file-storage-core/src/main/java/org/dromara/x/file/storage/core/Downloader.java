@@ -13,11 +13,13 @@ import lombok.experimental.Accessors;
 import org.dromara.x.file.storage.core.aspect.DownloadAspectChain;
 import org.dromara.x.file.storage.core.aspect.DownloadThAspectChain;
 import org.dromara.x.file.storage.core.aspect.FileStorageAspect;
+import org.dromara.x.file.storage.core.aspect.FileStorageAspectTable;
 import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
 import org.dromara.x.file.storage.core.hash.HashCalculator;
 import org.dromara.x.file.storage.core.hash.HashCalculatorManager;
 import org.dromara.x.file.storage.core.hash.HashCalculatorSetter;
 import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.platform.FileStorageRegistry;
 
 /**
  * 下载器
@@ -33,7 +35,12 @@ public class Downloader implements ProgressListenerSetter<Downloader>, HashCalcu
     public static final int TARGET_TH_FILE = 2;
 
     private final FileStorage fileStorage;
-    private final List<FileStorageAspect> aspectList;
+    /**
+     * 不为 null 时每次下载都通过它获取存储平台，下载期间存储平台标记为使用中
+     */
+    private final FileStorageService fileStorageService;
+
+    private final FileStorageAspectTable aspectTable;
     private final FileInfo fileInfo;
     private final Integer target;
 
@@ -54,8 +61,36 @@ public class Downloader implements ProgressListenerSetter<Downloader>, HashCalcu
      * @param target 下载目标：{@link Downloader#TARGET_FILE}下载文件，{@link Downloader#TARGET_TH_FILE}下载缩略图文件
      */
     public Downloader(FileInfo fileInfo, List<FileStorageAspect> aspectList, FileStorage fileStorage, Integer target) {
+        this(fileInfo, new FileStorageAspectTable(aspectList), fileStorage, target);
+    }
+
+    /**
+     * 通过切面表构造下载器
+     *
+     * @param target 下载目标：{@link Downloader#TARGET_FILE}下载文件，{@link Downloader#TARGET_TH_FILE}下载缩略图文件
+     */
+    public Downloader(FileInfo fileInfo, FileStorageAspectTable aspectTable, FileStorage fileStorage, Integer target) {
         this.fileStorage = fileStorage;
-        this.aspectList = aspectList;
+        this.fileStorageService = null;
+        this.aspectTable = aspectTable;
+        this.fileInfo = fileInfo;
+        this.target = target;
+    }
+
+    /**
+     * 通过 FileStorageService 构造下载器，每次下载时获取对应的存储平台并标记为使用中，
+     * 直到 InputStream 处理完成后才释放，下载期间存储平台被替换或移除时会等待下载完成后再释放资源
+     *
+     * @param target 下载目标：{@link Downloader#TARGET_FILE}下载文件，{@link Downloader#TARGET_TH_FILE}下载缩略图文件
+     */
+    public Downloader(
+            FileInfo fileInfo,
+            FileStorageAspectTable aspectTable,
+            FileStorageService fileStorageService,
+            Integer target) {
+        this.fileStorage = null;
+        this.fileStorageService = fileStorageService;
+        this.aspectTable = aspectTable;
         this.fileInfo = fileInfo;
         this.target = target;
     }
@@ -84,9 +119,22 @@ public class Downloader implements ProgressListenerSetter<Downloader>, HashCalcu
      * 获取 InputStream ，在此方法结束后会自动关闭 InputStream
      */
     public void inputStream(Consumer<InputStream> consumer) {
+        if (fileStorageService == null) {
+            inputStream(fileStorage, consumer);
+            return;
+        }
+        try (FileStorageRegistry.Lease lease = fileStorageService.acquireFileStorageVerify(fileInfo.getPlatform())) {
+            inputStream(lease.getFileStorage(), consumer);
+        }
+    }
+
+    /**
+     * 通过指定的存储平台下载
+     */
+    private void inputStream(FileStorage fileStorage, Consumer<InputStream> consumer) {
         if (target == TARGET_FILE) { // 下载文件
             new DownloadAspectChain(
-                            aspectList,
+                            aspectTable,
                             (_fileInfo, _fileStorage, _consumer) -> _fileStorage.download(_fileInfo, _consumer))
                     .next(
                             fileInfo,
@@ -95,7 +143,7 @@ public class Downloader implements ProgressListenerSetter<Downloader>, HashCalcu
                                     in, progressListener, fileInfo.getSize(), hashCalculatorManager)));
         } else if (target == TARGET_TH_FILE) { // 下载缩略图文件
             new DownloadThAspectChain(
-                            aspectList,
+                            aspectTable,
                             (_fileInfo, _fileStorage, _consumer) -> _fileStorage.downloadTh(_fileInfo, _consumer))
                     .next(
                             fileInfo,
@@ -9,6 +9,7 @@ import lombok.NoArgsConstructor;
 import lombok.experimental.Accessors;
 import org.dromara.x.file.storage.core.constant.Constant;
 import org.dromara.x.file.storage.core.hash.HashInfo;
+import org.dromara.x.file.storage.core.upload.ThumbnailVariantInfo;
 
 @Data
 @Accessors(chain = true)
@@ -85,6 +86,11 @@ public class FileInfo implements Serializable {
      */
     private String thContentType;
 
+    /**
+     * 多规格缩略图信息，key 为规格名称，没有多规格缩略图时为 null
+     */
+    private Map<String, ThumbnailVariantInfo> thVariants;
+
     /**
      * 文件所属对象id
      */
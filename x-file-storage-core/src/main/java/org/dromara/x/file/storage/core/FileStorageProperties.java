@@ -55,6 +55,46 @@ public class FileStorageProperties {
      */
     private Boolean moveNotSupportAclThrowException = true;
 
+    /**
+     * 自动分片上传时使用的分片缓冲池
+     */
+    private PartBufferPoolConfig partBufferPool = new PartBufferPoolConfig();
+
+    /**
+     * 缩略图生成配置
+     */
+    private ThumbnailConfig thumbnail = new ThumbnailConfig();
+
+    /**
+     * 可重复读取的流配置，上传 InputStream、URI、HttpServletRequest 时使用
+     */
+    private ReplayableStreamConfig replayableStream = new ReplayableStreamConfig();
+
+    /**
+     * 预签名 URL 缓存配置
+     */
+    private PresignedUrlCacheConfig presignedUrlCache = new PresignedUrlCacheConfig();
+
+    /**
+     * 文件元数据缓存配置
+     */
+    private MetadataCacheConfig metadataCache = new MetadataCacheConfig();
+
+    /**
+     * 本地日志文件记录者配置
+     */
+    private LogRecorderConfig logRecorder = new LogRecorderConfig();
+
+    /**
+     * 文件记录延迟批量写入配置
+     */
+    private WriteBehindRecorderConfig writeBehindRecorder = new WriteBehindRecorderConfig();
+
+    /**
+     * 文件记录缓存配置
+     */
+    private RecorderCacheConfig recorderCache = new RecorderCacheConfig();
+
     /**
      * 本地存储
      */
@@ -155,6 +195,254 @@ public class FileStorageProperties {
      */
     private List<? extends VolcengineTosConfig> volcengineTos = new ArrayList<>();
 
+    /**
+     * 分片缓冲池配置
+     */
+    @Data
+    @Accessors(chain = true)
+    public static class PartBufferPoolConfig {
+
+        /**
+         * 启用分片缓冲池，关闭后每个分片都会重新分配内存
+         */
+        private Boolean enable = false;
+
+        /**
+         * 使用堆外内存（DirectByteBuffer）作为分片缓冲区
+         */
+        private Boolean direct = false;
+
+        /**
+         * 所有分片缓冲区可占用的内存上限，单位字节，包括正在使用的和空闲的，默认 0（不限制）。
+         * 达到上限后新的分片会等待其它分片上传完成并归还缓冲区，或者在开启 spillToDisk 后写入临时文件
+         */
+        private long memoryLimit = 0;
+
+        /**
+         * 空闲缓冲区最多保留的大小，单位字节，超出部分在归还时直接释放，默认 64MB
+         */
+        private long maxIdleSize = 64 * 1024 * 1024;
+
+        /**
+         * 内存达到上限时是否将分片写入临时文件，而不是等待
+         */
+        private Boolean spillToDisk = false;
+
+        /**
+         * 临时文件所在目录，默认为系统临时目录
+         */
+        private String spillDir = "";
+    }
+
+    /**
+     * 缩略图生成配置
+     */
+    @Data
+    @Accessors(chain = true)
+    public static class ThumbnailConfig {
+
+        /**
+         * 异步生成缩略图，开启后缩略图在独立的线程池中生成，并与原文件同时上传，
+         * 不支持单独上传缩略图的存储平台（例如 FastDFS）会在上传原文件前等待缩略图生成完成
+         */
+        private Boolean async = false;
+
+        /**
+         * 生成缩略图的线程数，默认 0（CPU 核心数）
+         */
+        private int poolSize = 0;
+
+        /**
+         * 等待生成缩略图的任务队列长度，队列满了以后在调用者线程中生成，默认 256，0 表示不限制
+         */
+        private int queueCapacity = 256;
+
+        /**
+         * 同时生成缩略图时解码后的图片可占用的内存上限，单位字节，按 宽 * 高 * 4 估算，默认 256MB，0 表示不限制
+         */
+        private long memoryLimit = 256 * 1024 * 1024;
+
+        /**
+         * 不等待缩略图上传完成，原文件上传成功后立即返回，
+         * 缩略图上传完成后再填充 FileInfo 中缩略图相关的属性（例如 thUrl），并通过 FileRecorder.update 更新记录
+         */
+        private Boolean fireAndForget = false;
+    }
+
+    /**
+     * 可重复读取的流配置，识别 MIME 类型、生成缩略图等需要重复读取流时，
+     * 读取的数据先保存在内存中，超过内存阈值的部分写入临时文件，避免将整个文件保存在内存中
+     */
+    @Data
+    @Accessors(chain = true)
+    public static class ReplayableStreamConfig {
+
+        /**
+         * 内存中最多保存的字节数，超过的部分写入临时文件，默认 1MB
+         */
+        private long memoryThreshold = 1024 * 1024;
+
+        /**
+         * 临时文件目录，默认使用系统临时目录
+         */
+        private String tempDir;
+    }
+
+    /**
+     * 预签名 URL 缓存配置，开启后剩余有效期足够的预签名 URL 会被直接复用，避免重复签名
+     */
+    @Data
+    @Accessors(chain = true)
+    public static class PresignedUrlCacheConfig {
+
+        /**
+         * 启用预签名 URL 缓存，默认 false
+         */
+        private Boolean enable = false;
+
+        /**
+         * 最大缓存数量，超过后淘汰最久未使用的，默认 10000
+         */
+        private int maxSize = 10000;
+
+        /**
+         * 缓存的 URL 剩余有效期至少为本次要求的有效期的多少比例时才复用，取值 0 ~ 1，默认 0.5
+         */
+        private double minRemainingRatio = 0.5;
+    }
+
+    /**
+     * 文件元数据缓存配置，开启后缓存 exists 及 getFile 的结果，通过同一个 FileStorageService 修改文件时自动清除对应的缓存
+     */
+    @Data
+    @Accessors(chain = true)
+    public static class MetadataCacheConfig {
+
+        /**
+         * 启用文件元数据缓存，默认 false
+         */
+        private Boolean enable = false;
+
+        /**
+         * 最大缓存数量，超过后淘汰最久未使用的，默认 10000
+         */
+        private int maxSize = 10000;
+
+        /**
+         * 文件存在时的缓存时间，单位毫秒，默认 60 秒
+         */
+        private long ttl = 60000;
+
+        /**
+         * 文件不存在时的缓存时间，单位毫秒，默认 5 秒，0 表示不缓存
+         */
+        private long negativeTtl = 5000;
+    }
+
+    /**
+     * 本地日志文件记录者配置，开启后在未设置 FileRecorder 时将文件记录保存到本地追加日志中
+     */
+    @Data
+    @Accessors(chain = true)
+    public static class LogRecorderConfig {
+
+        /**
+         * 启用本地日志文件记录者，默认 false
+         */
+        private Boolean enable = false;
+
+        /**
+         * 存储目录，默认 ./x-file-storage-recorder
+         */
+        private String storagePath = "./x-file-storage-recorder";
+
+        /**
+         * 每个日志段的最大大小，单位字节，最小 1MB，默认 64MB
+         */
+        private int segmentSize = 64 * 1024 * 1024;
+
+        /**
+         * 刷盘间隔，单位毫秒，0 表示每次写入后立即刷盘，默认 1000
+         */
+        private long syncInterval = 1000;
+
+        /**
+         * 垃圾记录占比超过此值时开始整理，默认 0.5
+         */
+        private double compactRatio = 0.5;
+
+        /**
+         * 检查是否需要整理的时间间隔，单位毫秒，0 表示不自动整理，默认 60000
+         */
+        private long compactInterval = 60000;
+    }
+
+    /**
+     * 文件记录延迟批量写入配置，开启后保存文件记录及文件分片信息时先放入队列，由后台线程批量写入
+     */
+    @Data
+    @Accessors(chain = true)
+    public static class WriteBehindRecorderConfig {
+
+        /**
+         * 启用延迟批量写入，默认 false
+         */
+        private Boolean enable = false;
+
+        /**
+         * 每批写入的最大数量，队列中的数量达到此值时立即写入，默认 100
+         */
+        private int batchSize = 100;
+
+        /**
+         * 写入的时间间隔，单位毫秒，默认 1000
+         */
+        private long flushInterval = 1000;
+
+        /**
+         * 队列最大长度，队列满了以后在调用者线程中写入，默认 10000，0 表示不限制
+         */
+        private int maxQueueSize = 10000;
+
+        /**
+         * 通过 url 获取文件记录时是否先从队列中查找还未写入的记录，默认 true
+         */
+        private Boolean readPending = true;
+
+        /**
+         * 写入失败的记录最多重试的次数，每次批量写入时重试一次，超过后丢弃，默认 3
+         */
+        private int maxRetries = 3;
+    }
+
+    /**
+     * 文件记录缓存配置，开启后缓存通过 url 获取的文件记录，通过 FileRecorder 修改记录时自动清除对应的缓存
+     */
+    @Data
+    @Accessors(chain = true)
+    public static class RecorderCacheConfig {
+
+        /**
+         * 启用文件记录缓存，默认 false
+         */
+        private Boolean enable = false;
+
+        /**
+         * 最大缓存数量，超过后淘汰最久未使用的，默认 10000
+         */
+        private int maxSize = 10000;
+
+        /**
+         * 缓存时间，单位毫秒，默认 60 秒
+         */
+        private long ttl = 60000;
+
+        /**
+         * 分段数量，每段单独加锁，一般设置为同时查询的线程数，默认 16
+         */
+        private int concurrencyLevel = 16;
+    }
+
     /**
      * 基本的存储平台配置
      */
@@ -216,6 +504,12 @@ public class FileStorageProperties {
          */
         private String domain = "";
 
+        /**
+         * 列举文件时缓存的目录数量，缓存目录中按名称排序后的全部名称，目录的修改时间变化后重新读取，
+         * 适合多次分页列举同一个大目录，默认 0 表示不缓存
+         */
+        private Integer listCacheSize = 0;
+
         /**
          * 其它自定义配置
          */
@@ -263,6 +557,17 @@ public class FileStorageProperties {
          */
         private int multipartPartSize = 32 * 1024 * 1024;
 
+        /**
+         * 自动分片上传时同时上传的分片数量，默认 1（逐个分片上传）。
+         * 调大可以提升大文件的上传速度，但会占用更多内存，最多约为 (并发数量 + 1) * 分片大小
+         */
+        private int multipartConcurrency = 1;
+
+        /**
+         * 自动分片上传时单个分片上传失败后的重试次数，默认 0（不重试）
+         */
+        private int multipartRetryTimes = 0;
+
         /**
          * 其它自定义配置
          */
@@ -310,6 +615,17 @@ public class FileStorageProperties {
          */
         private int multipartPartSize = 32 * 1024 * 1024;
 
+        /**
+         * 自动分片上传时同时上传的分片数量，默认 1（逐个分片上传）。
+         * 调大可以提升大文件的上传速度，但会占用更多内存，最多约为 (并发数量 + 1) * 分片大小
+         */
+        private int multipartConcurrency = 1;
+
+        /**
+         * 自动分片上传时单个分片上传失败后的重试次数，默认 0（不重试）
+         */
+        private int multipartRetryTimes = 0;
+
         /**
          * 其它自定义配置
          */
@@ -387,6 +703,17 @@ public class FileStorageProperties {
          */
         private int multipartPartSize = 32 * 1024 * 1024;
 
+        /**
+         * 自动分片上传时同时上传的分片数量，默认 1（逐个分片上传）。
+         * 调大可以提升大文件的上传速度，但会占用更多内存，最多约为 (并发数量 + 1) * 分片大小
+         */
+        private int multipartConcurrency = 1;
+
+        /**
+         * 自动分片上传时单个分片上传失败后的重试次数，默认 0（不重试）
+         */
+        private int multipartRetryTimes = 0;
+
         /**
          * 其它自定义配置
          */
@@ -434,6 +761,17 @@ public class FileStorageProperties {
          */
         private int multipartPartSize = 32 * 1024 * 1024;
 
+        /**
+         * 自动分片上传时同时上传的分片数量，默认 1（逐个分片上传）。
+         * 调大可以提升大文件的上传速度，但会占用更多内存，最多约为 (并发数量 + 1) * 分片大小
+         */
+        private int multipartConcurrency = 1;
+
+        /**
+         * 自动分片上传时单个分片上传失败后的重试次数，默认 0（不重试）
+         */
+        private int multipartRetryTimes = 0;
+
         /**
          * 其它自定义配置
          */
@@ -561,6 +899,17 @@ public class FileStorageProperties {
          */
         private int multipartPartSize = 32 * 1024 * 1024;
 
+        /**
+         * 自动分片上传时同时上传的分片数量，默认 1（逐个分片上传）。
+         * 调大可以提升大文件的上传速度，但会占用更多内存，最多约为 (并发数量 + 1) * 分片大小
+         */
+        private int multipartConcurrency = 1;
+
+        /**
+         * 自动分片上传时单个分片上传失败后的重试次数，默认 0（不重试）
+         */
+        private int multipartRetryTimes = 0;
+
         /**
          * 其它自定义配置
          */
@@ -610,6 +959,17 @@ public class FileStorageProperties {
          */
         private int multipartPartSize = 32 * 1024 * 1024;
 
+        /**
+         * 自动分片上传时同时上传的分片数量，默认 1（逐个分片上传）。
+         * 调大可以提升大文件的上传速度，但会占用更多内存，最多约为 (并发数量 + 1) * 分片大小
+         */
+        private int multipartConcurrency = 1;
+
+        /**
+         * 自动分片上传时单个分片上传失败后的重试次数，默认 0（不重试）
+         */
+        private int multipartRetryTimes = 0;
+
         /**
          * 其它自定义配置
          */
@@ -695,6 +1055,12 @@ public class FileStorageProperties {
          */
         private CommonClientPoolConfig pool = new CommonClientPoolConfig();
 
+        /**
+         * 列举文件时缓存目录列表的时间，单位毫秒，列举第一页时重新读取目录，之后的分页在缓存时间内直接使用缓存，
+         * 通过同一个存储平台上传、删除、移动文件时会清除对应目录的缓存，默认 0 表示不缓存
+         */
+        private long listCacheTtl = 0;
+
         /**
          * 其它自定义配置
          */
@@ -764,6 +1130,12 @@ public class FileStorageProperties {
          */
         private CommonClientPoolConfig pool = new CommonClientPoolConfig();
 
+        /**
+         * 列举文件时缓存目录列表的时间，单位毫秒，列举第一页时重新读取目录，之后的分页在缓存时间内直接使用缓存，
+         * 通过同一个存储平台上传、删除、移动文件时会清除对应目录的缓存，默认 0 表示不缓存
+         */
+        private long listCacheTtl = 0;
+
         /**
          * 其它自定义配置
          */
@@ -1206,6 +1578,17 @@ public class FileStorageProperties {
          */
         private int multipartPartSize = 32 * 1024 * 1024;
 
+        /**
+         * 自动分片上传时同时上传的分片数量，默认 1（逐个分片上传）。
+         * 调大可以提升大文件的上传速度，但会占用更多内存，最多约为 (并发数量 + 1) * 分片大小
+         */
+        private int multipartConcurrency = 1;
+
+        /**
+         * 自动分片上传时单个分片上传失败后的重试次数，默认 0（不重试）
+         */
+        private int multipartRetryTimes = 0;
+
         /**
          * 其它自定义配置
          */
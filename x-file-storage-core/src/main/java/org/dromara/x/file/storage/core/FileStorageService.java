@@ -1,18 +1,29 @@
 package org.dromara.x.file.storage.core;
 
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.io.file.FileNameUtil;
 import cn.hutool.core.util.ReflectUtil;
 import cn.hutool.core.util.StrUtil;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.dromara.x.file.storage.core.aspect.*;
 import org.dromara.x.file.storage.core.constant.Constant;
 import org.dromara.x.file.storage.core.copy.CopyPretreatment;
+import org.dromara.x.file.storage.core.delete.DeleteBatchActuator;
+import org.dromara.x.file.storage.core.delete.DeleteDirPretreatment;
 import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
 import org.dromara.x.file.storage.core.file.FileWrapper;
 import org.dromara.x.file.storage.core.file.FileWrapperAdapter;
@@ -24,9 +35,15 @@ import org.dromara.x.file.storage.core.get.ListFilesSupportInfo;
 import org.dromara.x.file.storage.core.get.RemoteFileInfo;
 import org.dromara.x.file.storage.core.move.MovePretreatment;
 import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.platform.FileStorageRegistry;
+import org.dromara.x.file.storage.core.presigned.BatchGeneratePresignedUrlActuator;
 import org.dromara.x.file.storage.core.presigned.GeneratePresignedUrlPretreatment;
 import org.dromara.x.file.storage.core.presigned.GeneratePresignedUrlResult;
+import org.dromara.x.file.storage.core.presigned.PresignedUrlCache;
+import org.dromara.x.file.storage.core.recorder.CachingFileRecorder;
 import org.dromara.x.file.storage.core.recorder.FileRecorder;
+import org.dromara.x.file.storage.core.recorder.LogFileRecorder;
+import org.dromara.x.file.storage.core.recorder.WriteBehindFileRecorder;
 import org.dromara.x.file.storage.core.tika.ContentTypeDetect;
 import org.dromara.x.file.storage.core.upload.*;
 import org.dromara.x.file.storage.core.upload.MultipartUploadSupportInfo;
@@ -44,10 +61,27 @@ public class FileStorageService {
     private FileStorageService self;
     private FileStorageProperties properties;
     private FileRecorder fileRecorder;
-    private CopyOnWriteArrayList<FileStorage> fileStorageList;
+    private FileStorageRegistry fileStorageRegistry = new FileStorageRegistry();
     private CopyOnWriteArrayList<FileStorageAspect> aspectList;
     private CopyOnWriteArrayList<FileWrapperAdapter> fileWrapperAdapterList;
     private ContentTypeDetect contentTypeDetect;
+    private PartBufferPool partBufferPool;
+    private ExecutorService partUploadExecutor;
+    private ExecutorService deleteExecutor;
+    private ExecutorService listFilesExecutor;
+    private ExecutorService thumbnailUploadExecutor;
+    private ExecutorService hashExecutor;
+    private ExecutorService presignedUrlExecutor;
+    /**
+     * 由 FileStorageServiceBuilder 创建的线程池，销毁时关闭，通过构造器传入的线程池需要自行关闭
+     */
+    private CopyOnWriteArrayList<ExecutorService> ownedExecutorList = new CopyOnWriteArrayList<>();
+    private ThumbnailPipeline thumbnailPipeline;
+    private PresignedUrlCache presignedUrlCache;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile FileStorageAspectTable aspectTableCache;
 
     /**
      * 获取默认的存储平台，请使用 getProperties().getDefaultPlatform() 代替
@@ -76,12 +110,81 @@ public class FileStorageService {
      * 获取对应的存储平台
      */
     public <T extends FileStorage> T getFileStorage(String platform) {
-        for (FileStorage fileStorage : fileStorageList) {
-            if (fileStorage.getPlatform().equals(platform)) {
-                return Tools.cast(fileStorage);
-            }
-        }
-        return null;
+        return Tools.cast(fileStorageRegistry.get(platform));
+    }
+
+    /**
+     * 获取当前切面列表的切面表，切面列表变化后会自动重新创建
+     */
+    public FileStorageAspectTable getAspectTable() {
+        return getAspectTable(aspectList);
+    }
+
+    /**
+     * 获取指定切面列表的切面表，与当前切面列表一致时使用缓存的切面表
+     */
+    public FileStorageAspectTable getAspectTable(List<FileStorageAspect> aspectList) {
+        FileStorageAspectTable table = aspectTableCache;
+        if (table != null && table.matches(aspectList)) return table;
+        table = new FileStorageAspectTable(aspectList);
+        if (aspectList == this.aspectList) aspectTableCache = table;
+        return table;
+    }
+
+    /**
+     * 获取对应的存储平台并标记为使用中，如果存储平台不存在则抛出异常，使用完后需要关闭返回的 Lease，
+     * 存储平台在使用中被替换或移除时，会等待使用完成后再释放资源
+     */
+    public FileStorageRegistry.Lease acquireFileStorageVerify(String platform) {
+        FileStorageRegistry.Lease lease = fileStorageRegistry.acquire(platform);
+        if (lease == null)
+            throw new FileStorageRuntimeException(StrUtil.format("没有找到对应的存储平台！platform:{}", platform));
+        return lease;
+    }
+
+    /**
+     * 增加存储平台，平台名称已存在时抛出异常
+     */
+    public void addFileStorage(FileStorage fileStorage) {
+        fileStorageRegistry.add(fileStorage);
+    }
+
+    /**
+     * 增加或替换存储平台，被替换的存储平台会在正在进行的操作完成后释放资源
+     * @return 被替换的存储平台，没有时返回 null
+     */
+    public <T extends FileStorage> T replaceFileStorage(FileStorage fileStorage) {
+        FileStorage old = fileStorageRegistry.replace(fileStorage);
+        if (old != null && presignedUrlCache != null) presignedUrlCache.invalidate(old.getPlatform());
+        return Tools.cast(old);
+    }
+
+    /**
+     * 移除存储平台，被移除的存储平台会在正在进行的操作完成后释放资源
+     * @return 被移除的存储平台，没有时返回 null
+     */
+    public <T extends FileStorage> T removeFileStorage(String platform) {
+        FileStorage old = fileStorageRegistry.remove(platform);
+        if (old != null && presignedUrlCache != null) presignedUrlCache.invalidate(platform);
+        return Tools.cast(old);
+    }
+
+    /**
+     * 获取全部存储平台，读取的是获取时的快照，增加、删除会同步到存储平台注册表，不支持按位置修改及排序，
+     * 请使用 getFileStorageRegistry() 或 addFileStorage、replaceFileStorage、removeFileStorage 代替
+     */
+    @Deprecated
+    public CopyOnWriteArrayList<FileStorage> getFileStorageList() {
+        return new FileStorageListView(fileStorageRegistry);
+    }
+
+    /**
+     * 使用指定的存储平台列表替换全部存储平台，被替换的存储平台不会释放资源，
+     * 请使用 setFileStorageRegistry() 代替
+     */
+    @Deprecated
+    public void setFileStorageList(CopyOnWriteArrayList<FileStorage> fileStorageList) {
+        fileStorageRegistry = new FileStorageRegistry(fileStorageList);
     }
 
     /**
@@ -143,9 +246,10 @@ public class FileStorageService {
     public boolean delete(FileInfo fileInfo, Predicate<FileInfo> predicate) {
         if (fileInfo == null) return true;
         if (predicate != null && !predicate.test(fileInfo)) return false;
-        FileStorage fileStorage = self.getFileStorage(fileInfo.getPlatform());
-        if (fileStorage == null) throw new FileStorageRuntimeException("没有找到对应的存储平台！");
-        return self.delete(fileInfo, fileStorage, fileRecorder, aspectList);
+        try (FileStorageRegistry.Lease lease = fileStorageRegistry.acquire(fileInfo.getPlatform())) {
+            if (lease == null) throw new FileStorageRuntimeException("没有找到对应的存储平台！");
+            return self.delete(fileInfo, lease.getFileStorage(), fileRecorder, aspectList);
+        }
     }
 
     /**
@@ -153,8 +257,9 @@ public class FileStorageService {
      */
     public boolean delete(
             FileInfo fileInfo, FileStorage fileStorage, FileRecorder fileRecorder, List<FileStorageAspect> aspectList) {
-        return new DeleteAspectChain(aspectList, (_fileInfo, _fileStorage, _fileRecorder) -> {
+        return new DeleteAspectChain(getAspectTable(aspectList), (_fileInfo, _fileStorage, _fileRecorder) -> {
                     if (_fileStorage.delete(_fileInfo)) { // 删除文件
+                        deleteThumbnailVariants(_fileInfo, _fileStorage); // 删除多规格缩略图
                         return _fileRecorder.delete(_fileInfo.getUrl()); // 删除文件记录
                     }
                     return false;
@@ -162,6 +267,87 @@ public class FileStorageService {
                 .next(fileInfo, fileStorage, fileRecorder);
     }
 
+    /**
+     * 批量删除文件，按存储平台分组，支持的存储平台通过原生的批量删除接口删除，其它存储平台并发逐个删除，
+     * 返回与传入的文件顺序一致的结果，成功为 true，文件为 null 时对应的结果也为 true
+     */
+    public List<Boolean> deleteBatch(List<FileInfo> fileInfoList) {
+        return new DeleteBatchActuator(self, fileInfoList).execute();
+    }
+
+    /**
+     * 根据 url 批量删除文件，返回与传入的 url 顺序一致的结果
+     */
+    public List<Boolean> deleteBatchByUrl(List<String> urlList) {
+        List<FileInfo> fileInfoList = new ArrayList<>(urlList.size());
+        for (String url : urlList) fileInfoList.add(getFileInfoByUrl(url));
+        return self.deleteBatch(fileInfoList);
+    }
+
+    /**
+     * 删除目录，递归删除目录中的全部文件，只删除存储平台中的文件，不会删除对应的文件记录
+     */
+    public DeleteDirPretreatment deleteDir() {
+        DeleteDirPretreatment pre = new DeleteDirPretreatment();
+        pre.setPlatform(properties.getDefaultPlatform());
+        pre.setFileStorageService(self);
+        return pre;
+    }
+
+    /**
+     * 删除多规格缩略图
+     */
+    private void deleteThumbnailVariants(FileInfo fileInfo, FileStorage fileStorage) {
+        if (fileInfo.getThVariants() == null) return;
+        for (ThumbnailVariantInfo variant : fileInfo.getThVariants().values()) {
+            fileStorage.delete(getThumbnailVariantFileInfo(fileInfo, variant));
+        }
+    }
+
+    /**
+     * 将多规格缩略图转换成一个单独的文件信息
+     */
+    public FileInfo getThumbnailVariantFileInfo(FileInfo fileInfo, ThumbnailVariantInfo variant) {
+        return new FileInfo(fileInfo.getBasePath(), fileInfo.getPath(), variant.getFilename())
+                .setPlatform(fileInfo.getPlatform())
+                .setUrl(variant.getUrl())
+                .setSize(variant.getSize())
+                .setContentType(variant.getContentType());
+    }
+
+    /**
+     * 获取移动或复制后多规格缩略图的文件名，将规格文件名中与源缩略图（没有缩略图时为源文件）名称相同的开头部分替换成目标的名称，
+     * 例如源缩略图为【aaa.min.jpg】，规格为【aaa.list.jpg】，目标缩略图为【bbb.min.jpg】时返回【bbb.list.jpg】
+     * @param srcFileInfo 源文件信息
+     * @param variantName 规格名称
+     * @param variant 源规格信息
+     * @param filename 目标文件名
+     * @param thFilename 目标缩略图文件名
+     */
+    public String getThumbnailVariantFilename(
+            FileInfo srcFileInfo,
+            String variantName,
+            ThumbnailVariantInfo variant,
+            String filename,
+            String thFilename) {
+        String variantFilename = variant.getFilename();
+        String srcThFilename = srcFileInfo.getThFilename();
+        if (StrUtil.isNotBlank(srcThFilename) && StrUtil.isNotBlank(thFilename)) {
+            int length = 0;
+            int maxLength = Math.min(srcThFilename.length(), variantFilename.length());
+            while (length < maxLength && srcThFilename.charAt(length) == variantFilename.charAt(length)) length++;
+            String srcThSuffix = srcThFilename.substring(length);
+            if (length > 0 && thFilename.endsWith(srcThSuffix)) {
+                return thFilename.substring(0, thFilename.length() - srcThSuffix.length())
+                        + variantFilename.substring(length);
+            }
+        }
+        if (variantFilename.startsWith(srcFileInfo.getFilename())) {
+            return filename + variantFilename.substring(srcFileInfo.getFilename().length());
+        }
+        return filename + "." + variantName + "." + FileNameUtil.extName(variantFilename);
+    }
+
     /**
      * 文件是否存在
      */
@@ -174,15 +360,17 @@ public class FileStorageService {
      */
     public boolean exists(FileInfo fileInfo) {
         if (fileInfo == null) return false;
-        return new ExistsAspectChain(aspectList, (_fileInfo, _fileStorage) -> _fileStorage.exists(_fileInfo))
-                .next(fileInfo, getFileStorageVerify(fileInfo));
+        try (FileStorageRegistry.Lease lease = self.acquireFileStorageVerify(fileInfo.getPlatform())) {
+            return new ExistsAspectChain(getAspectTable(), (_fileInfo, _fileStorage) -> _fileStorage.exists(_fileInfo))
+                    .next(fileInfo, lease.getFileStorage());
+        }
     }
 
     /**
      * 获取文件下载器
      */
     public Downloader download(FileInfo fileInfo) {
-        return new Downloader(fileInfo, aspectList, getFileStorageVerify(fileInfo), Downloader.TARGET_FILE);
+        return new Downloader(fileInfo, getAspectTable(), self, Downloader.TARGET_FILE);
     }
 
     /**
@@ -196,7 +384,7 @@ public class FileStorageService {
      * 获取缩略图文件下载器
      */
     public Downloader downloadTh(FileInfo fileInfo) {
-        return new Downloader(fileInfo, aspectList, getFileStorageVerify(fileInfo), Downloader.TARGET_TH_FILE);
+        return new Downloader(fileInfo, getAspectTable(), self, Downloader.TARGET_TH_FILE);
     }
 
     /**
@@ -206,6 +394,35 @@ public class FileStorageService {
         return self.downloadTh(getFileInfoByUrl(url));
     }
 
+    /**
+     * 获取多规格缩略图文件下载器
+     * @param fileInfo 文件信息
+     * @param variantName 规格名称
+     */
+    public Downloader downloadTh(FileInfo fileInfo, String variantName) {
+        ThumbnailVariantInfo variant = fileInfo == null || fileInfo.getThVariants() == null
+                ? null
+                : fileInfo.getThVariants().get(variantName);
+        if (variant == null) {
+            throw new FileStorageRuntimeException(StrUtil.format("没有找到对应的缩略图规格！variantName:{}", variantName));
+        }
+        FileInfo variantFileInfo = BeanUtil.copyProperties(fileInfo, FileInfo.class);
+        variantFileInfo.setThUrl(variant.getUrl());
+        variantFileInfo.setThFilename(variant.getFilename());
+        variantFileInfo.setThSize(variant.getSize());
+        variantFileInfo.setThContentType(variant.getContentType());
+        return new Downloader(variantFileInfo, getAspectTable(), self, Downloader.TARGET_TH_FILE);
+    }
+
+    /**
+     * 获取多规格缩略图文件下载器
+     * @param url 文件 url
+     * @param variantName 规格名称
+     */
+    public Downloader downloadTh(String url, String variantName) {
+        return self.downloadTh(getFileInfoByUrl(url), variantName);
+    }
+
     /**
      * 是否支持对文件生成可以签名访问的 URL
      */
@@ -226,7 +443,8 @@ public class FileStorageService {
      */
     public boolean isSupportPresignedUrl(FileStorage fileStorage) {
         if (fileStorage == null) return false;
-        return new IsSupportPresignedUrlAspectChain(aspectList, FileStorage::isSupportPresignedUrl).next(fileStorage);
+        return new IsSupportPresignedUrlAspectChain(getAspectTable(), FileStorage::isSupportPresignedUrl)
+                .next(fileStorage);
     }
 
     /**
@@ -283,6 +501,67 @@ public class FileStorageService {
         return result == null ? null : result.getUrl();
     }
 
+    /**
+     * 批量生成预签名 URL，按存储平台分组，每个存储平台只获取一次，在当前线程中逐个生成，
+     * 返回的结果与传入的预处理器顺序一致，预处理器为 null 时对应的结果也为 null
+     *
+     * @param preList 生成预签名 URL 预处理器，可通过 generatePresignedUrl() 创建
+     */
+    public List<GeneratePresignedUrlResult> generatePresignedUrl(List<GeneratePresignedUrlPretreatment> preList) {
+        return self.generatePresignedUrl(preList, false);
+    }
+
+    /**
+     * 批量生成预签名 URL，按存储平台分组，每个存储平台只获取一次，
+     * 返回的结果与传入的预处理器顺序一致，预处理器为 null 时对应的结果也为 null
+     *
+     * @param preList 生成预签名 URL 预处理器，可通过 generatePresignedUrl() 创建
+     * @param parallel 数量较多时是否在共享的线程池中并行生成，并行生成时切面无法获取调用者线程的上下文（例如 ThreadLocal）
+     */
+    public List<GeneratePresignedUrlResult> generatePresignedUrl(
+            List<GeneratePresignedUrlPretreatment> preList, boolean parallel) {
+        return new BatchGeneratePresignedUrlActuator(self, preList, parallel).execute();
+    }
+
+    /**
+     * 批量对文件生成可以签名访问的 URL，返回的 URL 与传入的文件顺序一致，文件为 null 时对应的 URL 也为 null
+     *
+     * @param expiration 到期时间
+     */
+    public List<String> generatePresignedUrl(List<FileInfo> fileInfoList, Date expiration) {
+        return generatePresignedUrl(fileInfoList, expiration, false);
+    }
+
+    /**
+     * 批量对缩略图文件生成可以签名访问的 URL，返回的 URL 与传入的文件顺序一致，文件为 null 时对应的 URL 也为 null
+     *
+     * @param expiration 到期时间
+     */
+    public List<String> generateThPresignedUrl(List<FileInfo> fileInfoList, Date expiration) {
+        return generatePresignedUrl(fileInfoList, expiration, true);
+    }
+
+    /**
+     * 批量对文件或缩略图文件生成可以签名访问的 URL
+     */
+    private List<String> generatePresignedUrl(List<FileInfo> fileInfoList, Date expiration, boolean th) {
+        List<GeneratePresignedUrlPretreatment> preList = new ArrayList<>(fileInfoList.size());
+        for (FileInfo fileInfo : fileInfoList) {
+            preList.add(fileInfo == null
+                    ? null
+                    : generatePresignedUrl()
+                            .setExpiration(expiration)
+                            .setPlatform(fileInfo.getPlatform())
+                            .setPath(fileInfo.getPath())
+                            .setFilename(th ? fileInfo.getThFilename() : fileInfo.getFilename())
+                            .setMethod(Constant.GeneratePresignedUrl.Method.GET));
+        }
+        List<GeneratePresignedUrlResult> resultList = self.generatePresignedUrl(preList);
+        List<String> urlList = new ArrayList<>(resultList.size());
+        for (GeneratePresignedUrlResult result : resultList) urlList.add(result == null ? null : result.getUrl());
+        return urlList;
+    }
+
     /**
      * 是否支持对文件的访问控制列表
      */
@@ -303,7 +582,7 @@ public class FileStorageService {
      */
     public boolean isSupportAcl(FileStorage fileStorage) {
         if (fileStorage == null) return false;
-        return new IsSupportAclAspectChain(aspectList, FileStorage::isSupportAcl).next(fileStorage);
+        return new IsSupportAclAspectChain(getAspectTable(), FileStorage::isSupportAcl).next(fileStorage);
     }
 
     /**
@@ -312,9 +591,12 @@ public class FileStorageService {
      */
     public boolean setFileAcl(FileInfo fileInfo, Object acl) {
         if (fileInfo == null) return false;
-        return new SetFileAclAspectChain(
-                        aspectList, (_fileInfo, _acl, _fileStorage) -> _fileStorage.setFileAcl(_fileInfo, _acl))
-                .next(fileInfo, acl, self.getFileStorageVerify(fileInfo));
+        try (FileStorageRegistry.Lease lease = self.acquireFileStorageVerify(fileInfo.getPlatform())) {
+            return new SetFileAclAspectChain(
+                            getAspectTable(),
+                            (_fileInfo, _acl, _fileStorage) -> _fileStorage.setFileAcl(_fileInfo, _acl))
+                    .next(fileInfo, acl, lease.getFileStorage());
+        }
     }
 
     /**
@@ -323,9 +605,12 @@ public class FileStorageService {
      */
     public boolean setThFileAcl(FileInfo fileInfo, Object acl) {
         if (fileInfo == null) return false;
-        return new SetThFileAclAspectChain(
-                        aspectList, (_fileInfo, _acl, _fileStorage) -> _fileStorage.setThFileAcl(_fileInfo, _acl))
-                .next(fileInfo, acl, self.getFileStorageVerify(fileInfo));
+        try (FileStorageRegistry.Lease lease = self.acquireFileStorageVerify(fileInfo.getPlatform())) {
+            return new SetThFileAclAspectChain(
+                            getAspectTable(),
+                            (_fileInfo, _acl, _fileStorage) -> _fileStorage.setThFileAcl(_fileInfo, _acl))
+                    .next(fileInfo, acl, lease.getFileStorage());
+        }
     }
 
     /**
@@ -348,7 +633,7 @@ public class FileStorageService {
      */
     public boolean isSupportMetadata(FileStorage fileStorage) {
         if (fileStorage == null) return false;
-        return new IsSupportMetadataAspectChain(aspectList, FileStorage::isSupportMetadata).next(fileStorage);
+        return new IsSupportMetadataAspectChain(getAspectTable(), FileStorage::isSupportMetadata).next(fileStorage);
     }
 
     /**
@@ -414,7 +699,7 @@ public class FileStorageService {
      */
     public MultipartUploadSupportInfo isSupportMultipartUpload(FileStorage fileStorage) {
         if (fileStorage == null) return MultipartUploadSupportInfo.notSupport();
-        return new IsSupportMultipartUploadAspectChain(aspectList, FileStorage::isSupportMultipartUpload)
+        return new IsSupportMultipartUploadAspectChain(getAspectTable(), FileStorage::isSupportMultipartUpload)
                 .next(fileStorage);
     }
 
@@ -518,7 +803,7 @@ public class FileStorageService {
      */
     public ListFilesSupportInfo isSupportListFiles(FileStorage fileStorage) {
         if (fileStorage == null) return ListFilesSupportInfo.notSupport();
-        return new IsSupportListFilesAspectChain(aspectList, FileStorage::isSupportListFiles).next(fileStorage);
+        return new IsSupportListFilesAspectChain(getAspectTable(), FileStorage::isSupportListFiles).next(fileStorage);
     }
 
     /**
@@ -665,7 +950,7 @@ public class FileStorageService {
      */
     public boolean isSupportSameCopy(FileStorage fileStorage) {
         if (fileStorage == null) return false;
-        return new IsSupportSameCopyAspectChain(aspectList, FileStorage::isSupportSameCopy).next(fileStorage);
+        return new IsSupportSameCopyAspectChain(getAspectTable(), FileStorage::isSupportSameCopy).next(fileStorage);
     }
 
     /**
@@ -704,7 +989,7 @@ public class FileStorageService {
      */
     public boolean isSupportSameMove(FileStorage fileStorage) {
         if (fileStorage == null) return false;
-        return new IsSupportSameMoveAspectChain(aspectList, FileStorage::isSupportSameMove).next(fileStorage);
+        return new IsSupportSameMoveAspectChain(getAspectTable(), FileStorage::isSupportSameMove).next(fileStorage);
     }
 
     /**
@@ -728,7 +1013,9 @@ public class FileStorageService {
      * 详情见{@link ReflectUtil#invoke(Object,String,Object...)}
      */
     public <T> T invoke(String platform, String method, Object... args) {
-        return self.invoke((FileStorage) self.getFileStorageVerify(platform), method, args);
+        try (FileStorageRegistry.Lease lease = self.acquireFileStorageVerify(platform)) {
+            return self.invoke(lease.getFileStorage(), method, args);
+        }
     }
 
     /**
@@ -736,17 +1023,131 @@ public class FileStorageService {
      * 详情见{@link ReflectUtil#invoke(Object,String,Object...)}
      */
     public <T> T invoke(FileStorage platform, String method, Object... args) {
-        return new InvokeAspectChain(aspectList, ReflectUtil::invoke).next(platform, method, args);
+        return new InvokeAspectChain(getAspectTable(), ReflectUtil::invoke).next(platform, method, args);
     }
 
     public void destroy() {
-        for (FileStorage fileStorage : fileStorageList) {
+        // 先等待异步缩略图生成及上传完成，它们还会使用存储平台及文件记录者
+        if (thumbnailPipeline != null) thumbnailPipeline.close();
+        // 由外向内关闭内置的文件记录者，先写入延迟批量写入队列中的记录
+        FileRecorder recorder = fileRecorder;
+        if (recorder instanceof CachingFileRecorder) recorder = ((CachingFileRecorder) recorder).getDelegate();
+        if (recorder instanceof WriteBehindFileRecorder) {
             try {
-                fileStorage.close();
-                log.info("销毁存储平台 {} 成功", fileStorage.getPlatform());
+                ((WriteBehindFileRecorder) recorder).close();
             } catch (Exception e) {
-                log.error("销毁存储平台 {} 失败，{}", fileStorage.getPlatform(), e.getMessage(), e);
+                log.error("关闭延迟批量写入的文件记录者失败：{}", e.getMessage(), e);
             }
+            recorder = ((WriteBehindFileRecorder) recorder).getDelegate();
+        }
+        if (recorder instanceof LogFileRecorder) ((LogFileRecorder) recorder).close();
+        fileStorageRegistry.closeAll();
+        if (partBufferPool != null) partBufferPool.clear();
+        if (presignedUrlCache != null) presignedUrlCache.clear();
+        for (ExecutorService executor : ownedExecutorList) executor.shutdown();
+    }
+
+    /**
+     * 兼容之前通过 getFileStorageList() 增减存储平台的写法，读取的是获取时的快照，
+     * 增加、删除会同步到存储平台注册表，删除的存储平台会在正在进行的操作完成后释放资源
+     */
+    private static class FileStorageListView extends CopyOnWriteArrayList<FileStorage> {
+        private final transient FileStorageRegistry registry;
+
+        private FileStorageListView(FileStorageRegistry registry) {
+            super(registry.list());
+            this.registry = registry;
+        }
+
+        @Override
+        public boolean add(FileStorage fileStorage) {
+            registry.add(fileStorage);
+            return super.add(fileStorage);
+        }
+
+        @Override
+        public boolean addIfAbsent(FileStorage fileStorage) {
+            if (contains(fileStorage)) return false;
+            return add(fileStorage);
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends FileStorage> c) {
+            for (FileStorage fileStorage : c) add(fileStorage);
+            return !c.isEmpty();
+        }
+
+        @Override
+        public int addAllAbsent(Collection<? extends FileStorage> c) {
+            int count = 0;
+            for (FileStorage fileStorage : c) if (addIfAbsent(fileStorage)) count++;
+            return count;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!(o instanceof FileStorage)) return false;
+            boolean removed = registry.remove((FileStorage) o);
+            return super.remove(o) || removed;
+        }
+
+        @Override
+        public FileStorage remove(int index) {
+            FileStorage fileStorage = get(index);
+            remove(fileStorage);
+            return fileStorage;
+        }
+
+        @Override
+        public boolean removeAll(Collection<?> c) {
+            return removeIf(c::contains);
+        }
+
+        @Override
+        public boolean retainAll(Collection<?> c) {
+            return removeIf(fileStorage -> !c.contains(fileStorage));
+        }
+
+        @Override
+        public boolean removeIf(Predicate<? super FileStorage> filter) {
+            boolean removed = false;
+            for (FileStorage fileStorage : this) if (filter.test(fileStorage) && remove(fileStorage)) removed = true;
+            return removed;
+        }
+
+        @Override
+        public void clear() {
+            removeIf(fileStorage -> true);
+        }
+
+        @Override
+        public void add(int index, FileStorage fileStorage) {
+            throw new UnsupportedOperationException("不支持按位置增加存储平台，请使用 addFileStorage");
+        }
+
+        @Override
+        public boolean addAll(int index, Collection<? extends FileStorage> c) {
+            throw new UnsupportedOperationException("不支持按位置增加存储平台，请使用 addFileStorage");
+        }
+
+        @Override
+        public FileStorage set(int index, FileStorage fileStorage) {
+            throw new UnsupportedOperationException("不支持按位置修改存储平台，请使用 replaceFileStorage");
+        }
+
+        @Override
+        public void replaceAll(UnaryOperator<FileStorage> operator) {
+            throw new UnsupportedOperationException("不支持修改存储平台，请使用 replaceFileStorage");
+        }
+
+        @Override
+        public void sort(Comparator<? super FileStorage> c) {
+            throw new UnsupportedOperationException("不支持对存储平台排序");
+        }
+
+        @Override
+        public List<FileStorage> subList(int fromIndex, int toIndex) {
+            return Collections.unmodifiableList(super.subList(fromIndex, toIndex));
         }
     }
 }
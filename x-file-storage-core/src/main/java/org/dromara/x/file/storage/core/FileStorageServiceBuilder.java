@@ -1,6 +1,7 @@
 package org.dromara.x.file.storage.core;
 
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
 import cn.hutool.extra.ftp.Ftp;
 import cn.hutool.extra.ssh.Sftp;
 import com.aliyun.oss.OSS;
@@ -14,6 +15,11 @@ import com.upyun.RestManager;
 import io.minio.MinioClient;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import lombok.Getter;
@@ -22,6 +28,7 @@ import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
 import org.csource.fastdfs.StorageClient;
 import org.dromara.x.file.storage.core.FileStorageProperties.*;
+import org.dromara.x.file.storage.core.aspect.FileMetadataCacheAspect;
 import org.dromara.x.file.storage.core.aspect.FileStorageAspect;
 import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
 import org.dromara.x.file.storage.core.file.*;
@@ -31,12 +38,19 @@ import org.dromara.x.file.storage.core.platform.AzureBlobStorageFileStorageClien
 import org.dromara.x.file.storage.core.platform.GoFastDfsFileStorageClientFactory.GoFastDfsClient;
 import org.dromara.x.file.storage.core.platform.MongoGridFsFileStorageClientFactory.MongoGridFsClient;
 import org.dromara.x.file.storage.core.platform.QiniuKodoFileStorageClientFactory.QiniuKodoClient;
+import org.dromara.x.file.storage.core.presigned.PresignedUrlCache;
+import org.dromara.x.file.storage.core.recorder.CachingFileRecorder;
 import org.dromara.x.file.storage.core.recorder.DefaultFileRecorder;
 import org.dromara.x.file.storage.core.recorder.FileRecorder;
+import org.dromara.x.file.storage.core.recorder.LogFileRecorder;
+import org.dromara.x.file.storage.core.recorder.WriteBehindFileRecorder;
 import org.dromara.x.file.storage.core.tika.ContentTypeDetect;
 import org.dromara.x.file.storage.core.tika.DefaultTikaFactory;
+import org.dromara.x.file.storage.core.tika.FastContentTypeDetect;
 import org.dromara.x.file.storage.core.tika.TikaContentTypeDetect;
 import org.dromara.x.file.storage.core.tika.TikaFactory;
+import org.dromara.x.file.storage.core.upload.PartBufferPool;
+import org.dromara.x.file.storage.core.upload.ThumbnailPipeline;
 import org.dromara.x.file.storage.core.util.Tools;
 
 @Slf4j
@@ -60,6 +74,42 @@ public class FileStorageServiceBuilder {
      * 识别文件的 MIME 类型
      */
     private ContentTypeDetect contentTypeDetect;
+    /**
+     * 分片缓冲池，为 null 时根据配置参数创建
+     */
+    private PartBufferPool partBufferPool;
+    /**
+     * 多个并发分片上传共享的线程池，为 null 时创建默认的线程池
+     */
+    private ExecutorService partUploadExecutor;
+    /**
+     * 批量删除时，存储平台不支持批量删除的情况下并发逐个删除共享的线程池，为 null 时创建默认的线程池
+     */
+    private ExecutorService deleteExecutor;
+    /**
+     * 逐页列举文件及删除目录时在后台列举下一页的线程池，为 null 时创建默认的线程池，不要与删除线程池使用同一个
+     */
+    private ExecutorService listFilesExecutor;
+    /**
+     * 单独上传缩略图及多规格缩略图的线程池，为 null 时创建默认的线程池
+     */
+    private ExecutorService thumbnailUploadExecutor;
+    /**
+     * 上传时开启并行计算哈希但没有指定线程池时使用的线程池，为 null 时创建默认的线程池
+     */
+    private ExecutorService hashExecutor;
+    /**
+     * 开启并行批量生成预签名 URL 时共享的线程池，为 null 时创建默认的线程池
+     */
+    private ExecutorService presignedUrlExecutor;
+    /**
+     * 异步缩略图流水线，为 null 时根据配置参数创建，可以通过它指定生成缩略图的线程池
+     */
+    private ThumbnailPipeline thumbnailPipeline;
+    /**
+     * 预签名 URL 缓存，为 null 时根据配置参数创建
+     */
+    private PresignedUrlCache presignedUrlCache;
     /**
      * 切面
      */
@@ -106,6 +156,23 @@ public class FileStorageServiceBuilder {
         return this;
     }
 
+    /**
+     * 设置快速识别文件的 MIME 类型，先通过内置的常见文件头和缓存识别，识别不了时再交给 Tika 识别，适合大量上传小文件的场景
+     */
+    public FileStorageServiceBuilder setFastContentTypeDetect() {
+        return setFastContentTypeDetect(FastContentTypeDetect.DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * 设置快速识别文件的 MIME 类型，先通过内置的常见文件头和缓存识别，识别不了时再交给 Tika 识别，适合大量上传小文件的场景
+     * @param cacheSize 缓存数量，小于等于 0 时不缓存
+     */
+    public FileStorageServiceBuilder setFastContentTypeDetect(int cacheSize) {
+        if (tikaFactory == null) throw new FileStorageRuntimeException("请先设置 TikaFactory");
+        contentTypeDetect = new FastContentTypeDetect(new TikaContentTypeDetect(tikaFactory), cacheSize);
+        return this;
+    }
+
     /**
      * 添加切面
      */
@@ -136,7 +203,8 @@ public class FileStorageServiceBuilder {
      */
     public FileStorageServiceBuilder addInputStreamFileWrapperAdapter() {
         if (contentTypeDetect == null) throw new FileStorageRuntimeException("请先设置 TikaFactory 和 ContentTypeDetect");
-        fileWrapperAdapterList.add(new InputStreamFileWrapperAdapter(contentTypeDetect));
+        fileWrapperAdapterList.add(
+                new InputStreamFileWrapperAdapter(contentTypeDetect, properties.getReplayableStream()));
         return this;
     }
 
@@ -154,7 +222,7 @@ public class FileStorageServiceBuilder {
      */
     public FileStorageServiceBuilder addUriFileWrapperAdapter() {
         if (contentTypeDetect == null) throw new FileStorageRuntimeException("请先设置 TikaFactory 和 ContentTypeDetect");
-        fileWrapperAdapterList.add(new UriFileWrapperAdapter(contentTypeDetect));
+        fileWrapperAdapterList.add(new UriFileWrapperAdapter(contentTypeDetect, properties.getReplayableStream()));
         return this;
     }
 
@@ -163,10 +231,11 @@ public class FileStorageServiceBuilder {
      */
     public FileStorageServiceBuilder addHttpServletRequestFileWrapperAdapter() {
         if (!doesNotExistClass("javax.servlet.http.HttpServletRequest")) {
-            fileWrapperAdapterList.add(new JavaxHttpServletRequestFileWrapperAdapter());
+            fileWrapperAdapterList.add(new JavaxHttpServletRequestFileWrapperAdapter(properties.getReplayableStream()));
         }
         if (!doesNotExistClass("jakarta.servlet.http.HttpServletRequest")) {
-            fileWrapperAdapterList.add(new JakartaHttpServletRequestFileWrapperAdapter());
+            fileWrapperAdapterList.add(
+                    new JakartaHttpServletRequestFileWrapperAdapter(properties.getReplayableStream()));
         }
         return this;
     }
@@ -255,15 +324,101 @@ public class FileStorageServiceBuilder {
         fileStorageList.addAll(buildGoFastDfsStorage(properties.getGoFastdfs(), clientFactoryList));
         fileStorageList.addAll(buildVolcengineTosFileStorage(properties.getVolcengineTos(), clientFactoryList));
 
+        // 分片缓冲池
+        if (partBufferPool == null) partBufferPool = buildPartBufferPool(properties.getPartBufferPool());
+
+        // 分片上传线程池，由构造器创建的线程池在销毁时关闭
+        List<ExecutorService> ownedExecutorList = new ArrayList<>();
+        ExecutorService servicePartUploadExecutor = partUploadExecutor;
+        if (servicePartUploadExecutor == null) {
+            servicePartUploadExecutor = buildPartUploadExecutor();
+            ownedExecutorList.add(servicePartUploadExecutor);
+        }
+
+        // 批量删除线程池，由构造器创建的线程池在销毁时关闭
+        ExecutorService serviceDeleteExecutor = deleteExecutor;
+        if (serviceDeleteExecutor == null) {
+            serviceDeleteExecutor = buildDeleteExecutor();
+            ownedExecutorList.add(serviceDeleteExecutor);
+        }
+
+        // 逐页列举文件线程池，由构造器创建的线程池在销毁时关闭
+        ExecutorService serviceListFilesExecutor = listFilesExecutor;
+        if (serviceListFilesExecutor == null) {
+            serviceListFilesExecutor = buildListFilesExecutor();
+            ownedExecutorList.add(serviceListFilesExecutor);
+        }
+
+        // 上传缩略图线程池，由构造器创建的线程池在销毁时关闭
+        ExecutorService serviceThumbnailUploadExecutor = thumbnailUploadExecutor;
+        if (serviceThumbnailUploadExecutor == null) {
+            serviceThumbnailUploadExecutor = buildThumbnailUploadExecutor();
+            ownedExecutorList.add(serviceThumbnailUploadExecutor);
+        }
+
+        // 并行计算哈希线程池，由构造器创建的线程池在销毁时关闭
+        ExecutorService serviceHashExecutor = hashExecutor;
+        if (serviceHashExecutor == null) {
+            serviceHashExecutor = buildHashExecutor();
+            ownedExecutorList.add(serviceHashExecutor);
+        }
+
+        // 批量生成预签名 URL 线程池，由构造器创建的线程池在销毁时关闭
+        ExecutorService servicePresignedUrlExecutor = presignedUrlExecutor;
+        if (servicePresignedUrlExecutor == null) {
+            servicePresignedUrlExecutor = buildPresignedUrlExecutor();
+            ownedExecutorList.add(servicePresignedUrlExecutor);
+        }
+
+        // 异步缩略图流水线
+        if (thumbnailPipeline == null) {
+            thumbnailPipeline = buildThumbnailPipeline(properties.getThumbnail(), serviceThumbnailUploadExecutor);
+        }
+
+        // 预签名 URL 缓存
+        if (presignedUrlCache == null) presignedUrlCache = buildPresignedUrlCache(properties.getPresignedUrlCache());
+
+        // 文件元数据缓存切面，放在最后，其它切面依然可以拦截每次调用
+        CopyOnWriteArrayList<FileStorageAspect> serviceAspectList = new CopyOnWriteArrayList<>(aspectList);
+        FileMetadataCacheAspect metadataCacheAspect = buildFileMetadataCacheAspect(properties.getMetadataCache());
+        if (metadataCacheAspect != null) serviceAspectList.add(metadataCacheAspect);
+
+        // 本地日志文件记录者，未设置 FileRecorder 或者使用默认的 FileRecorder 时生效
+        FileRecorder serviceFileRecorder = fileRecorder;
+        if (serviceFileRecorder == null || serviceFileRecorder instanceof DefaultFileRecorder) {
+            LogFileRecorder logFileRecorder = buildLogFileRecorder(properties.getLogRecorder());
+            if (logFileRecorder != null) serviceFileRecorder = logFileRecorder;
+        }
+
+        // 文件记录延迟批量写入
+        WriteBehindFileRecorder writeBehindFileRecorder =
+                buildWriteBehindFileRecorder(serviceFileRecorder, properties.getWriteBehindRecorder());
+        if (writeBehindFileRecorder != null) serviceFileRecorder = writeBehindFileRecorder;
+
+        // 文件记录缓存，包装在延迟批量写入的外层
+        CachingFileRecorder cachingFileRecorder =
+                buildCachingFileRecorder(serviceFileRecorder, properties.getRecorderCache());
+        if (cachingFileRecorder != null) serviceFileRecorder = cachingFileRecorder;
+
         // 本体
         FileStorageService service = new FileStorageService();
         service.setSelf(service);
         service.setProperties(properties);
-        service.setFileStorageList(new CopyOnWriteArrayList<>(fileStorageList));
-        service.setFileRecorder(fileRecorder);
-        service.setAspectList(new CopyOnWriteArrayList<>(aspectList));
+        service.setFileStorageRegistry(new FileStorageRegistry(fileStorageList));
+        service.setFileRecorder(serviceFileRecorder);
+        service.setAspectList(serviceAspectList);
         service.setFileWrapperAdapterList(new CopyOnWriteArrayList<>(fileWrapperAdapterList));
         service.setContentTypeDetect(contentTypeDetect);
+        service.setPartBufferPool(partBufferPool);
+        service.setPartUploadExecutor(servicePartUploadExecutor);
+        service.setDeleteExecutor(serviceDeleteExecutor);
+        service.setListFilesExecutor(serviceListFilesExecutor);
+        service.setThumbnailUploadExecutor(serviceThumbnailUploadExecutor);
+        service.setHashExecutor(serviceHashExecutor);
+        service.setPresignedUrlExecutor(servicePresignedUrlExecutor);
+        service.setThumbnailPipeline(thumbnailPipeline);
+        service.setPresignedUrlCache(presignedUrlCache);
+        service.setOwnedExecutorList(new CopyOnWriteArrayList<>(ownedExecutorList));
 
         return service;
     }
@@ -275,6 +430,156 @@ public class FileStorageServiceBuilder {
         return new FileStorageServiceBuilder(properties);
     }
 
+    /**
+     * 根据配置文件创建分片缓冲池，未启用时返回 null
+     */
+    public static PartBufferPool buildPartBufferPool(PartBufferPoolConfig config) {
+        if (config == null || !Boolean.TRUE.equals(config.getEnable())) return null;
+        return new PartBufferPool(config);
+    }
+
+    /**
+     * 创建默认的分片上传线程池，所有存储平台的并发分片上传共享这个线程池，线程数量为 CPU 核心数的 2 倍，
+     * 每次上传的并发数量由存储平台的 multipartConcurrency 限制，使用守护线程，空闲时自动回收
+     */
+    public static ExecutorService buildPartUploadExecutor() {
+        int poolSize = Runtime.getRuntime().availableProcessors() * 2;
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                60,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new NamedThreadFactory("x-file-storage-part-upload-", true));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 创建默认的批量删除线程池，存储平台不支持批量删除时所有的批量删除共享这个线程池并发逐个删除，
+     * 线程数量为 CPU 核心数的 2 倍，每次批量删除的并发数量由 DeleteBatchActuator.PARALLELISM 限制，使用守护线程，空闲时自动回收
+     */
+    public static ExecutorService buildDeleteExecutor() {
+        int poolSize = Runtime.getRuntime().availableProcessors() * 2;
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                60,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new NamedThreadFactory("x-file-storage-delete-", true));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 创建默认的逐页列举文件线程池，每个 ListFilesIterator 及每次删除目录同一时间最多占用一个线程在后台列举下一页，
+     * 使用守护线程，空闲时自动回收
+     */
+    public static ExecutorService buildListFilesExecutor() {
+        return Executors.newCachedThreadPool(new NamedThreadFactory("x-file-storage-list-", true));
+    }
+
+    /**
+     * 创建默认的上传缩略图线程池，单独上传缩略图及多规格缩略图时共享这个线程池，线程数量为 CPU 核心数的 2 倍，
+     * 使用守护线程，空闲时自动回收
+     */
+    public static ExecutorService buildThumbnailUploadExecutor() {
+        int poolSize = Runtime.getRuntime().availableProcessors() * 2;
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                60,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new NamedThreadFactory("x-file-storage-thumbnail-upload-", true));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 创建默认的并行计算哈希线程池，上传时开启并行计算哈希的 HashCalculatorManager 共享这个线程池，
+     * 线程数量为 CPU 核心数，每个哈希计算器只在有数据时才会占用线程，使用守护线程，空闲时自动回收
+     */
+    public static ExecutorService buildHashExecutor() {
+        int poolSize = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                60,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new NamedThreadFactory("x-file-storage-hash-", true));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 创建默认的批量生成预签名 URL 线程池，开启并行生成时所有的批量生成共享这个线程池，线程数量为 CPU 核心数，
+     * 每次批量生成的并发数量由 BatchGeneratePresignedUrlActuator.PARALLELISM 限制，使用守护线程，空闲时自动回收
+     */
+    public static ExecutorService buildPresignedUrlExecutor() {
+        int poolSize = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                60,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new NamedThreadFactory("x-file-storage-presigned-url-", true));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 根据配置文件创建异步缩略图流水线，未开启异步生成缩略图时返回 null
+     */
+    public static ThumbnailPipeline buildThumbnailPipeline(ThumbnailConfig config, ExecutorService uploadExecutor) {
+        if (config == null || !Boolean.TRUE.equals(config.getAsync())) return null;
+        return new ThumbnailPipeline(config, uploadExecutor);
+    }
+
+    /**
+     * 根据配置文件创建预签名 URL 缓存，未启用时返回 null
+     */
+    public static PresignedUrlCache buildPresignedUrlCache(PresignedUrlCacheConfig config) {
+        if (config == null || !Boolean.TRUE.equals(config.getEnable())) return null;
+        return new PresignedUrlCache(config);
+    }
+
+    /**
+     * 根据配置文件创建文件元数据缓存切面，未启用时返回 null
+     */
+    public static FileMetadataCacheAspect buildFileMetadataCacheAspect(MetadataCacheConfig config) {
+        if (config == null || !Boolean.TRUE.equals(config.getEnable())) return null;
+        return new FileMetadataCacheAspect(config);
+    }
+
+    /**
+     * 根据配置文件创建本地日志文件记录者，未启用时返回 null
+     */
+    public static LogFileRecorder buildLogFileRecorder(LogRecorderConfig config) {
+        if (config == null || !Boolean.TRUE.equals(config.getEnable())) return null;
+        return new LogFileRecorder(config);
+    }
+
+    /**
+     * 根据配置文件创建延迟批量写入的文件记录者，包装传入的文件记录者，未启用时返回 null
+     */
+    public static WriteBehindFileRecorder buildWriteBehindFileRecorder(
+            FileRecorder fileRecorder, WriteBehindRecorderConfig config) {
+        if (config == null || !Boolean.TRUE.equals(config.getEnable())) return null;
+        return new WriteBehindFileRecorder(fileRecorder, config);
+    }
+
+    /**
+     * 根据配置文件创建带缓存的文件记录者，包装传入的文件记录者，未启用时返回 null
+     */
+    public static CachingFileRecorder buildCachingFileRecorder(FileRecorder fileRecorder, RecorderCacheConfig config) {
+        if (config == null || !Boolean.TRUE.equals(config.getEnable())) return null;
+        return new CachingFileRecorder(fileRecorder, config);
+    }
+
     /**
      * 根据配置文件创建本地文件存储平台
      */
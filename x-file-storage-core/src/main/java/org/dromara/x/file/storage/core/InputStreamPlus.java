@@ -3,8 +3,8 @@ package org.dromara.x.file.storage.core;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Arrays;
 import java.util.function.Consumer;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.dromara.x.file.storage.core.hash.HashCalculatorManager;
 
@@ -20,6 +20,11 @@ public class InputStreamPlus extends FilterInputStream {
     protected final ProgressListener listener;
     protected final HashCalculatorManager hashCalculatorManager;
     protected int markFlag;
+    /**
+     * 单字节读取时用于计算哈希的缓冲区，避免每次读取都创建新的数组
+     */
+    @Getter(AccessLevel.NONE)
+    private final byte[] singleByte = new byte[1];
 
     public InputStreamPlus(InputStream in, Consumer<Long> listener) {
         this(
@@ -63,7 +68,8 @@ public class InputStreamPlus extends FilterInputStream {
         int b = super.read();
         onProgress(b == -1 ? -1 : 1);
         if (this.markFlag == 0 && hashCalculatorManager != null && b > -1) {
-            hashCalculatorManager.update(new byte[] {(byte) b});
+            singleByte[0] = (byte) b;
+            hashCalculatorManager.update(singleByte, 0, 1);
         }
         return b;
     }
@@ -73,7 +79,7 @@ public class InputStreamPlus extends FilterInputStream {
         onStart();
         int bytes = super.read(b, off, len);
         if (this.markFlag == 0 && hashCalculatorManager != null && bytes > 0) {
-            hashCalculatorManager.update(Arrays.copyOfRange(b, off, off + bytes));
+            hashCalculatorManager.update(b, off, bytes);
         }
         onProgress(bytes);
         return bytes;
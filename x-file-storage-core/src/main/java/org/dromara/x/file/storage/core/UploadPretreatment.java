@@ -1,5 +1,6 @@
 package org.dromara.x.file.storage.core;
 
+import cn.hutool.core.io.IORuntimeException;
 import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.io.file.FileNameUtil;
 import cn.hutool.core.lang.Dict;
@@ -10,11 +11,15 @@ import java.io.InputStream;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 import net.coobird.thumbnailator.Thumbnails;
+import org.dromara.x.file.storage.core.FileStorageProperties.ReplayableStreamConfig;
 import org.dromara.x.file.storage.core.aspect.FileStorageAspect;
 import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
 import org.dromara.x.file.storage.core.file.FileWrapper;
@@ -23,6 +28,9 @@ import org.dromara.x.file.storage.core.hash.HashCalculatorManager;
 import org.dromara.x.file.storage.core.hash.HashCalculatorSetter;
 import org.dromara.x.file.storage.core.platform.FileStorage;
 import org.dromara.x.file.storage.core.recorder.FileRecorder;
+import org.dromara.x.file.storage.core.upload.ThumbnailDecoder;
+import org.dromara.x.file.storage.core.upload.ThumbnailPipeline;
+import org.dromara.x.file.storage.core.upload.ThumbnailSource;
 import org.dromara.x.file.storage.core.upload.UploadActuator;
 
 /**
@@ -47,6 +55,12 @@ public class UploadPretreatment
      * 要上传文件的缩略图
      */
     private byte[] thumbnailBytes;
+    /**
+     * 异步生成中的缩略图，开启异步生成缩略图后由 thumbnail 等方法创建，仅内部使用，
+     * 只能通过 thumbnail 等方法及 setThumbnailBytes、clearThumbnail 修改
+     */
+    @Setter(AccessLevel.PROTECTED)
+    private CompletableFuture<byte[]> thumbnailFuture;
     /**
      * 缩略图后缀，不是扩展名但包含扩展名，例如【.min.jpg】【.png】。
      * 只能在缩略图生成前进行修改后缀中的扩展名部分。
@@ -604,6 +618,16 @@ public class UploadPretreatment
      */
     public UploadPretreatment clearThumbnail() {
         thumbnailBytes = null;
+        thumbnailFuture = null;
+        return this;
+    }
+
+    /**
+     * 设置要上传文件的缩略图，会覆盖异步生成中的缩略图
+     */
+    public UploadPretreatment setThumbnailBytes(byte[] thumbnailBytes) {
+        this.thumbnailBytes = thumbnailBytes;
+        this.thumbnailFuture = null;
         return this;
     }
 
@@ -622,7 +646,7 @@ public class UploadPretreatment
      */
     public UploadPretreatment thumbnailOf(Object file) {
         try {
-            thumbnailBytes = IoUtil.readBytes(fileStorageService.wrapper(file).getInputStream());
+            setThumbnailBytes(IoUtil.readBytes(fileStorageService.wrapper(file).getInputStream()));
         } catch (IOException e) {
             if (!ignoreThumbnailException) throw new FileStorageRuntimeException("生成缩略图失败！", e);
         }
@@ -647,7 +671,7 @@ public class UploadPretreatment
      */
     public UploadPretreatment thumbnailOf(Object file, Consumer<Thumbnails.Builder<? extends InputStream>> consumer) {
         try {
-            return thumbnail(consumer, fileStorageService.wrapper(file).getInputStream());
+            return thumbnail(consumer, fileStorageService.wrapper(file).getInputStream(), 0, 0);
         } catch (IOException e) {
             if (!ignoreThumbnailException) throw new FileStorageRuntimeException("生成缩略图失败！", e);
         }
@@ -668,11 +692,24 @@ public class UploadPretreatment
      * 可以进行裁剪、旋转、缩放、水印等操作，默认输出图片格式通过 thumbnailSuffix 获取
      */
     public UploadPretreatment thumbnail(Consumer<Thumbnails.Builder<? extends InputStream>> consumer) {
+        return thumbnail(consumer, 0, 0);
+    }
+
+    /**
+     * 生成缩略图并进行图片处理，如果缩略图已存在则使用已有的缩略图进行处理，
+     * 指定目标宽高时会先按目标大小降采样解码，避免将超大图片完整解码到内存中
+     */
+    private UploadPretreatment thumbnail(
+            Consumer<Thumbnails.Builder<? extends InputStream>> consumer, int decodeWidth, int decodeHeight) {
         try {
-            if (thumbnailBytes == null) {
-                return fileWrapper.getInputStreamMaskResetReturn(in -> thumbnail(consumer, in));
+            if (thumbnailFuture != null) {
+                return thumbnailAsync(
+                        thumbnailFuture.thenApply(ThumbnailSource::of), consumer, decodeWidth, decodeHeight);
+            } else if (thumbnailBytes == null) {
+                return fileWrapper.getInputStreamMaskResetReturn(
+                        in -> thumbnail(consumer, in, decodeWidth, decodeHeight));
             } else {
-                return thumbnail(consumer, new ByteArrayInputStream(thumbnailBytes));
+                return thumbnail(consumer, new ByteArrayInputStream(thumbnailBytes), decodeWidth, decodeHeight);
             }
         } catch (IOException e) {
             if (!ignoreThumbnailException) throw new FileStorageRuntimeException("生成缩略图失败！", e);
@@ -683,22 +720,65 @@ public class UploadPretreatment
     /**
      * 通过指定 InputStream 生成缩略图并进行图片处理，
      * 可以进行裁剪、旋转、缩放、水印等操作，默认输出图片格式通过 thumbnailSuffix 获取，
-     * 操作完成后不会自动关闭 InputStream
-     */
-    private UploadPretreatment thumbnail(Consumer<Thumbnails.Builder<? extends InputStream>> consumer, InputStream in) {
+     * 指定目标宽高时会直接从流中按目标大小降采样解码，不会将原图数据读取到内存中，
+     * 不支持降采样的图片格式重置流后使用完整解码，操作完成后不会自动关闭 InputStream
+     */
+    private UploadPretreatment thumbnail(
+            Consumer<Thumbnails.Builder<? extends InputStream>> consumer,
+            InputStream in,
+            int decodeWidth,
+            int decodeHeight) {
         try {
-            Thumbnails.Builder<? extends InputStream> builder = Thumbnails.of(in);
+            if (getAsyncThumbnailPipeline() != null) {
+                // 原文件会同时上传，这里保存一份原图数据交给缩略图线程池，超过内存阈值的部分写入临时文件
+                ReplayableStreamConfig config = fileStorageService.getProperties() == null
+                        ? null
+                        : fileStorageService.getProperties().getReplayableStream();
+                ThumbnailSource source = ThumbnailSource.of(in, config);
+                return thumbnailAsync(CompletableFuture.completedFuture(source), consumer, decodeWidth, decodeHeight);
+            }
+            Thumbnails.Builder<? extends InputStream> builder = ThumbnailDecoder.of(in, decodeWidth, decodeHeight);
             builder.outputFormat(FileNameUtil.extName(thumbnailSuffix));
             consumer.accept(builder);
             ByteArrayOutputStream out = new ByteArrayOutputStream();
             builder.toOutputStream(out);
             thumbnailBytes = out.toByteArray();
-        } catch (IOException e) {
+        } catch (IOException | IORuntimeException e) {
             if (!ignoreThumbnailException) throw new FileStorageRuntimeException("生成缩略图失败！", e);
         }
         return this;
     }
 
+    /**
+     * 在异步缩略图流水线中生成缩略图，source 为原图数据，生成完成后会释放原图数据，
+     * 生成失败且忽略错误时保留之前的缩略图，否则在上传时抛出异常
+     */
+    private UploadPretreatment thumbnailAsync(
+            CompletableFuture<ThumbnailSource> source,
+            Consumer<Thumbnails.Builder<? extends InputStream>> consumer,
+            int decodeWidth,
+            int decodeHeight) {
+        CompletableFuture<byte[]> previous =
+                thumbnailFuture != null ? thumbnailFuture : CompletableFuture.completedFuture(thumbnailBytes);
+        CompletableFuture<byte[]> future = getAsyncThumbnailPipeline()
+                .submit(source, FileNameUtil.extName(thumbnailSuffix), decodeWidth, decodeHeight, consumer);
+        if (ignoreThumbnailException) {
+            CompletableFuture<byte[]> fallback = previous.exceptionally(e -> null);
+            future = future.handle((bytes, e) -> e == null ? CompletableFuture.completedFuture(bytes) : fallback)
+                    .thenCompose(Function.identity());
+        }
+        thumbnailBytes = null;
+        thumbnailFuture = future;
+        return this;
+    }
+
+    /**
+     * 获取开启了异步生成缩略图的流水线，未开启时返回 null
+     */
+    private ThumbnailPipeline getAsyncThumbnailPipeline() {
+        return fileStorageService == null ? null : fileStorageService.getThumbnailPipeline();
+    }
+
     /**
      * 生成缩略图并缩放到指定大小，默认输出图片格式通过 thumbnailSuffix 获取
      */
@@ -711,7 +791,20 @@ public class UploadPretreatment
      * 生成缩略图并缩放到指定大小，默认输出图片格式通过 thumbnailSuffix 获取
      */
     public UploadPretreatment thumbnail(int width, int height) {
-        return thumbnail(th -> th.size(width, height));
+        return thumbnail(th -> th.size(width, height), width, height);
+    }
+
+    /**
+     * 生成缩略图并缩放到指定大小后再进行图片处理，可以继续进行裁剪、旋转、水印等操作，默认输出图片格式通过 thumbnailSuffix 获取。
+     * 图片处理中的坐标（例如 sourceRegion 的裁剪区域）对应原图，所以这里使用完整解码，
+     * 对超大图片生成缩略图请使用 {@link #thumbnail(int, int)}
+     */
+    public UploadPretreatment thumbnail(
+            int width, int height, Consumer<Thumbnails.Builder<? extends InputStream>> consumer) {
+        return thumbnail(th -> {
+            th.size(width, height);
+            consumer.accept(th);
+        });
     }
 
     /**
@@ -810,6 +903,9 @@ public class UploadPretreatment
      */
     public InputStreamPlus getInputStreamPlus(boolean hasListener) throws IOException {
         if (inputStreamPlus == null) {
+            if (fileStorageService != null) {
+                hashCalculatorManager.setDefaultParallelExecutor(fileStorageService.getHashExecutor());
+            }
             inputStreamPlus = new InputStreamPlus(
                     fileWrapper.getInputStream(),
                     hasListener ? progressListener : null,
@@ -16,20 +16,51 @@ import org.dromara.x.file.storage.core.upload.AbortMultipartUploadPretreatment;
 public class AbortMultipartUploadAspectChain {
 
     private AbortMultipartUploadAspectChainCallback callback;
-    private Iterator<FileStorageAspect> aspectIterator;
+    private FileStorageAspect[] aspects;
+    private int index;
 
     public AbortMultipartUploadAspectChain(
             Iterable<FileStorageAspect> aspects, AbortMultipartUploadAspectChainCallback callback) {
-        this.aspectIterator = aspects.iterator();
+        this(FileStorageAspectTable.toArray(aspects), callback);
+    }
+
+    /**
+     * 通过切面表创建，只会调用重写了对应方法的切面
+     */
+    public AbortMultipartUploadAspectChain(
+            FileStorageAspectTable aspectTable, AbortMultipartUploadAspectChainCallback callback) {
+        this(aspectTable.get(AbortMultipartUploadAspectChain.class), callback);
+    }
+
+    private AbortMultipartUploadAspectChain(
+            FileStorageAspect[] aspects, AbortMultipartUploadAspectChainCallback callback) {
+        this.aspects = aspects;
         this.callback = callback;
     }
 
+    /**
+     * 获取剩余切面的迭代器，通过迭代器取出的切面不会再被调用，请使用 getAspects() 和 getIndex() 代替
+     */
+    @Deprecated
+    public Iterator<FileStorageAspect> getAspectIterator() {
+        return new AspectChainIterator(() -> aspects, () -> index, i -> index = i);
+    }
+
+    /**
+     * 使用迭代器中剩余的切面替换剩余的切面，请使用 setAspects() 和 setIndex() 代替
+     */
+    @Deprecated
+    public void setAspectIterator(Iterator<FileStorageAspect> aspectIterator) {
+        aspects = FileStorageAspectTable.toArray(() -> aspectIterator);
+        index = 0;
+    }
+
     /**
      * 调用下一个切面
      */
     public FileInfo next(AbortMultipartUploadPretreatment pre, FileStorage fileStorage, FileRecorder fileRecorder) {
-        if (aspectIterator.hasNext()) { // 还有下一个
-            return aspectIterator.next().abortMultipartUploadAround(this, pre, fileStorage, fileRecorder);
+        if (index < aspects.length) { // 还有下一个
+            return aspects[index++].abortMultipartUploadAround(this, pre, fileStorage, fileRecorder);
         } else {
             return callback.run(pre, fileStorage, fileRecorder);
         }
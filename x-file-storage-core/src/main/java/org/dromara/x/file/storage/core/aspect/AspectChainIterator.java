@@ -0,0 +1,36 @@
+package org.dromara.x.file.storage.core.aspect;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 切面调用链中剩余切面的迭代器，用于兼容之前的 getAspectIterator()，
+ * 通过迭代器取出的切面会同时从调用链中跳过，与之前直接操作调用链的迭代器一致
+ */
+class AspectChainIterator implements Iterator<FileStorageAspect> {
+    private final Supplier<FileStorageAspect[]> aspects;
+    private final IntSupplier index;
+    private final IntConsumer setIndex;
+
+    AspectChainIterator(Supplier<FileStorageAspect[]> aspects, IntSupplier index, IntConsumer setIndex) {
+        this.aspects = aspects;
+        this.index = index;
+        this.setIndex = setIndex;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return index.getAsInt() < aspects.get().length;
+    }
+
+    @Override
+    public FileStorageAspect next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        int i = index.getAsInt();
+        setIndex.accept(i + 1);
+        return aspects.get()[i];
+    }
+}
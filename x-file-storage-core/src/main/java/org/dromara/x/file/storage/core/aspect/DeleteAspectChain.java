@@ -15,19 +15,48 @@ import org.dromara.x.file.storage.core.recorder.FileRecorder;
 public class DeleteAspectChain {
 
     private DeleteAspectChainCallback callback;
-    private Iterator<FileStorageAspect> aspectIterator;
+    private FileStorageAspect[] aspects;
+    private int index;
 
     public DeleteAspectChain(Iterable<FileStorageAspect> aspects, DeleteAspectChainCallback callback) {
-        this.aspectIterator = aspects.iterator();
+        this(FileStorageAspectTable.toArray(aspects), callback);
+    }
+
+    /**
+     * 通过切面表创建，只会调用重写了对应方法的切面
+     */
+    public DeleteAspectChain(FileStorageAspectTable aspectTable, DeleteAspectChainCallback callback) {
+        this(aspectTable.get(DeleteAspectChain.class), callback);
+    }
+
+    private DeleteAspectChain(FileStorageAspect[] aspects, DeleteAspectChainCallback callback) {
+        this.aspects = aspects;
         this.callback = callback;
     }
 
+    /**
+     * 获取剩余切面的迭代器，通过迭代器取出的切面不会再被调用，请使用 getAspects() 和 getIndex() 代替
+     */
+    @Deprecated
+    public Iterator<FileStorageAspect> getAspectIterator() {
+        return new AspectChainIterator(() -> aspects, () -> index, i -> index = i);
+    }
+
+    /**
+     * 使用迭代器中剩余的切面替换剩余的切面，请使用 setAspects() 和 setIndex() 代替
+     */
+    @Deprecated
+    public void setAspectIterator(Iterator<FileStorageAspect> aspectIterator) {
+        aspects = FileStorageAspectTable.toArray(() -> aspectIterator);
+        index = 0;
+    }
+
     /**
      * 调用下一个切面
      */
     public boolean next(FileInfo fileInfo, FileStorage fileStorage, FileRecorder fileRecorder) {
-        if (aspectIterator.hasNext()) { // 还有下一个
-            return aspectIterator.next().deleteAround(this, fileInfo, fileStorage, fileRecorder);
+        if (index < aspects.length) { // 还有下一个
+            return aspects[index++].deleteAround(this, fileInfo, fileStorage, fileRecorder);
         } else {
             return callback.run(fileInfo, fileStorage, fileRecorder);
         }
@@ -0,0 +1,65 @@
+package org.dromara.x.file.storage.core.aspect;
+
+import java.util.Iterator;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.recorder.FileRecorder;
+
+/**
+ * 批量删除的切面调用链
+ */
+@Getter
+@Setter
+public class DeleteBatchAspectChain {
+
+    private DeleteBatchAspectChainCallback callback;
+    private FileStorageAspect[] aspects;
+    private int index;
+
+    public DeleteBatchAspectChain(Iterable<FileStorageAspect> aspects, DeleteBatchAspectChainCallback callback) {
+        this(FileStorageAspectTable.toArray(aspects), callback);
+    }
+
+    /**
+     * 通过切面表创建，只会调用重写了对应方法的切面
+     */
+    public DeleteBatchAspectChain(FileStorageAspectTable aspectTable, DeleteBatchAspectChainCallback callback) {
+        this(aspectTable.get(DeleteBatchAspectChain.class), callback);
+    }
+
+    private DeleteBatchAspectChain(FileStorageAspect[] aspects, DeleteBatchAspectChainCallback callback) {
+        this.aspects = aspects;
+        this.callback = callback;
+    }
+
+    /**
+     * 获取剩余切面的迭代器，通过迭代器取出的切面不会再被调用，请使用 getAspects() 和 getIndex() 代替
+     */
+    @Deprecated
+    public Iterator<FileStorageAspect> getAspectIterator() {
+        return new AspectChainIterator(() -> aspects, () -> index, i -> index = i);
+    }
+
+    /**
+     * 使用迭代器中剩余的切面替换剩余的切面，请使用 setAspects() 和 setIndex() 代替
+     */
+    @Deprecated
+    public void setAspectIterator(Iterator<FileStorageAspect> aspectIterator) {
+        aspects = FileStorageAspectTable.toArray(() -> aspectIterator);
+        index = 0;
+    }
+
+    /**
+     * 调用下一个切面
+     */
+    public List<Boolean> next(List<FileInfo> fileInfoList, FileStorage fileStorage, FileRecorder fileRecorder) {
+        if (index < aspects.length) { // 还有下一个
+            return aspects[index++].deleteBatchAround(this, fileInfoList, fileStorage, fileRecorder);
+        } else {
+            return callback.run(fileInfoList, fileStorage, fileRecorder);
+        }
+    }
+}
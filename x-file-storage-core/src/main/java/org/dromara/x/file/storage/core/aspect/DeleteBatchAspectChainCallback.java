@@ -0,0 +1,13 @@
+package org.dromara.x.file.storage.core.aspect;
+
+import java.util.List;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.recorder.FileRecorder;
+
+/**
+ * 批量删除切面调用链结束回调
+ */
+public interface DeleteBatchAspectChainCallback {
+    List<Boolean> run(List<FileInfo> fileInfoList, FileStorage fileStorage, FileRecorder fileRecorder);
+}
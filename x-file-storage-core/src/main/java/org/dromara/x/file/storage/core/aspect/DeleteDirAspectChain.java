@@ -0,0 +1,64 @@
+package org.dromara.x.file.storage.core.aspect;
+
+import java.util.Iterator;
+import lombok.Getter;
+import lombok.Setter;
+import org.dromara.x.file.storage.core.delete.DeleteDirPretreatment;
+import org.dromara.x.file.storage.core.delete.DeleteDirResult;
+import org.dromara.x.file.storage.core.platform.FileStorage;
+
+/**
+ * 删除目录的切面调用链
+ */
+@Getter
+@Setter
+public class DeleteDirAspectChain {
+
+    private DeleteDirAspectChainCallback callback;
+    private FileStorageAspect[] aspects;
+    private int index;
+
+    public DeleteDirAspectChain(Iterable<FileStorageAspect> aspects, DeleteDirAspectChainCallback callback) {
+        this(FileStorageAspectTable.toArray(aspects), callback);
+    }
+
+    /**
+     * 通过切面表创建，只会调用重写了对应方法的切面
+     */
+    public DeleteDirAspectChain(FileStorageAspectTable aspectTable, DeleteDirAspectChainCallback callback) {
+        this(aspectTable.get(DeleteDirAspectChain.class), callback);
+    }
+
+    private DeleteDirAspectChain(FileStorageAspect[] aspects, DeleteDirAspectChainCallback callback) {
+        this.aspects = aspects;
+        this.callback = callback;
+    }
+
+    /**
+     * 获取剩余切面的迭代器，通过迭代器取出的切面不会再被调用，请使用 getAspects() 和 getIndex() 代替
+     */
+    @Deprecated
+    public Iterator<FileStorageAspect> getAspectIterator() {
+        return new AspectChainIterator(() -> aspects, () -> index, i -> index = i);
+    }
+
+    /**
+     * 使用迭代器中剩余的切面替换剩余的切面，请使用 setAspects() 和 setIndex() 代替
+     */
+    @Deprecated
+    public void setAspectIterator(Iterator<FileStorageAspect> aspectIterator) {
+        aspects = FileStorageAspectTable.toArray(() -> aspectIterator);
+        index = 0;
+    }
+
+    /**
+     * 调用下一个切面
+     */
+    public DeleteDirResult next(DeleteDirPretreatment pre, FileStorage fileStorage) {
+        if (index < aspects.length) { // 还有下一个
+            return aspects[index++].deleteDirAround(this, pre, fileStorage);
+        } else {
+            return callback.run(pre, fileStorage);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package org.dromara.x.file.storage.core.aspect;
+
+import org.dromara.x.file.storage.core.delete.DeleteDirPretreatment;
+import org.dromara.x.file.storage.core.delete.DeleteDirResult;
+import org.dromara.x.file.storage.core.platform.FileStorage;
+
+/**
+ * 删除目录切面调用链结束回调
+ */
+public interface DeleteDirAspectChainCallback {
+    DeleteDirResult run(DeleteDirPretreatment pre, FileStorage fileStorage);
+}
@@ -0,0 +1,386 @@
+package org.dromara.x.file.storage.core.aspect;
+
+import cn.hutool.core.map.FixedLinkedHashMap;
+import cn.hutool.core.util.StrUtil;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Getter;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.FileStorageProperties.MetadataCacheConfig;
+import org.dromara.x.file.storage.core.UploadPretreatment;
+import org.dromara.x.file.storage.core.copy.CopyPretreatment;
+import org.dromara.x.file.storage.core.delete.DeleteDirPretreatment;
+import org.dromara.x.file.storage.core.delete.DeleteDirResult;
+import org.dromara.x.file.storage.core.get.GetFilePretreatment;
+import org.dromara.x.file.storage.core.get.RemoteFileInfo;
+import org.dromara.x.file.storage.core.move.MovePretreatment;
+import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.recorder.FileRecorder;
+import org.dromara.x.file.storage.core.tika.ContentTypeDetect;
+import org.dromara.x.file.storage.core.upload.CompleteMultipartUploadPretreatment;
+import org.dromara.x.file.storage.core.upload.ThumbnailVariantInfo;
+
+/**
+ * 文件元数据缓存切面，缓存 exists 及 getFile 的结果（包括文件不存在的结果），
+ * 通过同一个 FileStorageService 上传、删除、复制、移动文件及删除目录时会自动清除对应的缓存（跨存储平台的复制、移动通过上传、删除实现），
+ * 通过其它方式修改的文件需要等待缓存过期或者手动清除。
+ * 通过 url 获取文件时无法确定对应的文件，不会缓存
+ */
+public class FileMetadataCacheAspect implements FileStorageAspect {
+    /**
+     * 最大缓存数量
+     */
+    @Getter
+    private final int maxSize;
+    /**
+     * 文件存在时的缓存时间，单位毫秒
+     */
+    @Getter
+    private final long ttl;
+    /**
+     * 文件不存在时的缓存时间，单位毫秒
+     */
+    @Getter
+    private final long negativeTtl;
+
+    private final Map<String, Entry<Boolean>> existsCache;
+    private final Map<String, Entry<RemoteFileInfo>> fileCache;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    /**
+     * 正在查询的文件，查询期间清除过这个文件的缓存时不缓存查询结果，避免缓存修改前的结果，
+     * 只有清除同一个文件的缓存才会影响查询结果的缓存，缓存查询结果及清除缓存都在这个 Map 的锁中进行
+     */
+    private final Map<String, Loading> loadingMap = new HashMap<>();
+
+    public FileMetadataCacheAspect(MetadataCacheConfig config) {
+        this(config.getMaxSize(), config.getTtl(), config.getNegativeTtl());
+    }
+
+    /**
+     * @param maxSize 最大缓存数量，exists 及 getFile 的结果分别计算
+     * @param ttl 文件存在时的缓存时间，单位毫秒
+     * @param negativeTtl 文件不存在时的缓存时间，单位毫秒，小于等于 0 时不缓存
+     */
+    public FileMetadataCacheAspect(int maxSize, long ttl, long negativeTtl) {
+        this.maxSize = Math.max(1, maxSize);
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.existsCache = Collections.synchronizedMap(new FixedLinkedHashMap<>(this.maxSize));
+        this.fileCache = Collections.synchronizedMap(new FixedLinkedHashMap<>(this.maxSize));
+    }
+
+    @Override
+    public boolean existsAround(ExistsAspectChain chain, FileInfo fileInfo, FileStorage fileStorage) {
+        String key = getKey(fileStorage.getPlatform(), fileInfo.getPath(), fileInfo.getFilename());
+        Entry<Boolean> entry = existsCache.get(key);
+        if (entry != null && entry.isValid()) {
+            hitCount.increment();
+            return entry.value;
+        }
+        missCount.increment();
+        long version = startLoading(key);
+        boolean exists;
+        try {
+            exists = chain.next(fileInfo, fileStorage);
+        } catch (Throwable e) {
+            endLoading(key, version);
+            throw e;
+        }
+        put(existsCache, key, exists, exists, version);
+        return exists;
+    }
+
+    @Override
+    public RemoteFileInfo getFile(GetFileAspectChain chain, GetFilePretreatment pre, FileStorage fileStorage) {
+        if (StrUtil.isBlank(pre.getFilename())) return chain.next(pre, fileStorage);
+        String key = getKey(fileStorage.getPlatform(), pre.getPath(), pre.getFilename());
+        Entry<RemoteFileInfo> entry = fileCache.get(key);
+        if (entry != null && entry.isValid()) {
+            hitCount.increment();
+            return copy(entry.value);
+        }
+        missCount.increment();
+        long version = startLoading(key);
+        RemoteFileInfo info;
+        try {
+            info = chain.next(pre, fileStorage);
+        } catch (Throwable e) {
+            endLoading(key, version);
+            throw e;
+        }
+        put(fileCache, key, copy(info), info != null, version);
+        return info;
+    }
+
+    @Override
+    public FileInfo uploadAround(
+            UploadAspectChain chain,
+            FileInfo fileInfo,
+            UploadPretreatment pre,
+            FileStorage fileStorage,
+            FileRecorder fileRecorder) {
+        try {
+            return chain.next(fileInfo, pre, fileStorage, fileRecorder);
+        } finally {
+            invalidate(fileStorage.getPlatform(), fileInfo);
+        }
+    }
+
+    @Override
+    public FileInfo completeMultipartUploadAround(
+            CompleteMultipartUploadAspectChain chain,
+            CompleteMultipartUploadPretreatment pre,
+            FileStorage fileStorage,
+            FileRecorder fileRecorder,
+            ContentTypeDetect contentTypeDetect) {
+        try {
+            return chain.next(pre, fileStorage, fileRecorder, contentTypeDetect);
+        } finally {
+            invalidate(fileStorage.getPlatform(), pre.getFileInfo());
+        }
+    }
+
+    @Override
+    public boolean deleteAround(
+            DeleteAspectChain chain, FileInfo fileInfo, FileStorage fileStorage, FileRecorder fileRecorder) {
+        try {
+            return chain.next(fileInfo, fileStorage, fileRecorder);
+        } finally {
+            invalidate(fileStorage.getPlatform(), fileInfo);
+        }
+    }
+
+    @Override
+    public List<Boolean> deleteBatchAround(
+            DeleteBatchAspectChain chain,
+            List<FileInfo> fileInfoList,
+            FileStorage fileStorage,
+            FileRecorder fileRecorder) {
+        try {
+            return chain.next(fileInfoList, fileStorage, fileRecorder);
+        } finally {
+            for (FileInfo fileInfo : fileInfoList) invalidate(fileStorage.getPlatform(), fileInfo);
+        }
+    }
+
+    @Override
+    public DeleteDirResult deleteDirAround(
+            DeleteDirAspectChain chain, DeleteDirPretreatment pre, FileStorage fileStorage) {
+        try {
+            return chain.next(pre, fileStorage);
+        } finally {
+            invalidateDir(fileStorage.getPlatform(), pre.getPath());
+        }
+    }
+
+    @Override
+    public FileInfo sameCopyAround(
+            SameCopyAspectChain chain,
+            FileInfo srcFileInfo,
+            FileInfo destFileInfo,
+            CopyPretreatment pre,
+            FileStorage fileStorage,
+            FileRecorder fileRecorder) {
+        try {
+            return chain.next(srcFileInfo, destFileInfo, pre, fileStorage, fileRecorder);
+        } finally {
+            invalidate(fileStorage.getPlatform(), destFileInfo);
+        }
+    }
+
+    @Override
+    public FileInfo sameMoveAround(
+            SameMoveAspectChain chain,
+            FileInfo srcFileInfo,
+            FileInfo destFileInfo,
+            MovePretreatment pre,
+            FileStorage fileStorage,
+            FileRecorder fileRecorder) {
+        try {
+            return chain.next(srcFileInfo, destFileInfo, pre, fileStorage, fileRecorder);
+        } finally {
+            invalidate(fileStorage.getPlatform(), srcFileInfo);
+            invalidate(fileStorage.getPlatform(), destFileInfo);
+        }
+    }
+
+    /**
+     * 清除文件、缩略图文件及多规格缩略图文件的缓存
+     */
+    public void invalidate(String platform, FileInfo fileInfo) {
+        if (fileInfo == null) return;
+        invalidate(platform, fileInfo.getPath(), fileInfo.getFilename());
+        invalidate(platform, fileInfo.getPath(), fileInfo.getThFilename());
+        if (fileInfo.getThVariants() != null) {
+            for (ThumbnailVariantInfo variant : fileInfo.getThVariants().values()) {
+                if (variant != null) invalidate(platform, fileInfo.getPath(), variant.getFilename());
+            }
+        }
+    }
+
+    /**
+     * 清除文件的缓存
+     */
+    public void invalidate(String platform, String path, String filename) {
+        if (StrUtil.isBlank(filename)) return;
+        String key = getKey(platform, path, filename);
+        synchronized (loadingMap) {
+            Loading loading = loadingMap.get(key);
+            if (loading != null) loading.version++;
+            existsCache.remove(key);
+            fileCache.remove(key);
+        }
+    }
+
+    /**
+     * 清除目录（包括子目录）中全部文件的缓存
+     */
+    public void invalidateDir(String platform, String path) {
+        String prefix = getKey(platform, path, "");
+        synchronized (loadingMap) {
+            loadingMap.forEach((key, loading) -> {
+                if (key.startsWith(prefix)) loading.version++;
+            });
+            synchronized (existsCache) {
+                existsCache.keySet().removeIf(key -> key.startsWith(prefix));
+            }
+            synchronized (fileCache) {
+                fileCache.keySet().removeIf(key -> key.startsWith(prefix));
+            }
+        }
+    }
+
+    /**
+     * 清空缓存及统计数据
+     */
+    public void clear() {
+        synchronized (loadingMap) {
+            loadingMap.values().forEach(loading -> loading.version++);
+            existsCache.clear();
+            fileCache.clear();
+        }
+        hitCount.reset();
+        missCount.reset();
+    }
+
+    /**
+     * 命中次数
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * 未命中次数
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 当前缓存数量，包括 exists 及 getFile 的结果
+     */
+    public int size() {
+        return existsCache.size() + fileCache.size();
+    }
+
+    /**
+     * 开始查询文件，返回这个文件当前的版本，同一个文件同时有多个查询时共用一个查询标记
+     */
+    private long startLoading(String key) {
+        synchronized (loadingMap) {
+            Loading loading = loadingMap.computeIfAbsent(key, k -> new Loading());
+            loading.count++;
+            return loading.version;
+        }
+    }
+
+    /**
+     * 结束查询文件，查询期间没有清除过这个文件的缓存时返回 true，需要在 loadingMap 的锁中调用
+     */
+    private boolean finishLoading(String key, long version) {
+        Loading loading = loadingMap.get(key);
+        if (--loading.count == 0) loadingMap.remove(key);
+        return loading.version == version;
+    }
+
+    /**
+     * 查询失败时结束查询文件
+     */
+    private void endLoading(String key, long version) {
+        synchronized (loadingMap) {
+            finishLoading(key, version);
+        }
+    }
+
+    private <T> void put(Map<String, Entry<T>> cache, String key, T value, boolean positive, long version) {
+        long time = positive ? ttl : negativeTtl;
+        synchronized (loadingMap) {
+            if (!finishLoading(key, version) || time <= 0) return;
+            cache.put(key, new Entry<>(value, System.currentTimeMillis() + time));
+        }
+    }
+
+    /**
+     * 复制文件信息，避免调用者修改缓存中的数据，原始数据不会复制
+     */
+    private static RemoteFileInfo copy(RemoteFileInfo info) {
+        if (info == null) return null;
+        return new RemoteFileInfo()
+                .setPlatform(info.getPlatform())
+                .setBasePath(info.getBasePath())
+                .setPath(info.getPath())
+                .setFilename(info.getFilename())
+                .setUrl(info.getUrl())
+                .setSize(info.getSize())
+                .setExt(info.getExt())
+                .setETag(info.getETag())
+                .setContentDisposition(info.getContentDisposition())
+                .setContentType(info.getContentType())
+                .setContentMd5(info.getContentMd5())
+                .setLastModified(info.getLastModified() == null ? null : new Date(info.getLastModified().getTime()))
+                .setMetadata(info.getMetadata() == null ? null : new HashMap<>(info.getMetadata()))
+                .setUserMetadata(info.getUserMetadata() == null ? null : new HashMap<>(info.getUserMetadata()))
+                .setOriginal(info.getOriginal());
+    }
+
+    private static String getKey(String platform, String path, String filename) {
+        return platform + "\n" + (path == null ? "" : path) + filename;
+    }
+
+    /**
+     * 正在查询的文件
+     */
+    private static class Loading {
+        /**
+         * 正在进行的查询数量
+         */
+        private int count;
+        /**
+         * 清除这个文件缓存的次数
+         */
+        private long version;
+    }
+
+    /**
+     * 缓存的结果
+     */
+    private static class Entry<T> {
+        private final T value;
+        private final long expireTime;
+
+        private Entry(T value, long expireTime) {
+            this.value = value;
+            this.expireTime = expireTime;
+        }
+
+        private boolean isValid() {
+            return System.currentTimeMillis() < expireTime;
+        }
+    }
+}
@@ -2,10 +2,13 @@ package org.dromara.x.file.storage.core.aspect;
 
 import java.io.InputStream;
 import java.util.Date;
+import java.util.List;
 import java.util.function.Consumer;
 import org.dromara.x.file.storage.core.FileInfo;
 import org.dromara.x.file.storage.core.UploadPretreatment;
 import org.dromara.x.file.storage.core.copy.CopyPretreatment;
+import org.dromara.x.file.storage.core.delete.DeleteDirPretreatment;
+import org.dromara.x.file.storage.core.delete.DeleteDirResult;
 import org.dromara.x.file.storage.core.get.*;
 import org.dromara.x.file.storage.core.move.MovePretreatment;
 import org.dromara.x.file.storage.core.platform.FileStorage;
@@ -123,6 +126,25 @@ public interface FileStorageAspect {
         return chain.next(fileInfo, fileStorage, fileRecorder);
     }
 
+    /**
+     * 批量删除文件，返回与传入的文件顺序一致的结果，成功为 true。批量删除不会调用 deleteAround，需要拦截时重写此方法
+     */
+    default List<Boolean> deleteBatchAround(
+            DeleteBatchAspectChain chain,
+            List<FileInfo> fileInfoList,
+            FileStorage fileStorage,
+            FileRecorder fileRecorder) {
+        return chain.next(fileInfoList, fileStorage, fileRecorder);
+    }
+
+    /**
+     * 删除目录，返回删除结果
+     */
+    default DeleteDirResult deleteDirAround(
+            DeleteDirAspectChain chain, DeleteDirPretreatment pre, FileStorage fileStorage) {
+        return chain.next(pre, fileStorage);
+    }
+
     /**
      * 文件是否存在，成功返回 true
      */
@@ -0,0 +1,94 @@
+package org.dromara.x.file.storage.core.aspect;
+
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * 切面表，按切面调用链预先筛选出重写了对应方法的切面，没有重写的切面只会原样调用下一个切面，直接跳过。
+ * 切面表是不可变的，切面列表变化后需要重新创建，一般通过 FileStorageService#getAspectTable 获取缓存的切面表
+ */
+public class FileStorageAspectTable {
+    private static final FileStorageAspect[] EMPTY = new FileStorageAspect[0];
+
+    /**
+     * 切面调用链类型与 FileStorageAspect 中对应的方法
+     */
+    private static final Map<Class<?>, Method> CHAIN_METHOD_MAP = new HashMap<>();
+
+    static {
+        for (Method method : FileStorageAspect.class.getMethods()) {
+            Class<?>[] types = method.getParameterTypes();
+            if (types.length > 0 && types[0].getSimpleName().endsWith("AspectChain")) {
+                CHAIN_METHOD_MAP.put(types[0], method);
+            }
+        }
+    }
+
+    /**
+     * 创建时的切面列表，用于判断切面列表是否变化
+     */
+    private final FileStorageAspect[] aspects;
+    /**
+     * 切面调用链类型与重写了对应方法的切面
+     */
+    private final Map<Class<?>, FileStorageAspect[]> chainAspectMap = new HashMap<>();
+
+    public FileStorageAspectTable(Iterable<FileStorageAspect> aspects) {
+        this.aspects = toArray(aspects);
+        CHAIN_METHOD_MAP.forEach((chainClass, method) -> {
+            List<FileStorageAspect> list = new ArrayList<>();
+            for (FileStorageAspect aspect : this.aspects) {
+                if (isOverride(aspect, method)) list.add(aspect);
+            }
+            chainAspectMap.put(chainClass, list.isEmpty() ? EMPTY : list.toArray(EMPTY));
+        });
+    }
+
+    /**
+     * 获取重写了切面调用链对应方法的切面，返回的数组不能修改
+     * @param chainClass 切面调用链类型，例如 ExistsAspectChain.class
+     */
+    public FileStorageAspect[] get(Class<?> chainClass) {
+        return chainAspectMap.getOrDefault(chainClass, EMPTY);
+    }
+
+    /**
+     * 判断切面列表与创建时是否一致（按顺序比较是否为同一个对象）
+     */
+    public boolean matches(List<FileStorageAspect> list) {
+        if (list == null) return aspects.length == 0;
+        if (list.size() != aspects.length) return false;
+        try {
+            for (int i = 0; i < aspects.length; i++) {
+                if (list.get(i) != aspects[i]) return false;
+            }
+        } catch (IndexOutOfBoundsException e) {
+            // 比较时切面列表被修改了
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 转换成数组，用于兼容直接传入切面列表创建的切面调用链，不做筛选
+     */
+    public static FileStorageAspect[] toArray(Iterable<FileStorageAspect> aspects) {
+        if (aspects == null) return EMPTY;
+        if (aspects instanceof Collection) return ((Collection<FileStorageAspect>) aspects).toArray(EMPTY);
+        List<FileStorageAspect> list = new ArrayList<>();
+        aspects.forEach(list::add);
+        return list.toArray(EMPTY);
+    }
+
+    /**
+     * 判断切面是否重写了对应的方法，无法判断时按重写处理
+     */
+    private static boolean isOverride(FileStorageAspect aspect, Method method) {
+        try {
+            Method impl = aspect.getClass().getMethod(method.getName(), method.getParameterTypes());
+            return impl.getDeclaringClass() != FileStorageAspect.class;
+        } catch (NoSuchMethodException | SecurityException e) {
+            return true;
+        }
+    }
+}
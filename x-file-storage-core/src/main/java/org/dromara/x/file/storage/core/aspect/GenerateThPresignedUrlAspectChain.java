@@ -15,20 +15,51 @@ import org.dromara.x.file.storage.core.platform.FileStorage;
 public class GenerateThPresignedUrlAspectChain {
 
     private GenerateThPresignedUrlAspectChainCallback callback;
-    private Iterator<FileStorageAspect> aspectIterator;
+    private FileStorageAspect[] aspects;
+    private int index;
 
     public GenerateThPresignedUrlAspectChain(
             Iterable<FileStorageAspect> aspects, GenerateThPresignedUrlAspectChainCallback callback) {
-        this.aspectIterator = aspects.iterator();
+        this(FileStorageAspectTable.toArray(aspects), callback);
+    }
+
+    /**
+     * 通过切面表创建，只会调用重写了对应方法的切面
+     */
+    public GenerateThPresignedUrlAspectChain(
+            FileStorageAspectTable aspectTable, GenerateThPresignedUrlAspectChainCallback callback) {
+        this(aspectTable.get(GenerateThPresignedUrlAspectChain.class), callback);
+    }
+
+    private GenerateThPresignedUrlAspectChain(
+            FileStorageAspect[] aspects, GenerateThPresignedUrlAspectChainCallback callback) {
+        this.aspects = aspects;
         this.callback = callback;
     }
 
+    /**
+     * 获取剩余切面的迭代器，通过迭代器取出的切面不会再被调用，请使用 getAspects() 和 getIndex() 代替
+     */
+    @Deprecated
+    public Iterator<FileStorageAspect> getAspectIterator() {
+        return new AspectChainIterator(() -> aspects, () -> index, i -> index = i);
+    }
+
+    /**
+     * 使用迭代器中剩余的切面替换剩余的切面，请使用 setAspects() 和 setIndex() 代替
+     */
+    @Deprecated
+    public void setAspectIterator(Iterator<FileStorageAspect> aspectIterator) {
+        aspects = FileStorageAspectTable.toArray(() -> aspectIterator);
+        index = 0;
+    }
+
     /**
      * 调用下一个切面
      */
     public String next(FileInfo fileInfo, Date expiration, FileStorage fileStorage) {
-        if (aspectIterator.hasNext()) { // 还有下一个
-            return aspectIterator.next().generateThPresignedUrlAround(this, fileInfo, expiration, fileStorage);
+        if (index < aspects.length) { // 还有下一个
+            return aspects[index++].generateThPresignedUrlAround(this, fileInfo, expiration, fileStorage);
         } else {
             return callback.run(fileInfo, expiration, fileStorage);
         }
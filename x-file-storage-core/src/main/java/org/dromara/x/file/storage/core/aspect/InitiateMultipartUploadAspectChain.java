@@ -16,14 +16,45 @@ import org.dromara.x.file.storage.core.upload.InitiateMultipartUploadPretreatmen
 public class InitiateMultipartUploadAspectChain {
 
     private InitiateMultipartUploadAspectChainCallback callback;
-    private Iterator<FileStorageAspect> aspectIterator;
+    private FileStorageAspect[] aspects;
+    private int index;
 
     public InitiateMultipartUploadAspectChain(
             Iterable<FileStorageAspect> aspects, InitiateMultipartUploadAspectChainCallback callback) {
-        this.aspectIterator = aspects.iterator();
+        this(FileStorageAspectTable.toArray(aspects), callback);
+    }
+
+    /**
+     * 通过切面表创建，只会调用重写了对应方法的切面
+     */
+    public InitiateMultipartUploadAspectChain(
+            FileStorageAspectTable aspectTable, InitiateMultipartUploadAspectChainCallback callback) {
+        this(aspectTable.get(InitiateMultipartUploadAspectChain.class), callback);
+    }
+
+    private InitiateMultipartUploadAspectChain(
+            FileStorageAspect[] aspects, InitiateMultipartUploadAspectChainCallback callback) {
+        this.aspects = aspects;
         this.callback = callback;
     }
 
+    /**
+     * 获取剩余切面的迭代器，通过迭代器取出的切面不会再被调用，请使用 getAspects() 和 getIndex() 代替
+     */
+    @Deprecated
+    public Iterator<FileStorageAspect> getAspectIterator() {
+        return new AspectChainIterator(() -> aspects, () -> index, i -> index = i);
+    }
+
+    /**
+     * 使用迭代器中剩余的切面替换剩余的切面，请使用 setAspects() 和 setIndex() 代替
+     */
+    @Deprecated
+    public void setAspectIterator(Iterator<FileStorageAspect> aspectIterator) {
+        aspects = FileStorageAspectTable.toArray(() -> aspectIterator);
+        index = 0;
+    }
+
     /**
      * 调用下一个切面
      */
@@ -32,8 +63,8 @@ public class InitiateMultipartUploadAspectChain {
             InitiateMultipartUploadPretreatment pre,
             FileStorage fileStorage,
             FileRecorder fileRecorder) {
-        if (aspectIterator.hasNext()) { // 还有下一个
-            return aspectIterator.next().initiateMultipartUploadAround(this, fileInfo, pre, fileStorage, fileRecorder);
+        if (index < aspects.length) { // 还有下一个
+            return aspects[index++].initiateMultipartUploadAround(this, fileInfo, pre, fileStorage, fileRecorder);
         } else {
             return callback.run(fileInfo, pre, fileStorage, fileRecorder);
         }
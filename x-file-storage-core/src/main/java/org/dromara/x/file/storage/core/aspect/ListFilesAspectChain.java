@@ -15,19 +15,48 @@ import org.dromara.x.file.storage.core.platform.FileStorage;
 public class ListFilesAspectChain {
 
     private ListFilesAspectChainCallback callback;
-    private Iterator<FileStorageAspect> aspectIterator;
+    private FileStorageAspect[] aspects;
+    private int index;
 
     public ListFilesAspectChain(Iterable<FileStorageAspect> aspects, ListFilesAspectChainCallback callback) {
-        this.aspectIterator = aspects.iterator();
+        this(FileStorageAspectTable.toArray(aspects), callback);
+    }
+
+    /**
+     * 通过切面表创建，只会调用重写了对应方法的切面
+     */
+    public ListFilesAspectChain(FileStorageAspectTable aspectTable, ListFilesAspectChainCallback callback) {
+        this(aspectTable.get(ListFilesAspectChain.class), callback);
+    }
+
+    private ListFilesAspectChain(FileStorageAspect[] aspects, ListFilesAspectChainCallback callback) {
+        this.aspects = aspects;
         this.callback = callback;
     }
 
+    /**
+     * 获取剩余切面的迭代器，通过迭代器取出的切面不会再被调用，请使用 getAspects() 和 getIndex() 代替
+     */
+    @Deprecated
+    public Iterator<FileStorageAspect> getAspectIterator() {
+        return new AspectChainIterator(() -> aspects, () -> index, i -> index = i);
+    }
+
+    /**
+     * 使用迭代器中剩余的切面替换剩余的切面，请使用 setAspects() 和 setIndex() 代替
+     */
+    @Deprecated
+    public void setAspectIterator(Iterator<FileStorageAspect> aspectIterator) {
+        aspects = FileStorageAspectTable.toArray(() -> aspectIterator);
+        index = 0;
+    }
+
     /**
      * 调用下一个切面
      */
     public ListFilesResult next(ListFilesPretreatment pre, FileStorage fileStorage) {
-        if (aspectIterator.hasNext()) { // 还有下一个
-            return aspectIterator.next().listFiles(this, pre, fileStorage);
+        if (index < aspects.length) { // 还有下一个
+            return aspects[index++].listFiles(this, pre, fileStorage);
         } else {
             return callback.run(pre, fileStorage);
         }
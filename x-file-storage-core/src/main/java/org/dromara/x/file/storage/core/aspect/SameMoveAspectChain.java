@@ -16,13 +16,42 @@ import org.dromara.x.file.storage.core.recorder.FileRecorder;
 public class SameMoveAspectChain {
 
     private SameMoveAspectChainCallback callback;
-    private Iterator<FileStorageAspect> aspectIterator;
+    private FileStorageAspect[] aspects;
+    private int index;
 
     public SameMoveAspectChain(Iterable<FileStorageAspect> aspects, SameMoveAspectChainCallback callback) {
-        this.aspectIterator = aspects.iterator();
+        this(FileStorageAspectTable.toArray(aspects), callback);
+    }
+
+    /**
+     * 通过切面表创建，只会调用重写了对应方法的切面
+     */
+    public SameMoveAspectChain(FileStorageAspectTable aspectTable, SameMoveAspectChainCallback callback) {
+        this(aspectTable.get(SameMoveAspectChain.class), callback);
+    }
+
+    private SameMoveAspectChain(FileStorageAspect[] aspects, SameMoveAspectChainCallback callback) {
+        this.aspects = aspects;
         this.callback = callback;
     }
 
+    /**
+     * 获取剩余切面的迭代器，通过迭代器取出的切面不会再被调用，请使用 getAspects() 和 getIndex() 代替
+     */
+    @Deprecated
+    public Iterator<FileStorageAspect> getAspectIterator() {
+        return new AspectChainIterator(() -> aspects, () -> index, i -> index = i);
+    }
+
+    /**
+     * 使用迭代器中剩余的切面替换剩余的切面，请使用 setAspects() 和 setIndex() 代替
+     */
+    @Deprecated
+    public void setAspectIterator(Iterator<FileStorageAspect> aspectIterator) {
+        aspects = FileStorageAspectTable.toArray(() -> aspectIterator);
+        index = 0;
+    }
+
     /**
      * 调用下一个切面
      */
@@ -32,10 +61,8 @@ public class SameMoveAspectChain {
             MovePretreatment pre,
             FileStorage fileStorage,
             FileRecorder fileRecorder) {
-        if (aspectIterator.hasNext()) { // 还有下一个
-            return aspectIterator
-                    .next()
-                    .sameMoveAround(this, srcFileInfo, destFileInfo, pre, fileStorage, fileRecorder);
+        if (index < aspects.length) { // 还有下一个
+            return aspects[index++].sameMoveAround(this, srcFileInfo, destFileInfo, pre, fileStorage, fileRecorder);
         } else {
             return callback.run(srcFileInfo, destFileInfo, pre, fileStorage, fileRecorder);
         }
@@ -16,20 +16,49 @@ import org.dromara.x.file.storage.core.recorder.FileRecorder;
 public class UploadAspectChain {
 
     private UploadAspectChainCallback callback;
-    private Iterator<FileStorageAspect> aspectIterator;
+    private FileStorageAspect[] aspects;
+    private int index;
 
     public UploadAspectChain(Iterable<FileStorageAspect> aspects, UploadAspectChainCallback callback) {
-        this.aspectIterator = aspects.iterator();
+        this(FileStorageAspectTable.toArray(aspects), callback);
+    }
+
+    /**
+     * 通过切面表创建，只会调用重写了对应方法的切面
+     */
+    public UploadAspectChain(FileStorageAspectTable aspectTable, UploadAspectChainCallback callback) {
+        this(aspectTable.get(UploadAspectChain.class), callback);
+    }
+
+    private UploadAspectChain(FileStorageAspect[] aspects, UploadAspectChainCallback callback) {
+        this.aspects = aspects;
         this.callback = callback;
     }
 
+    /**
+     * 获取剩余切面的迭代器，通过迭代器取出的切面不会再被调用，请使用 getAspects() 和 getIndex() 代替
+     */
+    @Deprecated
+    public Iterator<FileStorageAspect> getAspectIterator() {
+        return new AspectChainIterator(() -> aspects, () -> index, i -> index = i);
+    }
+
+    /**
+     * 使用迭代器中剩余的切面替换剩余的切面，请使用 setAspects() 和 setIndex() 代替
+     */
+    @Deprecated
+    public void setAspectIterator(Iterator<FileStorageAspect> aspectIterator) {
+        aspects = FileStorageAspectTable.toArray(() -> aspectIterator);
+        index = 0;
+    }
+
     /**
      * 调用下一个切面
      */
     public FileInfo next(
             FileInfo fileInfo, UploadPretreatment pre, FileStorage fileStorage, FileRecorder fileRecorder) {
-        if (aspectIterator.hasNext()) { // 还有下一个
-            return aspectIterator.next().uploadAround(this, fileInfo, pre, fileStorage, fileRecorder);
+        if (index < aspects.length) { // 还有下一个
+            return aspects[index++].uploadAround(this, fileInfo, pre, fileStorage, fileRecorder);
         } else {
             return callback.run(fileInfo, pre, fileStorage, fileRecorder);
         }
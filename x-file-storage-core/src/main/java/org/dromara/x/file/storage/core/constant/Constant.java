@@ -218,6 +218,34 @@ public interface Constant {
             String SHA384 = "SHA-384";
             String SHA512 = "SHA-512";
         }
+
+        /**
+         * 校验和，计算速度比摘要信息快很多，适合校验文件完整性
+         */
+        interface Checksum {
+            /**
+             * CRC32C，值为 8 位小写十六进制字符串
+             */
+            String CRC32C = "CRC32C";
+            /**
+             * CRC64-ECMA（CRC-64/XZ），值为无符号十进制字符串，与阿里云 OSS、腾讯云 COS 返回的 CRC64 一致
+             */
+            String CRC64 = "CRC64";
+            /**
+             * xxHash64（种子为 0），值为 16 位小写十六进制字符串
+             */
+            String XXHASH64 = "XXHASH64";
+        }
+
+        /**
+         * 树形哈希，按固定大小分块计算摘要后再两两合并，各个分块可以并行计算
+         */
+        interface Tree {
+            /**
+             * 按 1MB 分块的 SHA-256 树形哈希，与 Amazon S3 Glacier 的 Tree Hash 一致
+             */
+            String SHA256 = "TREE-SHA-256";
+        }
     }
 
     /**
@@ -6,17 +6,23 @@ import cn.hutool.core.util.StrUtil;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.dromara.x.file.storage.core.Downloader;
 import org.dromara.x.file.storage.core.FileInfo;
 import org.dromara.x.file.storage.core.FileStorageService;
 import org.dromara.x.file.storage.core.aspect.CopyAspectChain;
 import org.dromara.x.file.storage.core.aspect.FileStorageAspect;
+import org.dromara.x.file.storage.core.aspect.FileStorageAspectTable;
 import org.dromara.x.file.storage.core.aspect.SameCopyAspectChain;
+import org.dromara.x.file.storage.core.aspect.UploadAspectChain;
 import org.dromara.x.file.storage.core.constant.Constant.CopyMode;
 import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
 import org.dromara.x.file.storage.core.hash.HashInfo;
 import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.platform.FileStorageRegistry;
 import org.dromara.x.file.storage.core.recorder.FileRecorder;
+import org.dromara.x.file.storage.core.upload.ThumbnailVariantInfo;
+import org.dromara.x.file.storage.core.upload.UploadPretreatment;
 
 /**
  * 复制执行器
@@ -36,16 +42,17 @@ public class CopyActuator {
      * 复制文件，成功后返回新的 FileInfo
      */
     public FileInfo execute() {
-        return execute(
-                fileStorageService.getFileStorageVerify(fileInfo.getPlatform()),
-                fileStorageService.getFileRecorder(),
-                fileStorageService.getAspectList());
+        try (FileStorageRegistry.Lease lease = fileStorageService.acquireFileStorageVerify(fileInfo.getPlatform())) {
+            return execute(
+                    lease.getFileStorage(), fileStorageService.getFileRecorder(), fileStorageService.getAspectList());
+        }
     }
 
     /**
      * 复制文件，成功后返回新的 FileInfo
      */
     public FileInfo execute(FileStorage fileStorage, FileRecorder fileRecorder, List<FileStorageAspect> aspectList) {
+        FileStorageAspectTable aspectTable = fileStorageService.getAspectTable(aspectList);
         if (fileInfo == null) throw new FileStorageRuntimeException("fileInfo 不能为 null");
         if (fileInfo.getPlatform() == null) throw new FileStorageRuntimeException("fileInfo 的 platform 不能为 null");
         if (fileInfo.getPath() == null) throw new FileStorageRuntimeException("fileInfo 的 path 不能为 null");
@@ -57,7 +64,7 @@ public class CopyActuator {
         }
 
         // 处理切面
-        return new CopyAspectChain(aspectList, (_srcFileInfo, _pre, _fileStorage, _fileRecorder) -> {
+        return new CopyAspectChain(aspectTable, (_srcFileInfo, _pre, _fileStorage, _fileRecorder) -> {
                     // 真正开始复制
                     FileInfo destFileInfo;
                     if (isSameCopy(_srcFileInfo, _pre, _fileStorage)) {
@@ -97,6 +104,7 @@ public class CopyActuator {
             FileStorage fileStorage,
             FileRecorder fileRecorder,
             List<FileStorageAspect> aspectList) {
+        FileStorageAspectTable aspectTable = fileStorageService.getAspectTable(aspectList);
         // 检查文件名是否与原始的相同
         if ((srcFileInfo.getPath() + srcFileInfo.getFilename()).equals(pre.getPath() + pre.getFilename())) {
             throw new FileStorageRuntimeException("源文件与目标文件路径相同");
@@ -143,14 +151,136 @@ public class CopyActuator {
         destFileInfo.setThFileAcl(srcFileInfo.getThFileAcl());
         destFileInfo.setCreateTime(new Date());
 
-        return new SameCopyAspectChain(aspectList, (_srcfileInfo, _destFileInfo, _pre, _fileStorage, _fileRecorder) -> {
-                    _fileStorage.sameCopy(_srcfileInfo, _destFileInfo, _pre);
-                    _fileRecorder.save(_destFileInfo);
-                    return _destFileInfo;
-                })
+        return new SameCopyAspectChain(
+                        aspectTable, (_srcfileInfo, _destFileInfo, _pre, _fileStorage, _fileRecorder) -> {
+                            _fileStorage.sameCopy(_srcfileInfo, _destFileInfo, _pre);
+                            sameCopyThumbnailVariants(_srcfileInfo, _destFileInfo, _pre, _fileStorage);
+                            _fileRecorder.save(_destFileInfo);
+                            return _destFileInfo;
+                        })
                 .next(srcFileInfo, destFileInfo, pre, fileStorage, fileRecorder);
     }
 
+    /**
+     * 同存储平台复制多规格缩略图，复制后的规格信息写入目标文件信息中，失败时删除已经复制的文件
+     */
+    protected void sameCopyThumbnailVariants(
+            FileInfo srcFileInfo, FileInfo destFileInfo, CopyPretreatment pre, FileStorage fileStorage) {
+        if (srcFileInfo.getThVariants() == null) return;
+        Map<String, ThumbnailVariantInfo> thVariants = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, ThumbnailVariantInfo> entry : srcFileInfo.getThVariants().entrySet()) {
+                ThumbnailVariantInfo variant = entry.getValue();
+                String filename = fileStorageService.getThumbnailVariantFilename(
+                        srcFileInfo, entry.getKey(), variant, destFileInfo.getFilename(), destFileInfo.getThFilename());
+                ThumbnailVariantInfo destVariant = new ThumbnailVariantInfo()
+                        .setFilename(filename)
+                        .setSize(variant.getSize())
+                        .setContentType(variant.getContentType());
+                FileInfo srcVariantFileInfo = fileStorageService.getThumbnailVariantFileInfo(srcFileInfo, variant);
+                FileInfo destVariantFileInfo = fileStorageService
+                        .getThumbnailVariantFileInfo(destFileInfo, destVariant)
+                        .setExt(FileNameUtil.extName(filename))
+                        .setFileAcl(destFileInfo.getThFileAcl());
+                CopyPretreatment variantPre = new CopyPretreatment(srcVariantFileInfo, fileStorageService)
+                        .setPlatform(pre.getPlatform())
+                        .setPath(pre.getPath())
+                        .setFilename(filename)
+                        .setNotSupportMetadataThrowException(pre.getNotSupportMetadataThrowException())
+                        .setNotSupportAclThrowException(pre.getNotSupportAclThrowException());
+                fileStorage.sameCopy(srcVariantFileInfo, destVariantFileInfo, variantPre);
+                thVariants.put(entry.getKey(), destVariant.setUrl(destVariantFileInfo.getUrl()));
+            }
+        } catch (RuntimeException e) {
+            deleteQuietly(destFileInfo, thVariants, fileStorage);
+            throw e;
+        }
+        destFileInfo.setThVariants(thVariants);
+    }
+
+    /**
+     * 跨存储平台复制多规格缩略图，逐个下载后重新上传，上传时同样会经过上传切面，但不会单独保存文件记录，
+     * 复制后的规格信息写入目标文件信息中并更新文件记录，失败时删除已经复制的文件及文件记录
+     */
+    protected void crossCopyThumbnailVariants(
+            FileInfo srcFileInfo,
+            FileInfo destFileInfo,
+            CopyPretreatment pre,
+            FileStorage fileStorage,
+            FileStorage destFileStorage,
+            FileRecorder fileRecorder,
+            List<FileStorageAspect> aspectList) {
+        if (srcFileInfo.getThVariants() == null) return;
+        FileStorageAspectTable aspectTable = fileStorageService.getAspectTable(aspectList);
+        Map<String, ThumbnailVariantInfo> thVariants = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, ThumbnailVariantInfo> entry : srcFileInfo.getThVariants().entrySet()) {
+                ThumbnailVariantInfo variant = entry.getValue();
+                String filename = fileStorageService.getThumbnailVariantFilename(
+                        srcFileInfo, entry.getKey(), variant, destFileInfo.getFilename(), destFileInfo.getThFilename());
+                byte[] bytes = new Downloader(
+                                fileStorageService.getThumbnailVariantFileInfo(srcFileInfo, variant),
+                                aspectTable,
+                                fileStorage,
+                                Downloader.TARGET_FILE)
+                        .bytes();
+                ThumbnailVariantInfo destVariant = new ThumbnailVariantInfo()
+                        .setFilename(filename)
+                        .setSize((long) bytes.length)
+                        .setContentType(variant.getContentType());
+                FileInfo destVariantFileInfo = fileStorageService
+                        .getThumbnailVariantFileInfo(destFileInfo, destVariant)
+                        .setOriginalFilename(filename)
+                        .setExt(FileNameUtil.extName(filename))
+                        .setCreateTime(destFileInfo.getCreateTime())
+                        .setFileAcl(destFileInfo.getThFileAcl());
+                UploadPretreatment variantPre = fileStorageService
+                        .of(bytes, filename, variant.getContentType(), (long) bytes.length)
+                        .setPlatform(pre.getPlatform())
+                        .setPath(pre.getPath())
+                        .setSaveFilename(filename)
+                        .setNotSupportAclThrowException(
+                                pre.getNotSupportAclThrowException() != null, pre.getNotSupportAclThrowException())
+                        .setFileAcl(destFileInfo.getThFileAcl() != null, destFileInfo.getThFileAcl());
+                FileInfo result = new UploadAspectChain(
+                                aspectTable,
+                                (_fileInfo, _pre, _fileStorage, _fileRecorder) ->
+                                        _fileStorage.save(_fileInfo, _pre) ? _fileInfo : null)
+                        .next(destVariantFileInfo, variantPre, destFileStorage, fileRecorder);
+                if (result == null) {
+                    throw new FileStorageRuntimeException("复制多规格缩略图失败！variantName:" + entry.getKey());
+                }
+                thVariants.put(entry.getKey(), destVariant.setUrl(result.getUrl()));
+            }
+            destFileInfo.setThVariants(thVariants);
+            fileRecorder.update(destFileInfo);
+        } catch (RuntimeException e) {
+            deleteQuietly(destFileInfo, thVariants, destFileStorage);
+            try {
+                fileRecorder.delete(destFileInfo.getUrl());
+            } catch (Exception ignored) {
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 复制多规格缩略图失败时，删除已经复制的文件、缩略图及多规格缩略图
+     */
+    private void deleteQuietly(
+            FileInfo destFileInfo, Map<String, ThumbnailVariantInfo> thVariants, FileStorage fileStorage) {
+        for (ThumbnailVariantInfo variant : thVariants.values()) {
+            try {
+                fileStorage.delete(fileStorageService.getThumbnailVariantFileInfo(destFileInfo, variant));
+            } catch (Exception ignored) {
+            }
+        }
+        try {
+            fileStorage.delete(destFileInfo);
+        } catch (Exception ignored) {
+        }
+    }
+
     /**
      * 跨存储平台复制，通过从下载并重新上传来实现
      */
@@ -160,43 +290,52 @@ public class CopyActuator {
             FileStorage fileStorage,
             FileRecorder fileRecorder,
             List<FileStorageAspect> aspectList) {
-        // 下载缩略图
-        byte[] thBytes = StrUtil.isNotBlank(srcFileInfo.getThFilename())
-                ? new Downloader(srcFileInfo, aspectList, fileStorage, Downloader.TARGET_TH_FILE).bytes()
-                : null;
-
-        final FileInfo[] destFileInfoArr = new FileInfo[1];
-        new Downloader(srcFileInfo, aspectList, fileStorage, Downloader.TARGET_FILE).inputStream(in -> {
-            String thumbnailSuffix = FileNameUtil.extName(pre.getThFilename());
-            if (StrUtil.isNotBlank(thumbnailSuffix)) thumbnailSuffix = "." + thumbnailSuffix;
-
-            destFileInfoArr[0] = fileStorageService
-                    .of(in, srcFileInfo.getOriginalFilename(), srcFileInfo.getContentType(), srcFileInfo.getSize())
-                    .setPlatform(pre.getPlatform())
-                    .setPath(pre.getPath())
-                    .setSaveFilename(pre.getFilename())
-                    .setContentType(srcFileInfo.getContentType())
-                    .setSaveThFilename(thBytes != null, FileNameUtil.mainName(pre.getThFilename()))
-                    .setThumbnailSuffix(thBytes != null, thumbnailSuffix)
-                    .thumbnailOf(thBytes != null, thBytes)
-                    .setThContentType(srcFileInfo.getThContentType())
-                    .setObjectType(srcFileInfo.getObjectType())
-                    .setObjectId(srcFileInfo.getObjectId())
-                    .setNotSupportAclThrowException(
-                            pre.getNotSupportAclThrowException() != null, pre.getNotSupportAclThrowException())
-                    .setFileAcl(srcFileInfo.getFileAcl() != null, srcFileInfo.getFileAcl())
-                    .setThFileAcl(srcFileInfo.getThFileAcl() != null, srcFileInfo.getThFileAcl())
-                    .setNotSupportMetadataThrowException(
-                            pre.getNotSupportMetadataThrowException() != null,
-                            pre.getNotSupportMetadataThrowException())
-                    .putMetadataAll(srcFileInfo.getMetadata() != null, srcFileInfo.getMetadata())
-                    .putThMetadataAll(srcFileInfo.getThMetadata() != null, srcFileInfo.getThMetadata())
-                    .putUserMetadataAll(srcFileInfo.getMetadata() != null, srcFileInfo.getUserMetadata())
-                    .putThUserMetadataAll(srcFileInfo.getThUserMetadata() != null, srcFileInfo.getThUserMetadata())
-                    .setProgressListener(pre.getProgressListener())
-                    .putAttrAll(srcFileInfo.getAttr() != null, srcFileInfo.getAttr())
-                    .upload(fileStorageService.getFileStorageVerify(pre.getPlatform()), fileRecorder, aspectList);
-        });
-        return destFileInfoArr[0];
+        FileStorageAspectTable aspectTable = fileStorageService.getAspectTable(aspectList);
+        // 目标存储平台在复制完成前都标记为使用中
+        try (FileStorageRegistry.Lease destLease = fileStorageService.acquireFileStorageVerify(pre.getPlatform())) {
+            FileStorage destFileStorage = destLease.getFileStorage();
+            // 下载缩略图
+            byte[] thBytes = StrUtil.isNotBlank(srcFileInfo.getThFilename())
+                    ? new Downloader(srcFileInfo, aspectTable, fileStorage, Downloader.TARGET_TH_FILE).bytes()
+                    : null;
+
+            final FileInfo[] destFileInfoArr = new FileInfo[1];
+            new Downloader(srcFileInfo, aspectTable, fileStorage, Downloader.TARGET_FILE).inputStream(in -> {
+                String thumbnailSuffix = FileNameUtil.extName(pre.getThFilename());
+                if (StrUtil.isNotBlank(thumbnailSuffix)) thumbnailSuffix = "." + thumbnailSuffix;
+
+                destFileInfoArr[0] = fileStorageService
+                        .of(in, srcFileInfo.getOriginalFilename(), srcFileInfo.getContentType(), srcFileInfo.getSize())
+                        .setPlatform(pre.getPlatform())
+                        .setPath(pre.getPath())
+                        .setSaveFilename(pre.getFilename())
+                        .setContentType(srcFileInfo.getContentType())
+                        .setSaveThFilename(thBytes != null, FileNameUtil.mainName(pre.getThFilename()))
+                        .setThumbnailSuffix(thBytes != null, thumbnailSuffix)
+                        .thumbnailOf(thBytes != null, thBytes)
+                        .setThContentType(srcFileInfo.getThContentType())
+                        .setObjectType(srcFileInfo.getObjectType())
+                        .setObjectId(srcFileInfo.getObjectId())
+                        .setNotSupportAclThrowException(
+                                pre.getNotSupportAclThrowException() != null, pre.getNotSupportAclThrowException())
+                        .setFileAcl(srcFileInfo.getFileAcl() != null, srcFileInfo.getFileAcl())
+                        .setThFileAcl(srcFileInfo.getThFileAcl() != null, srcFileInfo.getThFileAcl())
+                        .setNotSupportMetadataThrowException(
+                                pre.getNotSupportMetadataThrowException() != null,
+                                pre.getNotSupportMetadataThrowException())
+                        .putMetadataAll(srcFileInfo.getMetadata() != null, srcFileInfo.getMetadata())
+                        .putThMetadataAll(srcFileInfo.getThMetadata() != null, srcFileInfo.getThMetadata())
+                        .putUserMetadataAll(srcFileInfo.getMetadata() != null, srcFileInfo.getUserMetadata())
+                        .putThUserMetadataAll(srcFileInfo.getThUserMetadata() != null, srcFileInfo.getThUserMetadata())
+                        .setProgressListener(pre.getProgressListener())
+                        .putAttrAll(srcFileInfo.getAttr() != null, srcFileInfo.getAttr())
+                        .upload(destFileStorage, fileRecorder, aspectList);
+            });
+            if (destFileInfoArr[0] != null) {
+                crossCopyThumbnailVariants(
+                        srcFileInfo, destFileInfoArr[0], pre, fileStorage, destFileStorage, fileRecorder, aspectList);
+            }
+            return destFileInfoArr[0];
+        }
     }
 }
@@ -0,0 +1,249 @@
+package org.dromara.x.file.storage.core.delete;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.FileStorageService;
+import org.dromara.x.file.storage.core.aspect.DeleteBatchAspectChain;
+import org.dromara.x.file.storage.core.aspect.FileStorageAspect;
+import org.dromara.x.file.storage.core.aspect.FileStorageAspectTable;
+import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
+import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.platform.FileStorageRegistry;
+import org.dromara.x.file.storage.core.recorder.BatchFileRecorder;
+import org.dromara.x.file.storage.core.recorder.FileRecorder;
+import org.dromara.x.file.storage.core.upload.ThumbnailVariantInfo;
+
+/**
+ * 批量删除文件执行器，按存储平台分组，每个存储平台只获取一次。
+ * 支持批量删除的存储平台通过原生的批量删除接口删除文件、缩略图及多规格缩略图，其它存储平台并发逐个删除，
+ * 删除成功后再删除对应的文件记录，文件记录者实现了 {@link BatchFileRecorder} 时批量删除文件记录
+ */
+@Slf4j
+public class DeleteBatchActuator {
+    /**
+     * 存储平台不支持批量删除时，每次批量删除同时删除的最大数量，线程由 {@link FileStorageService#getDeleteExecutor()} 提供
+     */
+    public static final int PARALLELISM = 8;
+
+    private final FileStorageService fileStorageService;
+    private final List<FileInfo> fileInfoList;
+
+    public DeleteBatchActuator(FileStorageService fileStorageService, List<FileInfo> fileInfoList) {
+        this.fileStorageService = fileStorageService;
+        this.fileInfoList = fileInfoList;
+    }
+
+    /**
+     * 执行批量删除，返回与传入的文件顺序一致的结果，成功为 true，文件为 null 时对应的结果也为 true
+     */
+    public List<Boolean> execute() {
+        Boolean[] results = new Boolean[fileInfoList.size()];
+        Map<String, List<Integer>> platformIndexMap = new LinkedHashMap<>();
+        for (int i = 0; i < fileInfoList.size(); i++) {
+            FileInfo fileInfo = fileInfoList.get(i);
+            if (fileInfo == null) {
+                results[i] = true;
+                continue;
+            }
+            results[i] = false;
+            platformIndexMap.computeIfAbsent(fileInfo.getPlatform(), k -> new ArrayList<>()).add(i);
+        }
+
+        FileRecorder fileRecorder = fileStorageService.getFileRecorder();
+        List<FileStorageAspect> aspectList = fileStorageService.getAspectList();
+        platformIndexMap.forEach((platform, indexList) -> {
+            try (FileStorageRegistry.Lease lease = fileStorageService.getFileStorageRegistry().acquire(platform)) {
+                if (lease == null) {
+                    log.error("批量删除文件失败，没有找到对应的存储平台！platform：{}，数量：{}", platform, indexList.size());
+                    return;
+                }
+                List<FileInfo> list = new ArrayList<>(indexList.size());
+                for (Integer i : indexList) list.add(fileInfoList.get(i));
+                List<Boolean> resultList = new DeleteBatchActuator(fileStorageService, list)
+                        .execute(lease.getFileStorage(), fileRecorder, aspectList);
+                for (int i = 0; i < indexList.size(); i++) {
+                    results[indexList.get(i)] = Boolean.TRUE.equals(resultList.get(i));
+                }
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 在指定的存储平台中执行批量删除，传入的文件必须都属于此存储平台
+     */
+    public List<Boolean> execute(
+            FileStorage fileStorage, FileRecorder fileRecorder, List<FileStorageAspect> aspectList) {
+        FileStorageAspectTable aspectTable = fileStorageService.getAspectTable(aspectList);
+        return new DeleteBatchAspectChain(aspectTable, (_fileInfoList, _fileStorage, _fileRecorder) -> {
+                    boolean[] deleted = _fileStorage.isSupportDeleteBatch()
+                            ? deleteByBatch(_fileInfoList, _fileStorage)
+                            : deleteOneByOne(_fileInfoList, _fileStorage);
+                    deleteRecord(_fileInfoList, deleted, _fileRecorder);
+                    List<Boolean> resultList = new ArrayList<>(deleted.length);
+                    for (boolean b : deleted) resultList.add(b);
+                    return resultList;
+                })
+                .next(fileInfoList, fileStorage, fileRecorder);
+    }
+
+    /**
+     * 只删除存储平台中的文件、缩略图及多规格缩略图，不删除文件记录，也不经过切面，传入的文件必须都属于此存储平台
+     * @return 与传入的文件顺序一致的结果，成功为 true
+     */
+    public boolean[] deleteFiles(FileStorage fileStorage) {
+        return fileStorage.isSupportDeleteBatch()
+                ? deleteByBatch(fileInfoList, fileStorage)
+                : deleteOneByOne(fileInfoList, fileStorage);
+    }
+
+    /**
+     * 通过存储平台原生的批量删除接口删除，文件、缩略图及多规格缩略图都删除成功才算成功，
+     * 避免删除了文件记录而存储平台中还有残留的多规格缩略图
+     */
+    private boolean[] deleteByBatch(List<FileInfo> list, FileStorage fileStorage) {
+        Set<String> keySet = new LinkedHashSet<>();
+        for (FileInfo fileInfo : list) {
+            keySet.add(fileStorage.getFileKey(fileInfo));
+            String thKey = fileStorage.getThFileKey(fileInfo);
+            if (thKey != null) keySet.add(thKey);
+            if (fileInfo.getThVariants() != null) {
+                for (ThumbnailVariantInfo variant : fileInfo.getThVariants().values()) {
+                    FileInfo variantFileInfo = fileStorageService.getThumbnailVariantFileInfo(fileInfo, variant);
+                    keySet.add(fileStorage.getFileKey(variantFileInfo));
+                }
+            }
+        }
+
+        List<String> keyList = new ArrayList<>(keySet);
+        Set<String> failedSet = new HashSet<>();
+        int maxSize = Math.max(1, fileStorage.getDeleteBatchMaxSize());
+        for (int start = 0; start < keyList.size(); start += maxSize) {
+            List<String> subList = keyList.subList(start, Math.min(start + maxSize, keyList.size()));
+            try {
+                failedSet.addAll(fileStorage.deleteBatch(subList));
+            } catch (Exception e) {
+                log.error("批量删除文件失败！platform：{}，数量：{}", fileStorage.getPlatform(), subList.size(), e);
+                failedSet.addAll(subList);
+            }
+        }
+
+        boolean[] deleted = new boolean[list.size()];
+        for (int i = 0; i < list.size(); i++) {
+            FileInfo fileInfo = list.get(i);
+            String thKey = fileStorage.getThFileKey(fileInfo);
+            deleted[i] = !failedSet.contains(fileStorage.getFileKey(fileInfo))
+                    && (thKey == null || !failedSet.contains(thKey));
+            if (deleted[i] && fileInfo.getThVariants() != null) {
+                for (ThumbnailVariantInfo variant : fileInfo.getThVariants().values()) {
+                    FileInfo variantFileInfo = fileStorageService.getThumbnailVariantFileInfo(fileInfo, variant);
+                    if (failedSet.contains(fileStorage.getFileKey(variantFileInfo))) {
+                        deleted[i] = false;
+                        break;
+                    }
+                }
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * 存储平台不支持批量删除时，在共享的线程池中使用有限的并发逐个删除，没有线程池时在当前线程逐个删除
+     */
+    private boolean[] deleteOneByOne(List<FileInfo> list, FileStorage fileStorage) {
+        boolean[] deleted = new boolean[list.size()];
+        ExecutorService executor = fileStorageService.getDeleteExecutor();
+        if (executor == null || list.size() <= 1) {
+            for (int i = 0; i < list.size(); i++) deleted[i] = deleteOne(list.get(i), fileStorage);
+            return deleted;
+        }
+        Semaphore semaphore = new Semaphore(PARALLELISM);
+        List<Future<?>> futureList = new ArrayList<>(list.size());
+        try {
+            for (int i = 0; i < list.size(); i++) {
+                int index = i;
+                semaphore.acquire();
+                try {
+                    futureList.add(executor.submit(() -> {
+                        try {
+                            deleted[index] = deleteOne(list.get(index), fileStorage);
+                        } finally {
+                            semaphore.release();
+                        }
+                    }));
+                } catch (RejectedExecutionException e) {
+                    semaphore.release();
+                    deleted[index] = deleteOne(list.get(index), fileStorage);
+                }
+            }
+            for (Future<?> future : futureList) future.get();
+        } catch (InterruptedException e) {
+            for (Future<?> future : futureList) future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new FileStorageRuntimeException("批量删除文件被中断！platform：" + fileStorage.getPlatform(), e);
+        } catch (ExecutionException e) {
+            throw new FileStorageRuntimeException("批量删除文件失败！platform：" + fileStorage.getPlatform(), e);
+        }
+        return deleted;
+    }
+
+    /**
+     * 删除单个文件及多规格缩略图，任意一个删除失败时记录日志并返回 false
+     */
+    private boolean deleteOne(FileInfo fileInfo, FileStorage fileStorage) {
+        try {
+            if (!fileStorage.delete(fileInfo)) return false;
+            boolean success = true;
+            if (fileInfo.getThVariants() != null) {
+                for (ThumbnailVariantInfo variant : fileInfo.getThVariants().values()) {
+                    if (!fileStorage.delete(fileStorageService.getThumbnailVariantFileInfo(fileInfo, variant))) {
+                        log.error(
+                                "多规格缩略图删除失败！platform：{}，url：{}",
+                                fileStorage.getPlatform(),
+                                variant.getUrl());
+                        success = false;
+                    }
+                }
+            }
+            return success;
+        } catch (Exception e) {
+            log.error("文件删除失败！platform：{}，url：{}", fileStorage.getPlatform(), fileInfo.getUrl(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 删除已成功删除的文件对应的文件记录，文件记录删除失败时对应的结果改为 false
+     */
+    private void deleteRecord(List<FileInfo> list, boolean[] deleted, FileRecorder fileRecorder) {
+        if (fileRecorder instanceof BatchFileRecorder) {
+            List<String> urlList = new ArrayList<>();
+            for (int i = 0; i < list.size(); i++) {
+                if (deleted[i]) urlList.add(list.get(i).getUrl());
+            }
+            if (urlList.isEmpty()) return;
+            try {
+                ((BatchFileRecorder) fileRecorder).deleteBatch(urlList);
+            } catch (Exception e) {
+                log.error("批量删除文件记录失败！数量：{}", urlList.size(), e);
+                Arrays.fill(deleted, false);
+            }
+            return;
+        }
+        for (int i = 0; i < list.size(); i++) {
+            if (!deleted[i]) continue;
+            try {
+                deleted[i] = fileRecorder.delete(list.get(i).getUrl());
+            } catch (Exception e) {
+                log.error("删除文件记录失败！url：{}", list.get(i).getUrl(), e);
+                deleted[i] = false;
+            }
+        }
+    }
+}
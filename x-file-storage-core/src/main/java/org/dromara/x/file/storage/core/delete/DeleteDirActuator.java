@@ -0,0 +1,186 @@
+package org.dromara.x.file.storage.core.delete;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.FileStorageService;
+import org.dromara.x.file.storage.core.aspect.DeleteDirAspectChain;
+import org.dromara.x.file.storage.core.aspect.FileStorageAspect;
+import org.dromara.x.file.storage.core.aspect.FileStorageAspectTable;
+import org.dromara.x.file.storage.core.exception.Check;
+import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
+import org.dromara.x.file.storage.core.get.*;
+import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.platform.FileStorageRegistry;
+
+/**
+ * 删除目录执行器，存储平台支持原生的递归删除目录时直接删除，
+ * 否则逐页列举目录中的文件并批量删除，删除当前页的同时在后台列举下一页，子目录按深度优先逐个处理。
+ * 只删除存储平台中的文件，不会删除对应的文件记录
+ */
+@Slf4j
+public class DeleteDirActuator {
+    /**
+     * 存储平台没有返回每次列举的最大文件数量时，每页列举的文件数量
+     */
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+
+    private final FileStorageService fileStorageService;
+    private final DeleteDirPretreatment pre;
+
+    public DeleteDirActuator(DeleteDirPretreatment pre) {
+        this.pre = pre;
+        this.fileStorageService = pre.getFileStorageService();
+    }
+
+    /**
+     * 执行删除目录
+     */
+    public DeleteDirResult execute() {
+        try (FileStorageRegistry.Lease lease = fileStorageService.acquireFileStorageVerify(pre.getPlatform())) {
+            return execute(lease.getFileStorage(), fileStorageService.getAspectList());
+        }
+    }
+
+    /**
+     * 执行删除目录
+     */
+    public DeleteDirResult execute(FileStorage fileStorage, List<FileStorageAspect> aspectList) {
+        FileStorageAspectTable aspectTable = fileStorageService.getAspectTable(aspectList);
+        Check.deleteDir(pre);
+        return new DeleteDirAspectChain(aspectTable, (_pre, _fileStorage) -> {
+                    DeleteDirResult result = new DeleteDirResult();
+                    result.setPlatform(_pre.getPlatform());
+                    result.setPath(_pre.getPath());
+                    if (_fileStorage.isSupportDeleteDir()) {
+                        _fileStorage.deleteDir(_pre.getPath());
+                        result.setNativeDelete(true);
+                    } else {
+                        deleteByList(_pre, _fileStorage, aspectList, result);
+                    }
+                    result.setFinished(true);
+                    progress(_pre, result);
+                    return result;
+                })
+                .next(pre, fileStorage);
+    }
+
+    /**
+     * 逐页列举并删除，列举在后台线程中进行，同一时间最多持有两页的文件。
+     * 后台列举使用逐页列举文件的线程池，不使用删除线程池，删除当前页时会等待删除线程池中的任务完成，共用时可能互相等待
+     */
+    private void deleteByList(
+            DeleteDirPretreatment pre,
+            FileStorage fileStorage,
+            List<FileStorageAspect> aspectList,
+            DeleteDirResult result) {
+        ListFilesSupportInfo supportInfo = fileStorageService.isSupportListFiles(fileStorage);
+        if (!Boolean.TRUE.equals(supportInfo.getIsSupport())) {
+            throw new FileStorageRuntimeException("删除目录失败，当前存储平台不支持列举文件！platform：" + pre.getPlatform());
+        }
+        int pageSize = supportInfo.getSupportMaxFiles() == null ? DEFAULT_PAGE_SIZE : supportInfo.getSupportMaxFiles();
+
+        // 部分存储平台每页都会返回全部的子目录，这里需要去重
+        Set<String> dirSet = new HashSet<>();
+        Deque<String> dirStack = new ArrayDeque<>();
+        ExecutorService executor = fileStorageService.getListFilesExecutor();
+        Future<ListFilesResult> future = null;
+        try {
+            String path = pre.getPath();
+            dirSet.add(path);
+            result.setDirCount(1);
+            future = submitList(executor, pre, fileStorage, aspectList, path, null, pageSize);
+            while (future != null) {
+                ListFilesResult page = future.get();
+                if (result.getBasePath() == null) result.setBasePath(page.getBasePath());
+                if (page.getDirList() != null) {
+                    for (RemoteDirInfo dir : page.getDirList()) {
+                        String dirPath = path + dir.getName() + "/";
+                        if (dirSet.add(dirPath)) dirStack.push(dirPath);
+                    }
+                }
+
+                // 先在后台列举下一页，再删除当前页
+                String pagePath = path;
+                if (Boolean.TRUE.equals(page.getIsTruncated())) {
+                    future = submitList(executor, pre, fileStorage, aspectList, path, page.getNextMarker(), pageSize);
+                } else if (!dirStack.isEmpty()) {
+                    path = dirStack.pop();
+                    result.setDirCount(result.getDirCount() + 1);
+                    future = submitList(executor, pre, fileStorage, aspectList, path, null, pageSize);
+                } else {
+                    future = null;
+                }
+                deletePage(page, pagePath, fileStorage, result);
+                if (future != null) progress(pre, result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileStorageRuntimeException("删除目录被中断！platform：" + pre.getPlatform(), e);
+        } catch (ExecutionException e) {
+            throw new FileStorageRuntimeException(
+                    "删除目录失败，列举文件失败！platform：" + pre.getPlatform() + "，path：" + pre.getPath(), e.getCause());
+        } finally {
+            // 删除失败时取消后台还在进行的列举
+            if (future != null) future.cancel(true);
+        }
+    }
+
+    /**
+     * 在后台列举一页文件，没有线程池时直接列举
+     */
+    private Future<ListFilesResult> submitList(
+            ExecutorService executor,
+            DeleteDirPretreatment pre,
+            FileStorage fileStorage,
+            List<FileStorageAspect> aspectList,
+            String path,
+            String marker,
+            int pageSize) {
+        ListFilesPretreatment pagePre = new ListFilesPretreatment()
+                .setFileStorageService(fileStorageService)
+                .setPlatform(pre.getPlatform())
+                .setPath(path)
+                .setMaxFiles(pageSize)
+                .setMarker(marker);
+        if (executor != null) return executor.submit(() -> pagePre.listFiles(fileStorage, aspectList));
+        FutureTask<ListFilesResult> task = new FutureTask<>(() -> pagePre.listFiles(fileStorage, aspectList));
+        task.run();
+        return task;
+    }
+
+    /**
+     * 删除一页文件，支持批量删除的存储平台使用原生的批量删除接口
+     */
+    private void deletePage(ListFilesResult page, String path, FileStorage fileStorage, DeleteDirResult result) {
+        if (page.getFileList() == null || page.getFileList().isEmpty()) return;
+        List<FileInfo> list = new ArrayList<>(page.getFileList().size());
+        for (RemoteFileInfo info : page.getFileList()) {
+            String basePath = info.getBasePath() == null ? page.getBasePath() : info.getBasePath();
+            list.add(new FileInfo(basePath, info.getPath() == null ? path : info.getPath(), info.getFilename())
+                    .setPlatform(fileStorage.getPlatform())
+                    .setUrl(info.getUrl()));
+        }
+        boolean[] deleted = new DeleteBatchActuator(fileStorageService, list).deleteFiles(fileStorage);
+        for (boolean b : deleted) {
+            if (b) {
+                result.setDeletedCount(result.getDeletedCount() + 1);
+            } else {
+                result.setFailedCount(result.getFailedCount() + 1);
+            }
+        }
+    }
+
+    private void progress(DeleteDirPretreatment pre, DeleteDirResult result) {
+        if (pre.getProgressListener() == null) return;
+        try {
+            pre.getProgressListener().progress(result);
+        } catch (Exception e) {
+            log.error("删除目录进度监听器执行失败！platform：{}，path：{}", pre.getPlatform(), pre.getPath(), e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.dromara.x.file.storage.core.delete;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.dromara.x.file.storage.core.FileStorageService;
+import org.dromara.x.file.storage.core.aspect.FileStorageAspect;
+import org.dromara.x.file.storage.core.platform.FileStorage;
+
+/**
+ * 删除目录预处理器
+ */
+@Getter
+@Setter
+@Accessors(chain = true)
+public class DeleteDirPretreatment {
+    /**
+     * 文件存储服务类
+     */
+    private FileStorageService fileStorageService;
+    /**
+     * 存储平台名称
+     */
+    private String platform;
+    /**
+     * 要删除的目录，需要与上传时传入的路径保持一致，例如 "user/1001/"，不能为空，防止误删全部文件
+     */
+    private String path;
+    /**
+     * 删除进度监听器
+     */
+    private DeleteDirProgressListener progressListener;
+
+    /**
+     * 设置存储平台名称（如果条件为 true）
+     * @param flag 条件
+     * @param platform 存储平台名称
+     * @return 删除目录预处理器
+     */
+    public DeleteDirPretreatment setPlatform(boolean flag, String platform) {
+        if (flag) setPlatform(platform);
+        return this;
+    }
+
+    /**
+     * 设置要删除的目录，需要与上传时传入的路径保持一致（如果条件为 true）
+     * @param flag 条件
+     * @param path 要删除的目录
+     * @return 删除目录预处理器
+     */
+    public DeleteDirPretreatment setPath(boolean flag, String path) {
+        if (flag) setPath(path);
+        return this;
+    }
+
+    /**
+     * 设置删除进度监听器（如果条件为 true）
+     * @param flag 条件
+     * @param progressListener 删除进度监听器
+     * @return 删除目录预处理器
+     */
+    public DeleteDirPretreatment setProgressListener(boolean flag, DeleteDirProgressListener progressListener) {
+        if (flag) setProgressListener(progressListener);
+        return this;
+    }
+
+    /**
+     * 执行删除目录
+     */
+    public DeleteDirResult deleteDir() {
+        return new DeleteDirActuator(this).execute();
+    }
+
+    /**
+     * 执行删除目录，此方法仅限内部使用
+     */
+    public DeleteDirResult deleteDir(FileStorage fileStorage, List<FileStorageAspect> aspectList) {
+        return new DeleteDirActuator(this).execute(fileStorage, aspectList);
+    }
+}
@@ -0,0 +1,13 @@
+package org.dromara.x.file.storage.core.delete;
+
+/**
+ * 删除目录进度监听器，每删除一页文件及全部完成时调用一次
+ */
+@FunctionalInterface
+public interface DeleteDirProgressListener {
+    /**
+     * 删除进度
+     * @param result 当前的删除结果，其中的数量都是累计值，请不要修改
+     */
+    void progress(DeleteDirResult result);
+}
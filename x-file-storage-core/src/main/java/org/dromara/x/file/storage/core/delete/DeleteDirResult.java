@@ -0,0 +1,53 @@
+package org.dromara.x.file.storage.core.delete;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+/**
+ * 删除目录结果，删除过程中会作为进度多次传给 {@link DeleteDirProgressListener}，其中的数量都是累计值
+ */
+@Data
+@NoArgsConstructor
+@Accessors(chain = true)
+public class DeleteDirResult {
+    /**
+     * 存储平台名称
+     */
+    private String platform;
+    /**
+     * 基础存储路径
+     */
+    private String basePath;
+    /**
+     * 路径，需要与上传时传入的路径保持一致
+     */
+    private String path;
+    /**
+     * 是否通过存储平台原生的递归删除目录实现，此时不会统计文件及目录数量
+     */
+    private Boolean nativeDelete = false;
+    /**
+     * 已删除的文件数量
+     */
+    private long deletedCount;
+    /**
+     * 删除失败的文件数量
+     */
+    private long failedCount;
+    /**
+     * 已列举的目录数量，包括当前目录
+     */
+    private long dirCount;
+    /**
+     * 是否已全部完成
+     */
+    private Boolean finished = false;
+
+    /**
+     * 是否全部删除成功
+     */
+    public boolean isSuccess() {
+        return Boolean.TRUE.equals(finished) && failedCount == 0;
+    }
+}
@@ -5,6 +5,7 @@ import cn.hutool.core.util.StrUtil;
 import org.dromara.x.file.storage.core.FileInfo;
 import org.dromara.x.file.storage.core.UploadPretreatment;
 import org.dromara.x.file.storage.core.copy.CopyPretreatment;
+import org.dromara.x.file.storage.core.delete.DeleteDirPretreatment;
 import org.dromara.x.file.storage.core.get.GetFilePretreatment;
 import org.dromara.x.file.storage.core.get.ListFilesPretreatment;
 import org.dromara.x.file.storage.core.move.MovePretreatment;
@@ -250,6 +251,29 @@ public class Check {
         if (fileInfo.getUploadId() == null) throw new RuntimeException("手动分片上传-列举已上传的分片失败，请在 FileInfo 中传入 uploadId 参数");
     }
 
+    /**
+     * 删除目录时，检查相关参数，如果缺少则抛出异常，路径为空、不以 / 结尾、以 / 开头或者包含空的、“.”、“..” 目录及 \ 时也抛出异常，
+     * 防止删除基础路径之外或者整个基础路径中的文件
+     * @param pre 删除目录预处理器
+     */
+    public static void deleteDir(DeleteDirPretreatment pre) {
+        if (pre.getPlatform() == null) throw new FileStorageRuntimeException("删除目录失败，请传入 platform 参数");
+        String path = pre.getPath();
+        if (StrUtil.isBlank(path) || "/".equals(path)) {
+            throw new FileStorageRuntimeException("删除目录失败，path 参数不能为空，请传入要删除的目录");
+        }
+        if (!path.endsWith("/")) {
+            throw new FileStorageRuntimeException("删除目录失败，path 参数必须以 / 结尾：" + path);
+        }
+        // 去掉结尾的 / 后逐级检查，开头及连续的 / 会产生空的目录名
+        for (String name : path.substring(0, path.length() - 1).split("/", -1)) {
+            if (StrUtil.isBlank(name) || ".".equals(name) || "..".equals(name) || name.contains("\\")) {
+                throw new FileStorageRuntimeException(
+                        "删除目录失败，path 参数不能以 / 开头，也不能包含空的、“.”、“..” 目录及 \\：" + path);
+            }
+        }
+    }
+
     /**
      * 列举文件时，检查文件信息相关参数，如果缺少则抛出异常
      * @param pre 列举文件预处理器
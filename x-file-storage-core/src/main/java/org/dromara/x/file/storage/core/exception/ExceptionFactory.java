@@ -35,6 +35,10 @@ public class ExceptionFactory {
     public static final String SET_FILE_ACL_MESSAGE_FORMAT = "设置文件的 ACL 失败！platform：{}，fileInfo：{}，ACL：{}";
     public static final String SET_TH_FILE_ACL_MESSAGE_FORMAT = "设置缩略图文件的 ACL 失败！platform：{}，fileInfo：{}，ACL：{}";
     public static final String DELETE_MESSAGE_FORMAT = "文件删除失败！platform：{}，filename：{}";
+    public static final String DELETE_BATCH_MESSAGE_FORMAT = "批量删除文件失败！platform：{}，数量：{}";
+    public static final String DELETE_BATCH_NOT_SUPPORT_MESSAGE_FORMAT = "批量删除文件失败，当前存储平台不支持批量删除！platform：{}，数量：{}";
+    public static final String DELETE_DIR_MESSAGE_FORMAT = "删除目录失败！platform：{}，path：{}";
+    public static final String DELETE_DIR_NOT_SUPPORT_MESSAGE_FORMAT = "删除目录失败，当前存储平台不支持原生的递归删除目录！platform：{}，path：{}";
     public static final String EXISTS_MESSAGE_FORMAT = "查询文件是否存在失败！platform：{}，filename：{}";
     public static final String DOWNLOAD_MESSAGE_FORMAT = "文件下载失败！platform：{},fileInfo：{}";
     public static final String DOWNLOAD_TH_MESSAGE_FORMAT = "缩略图文件下载失败！platform：{},fileInfo：{}";
@@ -303,6 +307,45 @@ public class ExceptionFactory {
                 StrUtil.format(DELETE_MESSAGE_FORMAT, platform, fileInfo.getOriginalFilename()), e);
     }
 
+    /**
+     * 批量删除异常
+     * @param fileKeyCount 文件数量
+     * @param platform 存储平台名称
+     * @param e 源异常
+     */
+    public static FileStorageRuntimeException deleteBatch(int fileKeyCount, String platform, Exception e) {
+        return new FileStorageRuntimeException(StrUtil.format(DELETE_BATCH_MESSAGE_FORMAT, platform, fileKeyCount), e);
+    }
+
+    /**
+     * 批量删除时，此存储平台不支持批量删除异常
+     * @param fileKeyCount 文件数量
+     * @param platform 存储平台名称
+     */
+    public static FileStorageRuntimeException deleteBatchNotSupport(int fileKeyCount, String platform) {
+        return new FileStorageRuntimeException(
+                StrUtil.format(DELETE_BATCH_NOT_SUPPORT_MESSAGE_FORMAT, platform, fileKeyCount));
+    }
+
+    /**
+     * 删除目录异常
+     * @param path 目录路径
+     * @param platform 存储平台名称
+     * @param e 源异常
+     */
+    public static FileStorageRuntimeException deleteDir(String path, String platform, Exception e) {
+        return new FileStorageRuntimeException(StrUtil.format(DELETE_DIR_MESSAGE_FORMAT, platform, path), e);
+    }
+
+    /**
+     * 删除目录时，此存储平台不支持原生的递归删除目录异常
+     * @param path 目录路径
+     * @param platform 存储平台名称
+     */
+    public static FileStorageRuntimeException deleteDirNotSupport(String path, String platform) {
+        return new FileStorageRuntimeException(StrUtil.format(DELETE_DIR_NOT_SUPPORT_MESSAGE_FORMAT, platform, path));
+    }
+
     /**
      * 是否存在
      * @param fileInfo 文件信息
@@ -47,7 +47,8 @@ public interface FileWrapper {
     }
 
     /**
-     * 获取文件的 InputStream 并读取，会自动标记和重置流的位置
+     * 获取文件的 InputStream 并读取，会自动标记和重置流的位置，
+     * 可重复读取的流会在之后重新读取完已保存的数据时释放内存和临时文件
      */
     default <R> R getInputStreamMaskResetReturn(IOExceptionFunction<InputStream, R> function) throws IOException {
         InputStream in = getInputStream();
@@ -56,6 +57,7 @@ public interface FileWrapper {
             return function.apply(in);
         } finally {
             in.reset();
+            if (in instanceof ReplayableInputStream) ((ReplayableInputStream) in).releaseAfterReplay();
         }
     }
 
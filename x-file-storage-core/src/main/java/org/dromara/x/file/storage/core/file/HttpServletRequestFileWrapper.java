@@ -1,6 +1,5 @@
 package org.dromara.x.file.storage.core.file;
 
-import cn.hutool.core.io.IoUtil;
 import java.io.InputStream;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -24,7 +23,7 @@ public class HttpServletRequestFileWrapper implements FileWrapper {
             InputStream inputStream, String name, String contentType, Long size, MultipartFormData multipartFormData) {
         this.name = name;
         this.contentType = contentType;
-        this.inputStream = IoUtil.toMarkSupportStream(inputStream);
+        this.inputStream = ReplayableInputStream.of(inputStream);
         this.size = size;
         this.multipartFormData = multipartFormData;
     }
@@ -7,6 +7,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.FileStorageProperties.ReplayableStreamConfig;
 import org.dromara.x.file.storage.core.tika.ContentTypeDetect;
 
 /**
@@ -19,6 +20,11 @@ import org.dromara.x.file.storage.core.tika.ContentTypeDetect;
 @AllArgsConstructor
 public class InputStreamFileWrapperAdapter implements FileWrapperAdapter {
     private ContentTypeDetect contentTypeDetect;
+    private ReplayableStreamConfig replayableStreamConfig;
+
+    public InputStreamFileWrapperAdapter(ContentTypeDetect contentTypeDetect) {
+        this.contentTypeDetect = contentTypeDetect;
+    }
 
     @Override
     public boolean isSupport(Object source) {
@@ -30,7 +36,7 @@ public class InputStreamFileWrapperAdapter implements FileWrapperAdapter {
         if (source instanceof InputStreamFileWrapper) {
             return updateFileWrapper((InputStreamFileWrapper) source, name, contentType, size);
         } else {
-            InputStream inputStream = (InputStream) source;
+            InputStream inputStream = ReplayableInputStream.of((InputStream) source, replayableStreamConfig);
             if (name == null) name = "";
             InputStreamFileWrapper wrapper = new InputStreamFileWrapper(inputStream, name, contentType, size);
             if (contentType == null) {
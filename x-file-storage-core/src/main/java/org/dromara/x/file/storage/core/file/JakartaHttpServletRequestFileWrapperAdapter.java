@@ -2,10 +2,14 @@ package org.dromara.x.file.storage.core.file;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.FileStorageProperties.ReplayableStreamConfig;
 import org.dromara.x.file.storage.core.file.MultipartFormDataReader.MultipartFormData;
 
 /**
@@ -14,7 +18,10 @@ import org.dromara.x.file.storage.core.file.MultipartFormDataReader.MultipartFor
 @Slf4j
 @Getter
 @Setter
+@NoArgsConstructor
+@AllArgsConstructor
 public class JakartaHttpServletRequestFileWrapperAdapter implements FileWrapperAdapter {
+    private ReplayableStreamConfig replayableStreamConfig;
 
     @Override
     public boolean isSupport(Object source) {
@@ -39,7 +46,8 @@ public class JakartaHttpServletRequestFileWrapperAdapter implements FileWrapperA
             if (name == null) name = data.getFileOriginalFilename();
             if (contentType == null) contentType = data.getFileContentType();
             if (size == null) size = data.getFileSize();
-            return new HttpServletRequestFileWrapper(data.getInputStream(), name, contentType, size, data);
+            InputStream inputStream = ReplayableInputStream.of(data.getInputStream(), replayableStreamConfig);
+            return new HttpServletRequestFileWrapper(inputStream, name, contentType, size, data);
         }
     }
 }
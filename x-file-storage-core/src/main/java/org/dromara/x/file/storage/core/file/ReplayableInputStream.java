@@ -0,0 +1,259 @@
+package org.dromara.x.file.storage.core.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import org.dromara.x.file.storage.core.FileStorageProperties.ReplayableStreamConfig;
+
+/**
+ * 可重复读取的 InputStream，用来代替 BufferedInputStream 的 mark/reset。
+ * 标记后读取的数据先保存在内存中，超过内存阈值的部分写入临时文件，重置后先从内存和临时文件中重新读取，再继续读取原始的流，
+ * 避免识别 MIME 类型、生成缩略图等需要重复读取的场景将整个文件保存在内存中。
+ * 关闭流时，或者调用 {@link #releaseAfterReplay()} 后重新读取完已保存的数据时，会释放内存并删除临时文件
+ */
+public class ReplayableInputStream extends InputStream {
+    /**
+     * 默认的内存阈值，1MB
+     */
+    public static final long DEFAULT_MEMORY_THRESHOLD = 1024 * 1024;
+
+    private static final byte[] EMPTY = new byte[0];
+    private static final int INITIAL_HEAD_SIZE = 8192;
+    private static final int SPILL_BUFFER_SIZE = 8192;
+
+    private final InputStream in;
+    private final int memoryThreshold;
+    private final File tempDir;
+    /**
+     * 保存在内存中的数据
+     */
+    private byte[] head = EMPTY;
+
+    private int headCount;
+    /**
+     * 超过内存阈值的数据写入的临时文件
+     */
+    private File spillFile;
+
+    private RandomAccessFile spill;
+    /**
+     * 写入临时文件前的缓冲区，避免单字节读取时频繁写入文件
+     */
+    private byte[] spillBuffer;
+
+    private int spillBufferCount;
+    /**
+     * 已保存的数据长度，包括内存和临时文件中的
+     */
+    private long recordedCount;
+    /**
+     * 当前读取位置在已保存的数据中的偏移量，-1 表示没有标记
+     */
+    private long position = -1;
+
+    private long markPosition;
+    private boolean releaseAfterReplay;
+    private final byte[] singleByte = new byte[1];
+
+    public ReplayableInputStream(InputStream in) {
+        this(in, DEFAULT_MEMORY_THRESHOLD, null);
+    }
+
+    /**
+     * @param in 原始的流
+     * @param memoryThreshold 内存中最多保存的字节数，超过的部分写入临时文件
+     * @param tempDir 临时文件目录，为 null 时使用系统临时目录
+     */
+    public ReplayableInputStream(InputStream in, long memoryThreshold, File tempDir) {
+        this.in = in;
+        this.memoryThreshold = (int) Math.max(0, Math.min(memoryThreshold, Integer.MAX_VALUE - 8));
+        this.tempDir = tempDir;
+    }
+
+    /**
+     * 转换成可重复读取的流，已经是可重复读取的流时直接返回
+     */
+    public static ReplayableInputStream of(InputStream in) {
+        return of(in, null);
+    }
+
+    /**
+     * 根据配置转换成可重复读取的流，已经是可重复读取的流时直接返回
+     * @param in 原始的流
+     * @param config 配置，为 null 时使用默认配置
+     */
+    public static ReplayableInputStream of(InputStream in, ReplayableStreamConfig config) {
+        if (in == null) return null;
+        if (in instanceof ReplayableInputStream) return (ReplayableInputStream) in;
+        if (config == null) return new ReplayableInputStream(in);
+        File tempDir = config.getTempDir() == null ? null : new File(config.getTempDir());
+        return new ReplayableInputStream(in, config.getMemoryThreshold(), tempDir);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int n = read(singleByte, 0, 1);
+        return n == -1 ? -1 : singleByte[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if (releaseAfterReplay && position >= recordedCount) release();
+        if (position < 0) return in.read(b, off, len);
+        if (position < recordedCount) {
+            int n = (int) Math.min(len, recordedCount - position);
+            readRecorded(position, b, off, n);
+            position += n;
+            return n;
+        }
+        int n = in.read(b, off, len);
+        if (n > 0) {
+            record(b, off, n);
+            position += n;
+        }
+        return n;
+    }
+
+    /**
+     * 标记当前位置，标记后读取的数据都会保存下来，不受 readlimit 限制
+     */
+    @Override
+    public synchronized void mark(int readlimit) {
+        releaseAfterReplay = false;
+        if (position >= 0 && position < recordedCount) {
+            // 正在重新读取已保存的数据，保留已保存的数据
+            markPosition = position;
+            return;
+        }
+        release();
+        position = 0;
+        markPosition = 0;
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        if (position < 0) throw new IOException("Resetting to invalid mark");
+        position = markPosition;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public int available() throws IOException {
+        long replay = position >= 0 ? recordedCount - position : 0;
+        return (int) Math.min(Integer.MAX_VALUE, replay + in.available());
+    }
+
+    /**
+     * 重新读取完已保存的数据后不再保存后续读取的数据，并释放内存和删除临时文件，再次标记后恢复保存
+     */
+    public void releaseAfterReplay() {
+        releaseAfterReplay = true;
+    }
+
+    /**
+     * 获取临时文件，没有写入临时文件时返回 null
+     */
+    public File getSpillFile() {
+        return spillFile;
+    }
+
+    @Override
+    public void close() throws IOException {
+        release();
+        in.close();
+    }
+
+    /**
+     * 保存读取的数据，超过内存阈值的部分写入临时文件
+     */
+    private void record(byte[] b, int off, int len) throws IOException {
+        recordedCount += len;
+        if (headCount < memoryThreshold) {
+            int n = Math.min(len, memoryThreshold - headCount);
+            ensureHeadCapacity(headCount + n);
+            System.arraycopy(b, off, head, headCount, n);
+            headCount += n;
+            off += n;
+            len -= n;
+        }
+        if (len == 0) return;
+        if (spill == null) {
+            spillFile = File.createTempFile("x-file-storage-", ".tmp", tempDir);
+            spill = new RandomAccessFile(spillFile, "rw");
+            spillBuffer = new byte[SPILL_BUFFER_SIZE];
+        }
+        if (spillBufferCount + len > spillBuffer.length) {
+            flushSpillBuffer();
+            if (len >= spillBuffer.length) {
+                spill.seek(spill.length());
+                spill.write(b, off, len);
+                return;
+            }
+        }
+        System.arraycopy(b, off, spillBuffer, spillBufferCount, len);
+        spillBufferCount += len;
+    }
+
+    /**
+     * 从已保存的数据中读取
+     */
+    private void readRecorded(long pos, byte[] b, int off, int len) throws IOException {
+        if (pos < headCount) {
+            int n = (int) Math.min(len, headCount - pos);
+            System.arraycopy(head, (int) pos, b, off, n);
+            pos += n;
+            off += n;
+            len -= n;
+        }
+        if (len == 0) return;
+        flushSpillBuffer();
+        spill.seek(pos - headCount);
+        spill.readFully(b, off, len);
+    }
+
+    private void flushSpillBuffer() throws IOException {
+        if (spillBufferCount == 0) return;
+        spill.seek(spill.length());
+        spill.write(spillBuffer, 0, spillBufferCount);
+        spillBufferCount = 0;
+    }
+
+    private void ensureHeadCapacity(int capacity) {
+        if (capacity <= head.length) return;
+        int size = Math.max(head.length, INITIAL_HEAD_SIZE);
+        while (size < capacity) size = (int) Math.min((long) size << 1, memoryThreshold);
+        byte[] newHead = new byte[size];
+        System.arraycopy(head, 0, newHead, 0, headCount);
+        head = newHead;
+    }
+
+    /**
+     * 丢弃标记及已保存的数据，释放内存并删除临时文件
+     */
+    private void release() {
+        head = EMPTY;
+        headCount = 0;
+        recordedCount = 0;
+        position = -1;
+        markPosition = 0;
+        releaseAfterReplay = false;
+        spillBuffer = null;
+        spillBufferCount = 0;
+        if (spill != null) {
+            try {
+                spill.close();
+            } catch (IOException ignored) {
+            } finally {
+                spill = null;
+                if (!spillFile.delete()) spillFile.deleteOnExit();
+                spillFile = null;
+            }
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package org.dromara.x.file.storage.core.file;
 
-import cn.hutool.core.io.IoUtil;
 import java.io.InputStream;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -21,7 +20,7 @@ public class UriFileWrapper implements FileWrapper {
     public UriFileWrapper(InputStream inputStream, String name, String contentType, Long size) {
         this.name = name;
         this.contentType = contentType;
-        this.inputStream = IoUtil.toMarkSupportStream(inputStream);
+        this.inputStream = ReplayableInputStream.of(inputStream);
         this.size = size;
     }
 
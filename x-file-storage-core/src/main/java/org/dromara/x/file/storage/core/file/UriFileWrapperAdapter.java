@@ -1,6 +1,5 @@
 package org.dromara.x.file.storage.core.file;
 
-import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.util.ReUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.URLUtil;
@@ -15,6 +14,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.FileStorageProperties.ReplayableStreamConfig;
 import org.dromara.x.file.storage.core.tika.ContentTypeDetect;
 
 /**
@@ -27,6 +27,11 @@ import org.dromara.x.file.storage.core.tika.ContentTypeDetect;
 @AllArgsConstructor
 public class UriFileWrapperAdapter implements FileWrapperAdapter {
     private ContentTypeDetect contentTypeDetect;
+    private ReplayableStreamConfig replayableStreamConfig;
+
+    public UriFileWrapperAdapter(ContentTypeDetect contentTypeDetect) {
+        this.contentTypeDetect = contentTypeDetect;
+    }
 
     @Override
     public boolean isSupport(Object source) {
@@ -58,7 +63,7 @@ public class UriFileWrapperAdapter implements FileWrapperAdapter {
         }
 
         URLConnection conn = url.openConnection();
-        InputStream inputStream = IoUtil.toMarkSupportStream(conn.getInputStream());
+        InputStream inputStream = ReplayableInputStream.of(conn.getInputStream(), replayableStreamConfig);
 
         if (name == null) name = getName(conn, url);
         if (size == null) {
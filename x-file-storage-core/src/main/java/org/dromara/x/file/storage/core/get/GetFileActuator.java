@@ -4,9 +4,11 @@ import java.util.HashMap;
 import java.util.List;
 import org.dromara.x.file.storage.core.FileStorageService;
 import org.dromara.x.file.storage.core.aspect.FileStorageAspect;
+import org.dromara.x.file.storage.core.aspect.FileStorageAspectTable;
 import org.dromara.x.file.storage.core.aspect.GetFileAspectChain;
 import org.dromara.x.file.storage.core.exception.Check;
 import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.platform.FileStorageRegistry;
 
 /**
  * 获取文件执行器
@@ -24,15 +26,18 @@ public class GetFileActuator {
      * 执行获取文件
      */
     public RemoteFileInfo execute() {
-        return execute(fileStorageService.getFileStorageVerify(pre.getPlatform()), fileStorageService.getAspectList());
+        try (FileStorageRegistry.Lease lease = fileStorageService.acquireFileStorageVerify(pre.getPlatform())) {
+            return execute(lease.getFileStorage(), fileStorageService.getAspectList());
+        }
     }
 
     /**
      * 执行获取文件
      */
     public RemoteFileInfo execute(FileStorage fileStorage, List<FileStorageAspect> aspectList) {
+        FileStorageAspectTable aspectTable = fileStorageService.getAspectTable(aspectList);
         Check.getFile(pre);
-        return new GetFileAspectChain(aspectList, (_pre, _fileStorage) -> {
+        return new GetFileAspectChain(aspectTable, (_pre, _fileStorage) -> {
                     RemoteFileInfo info = _fileStorage.getFile(_pre);
                     if (info != null) {
                         if (info.getMetadata() == null) info.setMetadata(new HashMap<>());
@@ -5,9 +5,11 @@ import java.util.HashMap;
 import java.util.List;
 import org.dromara.x.file.storage.core.FileStorageService;
 import org.dromara.x.file.storage.core.aspect.FileStorageAspect;
+import org.dromara.x.file.storage.core.aspect.FileStorageAspectTable;
 import org.dromara.x.file.storage.core.aspect.ListFilesAspectChain;
 import org.dromara.x.file.storage.core.exception.Check;
 import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.platform.FileStorageRegistry;
 
 /**
  * 列举文件执行器
@@ -25,15 +27,18 @@ public class ListFilesActuator {
      * 执行列举文件
      */
     public ListFilesResult execute() {
-        return execute(fileStorageService.getFileStorageVerify(pre.getPlatform()), fileStorageService.getAspectList());
+        try (FileStorageRegistry.Lease lease = fileStorageService.acquireFileStorageVerify(pre.getPlatform())) {
+            return execute(lease.getFileStorage(), fileStorageService.getAspectList());
+        }
     }
 
     /**
      * 执行列举文件
      */
     public ListFilesResult execute(FileStorage fileStorage, List<FileStorageAspect> aspectList) {
+        FileStorageAspectTable aspectTable = fileStorageService.getAspectTable(aspectList);
         Check.listFiles(pre);
-        return new ListFilesAspectChain(aspectList, (_pre, _fileStorage) -> {
+        return new ListFilesAspectChain(aspectTable, (_pre, _fileStorage) -> {
                     _pre = new ListFilesPretreatment(_pre);
                     ListFilesSupportInfo supportInfo = fileStorageService.isSupportListFiles(_fileStorage);
 
@@ -0,0 +1,108 @@
+package org.dromara.x.file.storage.core.get;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import org.dromara.x.file.storage.core.exception.Check;
+import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
+
+/**
+ * 逐页列举文件的迭代器，按需列举文件，调用者处理当前页的同时在后台列举下一页，
+ * 同一时间最多持有两页的文件，适合列举大量文件。
+ * 每页单独调用一次列举文件，会经过切面。只返回文件，不返回目录。
+ * 没有遍历完时请调用 {@link #close()} 取消后台的列举
+ */
+public class ListFilesIterator implements Iterator<RemoteFileInfo>, AutoCloseable {
+    /**
+     * 存储平台没有返回每次列举的最大文件数量时，每页列举的文件数量
+     */
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+
+    private final ListFilesPretreatment pre;
+    private final int pageSize;
+    /**
+     * 后台列举使用的线程池，由 FileStorageService 提供，为 null 时在当前线程中列举
+     */
+    private final ExecutorService executor;
+    /**
+     * 还可以列举的文件数量
+     */
+    private long remaining;
+
+    private Iterator<RemoteFileInfo> current = Collections.emptyIterator();
+    private Future<ListFilesResult> next;
+    private volatile boolean closed;
+
+    public ListFilesIterator(ListFilesPretreatment pre) {
+        Check.listFiles(pre);
+        this.pre = new ListFilesPretreatment(pre);
+        Integer supportMaxFiles = pre.getFileStorageService()
+                .isSupportListFiles(pre.getPlatform())
+                .getSupportMaxFiles();
+        this.pageSize = supportMaxFiles == null ? DEFAULT_PAGE_SIZE : supportMaxFiles;
+        this.executor = pre.getFileStorageService().getListFilesExecutor();
+        this.remaining = pre.getMaxFiles() == null || pre.getMaxFiles() < 1 ? Long.MAX_VALUE : pre.getMaxFiles();
+        this.next = submit(pre.getMarker());
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (next == null || closed) return false;
+            ListFilesResult page = getPage(next);
+            List<RemoteFileInfo> fileList = page.getFileList() == null ? Collections.emptyList() : page.getFileList();
+            remaining -= fileList.size();
+            // 先在后台列举下一页，再返回当前页
+            next = Boolean.TRUE.equals(page.getIsTruncated()) && remaining > 0 ? submit(page.getNextMarker()) : null;
+            current = fileList.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public RemoteFileInfo next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return current.next();
+    }
+
+    /**
+     * 取消后台的列举并释放当前页
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (next != null) next.cancel(true);
+        next = null;
+        current = Collections.emptyIterator();
+    }
+
+    private Future<ListFilesResult> submit(String marker) {
+        ListFilesPretreatment pagePre = new ListFilesPretreatment(pre);
+        pagePre.setMaxFiles((int) Math.min(pageSize, remaining));
+        pagePre.setMarker(marker);
+        if (executor != null) return executor.submit(pagePre::listFiles);
+        FutureTask<ListFilesResult> task = new FutureTask<>(pagePre::listFiles);
+        task.run();
+        return task;
+    }
+
+    private ListFilesResult getPage(Future<ListFilesResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileStorageRuntimeException("列举文件被中断！platform：" + pre.getPlatform(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof FileStorageRuntimeException) {
+                throw (FileStorageRuntimeException) e.getCause();
+            }
+            throw new FileStorageRuntimeException(
+                    "列举文件失败！platform：" + pre.getPlatform() + "，path：" + pre.getPath(), e.getCause());
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package org.dromara.x.file.storage.core.get;
 
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -115,6 +119,44 @@ public class ListFilesPretreatment {
         return new ListFilesActuator(this).execute();
     }
 
+    /**
+     * 逐页列举文件，按需列举，遍历当前页的同时在后台列举下一页，同一时间最多持有两页的文件，只返回文件，不返回目录。
+     * maxFiles 表示最多返回的文件数量，没有遍历完时请调用 close 方法
+     */
+    public ListFilesIterator iterator() {
+        return new ListFilesIterator(this);
+    }
+
+    /**
+     * 逐页列举文件，返回按需列举的流，同 {@link #iterator()}，没有遍历完时请关闭此流，推荐使用 try-with-resources
+     */
+    public Stream<RemoteFileInfo> stream() {
+        ListFilesIterator iterator = iterator();
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * 并发递归列举目录及全部子目录中的文件，以子目录为分区，多个分区同时列举，没有遍历完时请调用 close 方法
+     * @param parallelism 同时列举的分区数量
+     * @param ordered 是否要求顺序，为 true 时先返回当前目录的文件，再按名称顺序返回每个子目录中的文件
+     */
+    public ParallelListFilesIterator parallelIterator(int parallelism, boolean ordered) {
+        return new ParallelListFilesIterator(this, parallelism, ordered);
+    }
+
+    /**
+     * 并发递归列举目录及全部子目录中的文件，返回流，同 {@link #parallelIterator(int, boolean)}，
+     * 没有遍历完时请关闭此流，推荐使用 try-with-resources
+     */
+    public Stream<RemoteFileInfo> parallelStream(int parallelism, boolean ordered) {
+        ParallelListFilesIterator iterator = parallelIterator(parallelism, ordered);
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
     /**
      * 执行列举文件，此方法仅限内部使用
      */
@@ -0,0 +1,425 @@
+package org.dromara.x.file.storage.core.get;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.dromara.x.file.storage.core.exception.Check;
+import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
+
+/**
+ * 并发递归列举文件的迭代器，列举目录及全部子目录中的文件，以子目录（对象存储中的公共前缀）为分区，多个分区同时列举。
+ * 不要求顺序时每个子目录都单独列举，全部结果合并到一个有界队列中，返回顺序不固定；
+ * 要求顺序时以直接子目录为分区，每个分区内按深度优先顺序列举，先返回当前目录的文件再按名称顺序进入子目录，
+ * 分区按名称顺序返回，当前目录的文件最先返回。
+ * 每页单独调用一次列举文件，会经过切面，文件名前缀只对当前目录生效。
+ * 列举任务提交到 {@link org.dromara.x.file.storage.core.FileStorageService#getListFilesExecutor()}，
+ * 同时列举的分区数量由信号量限制，没有线程池时在当前线程中按深度优先顺序逐页列举。
+ * 没有遍历完时请调用 {@link #close()} 停止后台的列举
+ */
+public class ParallelListFilesIterator implements Iterator<RemoteFileInfo>, AutoCloseable {
+    /**
+     * 存储平台没有返回每次列举的最大文件数量时，每页列举的文件数量
+     */
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+    /**
+     * 每个分区最多缓存的页数
+     */
+    private static final int BUFFER_PAGES = 2;
+    /**
+     * 分区结束标记
+     */
+    private static final List<RemoteFileInfo> END = Collections.unmodifiableList(new ArrayList<>(0));
+    /**
+     * 全部分区结束标记
+     */
+    private static final Partition END_PARTITION = new Partition(1, false);
+
+    private final ListFilesPretreatment pre;
+    private final int pageSize;
+    private final int parallelism;
+    private final boolean ordered;
+    /**
+     * 后台列举使用的线程池，由 FileStorageService 提供，为 null 或者拒绝了第一个任务时在当前线程中列举
+     */
+    private ExecutorService executor;
+    /**
+     * 已提交到线程池还没有完成的任务，关闭时取消
+     */
+    private final Set<Future<?>> futureSet = ConcurrentHashMap.newKeySet();
+    private final BlockingQueue<Partition> partitionQueue = new LinkedBlockingQueue<>();
+    /**
+     * 要求顺序时，同时列举及等待返回的分区数量
+     */
+    private final Semaphore window;
+    /**
+     * 要求顺序时，同时列举的分区数量
+     */
+    private final Semaphore running;
+    /**
+     * 不要求顺序时，还没有列举完成的目录数量
+     */
+    private final AtomicInteger pendingDirs = new AtomicInteger();
+    /**
+     * 不要求顺序时，等待列举的子目录
+     */
+    private final Queue<String> dirQueue = new ConcurrentLinkedQueue<>();
+    /**
+     * 不要求顺序时，正在列举的任务数量
+     */
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    /**
+     * 没有线程池时，等待列举的子目录，按深度优先顺序列举
+     */
+    private final Deque<String> inlineDirStack = new ArrayDeque<>();
+    /**
+     * 没有线程池时，正在列举的目录、文件名前缀、下一页的标记及已列举到的子目录
+     */
+    private String inlinePath;
+    private String inlinePrefix;
+    private String inlineMarker;
+    private Set<String> inlineDirSet;
+
+    private volatile Throwable error;
+    private volatile boolean closed;
+    private long remaining;
+    private Partition partition;
+    private Iterator<RemoteFileInfo> current = Collections.emptyIterator();
+
+    /**
+     * @param pre 列举文件预处理器，maxFiles 表示最多返回的文件数量
+     * @param parallelism 同时列举的分区数量
+     * @param ordered 是否要求顺序
+     */
+    public ParallelListFilesIterator(ListFilesPretreatment pre, int parallelism, boolean ordered) {
+        Check.listFiles(pre);
+        this.pre = new ListFilesPretreatment(pre);
+        Integer supportMaxFiles = pre.getFileStorageService()
+                .isSupportListFiles(pre.getPlatform())
+                .getSupportMaxFiles();
+        this.pageSize = supportMaxFiles == null ? DEFAULT_PAGE_SIZE : supportMaxFiles;
+        this.parallelism = Math.max(1, parallelism);
+        this.ordered = ordered;
+        this.remaining = pre.getMaxFiles() == null || pre.getMaxFiles() < 1 ? Long.MAX_VALUE : pre.getMaxFiles();
+        this.window = new Semaphore(this.parallelism * 2);
+        this.running = new Semaphore(this.parallelism);
+        this.executor = pre.getFileStorageService().getListFilesExecutor();
+        if (executor != null && !start()) {
+            partitionQueue.clear();
+            executor = null;
+        }
+        if (executor == null) {
+            inlinePath = this.pre.getPath();
+            inlinePrefix = this.pre.getFilenamePrefix();
+            inlineDirSet = new LinkedHashSet<>();
+        }
+    }
+
+    /**
+     * 提交第一个列举任务，线程池拒绝时返回 false
+     */
+    private boolean start() {
+        if (ordered) {
+            Partition root = new Partition(BUFFER_PAGES, false);
+            partitionQueue.add(root);
+            return submit(() -> listRootOrdered(root));
+        }
+        Partition shared = new Partition(parallelism * BUFFER_PAGES, false);
+        partitionQueue.add(shared);
+        partitionQueue.add(END_PARTITION);
+        pendingDirs.set(1);
+        activeWorkers.set(1);
+        return submit(() -> listDirUnordered(shared, pre.getPath(), pre.getFilenamePrefix()));
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (true) {
+            if (closed) return false;
+            // 当前页还有文件时也要先检查剩余数量
+            if (remaining <= 0) {
+                close();
+                return false;
+            }
+            if (current.hasNext()) return true;
+            if (executor == null) {
+                List<RemoteFileInfo> page = nextInlinePage();
+                if (page == null) {
+                    close();
+                    return false;
+                }
+                current = page.iterator();
+                continue;
+            }
+            if (partition == null) {
+                partition = take(partitionQueue);
+                if (partition == END_PARTITION) {
+                    checkError();
+                    close();
+                    return false;
+                }
+            }
+            List<RemoteFileInfo> page = take(partition.pages);
+            checkError();
+            if (page == END) {
+                if (partition.windowed) window.release();
+                partition = null;
+                continue;
+            }
+            current = page.iterator();
+        }
+    }
+
+    @Override
+    public RemoteFileInfo next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        remaining--;
+        return current.next();
+    }
+
+    /**
+     * 停止后台的列举并释放已缓存的文件
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        for (Future<?> future : futureSet) future.cancel(true);
+        futureSet.clear();
+        partitionQueue.clear();
+        inlineDirStack.clear();
+        inlinePath = null;
+        partition = null;
+        current = Collections.emptyIterator();
+    }
+
+    /**
+     * 不要求顺序时，列举一个目录后继续列举等待中的子目录，没有等待的子目录时结束，
+     * 发现新的子目录时，正在列举的任务数量没有达到同时列举的分区数量则提交一个新的任务，全部目录列举完成时结束
+     */
+    private void listDirUnordered(Partition shared, String path, String filenamePrefix) {
+        String dirPath = path;
+        String prefix = filenamePrefix;
+        while (true) {
+            if (dirPath == null) {
+                dirPath = dirQueue.poll();
+                prefix = "";
+            }
+            if (dirPath == null || closed || error != null) break;
+            try {
+                listDir(dirPath, prefix, shared, subDirPath -> {
+                    pendingDirs.incrementAndGet();
+                    dirQueue.add(subDirPath);
+                    startWorker(shared);
+                });
+            } catch (Throwable e) {
+                onError(e);
+            } finally {
+                if (pendingDirs.decrementAndGet() == 0 || error != null) putQuietly(shared.pages, END);
+            }
+            dirPath = null;
+        }
+        activeWorkers.decrementAndGet();
+        // 结束前可能有新的子目录进入队列
+        if (!dirQueue.isEmpty() && !closed && error == null) startWorker(shared);
+    }
+
+    /**
+     * 正在列举的任务数量没有达到同时列举的分区数量时提交一个新的任务，线程池拒绝时在当前线程中列举
+     */
+    private void startWorker(Partition shared) {
+        while (true) {
+            int n = activeWorkers.get();
+            if (n >= parallelism) return;
+            if (activeWorkers.compareAndSet(n, n + 1)) break;
+        }
+        if (!submit(() -> listDirUnordered(shared, null, null))) listDirUnordered(shared, null, null);
+    }
+
+    /**
+     * 要求顺序时，列举当前目录，当前目录的文件作为第一个分区，每个直接子目录作为一个新的分区。
+     * 分区按提交顺序占用同时列举的分区数量，最先返回的分区总是已经开始列举，不会因为后面的分区占满数量而互相等待
+     */
+    private void listRootOrdered(Partition root) {
+        List<String> dirList = Collections.emptyList();
+        try {
+            dirList = listDir(pre.getPath(), pre.getFilenamePrefix(), root, null);
+        } catch (Throwable e) {
+            onError(e);
+        } finally {
+            putQuietly(root.pages, END);
+        }
+        try {
+            for (String dirPath : dirList) {
+                if (closed || error != null) break;
+                window.acquire();
+                running.acquire();
+                Partition partition = new Partition(BUFFER_PAGES, true);
+                partitionQueue.add(partition);
+                // 线程池拒绝时在当前线程中列举，前面的分区已经开始列举，不会互相等待
+                if (!submit(() -> listPartitionOrdered(partition, dirPath))) listPartitionOrdered(partition, dirPath);
+            }
+        } catch (Throwable e) {
+            onError(e);
+        } finally {
+            partitionQueue.add(END_PARTITION);
+        }
+    }
+
+    /**
+     * 要求顺序时，按深度优先顺序列举一个分区
+     */
+    private void listPartitionOrdered(Partition partition, String path) {
+        try {
+            Deque<String> dirStack = new ArrayDeque<>();
+            dirStack.push(path);
+            while (!dirStack.isEmpty() && !closed && error == null) {
+                List<String> dirList = listDir(dirStack.pop(), "", partition, null);
+                for (int i = dirList.size() - 1; i >= 0; i--) dirStack.push(dirList.get(i));
+            }
+        } catch (Throwable e) {
+            onError(e);
+        } finally {
+            running.release();
+            putQuietly(partition.pages, END);
+        }
+    }
+
+    /**
+     * 没有线程池时，在当前线程中按深度优先顺序列举下一页不为空的文件，全部列举完成时返回 null
+     */
+    private List<RemoteFileInfo> nextInlinePage() {
+        while (inlinePath != null || !inlineDirStack.isEmpty()) {
+            if (inlinePath == null) {
+                inlinePath = inlineDirStack.pop();
+                inlinePrefix = "";
+                inlineMarker = null;
+                inlineDirSet = new LinkedHashSet<>();
+            }
+            String path = inlinePath;
+            ListFilesResult page = listPage(path, inlinePrefix, inlineMarker);
+            if (page.getDirList() != null) {
+                for (RemoteDirInfo dir : page.getDirList()) inlineDirSet.add(path + dir.getName() + "/");
+            }
+            if (Boolean.TRUE.equals(page.getIsTruncated())) {
+                inlineMarker = page.getNextMarker();
+            } else {
+                List<String> dirList = new ArrayList<>(inlineDirSet);
+                Collections.sort(dirList);
+                for (int i = dirList.size() - 1; i >= 0; i--) inlineDirStack.push(dirList.get(i));
+                inlinePath = null;
+            }
+            if (page.getFileList() != null && !page.getFileList().isEmpty()) return page.getFileList();
+        }
+        return null;
+    }
+
+    /**
+     * 逐页列举一个目录，文件放入分区的队列中，子目录按名称排序后返回，传入 dirConsumer 时子目录逐个交给它处理
+     */
+    private List<String> listDir(
+            String path, String filenamePrefix, Partition partition, Consumer<String> dirConsumer)
+            throws InterruptedException {
+        Set<String> dirSet = new LinkedHashSet<>();
+        String marker = null;
+        while (!closed && error == null) {
+            ListFilesResult page = listPage(path, filenamePrefix, marker);
+            if (page.getFileList() != null && !page.getFileList().isEmpty()) {
+                partition.pages.put(page.getFileList());
+            }
+            if (page.getDirList() != null) {
+                for (RemoteDirInfo dir : page.getDirList()) {
+                    String dirPath = path + dir.getName() + "/";
+                    if (dirSet.add(dirPath) && dirConsumer != null) dirConsumer.accept(dirPath);
+                }
+            }
+            if (!Boolean.TRUE.equals(page.getIsTruncated())) break;
+            marker = page.getNextMarker();
+        }
+        List<String> dirList = new ArrayList<>(dirSet);
+        Collections.sort(dirList);
+        return dirList;
+    }
+
+    /**
+     * 列举一页文件
+     */
+    private ListFilesResult listPage(String path, String filenamePrefix, String marker) {
+        ListFilesPretreatment pagePre = new ListFilesPretreatment(pre);
+        pagePre.setPath(path);
+        pagePre.setFilenamePrefix(filenamePrefix);
+        pagePre.setMaxFiles(pageSize);
+        pagePre.setMarker(marker);
+        return pagePre.listFiles();
+    }
+
+    /**
+     * 提交任务到线程池，关闭时取消，线程池拒绝时返回 false
+     */
+    private boolean submit(Runnable task) {
+        FutureTask<Void> future = new FutureTask<Void>(task, null) {
+            @Override
+            protected void done() {
+                futureSet.remove(this);
+            }
+        };
+        futureSet.add(future);
+        try {
+            executor.execute(future);
+        } catch (RejectedExecutionException e) {
+            futureSet.remove(future);
+            return false;
+        }
+        // 提交期间关闭时不会取消这个任务
+        if (closed) future.cancel(true);
+        return true;
+    }
+
+    private void onError(Throwable e) {
+        if (closed || e instanceof InterruptedException) return;
+        if (error == null) error = e;
+    }
+
+    private void checkError() {
+        Throwable e = error;
+        if (e == null) return;
+        close();
+        if (e instanceof FileStorageRuntimeException) throw (FileStorageRuntimeException) e;
+        throw new FileStorageRuntimeException(
+                "并发列举文件失败！platform：" + pre.getPlatform() + "，path：" + pre.getPath(), e);
+    }
+
+    private <T> T take(BlockingQueue<T> queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new FileStorageRuntimeException("并发列举文件被中断！platform：" + pre.getPlatform(), e);
+        }
+    }
+
+    private void putQuietly(BlockingQueue<List<RemoteFileInfo>> queue, List<RemoteFileInfo> page) {
+        try {
+            if (!closed) queue.put(page);
+        } catch (InterruptedException ignored) {
+            // 已关闭
+        }
+    }
+
+    /**
+     * 分区，保存已列举还未返回的文件
+     */
+    private static class Partition {
+        private final BlockingQueue<List<RemoteFileInfo>> pages;
+        /**
+         * 是否占用了同时列举的分区数量
+         */
+        private final boolean windowed;
+
+        private Partition(int capacity, boolean windowed) {
+            this.pages = new LinkedBlockingQueue<>(capacity);
+            this.windowed = windowed;
+        }
+    }
+}
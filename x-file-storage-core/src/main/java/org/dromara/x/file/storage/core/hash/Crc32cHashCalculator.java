@@ -0,0 +1,138 @@
+package org.dromara.x.file.storage.core.hash;
+
+import java.util.zip.Checksum;
+import org.dromara.x.file.storage.core.constant.Constant;
+
+/**
+ * CRC32C 哈希计算器，运行在 Java 9 及以上版本时使用 JDK 自带的 java.util.zip.CRC32C（支持硬件加速），
+ * 否则使用查表法计算，值为 8 位小写十六进制字符串
+ */
+public class Crc32cHashCalculator implements HashCalculator {
+    /**
+     * CRC32C 多项式（反转）
+     */
+    private static final int POLY = 0x82F63B78;
+    /**
+     * 8 张查找表，每次计算 8 个字节
+     */
+    private static final int[][] TABLE = new int[8][256];
+    /**
+     * JDK 自带的 CRC32C 类，不存在时为 null
+     */
+    private static final Class<?> JDK_CRC32C_CLASS;
+
+    static {
+        for (int n = 0; n < 256; n++) {
+            int crc = n;
+            for (int k = 0; k < 8; k++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ POLY : crc >>> 1;
+            }
+            TABLE[0][n] = crc;
+        }
+        for (int n = 0; n < 256; n++) {
+            for (int k = 1; k < 8; k++) {
+                TABLE[k][n] = (TABLE[k - 1][n] >>> 8) ^ TABLE[0][TABLE[k - 1][n] & 0xFF];
+            }
+        }
+        Class<?> clazz;
+        try {
+            clazz = Class.forName("java.util.zip.CRC32C");
+        } catch (Throwable e) {
+            clazz = null;
+        }
+        JDK_CRC32C_CLASS = clazz;
+    }
+
+    /**
+     * JDK 自带的 CRC32C 对象，不存在时为 null
+     */
+    private final Checksum checksum;
+
+    private int crc = 0xFFFFFFFF;
+
+    /**
+     * 哈希值
+     */
+    private volatile String value;
+
+    public Crc32cHashCalculator() {
+        Checksum checksum = null;
+        if (JDK_CRC32C_CLASS != null) {
+            try {
+                checksum = (Checksum) JDK_CRC32C_CLASS.getConstructor().newInstance();
+            } catch (Throwable ignored) {
+            }
+        }
+        this.checksum = checksum;
+    }
+
+    /**
+     * 获取哈希名称
+     */
+    @Override
+    public String getName() {
+        return Constant.Hash.Checksum.CRC32C;
+    }
+
+    /**
+     * 获取哈希值，注意获取后将不能继续增量计算哈希
+     */
+    @Override
+    public String getValue() {
+        if (value == null) {
+            synchronized (this) {
+                if (value == null) {
+                    value = String.format("%08x", getCrc());
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 获取 CRC32C 的数值
+     */
+    public int getCrc() {
+        return checksum != null ? (int) checksum.getValue() : ~crc;
+    }
+
+    /**
+     * 增量计算哈希
+     */
+    @Override
+    public void update(byte[] bytes) {
+        update(bytes, 0, bytes.length);
+    }
+
+    /**
+     * 增量计算哈希，只计算字节数组中指定范围的数据
+     */
+    @Override
+    public void update(byte[] bytes, int off, int len) {
+        if (checksum != null) {
+            checksum.update(bytes, off, len);
+            return;
+        }
+        int c = crc;
+        int end = off + len;
+        while (end - off >= 8) {
+            c ^= (bytes[off] & 0xFF)
+                    | (bytes[off + 1] & 0xFF) << 8
+                    | (bytes[off + 2] & 0xFF) << 16
+                    | (bytes[off + 3] & 0xFF) << 24;
+            c = TABLE[7][c & 0xFF]
+                    ^ TABLE[6][(c >>> 8) & 0xFF]
+                    ^ TABLE[5][(c >>> 16) & 0xFF]
+                    ^ TABLE[4][c >>> 24]
+                    ^ TABLE[3][bytes[off + 4] & 0xFF]
+                    ^ TABLE[2][bytes[off + 5] & 0xFF]
+                    ^ TABLE[1][bytes[off + 6] & 0xFF]
+                    ^ TABLE[0][bytes[off + 7] & 0xFF];
+            off += 8;
+        }
+        while (off < end) {
+            c = (c >>> 8) ^ TABLE[0][(c ^ bytes[off++]) & 0xFF];
+        }
+        crc = c;
+    }
+}
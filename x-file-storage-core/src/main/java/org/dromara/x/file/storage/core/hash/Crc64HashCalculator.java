@@ -0,0 +1,110 @@
+package org.dromara.x.file.storage.core.hash;
+
+import org.dromara.x.file.storage.core.constant.Constant;
+
+/**
+ * CRC64-ECMA（CRC-64/XZ）哈希计算器，使用查表法计算，
+ * 值为无符号十进制字符串，与阿里云 OSS、腾讯云 COS 返回的 CRC64 一致，可以直接用来校验上传结果
+ */
+public class Crc64HashCalculator implements HashCalculator {
+    /**
+     * ECMA-182 多项式（反转）
+     */
+    private static final long POLY = 0xC96C5795D7870F42L;
+    /**
+     * 8 张查找表，每次计算 8 个字节
+     */
+    private static final long[][] TABLE = new long[8][256];
+
+    static {
+        for (int n = 0; n < 256; n++) {
+            long crc = n;
+            for (int k = 0; k < 8; k++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ POLY : crc >>> 1;
+            }
+            TABLE[0][n] = crc;
+        }
+        for (int n = 0; n < 256; n++) {
+            for (int k = 1; k < 8; k++) {
+                TABLE[k][n] = (TABLE[k - 1][n] >>> 8) ^ TABLE[0][(int) (TABLE[k - 1][n] & 0xFF)];
+            }
+        }
+    }
+
+    private long crc = -1L;
+
+    /**
+     * 哈希值
+     */
+    private volatile String value;
+
+    /**
+     * 获取哈希名称
+     */
+    @Override
+    public String getName() {
+        return Constant.Hash.Checksum.CRC64;
+    }
+
+    /**
+     * 获取哈希值，注意获取后将不能继续增量计算哈希
+     */
+    @Override
+    public String getValue() {
+        if (value == null) {
+            synchronized (this) {
+                if (value == null) {
+                    value = Long.toUnsignedString(getCrc());
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 获取 CRC64 的数值，注意 Java 中的 long 是有符号的
+     */
+    public long getCrc() {
+        return ~crc;
+    }
+
+    /**
+     * 增量计算哈希
+     */
+    @Override
+    public void update(byte[] bytes) {
+        update(bytes, 0, bytes.length);
+    }
+
+    /**
+     * 增量计算哈希，只计算字节数组中指定范围的数据
+     */
+    @Override
+    public void update(byte[] bytes, int off, int len) {
+        long c = crc;
+        int end = off + len;
+        while (end - off >= 8) {
+            c ^= (bytes[off] & 0xFFL)
+                    | (bytes[off + 1] & 0xFFL) << 8
+                    | (bytes[off + 2] & 0xFFL) << 16
+                    | (bytes[off + 3] & 0xFFL) << 24
+                    | (bytes[off + 4] & 0xFFL) << 32
+                    | (bytes[off + 5] & 0xFFL) << 40
+                    | (bytes[off + 6] & 0xFFL) << 48
+                    | (bytes[off + 7] & 0xFFL) << 56;
+            c = TABLE[7][(int) (c & 0xFF)]
+                    ^ TABLE[6][(int) ((c >>> 8) & 0xFF)]
+                    ^ TABLE[5][(int) ((c >>> 16) & 0xFF)]
+                    ^ TABLE[4][(int) ((c >>> 24) & 0xFF)]
+                    ^ TABLE[3][(int) ((c >>> 32) & 0xFF)]
+                    ^ TABLE[2][(int) ((c >>> 40) & 0xFF)]
+                    ^ TABLE[1][(int) ((c >>> 48) & 0xFF)]
+                    ^ TABLE[0][(int) (c >>> 56)];
+            off += 8;
+        }
+        while (off < end) {
+            c = (c >>> 8) ^ TABLE[0][(int) ((c ^ bytes[off++]) & 0xFF)];
+        }
+        crc = c;
+    }
+}
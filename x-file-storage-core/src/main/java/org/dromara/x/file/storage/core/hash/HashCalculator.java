@@ -1,5 +1,8 @@
 package org.dromara.x.file.storage.core.hash;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 /**
  * 哈希计算器接口
  */
@@ -20,4 +23,36 @@ public interface HashCalculator {
      * @param bytes 字节数组
      */
     void update(byte[] bytes);
+
+    /**
+     * 增量计算哈希，只计算字节数组中指定范围的数据，默认会复制一份数据后调用 {@link #update(byte[])}，
+     * 实现类可以重写此方法以避免复制
+     * @param bytes 字节数组
+     * @param off 起始位置
+     * @param len 长度
+     */
+    default void update(byte[] bytes, int off, int len) {
+        if (off == 0 && len == bytes.length) {
+            update(bytes);
+        } else {
+            update(Arrays.copyOfRange(bytes, off, off + len));
+        }
+    }
+
+    /**
+     * 增量计算哈希，计算 ByteBuffer 中 position 到 limit 之间的数据，计算完成后 position 等于 limit
+     * @param buffer 缓冲区
+     */
+    default void update(ByteBuffer buffer) {
+        int len = buffer.remaining();
+        if (len <= 0) return;
+        if (buffer.hasArray()) {
+            update(buffer.array(), buffer.arrayOffset() + buffer.position(), len);
+            buffer.position(buffer.limit());
+        } else {
+            byte[] bytes = new byte[len];
+            buffer.get(bytes);
+            update(bytes);
+        }
+    }
 }
@@ -1,8 +1,10 @@
 package org.dromara.x.file.storage.core.hash;
 
 import cn.hutool.core.util.StrUtil;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import lombok.Getter;
 import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
 
@@ -15,32 +17,151 @@ public class HashCalculatorManager implements HashCalculatorSetter<HashCalculato
 
     private volatile HashInfo hashInfo;
 
+    /**
+     * 是否使用并行流水线计算哈希
+     */
+    @Getter
+    private boolean parallel;
+
+    private Executor parallelExecutor;
+    private int parallelRingSize = ParallelHashPipeline.DEFAULT_RING_SIZE;
+    private int parallelBufferSize = ParallelHashPipeline.DEFAULT_BUFFER_SIZE;
+    private volatile ParallelHashPipeline pipeline;
+
     /**
      * 添加一个哈希计算器
      * @param hashCalculator 哈希计算器
      * @return 哈希计算器管理器
      */
     public HashCalculatorManager setHashCalculator(HashCalculator hashCalculator) {
+        if (pipeline != null) {
+            throw new FileStorageRuntimeException("当前 HashCalculatorManager 已开始并行计算哈希，无法再添加哈希计算器");
+        }
         hashCalculatorList.add(hashCalculator);
         return this;
     }
 
+    /**
+     * 设置是否使用并行流水线计算哈希，开启后读取到的数据会交给后台线程计算，
+     * 每个哈希计算器使用一个独立的工作任务，多个哈希计算器同时计算，不会阻塞读取数据的线程，
+     * 适合同时计算多种哈希的大文件，计算结果与不开启时完全一致。
+     * 通过 FileStorageService 上传时未指定线程池则使用 FileStorageService 的哈希计算线程池，
+     * 没有线程池时依然在读取数据的线程中逐个计算
+     * @param parallel 是否并行计算
+     * @return 哈希计算器管理器
+     */
+    public HashCalculatorManager setParallel(boolean parallel) {
+        if (pipeline != null) {
+            throw new FileStorageRuntimeException("当前 HashCalculatorManager 已开始计算哈希，无法再修改是否并行计算");
+        }
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * 开启并行流水线计算哈希
+     * @param executor 执行计算任务的线程池
+     * @return 哈希计算器管理器
+     */
+    public HashCalculatorManager setParallel(Executor executor) {
+        return setParallel(executor, parallelRingSize, parallelBufferSize);
+    }
+
+    /**
+     * 开启并行流水线计算哈希
+     * @param executor 执行计算任务的线程池，为 null 时使用 FileStorageService 的哈希计算线程池，都没有时逐个计算
+     * @param ringSize 环形缓冲区数量，缓冲区都在使用中时读取数据的线程会等待，默认 8
+     * @param bufferSize 单个缓冲区大小，默认 64KB
+     * @return 哈希计算器管理器
+     */
+    public HashCalculatorManager setParallel(Executor executor, int ringSize, int bufferSize) {
+        setParallel(true);
+        this.parallelExecutor = executor;
+        this.parallelRingSize = ringSize;
+        this.parallelBufferSize = bufferSize;
+        return this;
+    }
+
+    /**
+     * 开启了并行计算但没有指定线程池时，设置默认使用的线程池，已经开始计算哈希时不会生效，仅限内部使用
+     * @param executor 执行计算任务的线程池
+     * @return 哈希计算器管理器
+     */
+    public HashCalculatorManager setDefaultParallelExecutor(Executor executor) {
+        if (parallelExecutor == null && pipeline == null) parallelExecutor = executor;
+        return this;
+    }
+
+    /**
+     * 获取并行流水线，未开启并行计算或者没有线程池时返回 null
+     */
+    private ParallelHashPipeline getPipeline() {
+        if (!parallel || parallelExecutor == null) return null;
+        if (pipeline == null) {
+            pipeline = new ParallelHashPipeline(
+                    hashCalculatorList, parallelExecutor, parallelRingSize, parallelBufferSize);
+        }
+        return pipeline;
+    }
+
     /**
      * 增量计算哈希
      * @param bytes 字节数组
      * @return 哈希计算器管理器
      */
     public HashCalculatorManager update(byte[] bytes) {
-        if (hashInfo != null) {
-            throw new FileStorageRuntimeException(
-                    StrUtil.format("当前 HashCalculatorManager 已调用 getHashInfo() 方法获取了哈希信息，无法再次进行增量计算"));
+        return update(bytes, 0, bytes.length);
+    }
+
+    /**
+     * 增量计算哈希，只计算字节数组中指定范围的数据，不会复制数据
+     * @param bytes 字节数组
+     * @param off 起始位置
+     * @param len 长度
+     * @return 哈希计算器管理器
+     */
+    public HashCalculatorManager update(byte[] bytes, int off, int len) {
+        checkUpdate();
+        ParallelHashPipeline pipeline = getPipeline();
+        if (pipeline != null) {
+            pipeline.update(bytes, off, len);
+            return this;
+        }
+        for (HashCalculator hashCalculator : hashCalculatorList) {
+            hashCalculator.update(bytes, off, len);
+        }
+        return this;
+    }
+
+    /**
+     * 增量计算哈希，计算 ByteBuffer 中 position 到 limit 之间的数据，计算完成后 position 等于 limit
+     * @param buffer 缓冲区
+     * @return 哈希计算器管理器
+     */
+    public HashCalculatorManager update(ByteBuffer buffer) {
+        checkUpdate();
+        ParallelHashPipeline pipeline = getPipeline();
+        if (pipeline != null) {
+            pipeline.update(buffer);
+            return this;
         }
         for (HashCalculator hashCalculator : hashCalculatorList) {
-            hashCalculator.update(bytes);
+            hashCalculator.update(buffer.duplicate());
         }
+        buffer.position(buffer.limit());
         return this;
     }
 
+    /**
+     * 检查是否还能继续增量计算哈希
+     */
+    private void checkUpdate() {
+        if (hashInfo != null) {
+            throw new FileStorageRuntimeException(
+                    StrUtil.format("当前 HashCalculatorManager 已调用 getHashInfo() 方法获取了哈希信息，无法再次进行增量计算"));
+        }
+    }
+
     /**
      * 获取哈希信息，注意：此方法一旦调用过后，将无法再次增量计算哈希
      * @return 哈希信息
@@ -49,10 +170,13 @@ public class HashCalculatorManager implements HashCalculatorSetter<HashCalculato
         if (hashInfo == null) {
             synchronized (this) {
                 if (hashInfo == null) {
-                    hashInfo = new HashInfo();
+                    // 等待并行计算的数据全部计算完成
+                    if (pipeline != null) pipeline.finish();
+                    HashInfo info = new HashInfo();
                     for (HashCalculator hashCalculator : hashCalculatorList) {
-                        hashInfo.put(hashCalculator.getName(), hashCalculator.getValue());
+                        info.put(hashCalculator.getName(), hashCalculator.getValue());
                     }
+                    hashInfo = info;
                 }
             }
         }
@@ -100,6 +100,66 @@ public interface HashCalculatorSetter<T extends HashCalculatorSetter<?>> {
         return setHashCalculator(SHA512);
     }
 
+    /**
+     * 添加 CRC32C 哈希计算器（如果条件为 true）
+     * @param flag 条件
+     */
+    default T setHashCalculatorCrc32c(boolean flag) {
+        return flag ? setHashCalculatorCrc32c() : Tools.cast(this);
+    }
+
+    /**
+     * 添加 CRC32C 哈希计算器
+     */
+    default T setHashCalculatorCrc32c() {
+        return setHashCalculator(new Crc32cHashCalculator());
+    }
+
+    /**
+     * 添加 CRC64（CRC64-ECMA） 哈希计算器（如果条件为 true）
+     * @param flag 条件
+     */
+    default T setHashCalculatorCrc64(boolean flag) {
+        return flag ? setHashCalculatorCrc64() : Tools.cast(this);
+    }
+
+    /**
+     * 添加 CRC64（CRC64-ECMA） 哈希计算器
+     */
+    default T setHashCalculatorCrc64() {
+        return setHashCalculator(new Crc64HashCalculator());
+    }
+
+    /**
+     * 添加 xxHash64 哈希计算器（如果条件为 true）
+     * @param flag 条件
+     */
+    default T setHashCalculatorXxHash64(boolean flag) {
+        return flag ? setHashCalculatorXxHash64() : Tools.cast(this);
+    }
+
+    /**
+     * 添加 xxHash64 哈希计算器
+     */
+    default T setHashCalculatorXxHash64() {
+        return setHashCalculator(new XxHash64HashCalculator());
+    }
+
+    /**
+     * 添加 按 1MB 分块的 SHA-256 树形 哈希计算器（如果条件为 true）
+     * @param flag 条件
+     */
+    default T setHashCalculatorTreeSha256(boolean flag) {
+        return flag ? setHashCalculatorTreeSha256() : Tools.cast(this);
+    }
+
+    /**
+     * 添加 按 1MB 分块的 SHA-256 树形 哈希计算器
+     */
+    default T setHashCalculatorTreeSha256() {
+        return setHashCalculator(new TreeHashCalculator());
+    }
+
     /**
      * 添加哈希计算器（如果条件为 true）
      * @param flag 条件
@@ -5,6 +5,8 @@ import static org.dromara.x.file.storage.core.constant.Constant.Hash.MessageDige
 import cn.hutool.core.map.CaseInsensitiveLinkedMap;
 import java.util.Map;
 import lombok.NoArgsConstructor;
+import org.dromara.x.file.storage.core.constant.Constant.Hash.Checksum;
+import org.dromara.x.file.storage.core.constant.Constant.Hash.Tree;
 
 /**
  * 哈希信息类，用来存储各种哈希值，例如 MD5、SHA1、SHA256等，详情{@link org.dromara.x.file.storage.core.constant.Constant.Hash}
@@ -60,4 +62,32 @@ public class HashInfo extends CaseInsensitiveLinkedMap<String, String> {
     public String getSha512() {
         return get(SHA512);
     }
+
+    /**
+     * 获取 CRC32C
+     */
+    public String getCrc32c() {
+        return get(Checksum.CRC32C);
+    }
+
+    /**
+     * 获取 CRC64（CRC64-ECMA）
+     */
+    public String getCrc64() {
+        return get(Checksum.CRC64);
+    }
+
+    /**
+     * 获取 xxHash64
+     */
+    public String getXxHash64() {
+        return get(Checksum.XXHASH64);
+    }
+
+    /**
+     * 获取按 1MB 分块的 SHA-256 树形哈希
+     */
+    public String getTreeSha256() {
+        return get(Tree.SHA256);
+    }
 }
@@ -1,6 +1,7 @@
 package org.dromara.x.file.storage.core.hash;
 
 import cn.hutool.core.util.HexUtil;
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
 
@@ -68,4 +69,20 @@ public class MessageDigestHashCalculator implements HashCalculator {
     public void update(byte[] bytes) {
         messageDigest.update(bytes);
     }
+
+    /**
+     * 增量计算哈希，只计算字节数组中指定范围的数据
+     */
+    @Override
+    public void update(byte[] bytes, int off, int len) {
+        messageDigest.update(bytes, off, len);
+    }
+
+    /**
+     * 增量计算哈希，计算 ByteBuffer 中 position 到 limit 之间的数据
+     */
+    @Override
+    public void update(ByteBuffer buffer) {
+        messageDigest.update(buffer);
+    }
 }
@@ -0,0 +1,225 @@
+package org.dromara.x.file.storage.core.hash;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
+
+/**
+ * 并行哈希计算流水线。
+ * 读取到的数据会先复制到一个可复用的环形缓冲区中，然后交给每个哈希计算器各自的工作任务计算，
+ * 每个哈希计算器按照数据的顺序依次计算，不同的哈希计算器之间并行计算。
+ * 环形缓冲区用满后 {@link #update(byte[], int, int)} 会等待，直到最慢的哈希计算器处理完一个缓冲区
+ */
+public class ParallelHashPipeline {
+    /**
+     * 默认的环形缓冲区数量
+     */
+    public static final int DEFAULT_RING_SIZE = 8;
+    /**
+     * 默认的单个缓冲区大小
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private final List<Worker> workerList;
+    private final Executor executor;
+    private final int ringSize;
+    private final int bufferSize;
+    private final BlockingQueue<Slot> freeSlotQueue;
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private int slotCount;
+    private Slot currentSlot;
+
+    /**
+     * 构造并行哈希计算流水线
+     * @param hashCalculatorList 哈希计算器列表
+     * @param executor 执行计算任务的线程池，工作任务只在有数据时才会占用线程
+     * @param ringSize 环形缓冲区数量
+     * @param bufferSize 单个缓冲区大小
+     */
+    public ParallelHashPipeline(
+            List<HashCalculator> hashCalculatorList, Executor executor, int ringSize, int bufferSize) {
+        if (ringSize < 1) throw new FileStorageRuntimeException("环形缓冲区数量不能小于 1");
+        if (bufferSize < 1) throw new FileStorageRuntimeException("缓冲区大小不能小于 1");
+        if (executor == null) throw new FileStorageRuntimeException("并行计算哈希的线程池不能为 null");
+        this.executor = executor;
+        this.ringSize = ringSize;
+        this.bufferSize = bufferSize;
+        this.freeSlotQueue = new ArrayBlockingQueue<>(ringSize);
+        this.workerList = new ArrayList<>(hashCalculatorList.size());
+        for (HashCalculator hashCalculator : hashCalculatorList) {
+            workerList.add(new Worker(hashCalculator));
+        }
+    }
+
+    /**
+     * 增量计算哈希，数据会被复制到缓冲区中，调用返回后可以立即复用传入的数组
+     */
+    public void update(byte[] bytes, int off, int len) {
+        while (len > 0) {
+            Slot slot = getCurrentSlot();
+            int n = Math.min(len, bufferSize - slot.length);
+            System.arraycopy(bytes, off, slot.data, slot.length, n);
+            slot.length += n;
+            off += n;
+            len -= n;
+            if (slot.length == bufferSize) flush();
+        }
+    }
+
+    /**
+     * 增量计算哈希，计算 ByteBuffer 中 position 到 limit 之间的数据，计算完成后 position 等于 limit
+     */
+    public void update(ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            Slot slot = getCurrentSlot();
+            int n = Math.min(buffer.remaining(), bufferSize - slot.length);
+            buffer.get(slot.data, slot.length, n);
+            slot.length += n;
+            if (slot.length == bufferSize) flush();
+        }
+    }
+
+    /**
+     * 提交剩余的数据，并等待全部哈希计算器计算完成
+     */
+    public void finish() {
+        flush();
+        // 取回全部缓冲区即表示全部数据都已计算完成
+        List<Slot> slotList = new ArrayList<>(slotCount);
+        try {
+            for (int i = 0; i < slotCount; i++) {
+                slotList.add(freeSlotQueue.take());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileStorageRuntimeException("等待哈希计算完成时被中断", e);
+        } finally {
+            freeSlotQueue.addAll(slotList);
+        }
+        checkError();
+    }
+
+    /**
+     * 获取当前正在写入的缓冲区，没有时从空闲的缓冲区中获取，缓冲区都在使用中时等待
+     */
+    private Slot getCurrentSlot() {
+        checkError();
+        if (currentSlot != null) return currentSlot;
+        Slot slot = freeSlotQueue.poll();
+        if (slot == null) {
+            if (slotCount < ringSize) {
+                slotCount++;
+                slot = new Slot(new byte[bufferSize]);
+            } else {
+                try {
+                    slot = freeSlotQueue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new FileStorageRuntimeException("等待哈希计算缓冲区时被中断", e);
+                }
+                checkError();
+            }
+        }
+        slot.length = 0;
+        currentSlot = slot;
+        return slot;
+    }
+
+    /**
+     * 将当前缓冲区交给全部哈希计算器计算
+     */
+    private void flush() {
+        Slot slot = currentSlot;
+        if (slot == null) return;
+        currentSlot = null;
+        if (slot.length == 0 || workerList.isEmpty()) {
+            freeSlotQueue.add(slot);
+            return;
+        }
+        slot.pending.set(workerList.size());
+        for (Worker worker : workerList) {
+            worker.submit(slot);
+        }
+    }
+
+    /**
+     * 检查是否有哈希计算器计算失败
+     */
+    private void checkError() {
+        Throwable e = error.get();
+        if (e != null) throw new FileStorageRuntimeException("并行计算哈希失败：" + e.getMessage(), e);
+    }
+
+    /**
+     * 缓冲区
+     */
+    private static class Slot {
+        private final byte[] data;
+        private final AtomicInteger pending = new AtomicInteger();
+        private int length;
+
+        private Slot(byte[] data) {
+            this.data = data;
+        }
+    }
+
+    /**
+     * 单个哈希计算器的工作任务，保证同一个哈希计算器按顺序计算
+     */
+    private class Worker implements Runnable {
+        private final HashCalculator hashCalculator;
+        private final Queue<Slot> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Worker(HashCalculator hashCalculator) {
+            this.hashCalculator = hashCalculator;
+        }
+
+        private void submit(Slot slot) {
+            queue.add(slot);
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RuntimeException e) {
+                    scheduled.set(false);
+                    error.compareAndSet(null, e);
+                    Slot slot;
+                    while ((slot = queue.poll()) != null) release(slot);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Slot slot;
+                while ((slot = queue.poll()) != null) {
+                    try {
+                        if (error.get() == null) hashCalculator.update(slot.data, 0, slot.length);
+                    } catch (Throwable e) {
+                        error.compareAndSet(null, e);
+                    } finally {
+                        release(slot);
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+            }
+            // 标记结束前可能有新的数据进入队列
+            if (!queue.isEmpty()) schedule();
+        }
+
+        private void release(Slot slot) {
+            if (slot.pending.decrementAndGet() == 0) freeSlotQueue.add(slot);
+        }
+    }
+}
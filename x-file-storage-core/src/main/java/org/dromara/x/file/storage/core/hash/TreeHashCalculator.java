@@ -0,0 +1,235 @@
+package org.dromara.x.file.storage.core.hash;
+
+import cn.hutool.core.util.HexUtil;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import org.dromara.x.file.storage.core.constant.Constant;
+import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
+
+/**
+ * 树形哈希计算器，按固定大小分块计算摘要，再将相邻的两个摘要拼接后计算摘要，直到只剩一个摘要。
+ * 默认按 1MB 分块计算 SHA-256，与 Amazon S3 Glacier 的 Tree Hash 一致。
+ * 上传时按顺序增量计算，对于本地文件还可以使用 {@link #compute(FileChannel, Executor)} 多线程并行计算各个分块
+ */
+public class TreeHashCalculator implements HashCalculator {
+    /**
+     * 默认分块大小
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    /**
+     * 默认摘要算法
+     */
+    public static final String DEFAULT_ALGORITHM = Constant.Hash.MessageDigest.SHA256;
+
+    private final String name;
+    private final int chunkSize;
+    private final MessageDigest messageDigest;
+    /**
+     * 已完成的分块摘要
+     */
+    private final List<byte[]> chunkHashList = new ArrayList<>();
+    /**
+     * 当前分块已计算的大小
+     */
+    private int chunkFill;
+
+    /**
+     * 哈希值
+     */
+    private volatile String value;
+
+    /**
+     * 构造按 1MB 分块的 SHA-256 树形哈希计算器
+     */
+    public TreeHashCalculator() {
+        this(Constant.Hash.Tree.SHA256, DEFAULT_ALGORITHM, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * 构造树形哈希计算器
+     * @param name 哈希名称
+     * @param algorithm 摘要算法，例如 MD5、SHA1、SHA256等，详情{@link org.dromara.x.file.storage.core.constant.Constant.Hash.MessageDigest}
+     * @param chunkSize 分块大小
+     */
+    public TreeHashCalculator(String name, String algorithm, int chunkSize) {
+        if (chunkSize < 1) throw new FileStorageRuntimeException("分块大小不能小于 1");
+        this.name = name;
+        this.chunkSize = chunkSize;
+        this.messageDigest = createMessageDigest(algorithm);
+    }
+
+    /**
+     * 获取哈希名称
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取哈希值，注意获取后将不能继续增量计算哈希
+     */
+    @Override
+    public String getValue() {
+        if (value == null) {
+            synchronized (this) {
+                if (value == null) {
+                    if (chunkFill > 0 || chunkHashList.isEmpty()) {
+                        chunkHashList.add(messageDigest.digest());
+                        chunkFill = 0;
+                    }
+                    value = HexUtil.encodeHexStr(merge(chunkHashList, messageDigest));
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 增量计算哈希
+     */
+    @Override
+    public void update(byte[] bytes) {
+        update(bytes, 0, bytes.length);
+    }
+
+    /**
+     * 增量计算哈希，只计算字节数组中指定范围的数据
+     */
+    @Override
+    public void update(byte[] bytes, int off, int len) {
+        while (len > 0) {
+            int n = Math.min(len, chunkSize - chunkFill);
+            messageDigest.update(bytes, off, n);
+            chunkFill += n;
+            off += n;
+            len -= n;
+            if (chunkFill == chunkSize) {
+                chunkHashList.add(messageDigest.digest());
+                chunkFill = 0;
+            }
+        }
+    }
+
+    /**
+     * 并行计算本地文件按 1MB 分块的 SHA-256 树形哈希
+     * @param path 文件路径
+     * @param executor 线程池，为 null 时在当前线程中逐个计算
+     * @return 哈希值
+     */
+    public static String compute(Path path, Executor executor) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return compute(channel, executor);
+        }
+    }
+
+    /**
+     * 并行计算按 1MB 分块的 SHA-256 树形哈希，使用按位置读取，不会改变 FileChannel 的当前位置
+     * @param channel 文件通道
+     * @param executor 线程池，为 null 时在当前线程中逐个计算
+     * @return 哈希值
+     */
+    public static String compute(FileChannel channel, Executor executor) throws IOException {
+        return compute(
+                channel, DEFAULT_ALGORITHM, DEFAULT_CHUNK_SIZE, Runtime.getRuntime().availableProcessors(), executor);
+    }
+
+    /**
+     * 并行计算树形哈希，使用按位置读取，不会改变 FileChannel 的当前位置
+     * @param channel 文件通道
+     * @param algorithm 摘要算法
+     * @param chunkSize 分块大小
+     * @param parallelism 并行数量，各个线程分别计算一段连续的分块
+     * @param executor 线程池，为 null 时在当前线程中逐个计算
+     * @return 哈希值
+     */
+    public static String compute(
+            FileChannel channel, String algorithm, int chunkSize, int parallelism, Executor executor)
+            throws IOException {
+        if (chunkSize < 1) throw new FileStorageRuntimeException("分块大小不能小于 1");
+        // 没有线程池时在当前线程中逐段计算，结果与并行计算一致
+        if (executor == null) executor = Runnable::run;
+        long size = channel.size();
+        int chunkCount = (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+        byte[][] chunkHashes = new byte[chunkCount][];
+        int taskCount = Math.max(1, Math.min(parallelism, chunkCount));
+        int chunksPerTask = (chunkCount + taskCount - 1) / taskCount;
+
+        List<CompletableFuture<Void>> futureList = new ArrayList<>(taskCount);
+        for (int start = 0; start < chunkCount; start += chunksPerTask) {
+            int from = start;
+            int to = Math.min(chunkCount, start + chunksPerTask);
+            futureList.add(CompletableFuture.runAsync(
+                    () -> {
+                        MessageDigest digest = createMessageDigest(algorithm);
+                        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(chunkSize, Math.max(size, 1)));
+                        try {
+                            for (int i = from; i < to; i++) {
+                                long position = (long) i * chunkSize;
+                                long end = Math.min(size, position + chunkSize);
+                                while (position < end) {
+                                    buffer.clear();
+                                    buffer.limit((int) Math.min(buffer.capacity(), end - position));
+                                    int n = channel.read(buffer, position);
+                                    if (n < 0) throw new IOException("文件大小在计算哈希时发生了变化");
+                                    buffer.flip();
+                                    digest.update(buffer);
+                                    position += n;
+                                }
+                                chunkHashes[i] = digest.digest();
+                            }
+                        } catch (IOException e) {
+                            throw new CompletionException(e);
+                        }
+                    },
+                    executor));
+        }
+        try {
+            CompletableFuture.allOf(futureList.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new FileStorageRuntimeException("并行计算树形哈希失败", cause == null ? e : cause);
+        }
+        return HexUtil.encodeHexStr(merge(Arrays.asList(chunkHashes), createMessageDigest(algorithm)));
+    }
+
+    /**
+     * 逐层合并分块摘要，相邻的两个摘要拼接后计算摘要，落单的摘要直接进入下一层
+     */
+    private static byte[] merge(List<byte[]> hashList, MessageDigest digest) {
+        List<byte[]> level = hashList;
+        while (level.size() > 1) {
+            List<byte[]> next = new ArrayList<>((level.size() + 1) / 2);
+            for (int i = 0; i < level.size(); i += 2) {
+                if (i + 1 < level.size()) {
+                    digest.update(level.get(i));
+                    digest.update(level.get(i + 1));
+                    next.add(digest.digest());
+                } else {
+                    next.add(level.get(i));
+                }
+            }
+            level = next;
+        }
+        return level.get(0);
+    }
+
+    private static MessageDigest createMessageDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (Exception e) {
+            throw new FileStorageRuntimeException("创建 TreeHashCalculator 失败，暂不支持：" + algorithm, e);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.dromara.x.file.storage.core.hash;
+
+import org.dromara.x.file.storage.core.constant.Constant;
+
+/**
+ * xxHash64 哈希计算器，非加密哈希，计算速度非常快，适合校验大文件的完整性，
+ * 值为 16 位小写十六进制字符串
+ */
+public class XxHash64HashCalculator implements HashCalculator {
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+    private final long seed;
+    private long v1;
+    private long v2;
+    private long v3;
+    private long v4;
+    private long totalLength;
+    /**
+     * 不足 32 字节的剩余数据
+     */
+    private final byte[] memory = new byte[32];
+
+    private int memorySize;
+
+    /**
+     * 哈希值
+     */
+    private volatile String value;
+
+    public XxHash64HashCalculator() {
+        this(0);
+    }
+
+    /**
+     * 构造 xxHash64 哈希计算器
+     * @param seed 种子
+     */
+    public XxHash64HashCalculator(long seed) {
+        this.seed = seed;
+        v1 = seed + PRIME1 + PRIME2;
+        v2 = seed + PRIME2;
+        v3 = seed;
+        v4 = seed - PRIME1;
+    }
+
+    /**
+     * 获取哈希名称
+     */
+    @Override
+    public String getName() {
+        return Constant.Hash.Checksum.XXHASH64;
+    }
+
+    /**
+     * 获取哈希值，注意获取后将不能继续增量计算哈希
+     */
+    @Override
+    public String getValue() {
+        if (value == null) {
+            synchronized (this) {
+                if (value == null) {
+                    value = String.format("%016x", getHash());
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 增量计算哈希
+     */
+    @Override
+    public void update(byte[] bytes) {
+        update(bytes, 0, bytes.length);
+    }
+
+    /**
+     * 增量计算哈希，只计算字节数组中指定范围的数据
+     */
+    @Override
+    public void update(byte[] bytes, int off, int len) {
+        totalLength += len;
+        int end = off + len;
+        if (memorySize + len < 32) {
+            System.arraycopy(bytes, off, memory, memorySize, len);
+            memorySize += len;
+            return;
+        }
+        if (memorySize > 0) {
+            int fill = 32 - memorySize;
+            System.arraycopy(bytes, off, memory, memorySize, fill);
+            v1 = round(v1, getLong(memory, 0));
+            v2 = round(v2, getLong(memory, 8));
+            v3 = round(v3, getLong(memory, 16));
+            v4 = round(v4, getLong(memory, 24));
+            off += fill;
+            memorySize = 0;
+        }
+        while (end - off >= 32) {
+            v1 = round(v1, getLong(bytes, off));
+            v2 = round(v2, getLong(bytes, off + 8));
+            v3 = round(v3, getLong(bytes, off + 16));
+            v4 = round(v4, getLong(bytes, off + 24));
+            off += 32;
+        }
+        if (off < end) {
+            memorySize = end - off;
+            System.arraycopy(bytes, off, memory, 0, memorySize);
+        }
+    }
+
+    /**
+     * 获取 xxHash64 的数值
+     */
+    public long getHash() {
+        long h;
+        if (totalLength >= 32) {
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = mergeRound(h, v1);
+            h = mergeRound(h, v2);
+            h = mergeRound(h, v3);
+            h = mergeRound(h, v4);
+        } else {
+            h = seed + PRIME5;
+        }
+        h += totalLength;
+
+        int off = 0;
+        while (memorySize - off >= 8) {
+            h ^= round(0, getLong(memory, off));
+            h = Long.rotateLeft(h, 27) * PRIME1 + PRIME4;
+            off += 8;
+        }
+        if (memorySize - off >= 4) {
+            h ^= (getInt(memory, off) & 0xFFFFFFFFL) * PRIME1;
+            h = Long.rotateLeft(h, 23) * PRIME2 + PRIME3;
+            off += 4;
+        }
+        while (off < memorySize) {
+            h ^= (memory[off] & 0xFFL) * PRIME5;
+            h = Long.rotateLeft(h, 11) * PRIME1;
+            off++;
+        }
+
+        h ^= h >>> 33;
+        h *= PRIME2;
+        h ^= h >>> 29;
+        h *= PRIME3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * PRIME2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * PRIME1;
+    }
+
+    private static long mergeRound(long acc, long val) {
+        acc ^= round(0, val);
+        return acc * PRIME1 + PRIME4;
+    }
+
+    private static long getLong(byte[] b, int i) {
+        return (b[i] & 0xFFL)
+                | (b[i + 1] & 0xFFL) << 8
+                | (b[i + 2] & 0xFFL) << 16
+                | (b[i + 3] & 0xFFL) << 24
+                | (b[i + 4] & 0xFFL) << 32
+                | (b[i + 5] & 0xFFL) << 40
+                | (b[i + 6] & 0xFFL) << 48
+                | (b[i + 7] & 0xFFL) << 56;
+    }
+
+    private static int getInt(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16 | (b[i + 3] & 0xFF) << 24;
+    }
+}
@@ -6,23 +6,26 @@ import cn.hutool.core.util.StrUtil;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.dromara.x.file.storage.core.FileInfo;
 import org.dromara.x.file.storage.core.FileStorageService;
 import org.dromara.x.file.storage.core.aspect.FileStorageAspect;
+import org.dromara.x.file.storage.core.aspect.FileStorageAspectTable;
 import org.dromara.x.file.storage.core.aspect.MoveAspectChain;
 import org.dromara.x.file.storage.core.aspect.SameMoveAspectChain;
 import org.dromara.x.file.storage.core.constant.Constant.MoveMode;
 import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
 import org.dromara.x.file.storage.core.hash.HashInfo;
 import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.platform.FileStorageRegistry;
 import org.dromara.x.file.storage.core.recorder.FileRecorder;
+import org.dromara.x.file.storage.core.upload.ThumbnailVariantInfo;
 
 /**
  * 移动执行器
  */
 public class MoveActuator {
     private final FileStorageService fileStorageService;
-    private final FileStorage fileStorage;
     private final FileInfo fileInfo;
     private final MovePretreatment pre;
 
@@ -30,7 +33,6 @@ public class MoveActuator {
         this.pre = pre;
         this.fileStorageService = pre.getFileStorageService();
         this.fileInfo = pre.getFileInfo();
-        this.fileStorage = fileStorageService.getFileStorageVerify(fileInfo.getPlatform());
     }
 
     /**
@@ -49,18 +51,21 @@ public class MoveActuator {
 
         // 处理切面
         List<FileStorageAspect> aspectList = fileStorageService.getAspectList();
+        FileStorageAspectTable aspectTable = fileStorageService.getAspectTable(aspectList);
         FileRecorder fileRecorder = fileStorageService.getFileRecorder();
-        return new MoveAspectChain(aspectList, (_srcFileInfo, _pre, _fileStorage, _fileRecorder) -> {
-                    // 真正开始移动
-                    FileInfo destFileInfo;
-                    if (isSameMove(_srcFileInfo, _pre, _fileStorage)) {
-                        destFileInfo = sameMove(_srcFileInfo, _pre, _fileStorage, _fileRecorder, aspectList);
-                    } else {
-                        destFileInfo = crossMove(_srcFileInfo, _pre, _fileStorage, _fileRecorder, aspectList);
-                    }
-                    return destFileInfo;
-                })
-                .next(fileInfo, pre, fileStorage, fileRecorder);
+        try (FileStorageRegistry.Lease lease = fileStorageService.acquireFileStorageVerify(fileInfo.getPlatform())) {
+            return new MoveAspectChain(aspectTable, (_srcFileInfo, _pre, _fileStorage, _fileRecorder) -> {
+                        // 真正开始移动
+                        FileInfo destFileInfo;
+                        if (isSameMove(_srcFileInfo, _pre, _fileStorage)) {
+                            destFileInfo = sameMove(_srcFileInfo, _pre, _fileStorage, _fileRecorder, aspectList);
+                        } else {
+                            destFileInfo = crossMove(_srcFileInfo, _pre, _fileStorage, _fileRecorder, aspectList);
+                        }
+                        return destFileInfo;
+                    })
+                    .next(fileInfo, pre, lease.getFileStorage(), fileRecorder);
+        }
     }
 
     /**
@@ -90,6 +95,7 @@ public class MoveActuator {
             FileStorage fileStorage,
             FileRecorder fileRecorder,
             List<FileStorageAspect> aspectList) {
+        FileStorageAspectTable aspectTable = fileStorageService.getAspectTable(aspectList);
 
         // 检查文件名是否与原始的相同
         if ((srcFileInfo.getPath() + srcFileInfo.getFilename()).equals(pre.getPath() + pre.getFilename())) {
@@ -137,20 +143,54 @@ public class MoveActuator {
         destFileInfo.setThFileAcl(srcFileInfo.getThFileAcl());
         destFileInfo.setCreateTime(new Date());
 
-        return new SameMoveAspectChain(aspectList, (_srcFileInfo, _destFileInfo, _pre, _fileStorage, _fileRecorder) -> {
-                    _fileStorage.sameMove(_srcFileInfo, _destFileInfo, _pre);
-                    _fileRecorder.save(_destFileInfo);
+        return new SameMoveAspectChain(
+                        aspectTable, (_srcFileInfo, _destFileInfo, _pre, _fileStorage, _fileRecorder) -> {
+                            _fileStorage.sameMove(_srcFileInfo, _destFileInfo, _pre);
+                            sameMoveThumbnailVariants(_srcFileInfo, _destFileInfo, _pre, _fileStorage);
+                            _fileRecorder.save(_destFileInfo);
 
-                    // 如果源文件删除失败，则表示移动失败
-                    if (!fileStorageService.delete(_srcFileInfo, _fileStorage, _fileRecorder, aspectList)) {
-                        throw new FileStorageRuntimeException("移动文件失败，源文件删除失败");
-                    }
+                            // 如果源文件删除失败，则表示移动失败
+                            if (!fileStorageService.delete(_srcFileInfo, _fileStorage, _fileRecorder, aspectList)) {
+                                throw new FileStorageRuntimeException("移动文件失败，源文件删除失败");
+                            }
 
-                    return _destFileInfo;
-                })
+                            return _destFileInfo;
+                        })
                 .next(srcFileInfo, destFileInfo, pre, fileStorage, fileRecorder);
     }
 
+    /**
+     * 同存储平台移动多规格缩略图，移动后的规格信息写入目标文件信息中
+     */
+    protected void sameMoveThumbnailVariants(
+            FileInfo srcFileInfo, FileInfo destFileInfo, MovePretreatment pre, FileStorage fileStorage) {
+        if (srcFileInfo.getThVariants() == null) return;
+        Map<String, ThumbnailVariantInfo> thVariants = new LinkedHashMap<>();
+        for (Map.Entry<String, ThumbnailVariantInfo> entry : srcFileInfo.getThVariants().entrySet()) {
+            ThumbnailVariantInfo variant = entry.getValue();
+            String filename = fileStorageService.getThumbnailVariantFilename(
+                    srcFileInfo, entry.getKey(), variant, destFileInfo.getFilename(), destFileInfo.getThFilename());
+            ThumbnailVariantInfo destVariant = new ThumbnailVariantInfo()
+                    .setFilename(filename)
+                    .setSize(variant.getSize())
+                    .setContentType(variant.getContentType());
+            FileInfo srcVariantFileInfo = fileStorageService.getThumbnailVariantFileInfo(srcFileInfo, variant);
+            FileInfo destVariantFileInfo = fileStorageService
+                    .getThumbnailVariantFileInfo(destFileInfo, destVariant)
+                    .setExt(FileNameUtil.extName(filename))
+                    .setFileAcl(destFileInfo.getThFileAcl());
+            MovePretreatment variantPre = new MovePretreatment(srcVariantFileInfo, fileStorageService)
+                    .setPlatform(pre.getPlatform())
+                    .setPath(pre.getPath())
+                    .setFilename(filename)
+                    .setNotSupportMetadataThrowException(pre.getNotSupportMetadataThrowException())
+                    .setNotSupportAclThrowException(pre.getNotSupportAclThrowException());
+            fileStorage.sameMove(srcVariantFileInfo, destVariantFileInfo, variantPre);
+            thVariants.put(entry.getKey(), destVariant.setUrl(destVariantFileInfo.getUrl()));
+        }
+        destFileInfo.setThVariants(thVariants);
+    }
+
     /**
      * 跨存储平台移动，通过从复制并删除旧文件来实现
      */
@@ -14,7 +14,9 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -50,6 +52,8 @@ public class AliyunOssFileStorage implements FileStorage {
     private String defaultAcl;
     private int multipartThreshold;
     private int multipartPartSize;
+    private int multipartConcurrency;
+    private int multipartRetryTimes;
     private FileStorageClientFactory<OSS> clientFactory;
 
     public AliyunOssFileStorage(AliyunOssConfig config, FileStorageClientFactory<OSS> clientFactory) {
@@ -60,6 +64,8 @@ public class AliyunOssFileStorage implements FileStorage {
         defaultAcl = config.getDefaultAcl();
         multipartThreshold = config.getMultipartThreshold();
         multipartPartSize = config.getMultipartPartSize();
+        multipartConcurrency = config.getMultipartConcurrency();
+        multipartRetryTimes = config.getMultipartRetryTimes();
         this.clientFactory = clientFactory;
     }
 
@@ -88,29 +94,35 @@ public class AliyunOssFileStorage implements FileStorage {
                 uploadId = client.initiateMultipartUpload(
                                 new InitiateMultipartUploadRequest(bucketName, newFileKey, metadata))
                         .getUploadId();
-                List<PartETag> partList = new ArrayList<>();
-                int i = 0;
-                AtomicLong progressSize = new AtomicLong();
+                String finalUploadId = uploadId;
+                PartProgressTracker progressTracker = new PartProgressTracker(listener, fileInfo.getSize());
                 if (listener != null) listener.start();
-                while (true) {
-                    byte[] bytes = IoUtil.readBytes(in, multipartPartSize);
-                    if (bytes == null || bytes.length == 0) break;
-                    UploadPartRequest part = new UploadPartRequest();
-                    part.setBucketName(bucketName);
-                    part.setKey(newFileKey);
-                    part.setUploadId(uploadId);
-                    part.setInputStream(new ByteArrayInputStream(bytes));
-                    part.setPartSize(bytes.length); // 设置分片大小。除了最后一个分片没有大小限制，其他的分片最小为100 KB。
-                    part.setPartNumber(++i); // 设置分片号。每一个上传的分片都有一个分片号，取值范围是1~10000，如果超出此范围，OSS将返回InvalidArgument错误码。
-                    if (listener != null) {
-                        part.setProgressListener(e -> {
-                            if (e.getEventType() == ProgressEventType.REQUEST_BYTE_TRANSFER_EVENT) {
-                                listener.progress(progressSize.addAndGet(e.getBytes()), fileInfo.getSize());
+                List<PartETag> partList = ConcurrentPartUploader.upload(
+                        in,
+                        pre.getFileStorageService().getPartBufferPool(),
+                        pre.getFileStorageService().getPartUploadExecutor(),
+                        multipartPartSize,
+                        multipartConcurrency,
+                        multipartRetryTimes,
+                        (partNumber, partBuffer) -> {
+                            progressTracker.start(partNumber);
+                            UploadPartRequest part = new UploadPartRequest();
+                            part.setBucketName(bucketName);
+                            part.setKey(newFileKey);
+                            part.setUploadId(finalUploadId);
+                            part.setInputStream(partBuffer.getInputStream());
+                            part.setPartSize(partBuffer.getSize()); // 设置分片大小。除了最后一个分片没有大小限制，其他的分片最小为100 KB。
+                            part.setPartNumber(
+                                    partNumber); // 设置分片号。每一个上传的分片都有一个分片号，取值范围是1~10000，如果超出此范围，OSS将返回InvalidArgument错误码。
+                            if (listener != null) {
+                                part.setProgressListener(e -> {
+                                    if (e.getEventType() == ProgressEventType.REQUEST_BYTE_TRANSFER_EVENT) {
+                                        progressTracker.progress(partNumber, e.getBytes());
+                                    }
+                                });
                             }
+                            return client.uploadPart(part).getPartETag();
                         });
-                    }
-                    partList.add(client.uploadPart(part).getPartETag());
-                }
                 client.completeMultipartUpload(
                         new CompleteMultipartUploadRequest(bucketName, newFileKey, uploadId, partList));
                 if (fileAcl != null) client.setObjectAcl(bucketName, newFileKey, fileAcl);
@@ -501,6 +513,26 @@ public class AliyunOssFileStorage implements FileStorage {
         }
     }
 
+    @Override
+    public boolean isSupportDeleteBatch() {
+        return true;
+    }
+
+    @Override
+    public Set<String> deleteBatch(List<String> fileKeyList) {
+        try {
+            // 使用详细模式，返回删除成功的文件
+            DeleteObjectsRequest request =
+                    new DeleteObjectsRequest(bucketName).withKeys(fileKeyList).withQuiet(false);
+            DeleteObjectsResult result = getClient().deleteObjects(request);
+            Set<String> failedSet = new HashSet<>(fileKeyList);
+            if (result.getDeletedObjects() != null) result.getDeletedObjects().forEach(failedSet::remove);
+            return failedSet;
+        } catch (Exception e) {
+            throw ExceptionFactory.deleteBatch(fileKeyList.size(), platform, e);
+        }
+    }
+
     @Override
     public boolean exists(FileInfo fileInfo) {
         try {
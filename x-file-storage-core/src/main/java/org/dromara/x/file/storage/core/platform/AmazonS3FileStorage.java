@@ -47,6 +47,8 @@ public class AmazonS3FileStorage implements FileStorage {
     private String defaultAcl;
     private int multipartThreshold;
     private int multipartPartSize;
+    private int multipartConcurrency;
+    private int multipartRetryTimes;
     private FileStorageClientFactory<AmazonS3> clientFactory;
 
     public AmazonS3FileStorage(
@@ -58,6 +60,8 @@ public class AmazonS3FileStorage implements FileStorage {
         defaultAcl = config.getDefaultAcl();
         multipartThreshold = config.getMultipartThreshold();
         multipartPartSize = config.getMultipartPartSize();
+        multipartConcurrency = config.getMultipartConcurrency();
+        multipartRetryTimes = config.getMultipartRetryTimes();
         this.clientFactory = clientFactory;
     }
 
@@ -86,30 +90,35 @@ public class AmazonS3FileStorage implements FileStorage {
                 uploadId = client.initiateMultipartUpload(
                                 new InitiateMultipartUploadRequest(bucketName, newFileKey, metadata))
                         .getUploadId();
-                List<PartETag> partList = new ArrayList<>();
-                int i = 0;
-                AtomicLong progressSize = new AtomicLong();
+                String finalUploadId = uploadId;
+                PartProgressTracker progressTracker = new PartProgressTracker(listener, fileInfo.getSize());
                 if (listener != null) listener.start();
-                while (true) {
-                    byte[] bytes = IoUtil.readBytes(in, multipartPartSize);
-                    if (bytes == null || bytes.length == 0) break;
-                    UploadPartRequest part = new UploadPartRequest();
-                    part.setBucketName(bucketName);
-                    part.setKey(newFileKey);
-                    part.setUploadId(uploadId);
-                    part.setInputStream(new ByteArrayInputStream(bytes));
-                    part.setPartSize(bytes.length); // 设置分片大小。除了最后一个分片没有大小限制，其他的分片最小为100 KB。
-                    part.setPartNumber(
-                            ++i); // 设置分片号。每一个上传的分片都有一个分片号，取值范围是1~10000，如果超出此范围，AmazonS3将返回InvalidArgument错误码。
-                    if (listener != null) {
-                        part.setGeneralProgressListener(e -> {
-                            if (e.getEventType() == ProgressEventType.REQUEST_BYTE_TRANSFER_EVENT) {
-                                listener.progress(progressSize.addAndGet(e.getBytes()), fileInfo.getSize());
+                List<PartETag> partList = ConcurrentPartUploader.upload(
+                        in,
+                        pre.getFileStorageService().getPartBufferPool(),
+                        pre.getFileStorageService().getPartUploadExecutor(),
+                        multipartPartSize,
+                        multipartConcurrency,
+                        multipartRetryTimes,
+                        (partNumber, partBuffer) -> {
+                            progressTracker.start(partNumber);
+                            UploadPartRequest part = new UploadPartRequest();
+                            part.setBucketName(bucketName);
+                            part.setKey(newFileKey);
+                            part.setUploadId(finalUploadId);
+                            part.setInputStream(partBuffer.getInputStream());
+                            part.setPartSize(partBuffer.getSize()); // 设置分片大小。除了最后一个分片没有大小限制，其他的分片最小为100 KB。
+                            part.setPartNumber(
+                                    partNumber); // 设置分片号。每一个上传的分片都有一个分片号，取值范围是1~10000，如果超出此范围，AmazonS3将返回InvalidArgument错误码。
+                            if (listener != null) {
+                                part.setGeneralProgressListener(e -> {
+                                    if (e.getEventType() == ProgressEventType.REQUEST_BYTE_TRANSFER_EVENT) {
+                                        progressTracker.progress(partNumber, e.getBytes());
+                                    }
+                                });
                             }
+                            return client.uploadPart(part).getPartETag();
                         });
-                    }
-                    partList.add(client.uploadPart(part).getPartETag());
-                }
                 client.completeMultipartUpload(
                         new CompleteMultipartUploadRequest(bucketName, newFileKey, uploadId, partList));
                 if (fileAcl != null) client.setObjectAcl(bucketName, newFileKey, fileAcl);
@@ -504,6 +513,29 @@ public class AmazonS3FileStorage implements FileStorage {
         }
     }
 
+    @Override
+    public boolean isSupportDeleteBatch() {
+        return true;
+    }
+
+    @Override
+    public Set<String> deleteBatch(List<String> fileKeyList) {
+        try {
+            DeleteObjectsRequest request =
+                    new DeleteObjectsRequest(bucketName).withKeys(fileKeyList.toArray(new String[0])).withQuiet(true);
+            try {
+                getClient().deleteObjects(request);
+                return Collections.emptySet();
+            } catch (MultiObjectDeleteException e) {
+                return e.getErrors().stream()
+                        .map(MultiObjectDeleteException.DeleteError::getKey)
+                        .collect(Collectors.toSet());
+            }
+        } catch (Exception e) {
+            throw ExceptionFactory.deleteBatch(fileKeyList.size(), platform, e);
+        }
+    }
+
     @Override
     public boolean exists(FileInfo fileInfo) {
         try {
@@ -61,6 +61,8 @@ public class AmazonS3V2FileStorage implements FileStorage {
     private String defaultAcl;
     private int multipartThreshold;
     private int multipartPartSize;
+    private int multipartConcurrency;
+    private int multipartRetryTimes;
     private FileStorageClientFactory<AmazonS3V2Client> clientFactory;
 
     public AmazonS3V2FileStorage(
@@ -73,6 +75,8 @@ public class AmazonS3V2FileStorage implements FileStorage {
         defaultAcl = config.getDefaultAcl();
         multipartThreshold = config.getMultipartThreshold();
         multipartPartSize = config.getMultipartPartSize();
+        multipartConcurrency = config.getMultipartConcurrency();
+        multipartRetryTimes = config.getMultipartRetryTimes();
         this.clientFactory = clientFactory;
     }
 
@@ -103,37 +107,43 @@ public class AmazonS3V2FileStorage implements FileStorage {
                                         fileInfo)
                                 .build())
                         .uploadId();
-                List<CompletedPart> partList = new ArrayList<>();
-                int i = 0;
-                AtomicLong progressSize = new AtomicLong();
+                String finalUploadId = uploadId;
+                PartProgressTracker progressTracker = new PartProgressTracker(listener, fileInfo.getSize());
                 if (listener != null) listener.start();
-                while (true) {
-                    byte[] bytes = IoUtil.readBytes(in, multipartPartSize);
-                    if (bytes == null || bytes.length == 0) break;
-                    UploadPartRequest part = UploadPartRequest.builder()
-                            .bucket(bucketName)
-                            .key(newFileKey)
-                            .uploadId(uploadId)
-                            .partNumber(
-                                    ++i) // 设置分片号。每一个上传的分片都有一个分片号，取值范围是1~10000，如果超出此范围，AmazonS3将返回InvalidArgument错误码。
-                            .contentLength((long) bytes.length)
-                            .build();
-                    RequestBody body;
-                    if (listener != null) {
-                        body = RequestBody.fromInputStream(
-                                new InputStreamPlus(
-                                        new ByteArrayInputStream(bytes),
-                                        currentSize -> ProgressListener.quickProgress(
-                                                listener, progressSize.get() + currentSize, fileInfo.getSize())),
-                                bytes.length);
-                    } else {
-                        body = RequestBody.fromBytes(bytes);
-                    }
-                    partList.add(CompletedPart.builder()
-                            .partNumber(i)
-                            .eTag(client.uploadPart(part, body).eTag())
-                            .build());
-                }
+                List<CompletedPart> partList = ConcurrentPartUploader.upload(
+                        in,
+                        pre.getFileStorageService().getPartBufferPool(),
+                        pre.getFileStorageService().getPartUploadExecutor(),
+                        multipartPartSize,
+                        multipartConcurrency,
+                        multipartRetryTimes,
+                        (partNumber, partBuffer) -> {
+                            progressTracker.start(partNumber);
+                            UploadPartRequest part = UploadPartRequest.builder()
+                                    .bucket(bucketName)
+                                    .key(newFileKey)
+                                    .uploadId(finalUploadId)
+                                    .partNumber(
+                                            partNumber) // 设置分片号。每一个上传的分片都有一个分片号，取值范围是1~10000，如果超出此范围，AmazonS3将返回InvalidArgument错误码。
+                                    .contentLength((long) partBuffer.getSize())
+                                    .build();
+                            RequestBody body;
+                            if (listener != null) {
+                                AtomicLong partProgressSize = new AtomicLong();
+                                body = RequestBody.fromInputStream(
+                                        new InputStreamPlus(partBuffer.getInputStream(), currentSize -> {
+                                            long size = currentSize - partProgressSize.getAndSet(currentSize);
+                                            progressTracker.progress(partNumber, size);
+                                        }),
+                                        partBuffer.getSize());
+                            } else {
+                                body = RequestBody.fromInputStream(partBuffer.getInputStream(), partBuffer.getSize());
+                            }
+                            return CompletedPart.builder()
+                                    .partNumber(partNumber)
+                                    .eTag(client.uploadPart(part, body).eTag())
+                                    .build();
+                        });
                 client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
                         .bucket(bucketName)
                         .key(newFileKey)
@@ -687,6 +697,29 @@ public class AmazonS3V2FileStorage implements FileStorage {
         }
     }
 
+    @Override
+    public boolean isSupportDeleteBatch() {
+        return true;
+    }
+
+    @Override
+    public Set<String> deleteBatch(List<String> fileKeyList) {
+        try {
+            List<ObjectIdentifier> objects = fileKeyList.stream()
+                    .map(key -> ObjectIdentifier.builder().key(key).build())
+                    .collect(Collectors.toList());
+            DeleteObjectsResponse response = getClient()
+                    .getClient()
+                    .deleteObjects(DeleteObjectsRequest.builder()
+                            .bucket(bucketName)
+                            .delete(Delete.builder().objects(objects).quiet(true).build())
+                            .build());
+            return response.errors().stream().map(S3Error::key).collect(Collectors.toSet());
+        } catch (Exception e) {
+            throw ExceptionFactory.deleteBatch(fileKeyList.size(), platform, e);
+        }
+    }
+
     @Override
     public boolean exists(FileInfo fileInfo) {
         try {
@@ -51,6 +51,8 @@ public class BaiduBosFileStorage implements FileStorage {
     private String defaultAcl;
     private int multipartThreshold;
     private int multipartPartSize;
+    private int multipartConcurrency;
+    private int multipartRetryTimes;
     private FileStorageClientFactory<BosClient> clientFactory;
 
     public BaiduBosFileStorage(BaiduBosConfig config, FileStorageClientFactory<BosClient> clientFactory) {
@@ -61,6 +63,8 @@ public class BaiduBosFileStorage implements FileStorage {
         defaultAcl = config.getDefaultAcl();
         multipartThreshold = config.getMultipartThreshold();
         multipartPartSize = config.getMultipartPartSize();
+        multipartConcurrency = config.getMultipartConcurrency();
+        multipartRetryTimes = config.getMultipartRetryTimes();
         this.clientFactory = clientFactory;
     }
 
@@ -90,32 +94,38 @@ public class BaiduBosFileStorage implements FileStorage {
                 initiateMultipartUploadRequest.setObjectMetadata(metadata);
                 uploadId = client.initiateMultipartUpload(initiateMultipartUploadRequest)
                         .getUploadId();
-                List<PartETag> partList = new ArrayList<>();
-                int i = 0;
-                AtomicLong progressSize = new AtomicLong();
+                String finalUploadId = uploadId;
+                PartProgressTracker progressTracker = new PartProgressTracker(listener, fileInfo.getSize());
                 if (listener != null) listener.start();
-                while (true) {
-                    byte[] bytes = IoUtil.readBytes(in, multipartPartSize);
-                    if (bytes == null || bytes.length == 0) break;
-                    UploadPartRequest part = new UploadPartRequest();
-                    part.setBucketName(bucketName);
-                    part.setKey(newFileKey);
-                    part.setUploadId(uploadId);
-                    part.setInputStream(new ByteArrayInputStream(bytes));
-                    part.setPartSize(bytes.length); // 设置分片大小。除了最后一个分片没有大小限制，其他的分片最小为100 KB。
-                    part.setPartNumber(
-                            ++i); // 设置分片号。每一个上传的分片都有一个分片号，取值范围是1~10000，如果超出此范围，BosClient将返回InvalidArgument错误码。
-                    if (listener != null) {
-                        part.setProgressCallback(new BosProgressCallback<Object>() {
-                            @Override
-                            public void onProgress(long currentSize, long totalSize, Object data) {
-                                listener.progress(progressSize.get() + currentSize, fileInfo.getSize());
+                List<PartETag> partList = ConcurrentPartUploader.upload(
+                        in,
+                        pre.getFileStorageService().getPartBufferPool(),
+                        pre.getFileStorageService().getPartUploadExecutor(),
+                        multipartPartSize,
+                        multipartConcurrency,
+                        multipartRetryTimes,
+                        (partNumber, partBuffer) -> {
+                            progressTracker.start(partNumber);
+                            UploadPartRequest part = new UploadPartRequest();
+                            part.setBucketName(bucketName);
+                            part.setKey(newFileKey);
+                            part.setUploadId(finalUploadId);
+                            part.setInputStream(partBuffer.getInputStream());
+                            part.setPartSize(partBuffer.getSize()); // 设置分片大小。除了最后一个分片没有大小限制，其他的分片最小为100 KB。
+                            part.setPartNumber(
+                                    partNumber); // 设置分片号。每一个上传的分片都有一个分片号，取值范围是1~10000，如果超出此范围，BosClient将返回InvalidArgument错误码。
+                            if (listener != null) {
+                                AtomicLong partProgressSize = new AtomicLong();
+                                part.setProgressCallback(new BosProgressCallback<Object>() {
+                                    @Override
+                                    public void onProgress(long currentSize, long totalSize, Object data) {
+                                        long size = currentSize - partProgressSize.getAndSet(currentSize);
+                                        progressTracker.progress(partNumber, size);
+                                    }
+                                });
                             }
+                            return client.uploadPart(part).getPartETag();
                         });
-                    }
-                    partList.add(client.uploadPart(part).getPartETag());
-                    progressSize.addAndGet(bytes.length);
-                }
                 client.completeMultipartUpload(
                         new CompleteMultipartUploadRequest(bucketName, newFileKey, uploadId, partList));
                 if (listener != null) listener.finish();
@@ -518,6 +528,28 @@ public class BaiduBosFileStorage implements FileStorage {
         return true;
     }
 
+    @Override
+    public boolean isSupportDeleteBatch() {
+        return true;
+    }
+
+    @Override
+    public Set<String> deleteBatch(List<String> fileKeyList) {
+        try {
+            DeleteMultipleObjectsRequest request = new DeleteMultipleObjectsRequest()
+                    .withBucketName(bucketName)
+                    .withObjectKeys(fileKeyList);
+            DeleteMultipleObjectsResponse response = getClient().deleteMultipleObjects(request);
+            if (response.getErrors() == null) return Collections.emptySet();
+            return response.getErrors().stream()
+                    .filter(error -> !"NoSuchKey".equals(error.getCode()))
+                    .map(DeleteObjectResult::getKey)
+                    .collect(Collectors.toSet());
+        } catch (Exception e) {
+            throw ExceptionFactory.deleteBatch(fileKeyList.size(), platform, e);
+        }
+    }
+
     @Override
     public boolean exists(FileInfo fileInfo) {
         try {
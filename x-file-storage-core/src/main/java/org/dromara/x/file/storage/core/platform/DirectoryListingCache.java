@@ -0,0 +1,123 @@
+package org.dromara.x.file.storage.core.platform;
+
+import cn.hutool.core.map.FixedLinkedHashMap;
+import cn.hutool.core.util.StrUtil;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import lombok.Getter;
+
+/**
+ * 目录列表缓存，用于 FTP、SFTP 等每次列举都需要读取整个目录的存储平台。
+ * 列举第一页（没有起始位置）时总是重新读取目录并缓存，之后的分页在缓存时间内直接使用缓存，不需要再次读取整个目录。
+ * 通过同一个存储平台上传、删除、移动文件时会清除对应目录及可能自动创建了目录的上级目录的缓存，通过其它方式修改的文件需要等待缓存过期
+ */
+public class DirectoryListingCache<T> {
+    /**
+     * 最大缓存的目录数量
+     */
+    public static final int MAX_SIZE = 64;
+
+    /**
+     * 缓存时间，单位毫秒，小于等于 0 表示不缓存
+     */
+    @Getter
+    private final long ttl;
+
+    private final Map<String, Entry<T>> cache;
+    /**
+     * 清除缓存的次数，读取目录期间清除过缓存时不缓存读取的结果，与缓存的修改一起由 cache 的锁保护
+     */
+    private long invalidateCount;
+
+    /**
+     * @param ttl 缓存时间，单位毫秒，小于等于 0 表示不缓存
+     */
+    public DirectoryListingCache(long ttl) {
+        this.ttl = ttl;
+        this.cache = Collections.synchronizedMap(new FixedLinkedHashMap<>(MAX_SIZE));
+    }
+
+    /**
+     * 获取目录列表，有起始位置并且缓存有效时直接返回缓存，否则通过 loader 读取并缓存，返回的列表请不要修改
+     * @param path 目录的绝对路径
+     * @param marker 列举的起始位置
+     * @param loader 读取整个目录
+     */
+    public List<T> get(String path, String marker, Callable<List<T>> loader) throws Exception {
+        if (ttl <= 0) return loader.call();
+        if (StrUtil.isNotEmpty(marker)) {
+            Entry<T> entry = cache.get(path);
+            if (entry != null && System.currentTimeMillis() < entry.expireTime) return entry.list;
+        }
+        long version;
+        synchronized (cache) {
+            version = invalidateCount;
+        }
+        List<T> list = Collections.unmodifiableList(loader.call());
+        // 检查与放入缓存在同一把锁中进行，清除缓存不会插在两者之间
+        synchronized (cache) {
+            if (invalidateCount == version) {
+                cache.put(path, new Entry<>(list, System.currentTimeMillis() + ttl));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 清除指定目录的缓存
+     */
+    public void invalidate(String path) {
+        if (ttl <= 0) return;
+        synchronized (cache) {
+            invalidateCount++;
+            cache.remove(path);
+        }
+    }
+
+    /**
+     * 清除指定目录及其全部上级目录的缓存，自动创建或删除目录时，上级目录的列表也会变化
+     */
+    public void invalidateParents(String path) {
+        if (ttl <= 0) return;
+        synchronized (cache) {
+            invalidateCount++;
+            cache.keySet().removeIf(path::startsWith);
+        }
+    }
+
+    /**
+     * 清除指定目录及其全部子目录的缓存
+     */
+    public void invalidateDir(String path) {
+        if (ttl <= 0) return;
+        synchronized (cache) {
+            invalidateCount++;
+            cache.keySet().removeIf(key -> key.startsWith(path));
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        synchronized (cache) {
+            invalidateCount++;
+            cache.clear();
+        }
+    }
+
+    /**
+     * 缓存的目录列表
+     */
+    private static class Entry<T> {
+        private final List<T> list;
+        private final long expireTime;
+
+        private Entry(List<T> list, long expireTime) {
+            this.list = list;
+            this.expireTime = expireTime;
+        }
+    }
+}
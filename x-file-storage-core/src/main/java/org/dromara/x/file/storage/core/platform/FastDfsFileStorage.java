@@ -12,6 +12,7 @@ import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -33,6 +34,7 @@ import org.dromara.x.file.storage.core.exception.ExceptionFactory;
 import org.dromara.x.file.storage.core.file.FileWrapper;
 import org.dromara.x.file.storage.core.get.GetFilePretreatment;
 import org.dromara.x.file.storage.core.get.RemoteFileInfo;
+import org.dromara.x.file.storage.core.upload.ConcurrentPartUploader;
 import org.dromara.x.file.storage.core.util.KebabCaseInsensitiveMap;
 import org.dromara.x.file.storage.core.util.Tools;
 
@@ -89,6 +91,14 @@ public class FastDfsFileStorage implements FileStorage {
         return clientFactory.getClient();
     }
 
+    /**
+     * 缩略图作为原文件的从文件上传，路径依赖原文件的上传结果，不支持单独上传
+     */
+    @Override
+    public boolean isSupportSeparateThumbnail() {
+        return false;
+    }
+
     /**
      * 保存文件
      * FastDFS比较特殊：
@@ -107,33 +117,44 @@ public class FastDfsFileStorage implements FileStorage {
         boolean useMultipartUpload = fileInfo.getSize() == null || fileInfo.getSize() >= config.getMultipartThreshold();
         boolean hasListener = !useMultipartUpload;
         String[] fileUpload = null;
+        // 分片上传时先创建的追加类型文件，后续分片追加失败时也需要删除
+        AtomicReference<String[]> appenderFile = new AtomicReference<>();
         try (InputStreamPlus in = pre.getInputStreamPlus(hasListener)) {
             if (useMultipartUpload) {
-                int i = 0;
                 AtomicLong progressSize = new AtomicLong();
                 ProgressListener.quickStart(listener, fileInfo.getSize());
-                while (true) {
-                    byte[] bytes = IoUtil.readBytes(in, config.getMultipartPartSize());
-                    if (bytes == null || bytes.length == 0) break;
-                    UploadStream uploadStream = new UploadStream(
-                            new InputStreamPlus(
-                                    new ByteArrayInputStream(bytes),
-                                    currentSize -> ProgressListener.quickProgress(
-                                            listener, progressSize.get() + currentSize, fileInfo.getSize())),
-                            bytes.length);
-                    if (++i == 1) {
-                        fileUpload = client.upload_appender_file(
-                                config.getGroupName(), bytes.length, uploadStream, fileInfo.getExt(), metadata);
-                        if (fileUpload == null) {
-                            throw new RuntimeException("FastDFS 上传失败");
-                        }
-                    } else {
-                        int code = client.append_file(fileUpload[0], fileUpload[1], bytes.length, uploadStream);
-                        if (code != 0) throw new RuntimeException("errno " + code);
-                    }
-
-                    progressSize.addAndGet(bytes.length);
-                }
+                // FastDFS 只能按顺序追加分片，所以这里固定逐个分片上传，并且不重试
+                ConcurrentPartUploader.upload(
+                        in,
+                        pre.getFileStorageService().getPartBufferPool(),
+                        null,
+                        config.getMultipartPartSize(),
+                        1,
+                        0,
+                        (partNumber, partBuffer) -> {
+                            int size = partBuffer.getSize();
+                            UploadStream uploadStream = new UploadStream(
+                                    new InputStreamPlus(
+                                            partBuffer.getInputStream(),
+                                            currentSize -> ProgressListener.quickProgress(
+                                                    listener, progressSize.get() + currentSize, fileInfo.getSize())),
+                                    size);
+                            if (partNumber == 1) {
+                                String[] result = client.upload_appender_file(
+                                        config.getGroupName(), size, uploadStream, fileInfo.getExt(), metadata);
+                                if (result == null) {
+                                    throw new RuntimeException("FastDFS 上传失败");
+                                }
+                                appenderFile.set(result);
+                            } else {
+                                String[] result = appenderFile.get();
+                                int code = client.append_file(result[0], result[1], size, uploadStream);
+                                if (code != 0) throw new RuntimeException("errno " + code);
+                            }
+                            progressSize.addAndGet(size);
+                            return partNumber;
+                        });
+                fileUpload = appenderFile.get();
                 ProgressListener.quickFinish(listener);
             } else {
                 Long size = fileWrapper.getSize();
@@ -176,6 +197,7 @@ public class FastDfsFileStorage implements FileStorage {
             }
             return true;
         } catch (Exception e) {
+            if (fileUpload == null) fileUpload = appenderFile.get();
             if (fileUpload != null) {
                 try {
                     client.delete_file(fileUpload[0], fileUpload[1]);
@@ -5,6 +5,7 @@ import cn.hutool.core.util.StrUtil;
 import java.io.InputStream;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -14,6 +15,7 @@ import lombok.experimental.Accessors;
 import org.dromara.x.file.storage.core.FileInfo;
 import org.dromara.x.file.storage.core.UploadPretreatment;
 import org.dromara.x.file.storage.core.copy.CopyPretreatment;
+import org.dromara.x.file.storage.core.exception.ExceptionFactory;
 import org.dromara.x.file.storage.core.get.*;
 import org.dromara.x.file.storage.core.move.MovePretreatment;
 import org.dromara.x.file.storage.core.presigned.GeneratePresignedUrlPretreatment;
@@ -129,6 +131,15 @@ public interface FileStorage extends AutoCloseable {
         return null;
     }
 
+    /**
+     * 是否支持将缩略图作为一个单独的文件上传，异步生成缩略图时会与原文件同时上传。
+     * 缩略图的存储路径需要与 save 方法中上传缩略图的路径（basePath + path + thFilename）及访问地址一致，
+     * 缩略图路径依赖原文件上传结果的存储平台需要返回 false，此时会在上传原文件前等待缩略图生成完成
+     */
+    default boolean isSupportSeparateThumbnail() {
+        return true;
+    }
+
     /**
      * 是否支持对文件生成可以签名访问的 URL
      */
@@ -178,6 +189,44 @@ public interface FileStorage extends AutoCloseable {
      */
     boolean delete(FileInfo fileInfo);
 
+    /**
+     * 是否支持批量删除文件
+     */
+    default boolean isSupportDeleteBatch() {
+        return false;
+    }
+
+    /**
+     * 每次批量删除文件的最大数量，超过后会分多次调用 {@link #deleteBatch(List)}
+     */
+    default int getDeleteBatchMaxSize() {
+        return 1000;
+    }
+
+    /**
+     * 批量删除文件，传入文件全路径（相对存储平台的存储路径），例如 {@link #getFileKey(FileInfo)}，
+     * 返回删除失败的文件全路径，文件不存在视为删除成功，请求整体失败时抛出异常。
+     * 只有 {@link #isSupportDeleteBatch()} 返回 true 时才能调用，否则抛出异常
+     */
+    default Set<String> deleteBatch(List<String> fileKeyList) {
+        throw ExceptionFactory.deleteBatchNotSupport(fileKeyList.size(), getPlatform());
+    }
+
+    /**
+     * 是否支持原生的递归删除目录
+     */
+    default boolean isSupportDeleteDir() {
+        return false;
+    }
+
+    /**
+     * 递归删除目录及其中的全部文件，传入的路径需要与上传时传入的路径保持一致（不包括 basePath），目录不存在视为删除成功。
+     * 只有 {@link #isSupportDeleteDir()} 返回 true 时才能调用，否则抛出异常
+     */
+    default void deleteDir(String path) {
+        throw ExceptionFactory.deleteDirNotSupport(path, getPlatform());
+    }
+
     /**
      * 文件是否存在
      */
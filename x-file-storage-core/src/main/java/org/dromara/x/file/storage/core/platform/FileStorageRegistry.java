@@ -0,0 +1,358 @@
+package org.dromara.x.file.storage.core.platform;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.StrUtil;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
+import org.dromara.x.file.storage.core.util.Tools;
+
+/**
+ * 存储平台注册表，按平台名称索引存储平台，支持在运行时原子的增加、替换、移除存储平台。
+ * 被替换或移除的存储平台会等待正在进行的操作完成（或者等待超时）后再调用 {@link FileStorage#close()} 释放资源，
+ * 释放资源及超时检查都在注册表共享的一个守护线程中进行。
+ * 获取及关闭 {@link Lease} 只通过原子计数记录正在进行的操作，不会加锁，只有替换、移除及释放资源时才会加锁
+ */
+@Slf4j
+public class FileStorageRegistry {
+    /**
+     * 默认等待正在进行的操作完成的超时时间，单位毫秒
+     */
+    public static final long DEFAULT_DRAIN_TIMEOUT = 30000;
+
+    private final ConcurrentHashMap<String, Entry> entryMap = new ConcurrentHashMap<>();
+
+    /**
+     * 增加存储平台的序号，用于保持存储平台的配置顺序
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * 正在等待操作完成的存储平台
+     */
+    private final Set<Entry> retiringSet = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 释放被替换或移除的存储平台的线程，需要时才创建
+     */
+    private ScheduledThreadPoolExecutor retireExecutor;
+
+    /**
+     * 被替换或移除的存储平台等待正在进行的操作完成的超时时间，单位毫秒，超时后直接释放资源
+     */
+    @Getter
+    @Setter
+    private volatile long drainTimeout = DEFAULT_DRAIN_TIMEOUT;
+
+    public FileStorageRegistry() {}
+
+    /**
+     * 通过存储平台列表创建，平台名称重复时与之前按列表顺序查找的行为一致，使用第一个
+     */
+    public FileStorageRegistry(Collection<? extends FileStorage> list) {
+        for (FileStorage fileStorage : list) {
+            if (entryMap.putIfAbsent(fileStorage.getPlatform(), newEntry(fileStorage)) != null) {
+                log.warn("存储平台 {} 重复，将使用第一个", fileStorage.getPlatform());
+            }
+        }
+    }
+
+    /**
+     * 获取对应的存储平台，不存在时返回 null
+     */
+    public FileStorage get(String platform) {
+        if (platform == null) return null;
+        Entry entry = entryMap.get(platform);
+        return entry == null ? null : entry.fileStorage;
+    }
+
+    /**
+     * 获取对应的存储平台并标记为使用中，不存在时返回 null，使用完后需要关闭返回的 Lease。
+     * 存储平台在使用中被替换或移除时，会等待所有的 Lease 关闭后再释放资源
+     */
+    public Lease acquire(String platform) {
+        if (platform == null) return null;
+        while (true) {
+            Entry entry = entryMap.get(platform);
+            if (entry == null) return null;
+            // 先增加计数再检查是否已退役，与 retire 中先标记退役再检查计数配合，保证两边至少有一边能看到对方的修改
+            entry.inFlight.incrementAndGet();
+            if (!entry.retired) return new Lease(this, entry);
+            // 获取时刚好被替换或移除了，撤销计数后重新获取
+            release(entry);
+        }
+    }
+
+    /**
+     * 增加存储平台，平台名称已存在时抛出异常
+     */
+    public void add(FileStorage fileStorage) {
+        Entry entry = newEntry(fileStorage);
+        if (entryMap.putIfAbsent(fileStorage.getPlatform(), entry) != null) {
+            throw new FileStorageRuntimeException(StrUtil.format("存储平台已存在！platform:{}", fileStorage.getPlatform()));
+        }
+    }
+
+    /**
+     * 增加或替换存储平台，被替换的存储平台会在正在进行的操作完成后释放资源，替换后保持原来的顺序
+     * @return 被替换的存储平台，没有时返回 null
+     */
+    public FileStorage replace(FileStorage fileStorage) {
+        Entry[] replaced = new Entry[1];
+        entryMap.compute(fileStorage.getPlatform(), (platform, entry) -> {
+            replaced[0] = entry;
+            return entry == null ? newEntry(fileStorage) : new Entry(fileStorage, entry.order);
+        });
+        Entry old = replaced[0];
+        if (old == null) return null;
+        retire(old);
+        return old.fileStorage;
+    }
+
+    /**
+     * 移除存储平台，被移除的存储平台会在正在进行的操作完成后释放资源
+     * @return 被移除的存储平台，没有时返回 null
+     */
+    public FileStorage remove(String platform) {
+        Entry old = entryMap.remove(platform);
+        if (old == null) return null;
+        retire(old);
+        return old.fileStorage;
+    }
+
+    /**
+     * 移除指定的存储平台，只有当前注册的正好是这个对象时才会移除
+     * @return 是否移除成功
+     */
+    public boolean remove(FileStorage fileStorage) {
+        Entry entry = entryMap.get(fileStorage.getPlatform());
+        if (entry == null || entry.fileStorage != fileStorage) return false;
+        if (!entryMap.remove(fileStorage.getPlatform(), entry)) return false;
+        retire(entry);
+        return true;
+    }
+
+    /**
+     * 获取全部存储平台的快照，按增加的顺序排列，即与配置的顺序一致
+     */
+    public List<FileStorage> list() {
+        List<Entry> entryList = new ArrayList<>(entryMap.values());
+        entryList.sort(Comparator.comparingLong(entry -> entry.order));
+        List<FileStorage> list = new ArrayList<>(entryList.size());
+        for (Entry entry : entryList) list.add(entry.fileStorage);
+        return list;
+    }
+
+    /**
+     * 存储平台数量
+     */
+    public int size() {
+        return entryMap.size();
+    }
+
+    /**
+     * 是否包含对应的存储平台
+     */
+    public boolean contains(String platform) {
+        return platform != null && entryMap.containsKey(platform);
+    }
+
+    /**
+     * 移除全部存储平台并立即释放资源，不等待正在进行的操作完成，
+     * 之前被替换或移除还在等待操作完成的存储平台会等待它们释放资源（最多等待 drainTimeout），一般在销毁时使用
+     */
+    public void closeAll() {
+        for (String platform : new ArrayList<>(entryMap.keySet())) {
+            Entry entry = entryMap.remove(platform);
+            if (entry == null) continue;
+            synchronized (entry) {
+                entry.retired = true;
+                entry.closed = true;
+            }
+            close(entry.fileStorage);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainTimeout);
+        for (Entry entry : new ArrayList<>(retiringSet)) {
+            try {
+                long remaining = deadline - System.nanoTime();
+                if (remaining > 0) entry.closedLatch.await(remaining, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // 等待超时或者被中断时直接释放资源
+            closeRetired(entry);
+        }
+        synchronized (this) {
+            if (retireExecutor != null) retireExecutor.shutdown();
+            retireExecutor = null;
+        }
+    }
+
+    /**
+     * 标记为已退役，没有正在进行的操作时立即释放资源，否则在最后一个操作完成后释放资源，超时后直接释放资源
+     */
+    private void retire(Entry entry) {
+        synchronized (entry) {
+            retiringSet.add(entry);
+            entry.retired = true;
+        }
+        if (entry.inFlight.get() == 0) {
+            closeRetired(entry);
+            return;
+        }
+        ScheduledFuture<?> timeout;
+        try {
+            timeout = getRetireExecutor().schedule(() -> onDrainTimeout(entry), drainTimeout, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 注册表正在销毁，由销毁时等待释放资源
+            return;
+        }
+        synchronized (entry) {
+            entry.timeout = timeout;
+            // 在创建超时检查前已经释放了资源
+            if (entry.closed) timeout.cancel(false);
+        }
+    }
+
+    /**
+     * 等待正在进行的操作完成超时，直接释放资源
+     */
+    private void onDrainTimeout(Entry entry) {
+        synchronized (entry) {
+            if (entry.closed) return;
+        }
+        int inFlight = entry.inFlight.get();
+        log.warn("等待存储平台 {} 正在进行的操作完成超时，剩余 {} 个操作，直接释放资源", entry.fileStorage.getPlatform(), inFlight);
+        closeRetired(entry);
+    }
+
+    /**
+     * 释放已退役的存储平台的资源，只会释放一次
+     */
+    private void closeRetired(Entry entry) {
+        ScheduledFuture<?> timeout;
+        synchronized (entry) {
+            if (entry.closed) {
+                retiringSet.remove(entry);
+                return;
+            }
+            entry.closed = true;
+            timeout = entry.timeout;
+        }
+        if (timeout != null) timeout.cancel(false);
+        try {
+            close(entry.fileStorage);
+        } finally {
+            retiringSet.remove(entry);
+            entry.closedLatch.countDown();
+        }
+    }
+
+    /**
+     * 结束一个操作，已退役的存储平台在最后一个操作结束后释放资源
+     */
+    private void release(Entry entry) {
+        if (entry.inFlight.decrementAndGet() != 0 || !entry.retired) return;
+        // 在注册表的线程中释放资源，不占用调用者的线程，已经释放过时 closeRetired 不会重复释放
+        try {
+            getRetireExecutor().execute(() -> closeRetired(entry));
+        } catch (RejectedExecutionException e) {
+            closeRetired(entry);
+        }
+    }
+
+    /**
+     * 获取释放存储平台的线程，只有一个守护线程，销毁后再次使用时重新创建
+     */
+    private synchronized ScheduledThreadPoolExecutor getRetireExecutor() {
+        if (retireExecutor == null) {
+            retireExecutor = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("x-file-storage-retire-", true));
+            retireExecutor.setRemoveOnCancelPolicy(true);
+        }
+        return retireExecutor;
+    }
+
+    private Entry newEntry(FileStorage fileStorage) {
+        return new Entry(fileStorage, sequence.incrementAndGet());
+    }
+
+    private static void close(FileStorage fileStorage) {
+        try {
+            fileStorage.close();
+            log.info("销毁存储平台 {} 成功", fileStorage.getPlatform());
+        } catch (Exception e) {
+            log.error("销毁存储平台 {} 失败，{}", fileStorage.getPlatform(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 注册表中的一个存储平台
+     */
+    private static class Entry {
+        private final FileStorage fileStorage;
+        private final long order;
+        private final CountDownLatch closedLatch = new CountDownLatch(1);
+        /**
+         * 正在进行的操作数量
+         */
+        private final AtomicInteger inFlight = new AtomicInteger();
+        /**
+         * 是否已被替换或移除，只会从 false 变为 true
+         */
+        private volatile boolean retired;
+        /**
+         * 是否已经释放了资源，由 Entry 的锁保护
+         */
+        private boolean closed;
+        /**
+         * 等待操作完成的超时检查
+         */
+        private ScheduledFuture<?> timeout;
+
+        private Entry(FileStorage fileStorage, long order) {
+            this.fileStorage = fileStorage;
+            this.order = order;
+        }
+    }
+
+    /**
+     * 正在使用的存储平台，使用完后需要关闭
+     */
+    public static class Lease implements AutoCloseable {
+        private final FileStorageRegistry registry;
+        private final FileStorage fileStorage;
+        private Entry entry;
+
+        private Lease(FileStorageRegistry registry, Entry entry) {
+            this.registry = registry;
+            this.fileStorage = entry.fileStorage;
+            this.entry = entry;
+        }
+
+        public <T extends FileStorage> T getFileStorage() {
+            return Tools.cast(fileStorage);
+        }
+
+        @Override
+        public void close() {
+            Entry entry = this.entry;
+            if (entry == null) return;
+            this.entry = null;
+            registry.release(entry);
+        }
+    }
+}
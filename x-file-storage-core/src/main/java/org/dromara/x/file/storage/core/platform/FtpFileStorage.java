@@ -38,6 +38,10 @@ public class FtpFileStorage implements FileStorage {
     private String basePath;
     private String storagePath;
     private FileStorageClientFactory<Ftp> clientFactory;
+    /**
+     * 目录列表缓存
+     */
+    private DirectoryListingCache<FTPFile> listCache = new DirectoryListingCache<>(0);
 
     public FtpFileStorage(FtpConfig config, FileStorageClientFactory<Ftp> clientFactory) {
         platform = config.getPlatform();
@@ -45,6 +49,7 @@ public class FtpFileStorage implements FileStorage {
         basePath = config.getBasePath();
         storagePath = config.getStoragePath();
         this.clientFactory = clientFactory;
+        listCache = new DirectoryListingCache<>(config.getListCacheTtl());
     }
 
     /**
@@ -73,6 +78,13 @@ public class FtpFileStorage implements FileStorage {
         return storagePath + path;
     }
 
+    /**
+     * 获取文件所在目录的绝对路径
+     */
+    public String getDirAbsolutePath(FileInfo fileInfo) {
+        return getAbsolutePath(StrUtil.nullToEmpty(fileInfo.getBasePath()) + StrUtil.nullToEmpty(fileInfo.getPath()));
+    }
+
     @Override
     public boolean save(FileInfo fileInfo, UploadPretreatment pre) {
         fileInfo.setBasePath(basePath);
@@ -104,6 +116,8 @@ public class FtpFileStorage implements FileStorage {
             }
             throw ExceptionFactory.upload(fileInfo, platform, e);
         } finally {
+            // 上传时会自动创建不存在的目录
+            listCache.invalidateParents(getDirAbsolutePath(fileInfo));
             returnClient(client);
         }
     }
@@ -115,13 +129,9 @@ public class FtpFileStorage implements FileStorage {
 
     @Override
     public ListFilesResult listFiles(ListFilesPretreatment pre) {
-        Ftp client = getClient();
         try {
             String path = getAbsolutePath(basePath + pre.getPath());
-            List<FTPFile> fileList = Arrays.stream(client.isDir(path) ? client.lsFiles(path) : new FTPFile[0])
-                    .filter(f -> f.isFile() || f.isDirectory())
-                    .filter(f -> !(".".equals(f.getName()) || "..".equals(f.getName())))
-                    .collect(Collectors.toList());
+            List<FTPFile> fileList = listCache.get(path, pre.getMarker(), () -> lsFiles(path));
             ListFilesMatchResult<FTPFile> matchResult = listFilesMatch(fileList, FTPFile::getName, pre, true);
             ListFilesResult list = new ListFilesResult();
             list.setDirList(matchResult.getList().stream()
@@ -163,6 +173,19 @@ public class FtpFileStorage implements FileStorage {
             return list;
         } catch (Exception e) {
             throw ExceptionFactory.listFiles(pre, basePath, e);
+        }
+    }
+
+    /**
+     * 读取整个目录中的文件及目录
+     */
+    private List<FTPFile> lsFiles(String path) {
+        Ftp client = getClient();
+        try {
+            return Arrays.stream(client.isDir(path) ? client.lsFiles(path) : new FTPFile[0])
+                    .filter(f -> f.isFile() || f.isDirectory())
+                    .filter(f -> !(".".equals(f.getName()) || "..".equals(f.getName())))
+                    .collect(Collectors.toList());
         } finally {
             returnClient(client);
         }
@@ -213,6 +236,27 @@ public class FtpFileStorage implements FileStorage {
         } catch (Exception e) {
             throw ExceptionFactory.delete(fileInfo, platform, e);
         } finally {
+            listCache.invalidate(getDirAbsolutePath(fileInfo));
+            returnClient(client);
+        }
+    }
+
+    @Override
+    public boolean isSupportDeleteDir() {
+        return true;
+    }
+
+    @Override
+    public void deleteDir(String path) {
+        Ftp client = getClient();
+        try {
+            String absolutePath = getAbsolutePath(basePath + path);
+            if (client.exist(absolutePath)) client.delDir(absolutePath);
+        } catch (Exception e) {
+            throw ExceptionFactory.deleteDir(path, platform, e);
+        } finally {
+            listCache.invalidateDir(getAbsolutePath(basePath + path));
+            listCache.invalidateParents(getAbsolutePath(basePath + path));
             returnClient(client);
         }
     }
@@ -341,6 +385,8 @@ public class FtpFileStorage implements FileStorage {
                 throw ExceptionFactory.sameMove(srcFileInfo, destFileInfo, platform, e);
             }
         } finally {
+            listCache.invalidate(srcPath);
+            listCache.invalidateParents(destPath);
             returnClient(client);
         }
     }
@@ -14,7 +14,6 @@ import com.obs.services.model.*;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import lombok.Getter;
@@ -49,6 +48,8 @@ public class HuaweiObsFileStorage implements FileStorage {
     private String defaultAcl;
     private int multipartThreshold;
     private int multipartPartSize;
+    private int multipartConcurrency;
+    private int multipartRetryTimes;
     private FileStorageClientFactory<ObsClient> clientFactory;
 
     public HuaweiObsFileStorage(HuaweiObsConfig config, FileStorageClientFactory<ObsClient> clientFactory) {
@@ -59,6 +60,8 @@ public class HuaweiObsFileStorage implements FileStorage {
         defaultAcl = config.getDefaultAcl();
         multipartThreshold = config.getMultipartThreshold();
         multipartPartSize = config.getMultipartPartSize();
+        multipartConcurrency = config.getMultipartConcurrency();
+        multipartRetryTimes = config.getMultipartRetryTimes();
         this.clientFactory = clientFactory;
     }
 
@@ -90,28 +93,33 @@ public class HuaweiObsFileStorage implements FileStorage {
                 initiateMultipartUploadRequest.setAcl(fileAcl);
                 uploadId = client.initiateMultipartUpload(initiateMultipartUploadRequest)
                         .getUploadId();
-                List<PartEtag> partList = new ArrayList<>();
-                int i = 0;
-                AtomicLong progressSize = new AtomicLong();
+                String finalUploadId = uploadId;
+                PartProgressTracker progressTracker = new PartProgressTracker(listener, fileInfo.getSize());
                 if (listener != null) listener.start();
-                while (true) {
-                    byte[] bytes = IoUtil.readBytes(in, multipartPartSize);
-                    if (bytes == null || bytes.length == 0) break;
-                    UploadPartRequest part = new UploadPartRequest();
-                    part.setBucketName(bucketName);
-                    part.setObjectKey(newFileKey);
-                    part.setUploadId(uploadId);
-                    part.setInput(new ByteArrayInputStream(bytes));
-                    part.setPartSize((long) bytes.length); // 设置分片大小。除了最后一个分片没有大小限制，其他的分片最小为100 KB。
-                    part.setPartNumber(
-                            ++i); // 设置分片号。每一个上传的分片都有一个分片号，取值范围是1~10000，如果超出此范围，ObsClient将返回InvalidArgument错误码。
-                    if (listener != null) {
-                        part.setProgressListener(e -> listener.progress(
-                                progressSize.addAndGet(e.getNewlyTransferredBytes()), fileInfo.getSize()));
-                    }
-                    UploadPartResult uploadPartResult = client.uploadPart(part);
-                    partList.add(new PartEtag(uploadPartResult.getEtag(), uploadPartResult.getPartNumber()));
-                }
+                List<PartEtag> partList = ConcurrentPartUploader.upload(
+                        in,
+                        pre.getFileStorageService().getPartBufferPool(),
+                        pre.getFileStorageService().getPartUploadExecutor(),
+                        multipartPartSize,
+                        multipartConcurrency,
+                        multipartRetryTimes,
+                        (partNumber, partBuffer) -> {
+                            progressTracker.start(partNumber);
+                            UploadPartRequest part = new UploadPartRequest();
+                            part.setBucketName(bucketName);
+                            part.setObjectKey(newFileKey);
+                            part.setUploadId(finalUploadId);
+                            part.setInput(partBuffer.getInputStream());
+                            part.setPartSize((long) partBuffer.getSize()); // 设置分片大小。除了最后一个分片没有大小限制，其他的分片最小为100 KB。
+                            part.setPartNumber(
+                                    partNumber); // 设置分片号。每一个上传的分片都有一个分片号，取值范围是1~10000，如果超出此范围，ObsClient将返回InvalidArgument错误码。
+                            if (listener != null) {
+                                part.setProgressListener(
+                                        e -> progressTracker.progress(partNumber, e.getNewlyTransferredBytes()));
+                            }
+                            UploadPartResult uploadPartResult = client.uploadPart(part);
+                            return new PartEtag(uploadPartResult.getEtag(), uploadPartResult.getPartNumber());
+                        });
                 client.completeMultipartUpload(
                         new CompleteMultipartUploadRequest(bucketName, newFileKey, uploadId, partList));
                 if (listener != null) listener.finish();
@@ -502,6 +510,27 @@ public class HuaweiObsFileStorage implements FileStorage {
         }
     }
 
+    @Override
+    public boolean isSupportDeleteBatch() {
+        return true;
+    }
+
+    @Override
+    public Set<String> deleteBatch(List<String> fileKeyList) {
+        try {
+            DeleteObjectsRequest request = new DeleteObjectsRequest(bucketName);
+            request.setQuiet(true);
+            for (String key : fileKeyList) request.addKeyAndVersion(key);
+            DeleteObjectsResult result = getClient().deleteObjects(request);
+            if (result.getErrorResults() == null) return Collections.emptySet();
+            return result.getErrorResults().stream()
+                    .map(DeleteObjectsResult.ErrorResult::getObjectKey)
+                    .collect(Collectors.toSet());
+        } catch (Exception e) {
+            throw ExceptionFactory.deleteBatch(fileKeyList.size(), platform, e);
+        }
+    }
+
     @Override
     public boolean exists(FileInfo fileInfo) {
         try {
@@ -0,0 +1,174 @@
+package org.dromara.x.file.storage.core.platform;
+
+import cn.hutool.core.map.FixedLinkedHashMap;
+import cn.hutool.core.util.StrUtil;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import org.dromara.x.file.storage.core.get.ListFilesPretreatment;
+import org.dromara.x.file.storage.core.platform.FileStorage.ListFilesMatchResult;
+
+/**
+ * 本地目录列举工具，通过 DirectoryStream 遍历目录，只保留起始位置之后按名称排序的前 maxFiles 个文件及目录，
+ * 不需要读取并排序整个目录。
+ * 开启缓存后会缓存目录中按名称排序后的全部名称，目录的修改时间不变时直接通过二分查找定位起始位置，
+ * 适合多次分页列举同一个大目录
+ */
+public class LocalDirectoryLister {
+    /**
+     * 文件系统修改时间的精度，目录在此时间内被修改过时不缓存，避免同一时间内的多次修改无法通过修改时间区分
+     */
+    private static final long MTIME_PRECISION = 2000;
+
+    /**
+     * 目录快照缓存，为 null 表示不缓存
+     */
+    private final Map<String, Snapshot> cache;
+
+    /**
+     * @param cacheSize 缓存的目录数量，小于等于 0 表示不缓存
+     */
+    public LocalDirectoryLister(int cacheSize) {
+        this.cache = cacheSize > 0 ? Collections.synchronizedMap(new FixedLinkedHashMap<>(cacheSize)) : null;
+    }
+
+    /**
+     * 列举目录中的文件及目录，按名称排序后返回
+     * @param path 目录的绝对路径
+     * @param pre 列举文件预处理器，使用其中的文件名前缀、起始位置及最大数量
+     */
+    public ListFilesMatchResult<File> list(String path, ListFilesPretreatment pre) throws IOException {
+        File dir = new File(path);
+        if (!dir.isDirectory()) return new ListFilesMatchResult<>(new ArrayList<>(), false, null);
+        String prefix = StrUtil.emptyIfNull(pre.getFilenamePrefix());
+        String marker = pre.getMarker();
+        int maxFiles = pre.getMaxFiles() == null || pre.getMaxFiles() < 1 ? Integer.MAX_VALUE : pre.getMaxFiles();
+
+        List<String> nameList;
+        boolean isTruncated;
+        if (cache == null) {
+            TopNames topNames = selectTopNames(dir, prefix, marker, maxFiles);
+            nameList = topNames.nameList;
+            isTruncated = topNames.isTruncated;
+        } else {
+            String[] names = getSnapshot(dir);
+            // 定位到起始位置及文件名前缀中较大的一个，之后按顺序取出有相同前缀的名称
+            String from = marker != null && marker.compareTo(prefix) >= 0 ? marker : prefix;
+            int index = Arrays.binarySearch(names, from);
+            int start = index >= 0 ? (from.equals(marker) ? index + 1 : index) : -index - 1;
+            nameList = new ArrayList<>();
+            int i = start;
+            for (; i < names.length && names[i].startsWith(prefix) && nameList.size() < maxFiles; i++) {
+                nameList.add(names[i]);
+            }
+            isTruncated = i < names.length && names[i].startsWith(prefix);
+        }
+
+        List<File> fileList = new ArrayList<>(nameList.size());
+        for (String name : nameList) fileList.add(new File(dir, name));
+        String nextMarker = isTruncated ? nameList.get(nameList.size() - 1) : null;
+        return new ListFilesMatchResult<>(fileList, isTruncated, nextMarker);
+    }
+
+    /**
+     * 清除指定目录的缓存
+     */
+    public void invalidate(String path) {
+        if (cache != null) cache.remove(new File(path).getAbsolutePath());
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        if (cache != null) cache.clear();
+    }
+
+    /**
+     * 遍历目录，通过大顶堆只保留起始位置之后名称最小的 maxFiles 个文件及目录，只对候选项读取文件类型
+     */
+    private TopNames selectTopNames(File dir, String prefix, String marker, int maxFiles) throws IOException {
+        PriorityQueue<String> heap = new PriorityQueue<>(Math.min(maxFiles, 1024) + 1, Comparator.reverseOrder());
+        boolean isTruncated = false;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir.toPath())) {
+            for (Path item : stream) {
+                String name = item.getFileName().toString();
+                if (!name.startsWith(prefix)) continue;
+                if (marker != null && name.compareTo(marker) <= 0) continue;
+                if (heap.size() >= maxFiles && name.compareTo(heap.peek()) > 0) {
+                    isTruncated = true;
+                    continue;
+                }
+                if (!isFileOrDirectory(item)) continue;
+                heap.add(name);
+                if (heap.size() > maxFiles) {
+                    heap.poll();
+                    isTruncated = true;
+                }
+            }
+        }
+        String[] names = heap.toArray(new String[0]);
+        Arrays.sort(names);
+        return new TopNames(Arrays.asList(names), isTruncated);
+    }
+
+    /**
+     * 获取目录中按名称排序后的全部名称，目录的修改时间不变时使用缓存
+     */
+    private String[] getSnapshot(File dir) throws IOException {
+        String key = dir.getAbsolutePath();
+        long lastModified = dir.lastModified();
+        Snapshot snapshot = cache.get(key);
+        if (snapshot != null && snapshot.lastModified == lastModified) return snapshot.names;
+
+        long now = System.currentTimeMillis();
+        List<String> list = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir.toPath())) {
+            for (Path item : stream) {
+                if (isFileOrDirectory(item)) list.add(item.getFileName().toString());
+            }
+        }
+        String[] names = list.toArray(new String[0]);
+        Arrays.sort(names);
+        // 读取期间目录被修改过时不缓存
+        if (now - lastModified > MTIME_PRECISION && dir.lastModified() == lastModified) {
+            cache.put(key, new Snapshot(names, lastModified));
+        } else {
+            cache.remove(key);
+        }
+        return names;
+    }
+
+    private static boolean isFileOrDirectory(Path path) {
+        return Files.isRegularFile(path) || Files.isDirectory(path);
+    }
+
+    /**
+     * 目录快照
+     */
+    private static class Snapshot {
+        private final String[] names;
+        private final long lastModified;
+
+        private Snapshot(String[] names, long lastModified) {
+            this.names = names;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /**
+     * 选出的名称
+     */
+    private static class TopNames {
+        private final List<String> nameList;
+        private final boolean isTruncated;
+
+        private TopNames(List<String> nameList, boolean isTruncated) {
+            this.nameList = nameList;
+            this.isTruncated = isTruncated;
+        }
+    }
+}
@@ -11,7 +11,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.StandardCopyOption;
-import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
@@ -43,6 +42,10 @@ public class LocalFileStorage implements FileStorage {
     private String basePath;
     private String platform;
     private String domain;
+    /**
+     * 本地目录列举工具
+     */
+    private LocalDirectoryLister directoryLister = new LocalDirectoryLister(0);
 
     public LocalFileStorage(LocalConfig config) {
         platform = config.getPlatform();
@@ -283,10 +286,7 @@ public class LocalFileStorage implements FileStorage {
     public ListFilesResult listFiles(ListFilesPretreatment pre) {
         try {
             String path = getAbsolutePath(basePath + pre.getPath());
-            List<File> fileList = Arrays.stream(FileUtil.isDirectory(path) ? FileUtil.ls(path) : new File[0])
-                    .filter(f -> f.isFile() || f.isDirectory())
-                    .collect(Collectors.toList());
-            ListFilesMatchResult<File> matchResult = listFilesMatch(fileList, File::getName, pre, false);
+            ListFilesMatchResult<File> matchResult = directoryLister.list(path, pre);
             ListFilesResult list = new ListFilesResult();
             list.setDirList(matchResult.getList().stream()
                     .filter(File::isDirectory)
@@ -365,6 +365,20 @@ public class LocalFileStorage implements FileStorage {
         }
     }
 
+    @Override
+    public boolean isSupportDeleteDir() {
+        return true;
+    }
+
+    @Override
+    public void deleteDir(String path) {
+        try {
+            FileUtil.del(getAbsolutePath(basePath + path));
+        } catch (Exception e) {
+            throw ExceptionFactory.deleteDir(path, platform, e);
+        }
+    }
+
     @Override
     public boolean exists(FileInfo fileInfo) {
         try {
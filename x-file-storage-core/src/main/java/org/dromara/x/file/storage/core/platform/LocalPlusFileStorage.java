@@ -27,6 +27,7 @@ import org.dromara.x.file.storage.core.file.FileWrapper;
 import org.dromara.x.file.storage.core.get.*;
 import org.dromara.x.file.storage.core.move.MovePretreatment;
 import org.dromara.x.file.storage.core.upload.*;
+import org.dromara.x.file.storage.core.util.Tools;
 
 /**
  * 本地文件存储升级版
@@ -39,12 +40,17 @@ public class LocalPlusFileStorage implements FileStorage {
     private String storagePath;
     private String platform;
     private String domain;
+    /**
+     * 本地目录列举工具
+     */
+    private LocalDirectoryLister directoryLister = new LocalDirectoryLister(0);
 
     public LocalPlusFileStorage(LocalPlusConfig config) {
         platform = config.getPlatform();
         basePath = config.getBasePath();
         domain = config.getDomain();
         storagePath = config.getStoragePath();
+        directoryLister = new LocalDirectoryLister(Tools.getNotNull(config.getListCacheSize(), 0));
     }
 
     /**
@@ -269,10 +275,7 @@ public class LocalPlusFileStorage implements FileStorage {
     public ListFilesResult listFiles(ListFilesPretreatment pre) {
         try {
             String path = getAbsolutePath(basePath + pre.getPath());
-            List<File> fileList = Arrays.stream(FileUtil.isDirectory(path) ? FileUtil.ls(path) : new File[0])
-                    .filter(f -> f.isFile() || f.isDirectory())
-                    .collect(Collectors.toList());
-            ListFilesMatchResult<File> matchResult = listFilesMatch(fileList, File::getName, pre, false);
+            ListFilesMatchResult<File> matchResult = directoryLister.list(path, pre);
             ListFilesResult list = new ListFilesResult();
             list.setDirList(matchResult.getList().stream()
                     .filter(File::isDirectory)
@@ -351,6 +354,20 @@ public class LocalPlusFileStorage implements FileStorage {
         }
     }
 
+    @Override
+    public boolean isSupportDeleteDir() {
+        return true;
+    }
+
+    @Override
+    public void deleteDir(String path) {
+        try {
+            FileUtil.del(getAbsolutePath(basePath + path));
+        } catch (Exception e) {
+            throw ExceptionFactory.deleteDir(path, platform, e);
+        }
+    }
+
     @Override
     public boolean exists(FileInfo fileInfo) {
         try {
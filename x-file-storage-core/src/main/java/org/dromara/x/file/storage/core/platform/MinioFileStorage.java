@@ -10,6 +10,8 @@ import com.google.common.collect.Multimap;
 import io.minio.*;
 import io.minio.errors.ErrorResponseException;
 import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
 import io.minio.messages.ListBucketResultV1;
 import io.minio.messages.ListPartsResult;
 import io.minio.messages.Part;
@@ -18,7 +20,10 @@ import java.io.InputStream;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
@@ -574,6 +579,32 @@ public class MinioFileStorage implements FileStorage {
         }
     }
 
+    @Override
+    public boolean isSupportDeleteBatch() {
+        return true;
+    }
+
+    @Override
+    public Set<String> deleteBatch(List<String> fileKeyList) {
+        try {
+            List<DeleteObject> objects =
+                    fileKeyList.stream().map(DeleteObject::new).collect(Collectors.toList());
+            Iterable<Result<DeleteError>> results = getClient()
+                    .removeObjects(RemoveObjectsArgs.builder()
+                            .bucket(bucketName)
+                            .objects(objects)
+                            .build());
+            // 结果是延迟执行的，必须遍历才会真正删除
+            Set<String> failedSet = new HashSet<>();
+            for (Result<DeleteError> result : results) {
+                failedSet.add(result.get().objectName());
+            }
+            return failedSet;
+        } catch (Exception e) {
+            throw ExceptionFactory.deleteBatch(fileKeyList.size(), platform, e);
+        }
+    }
+
     @Override
     public boolean exists(FileInfo fileInfo) {
         MinioClient client = getClient();
@@ -1,27 +1,33 @@
 package org.dromara.x.file.storage.core.platform;
 
 import cn.hutool.core.io.file.FileNameUtil;
+import cn.hutool.core.util.ReUtil;
 import cn.hutool.core.util.StrUtil;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.gridfs.GridFSBucket;
 import com.mongodb.client.gridfs.model.GridFSFile;
 import com.mongodb.client.gridfs.model.GridFSUploadOptions;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
 import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
+import java.util.Set;
 import java.util.function.Consumer;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import lombok.Data;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import org.dromara.x.file.storage.core.FileInfo;
 import org.dromara.x.file.storage.core.FileStorageProperties.MongoGridFsConfig;
@@ -43,6 +49,11 @@ import org.dromara.x.file.storage.core.util.Tools;
 @Setter
 @NoArgsConstructor
 public class MongoGridFsFileStorage implements FileStorage {
+    /**
+     * 列举文件时每次查询的最大数量
+     */
+    private static final int LIST_BATCH_SIZE = 1000;
+
     private String platform;
     private String domain;
     private String basePath;
@@ -114,34 +125,81 @@ public class MongoGridFsFileStorage implements FileStorage {
     public ListFilesResult listFiles(ListFilesPretreatment pre) {
         GridFSBucket gridFsBucket = getClient().getGridFsBucket();
         try {
-            // 因为 Mongo GridFS 没有目录层级关系，这里获取所有路径开头匹配的文件后，进行模拟
+            // 因为 Mongo GridFS 没有目录层级关系，这里按文件名的顺序查询并模拟目录，遇到子目录时跳过其中的全部文件，
+            // 文件名前缀、起始位置及数量都在查询中完成，每页只需要读取一页的文件。
+            // 按 文件名 + 上传时间 升序排列，与 GridFS 自动创建的索引 {filename: 1, uploadDate: 1} 一致，不需要在内存中排序，
+            // 同名文件的多个版本中最后一个是最新的，读取到下一个文件名时才能确定
             String path = basePath + pre.getPath();
-            ArrayList<GridFSFile> queryResult = gridFsBucket
-                    .find()
-                    .filter(Filters.regex("filename", Pattern.compile("^" + path)))
-                    .into(new ArrayList<>());
-            List<GridFSFileWrapper> dirList = queryResult.stream()
-                    .map(file -> {
-                        String substring = file.getFilename().substring(path.length());
-                        int index = substring.indexOf("/");
-                        return index >= 0 ? new GridFSFileWrapper(substring.substring(0, index)) : null;
-                    })
-                    .filter(Objects::nonNull)
-                    .distinct()
-                    .collect(Collectors.toList());
-
-            List<GridFSFileWrapper> fileList = queryResult.stream()
-                    .map(file -> file.getFilename().substring(path.length()).contains("/")
-                            ? null
-                            : new GridFSFileWrapper(file))
-                    .filter(Objects::nonNull)
-                    .distinct()
-                    .collect(Collectors.toList());
-
-            List<GridFSFileWrapper> allList =
-                    Stream.concat(dirList.stream(), fileList.stream()).collect(Collectors.toList());
+            int maxFiles = pre.getMaxFiles() == null || pre.getMaxFiles() < 1 ? Integer.MAX_VALUE : pre.getMaxFiles();
+            Bson prefixFilter = Filters.regex("filename", "^" + ReUtil.escape(path + pre.getFilenamePrefix()));
+            Bson startFilter = getListStartFilter(path, pre.getMarker());
+            Bson sort = Sorts.ascending("filename", "uploadDate");
+            List<GridFSFileWrapper> itemList = new ArrayList<>();
+            boolean isTruncated = false;
+            // 当前文件名已经读取到的最新版本
+            GridFSFile latest = null;
+            query:
+            while (true) {
+                // 多查询一个用于判断是否被截断
+                int limit = (int) Math.min((long) maxFiles - itemList.size() + 1, LIST_BATCH_SIZE);
+                Bson filter = startFilter == null ? prefixFilter : Filters.and(prefixFilter, startFilter);
+                int count = 0;
+                try (MongoCursor<GridFSFile> cursor = gridFsBucket.find(filter).sort(sort).limit(limit).iterator()) {
+                    while (cursor.hasNext()) {
+                        GridFSFile file = cursor.next();
+                        count++;
+                        // 同名文件更新的版本
+                        if (latest != null && file.getFilename().equals(latest.getFilename())) {
+                            latest = file;
+                            continue;
+                        }
+                        // 上一个文件名的全部版本都已经读取完成
+                        if (latest != null) {
+                            if (itemList.size() >= maxFiles) {
+                                isTruncated = true;
+                                break query;
+                            }
+                            itemList.add(new GridFSFileWrapper(latest));
+                            latest = null;
+                        }
+                        if (itemList.size() >= maxFiles) {
+                            isTruncated = true;
+                            break query;
+                        }
+                        String name = file.getFilename().substring(path.length());
+                        int index = name.indexOf("/");
+                        if (index >= 0) {
+                            // 子目录，之后从子目录的下一个位置继续查询，跳过子目录中的全部文件
+                            String dirName = name.substring(0, index);
+                            itemList.add(new GridFSFileWrapper(dirName));
+                            startFilter = Filters.gte("filename", path + dirName + "0");
+                            continue query;
+                        }
+                        latest = file;
+                    }
+                }
+                if (count < limit || latest == null) break;
+                // 从当前文件名更新的版本继续查询
+                startFilter = Filters.or(
+                        Filters.gt("filename", latest.getFilename()),
+                        Filters.and(
+                                Filters.eq("filename", latest.getFilename()),
+                                Filters.gt("uploadDate", latest.getUploadDate())));
+            }
+            if (latest != null) {
+                if (itemList.size() >= maxFiles) {
+                    isTruncated = true;
+                } else {
+                    itemList.add(new GridFSFileWrapper(latest));
+                }
+            }
+            String nextMarker = null;
+            if (isTruncated) {
+                GridFSFileWrapper last = itemList.get(itemList.size() - 1);
+                nextMarker = last.isDir() ? last.getName() + "/" : last.getName();
+            }
             ListFilesMatchResult<GridFSFileWrapper> matchResult =
-                    listFilesMatch(allList, GridFSFileWrapper::getName, pre, true);
+                    new ListFilesMatchResult<>(itemList, isTruncated, nextMarker);
 
             ListFilesResult list = new ListFilesResult();
             list.setDirList(matchResult.getList().stream()
@@ -194,6 +252,17 @@ public class MongoGridFsFileStorage implements FileStorage {
         }
     }
 
+    /**
+     * 获取列举文件的起始位置条件，以 / 结尾的起始位置表示目录，会跳过此目录中的全部文件
+     */
+    private Bson getListStartFilter(String path, String marker) {
+        if (StrUtil.isEmpty(marker)) return null;
+        if (marker.endsWith("/")) {
+            return Filters.gte("filename", path + marker.substring(0, marker.length() - 1) + "0");
+        }
+        return Filters.gt("filename", path + marker);
+    }
+
     @Override
     public RemoteFileInfo getFile(GetFilePretreatment pre) {
         String fileKey = getFileKey(new FileInfo(basePath, pre.getPath(), pre.getFilename()));
@@ -281,6 +350,36 @@ public class MongoGridFsFileStorage implements FileStorage {
         }
     }
 
+    @Override
+    public boolean isSupportDeleteBatch() {
+        return true;
+    }
+
+    /**
+     * 通过一次查询获取全部文件的 ID，然后一次删除文件信息及全部分块
+     */
+    @Override
+    public Set<String> deleteBatch(List<String> fileKeyList) {
+        MongoGridFsClient client = getClient();
+        try {
+            MongoDatabase database = client.getMongoClient().getDatabase(client.getDatabase());
+            String bucketName = client.getGridFsBucket().getBucketName();
+            MongoCollection<Document> files = database.getCollection(bucketName + ".files");
+            MongoCollection<Document> chunks = database.getCollection(bucketName + ".chunks");
+            List<Object> ids = files.find(Filters.in("filename", fileKeyList))
+                    .projection(Projections.include("_id"))
+                    .map(document -> document.get("_id"))
+                    .into(new ArrayList<>());
+            if (!ids.isEmpty()) {
+                files.deleteMany(Filters.in("_id", ids));
+                chunks.deleteMany(Filters.in("files_id", ids));
+            }
+            return Collections.emptySet();
+        } catch (Exception e) {
+            throw ExceptionFactory.deleteBatch(fileKeyList.size(), platform, e);
+        }
+    }
+
     @Override
     public boolean exists(FileInfo fileInfo) {
         try {
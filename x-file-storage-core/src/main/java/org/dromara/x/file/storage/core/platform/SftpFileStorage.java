@@ -44,6 +44,10 @@ public class SftpFileStorage implements FileStorage {
     private String basePath;
     private String storagePath;
     private FileStorageClientFactory<Sftp> clientFactory;
+    /**
+     * 目录列表缓存
+     */
+    private DirectoryListingCache<LsEntry> listCache = new DirectoryListingCache<>(0);
 
     public SftpFileStorage(SftpConfig config, FileStorageClientFactory<Sftp> clientFactory) {
         platform = config.getPlatform();
@@ -51,6 +55,7 @@ public class SftpFileStorage implements FileStorage {
         basePath = config.getBasePath();
         storagePath = config.getStoragePath();
         this.clientFactory = clientFactory;
+        listCache = new DirectoryListingCache<>(config.getListCacheTtl());
     }
 
     /**
@@ -79,6 +84,13 @@ public class SftpFileStorage implements FileStorage {
         return storagePath + path;
     }
 
+    /**
+     * 获取文件所在目录的绝对路径
+     */
+    public String getDirAbsolutePath(FileInfo fileInfo) {
+        return getAbsolutePath(StrUtil.nullToEmpty(fileInfo.getBasePath()) + StrUtil.nullToEmpty(fileInfo.getPath()));
+    }
+
     @Override
     public boolean save(FileInfo fileInfo, UploadPretreatment pre) {
         fileInfo.setBasePath(basePath);
@@ -111,6 +123,8 @@ public class SftpFileStorage implements FileStorage {
             }
             throw ExceptionFactory.upload(fileInfo, platform, e);
         } finally {
+            // 上传时会自动创建不存在的目录
+            listCache.invalidateParents(getDirAbsolutePath(fileInfo));
             returnClient(client);
         }
     }
@@ -122,16 +136,9 @@ public class SftpFileStorage implements FileStorage {
 
     @Override
     public ListFilesResult listFiles(ListFilesPretreatment pre) {
-        Sftp client = getClient();
         try {
             String path = getAbsolutePath(basePath + pre.getPath());
-            List<LsEntry> fileList = Collections.emptyList();
-            if (client.isDir(path)) {
-                fileList = client.lsEntries(path).stream()
-                        .filter(item ->
-                                item.getAttrs().isDir() || item.getAttrs().isReg())
-                        .collect(Collectors.toList());
-            }
+            List<LsEntry> fileList = listCache.get(path, pre.getMarker(), () -> lsEntries(path));
             ListFilesMatchResult<LsEntry> matchResult = listFilesMatch(fileList, LsEntry::getFilename, pre, true);
             ListFilesResult list = new ListFilesResult();
             list.setDirList(matchResult.getList().stream()
@@ -173,6 +180,19 @@ public class SftpFileStorage implements FileStorage {
             return list;
         } catch (Exception e) {
             throw ExceptionFactory.listFiles(pre, basePath, e);
+        }
+    }
+
+    /**
+     * 读取整个目录中的文件及目录
+     */
+    private List<LsEntry> lsEntries(String path) {
+        Sftp client = getClient();
+        try {
+            if (!client.isDir(path)) return Collections.emptyList();
+            return client.lsEntries(path).stream()
+                    .filter(item -> item.getAttrs().isDir() || item.getAttrs().isReg())
+                    .collect(Collectors.toList());
         } finally {
             returnClient(client);
         }
@@ -244,6 +264,7 @@ public class SftpFileStorage implements FileStorage {
         } catch (Exception e) {
             throw ExceptionFactory.delete(fileInfo, platform, e);
         } finally {
+            listCache.invalidate(getDirAbsolutePath(fileInfo));
             returnClient(client);
         }
     }
@@ -258,6 +279,26 @@ public class SftpFileStorage implements FileStorage {
         }
     }
 
+    @Override
+    public boolean isSupportDeleteDir() {
+        return true;
+    }
+
+    @Override
+    public void deleteDir(String path) {
+        Sftp client = getClient();
+        try {
+            String absolutePath = getAbsolutePath(basePath + path);
+            if (client.exist(absolutePath)) client.delDir(absolutePath);
+        } catch (Exception e) {
+            throw ExceptionFactory.deleteDir(path, platform, e);
+        } finally {
+            listCache.invalidateDir(getAbsolutePath(basePath + path));
+            listCache.invalidateParents(getAbsolutePath(basePath + path));
+            returnClient(client);
+        }
+    }
+
     @Override
     public boolean exists(FileInfo fileInfo) {
         Sftp client = getClient();
@@ -363,6 +404,8 @@ public class SftpFileStorage implements FileStorage {
                 throw ExceptionFactory.sameMove(srcFileInfo, destFileInfo, platform, e);
             }
         } finally {
+            listCache.invalidate(srcPath);
+            listCache.invalidateParents(destPath);
             returnClient(client);
         }
     }
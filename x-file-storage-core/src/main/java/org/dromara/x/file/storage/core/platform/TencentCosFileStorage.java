@@ -6,6 +6,7 @@ import cn.hutool.core.io.file.FileNameUtil;
 import cn.hutool.core.util.StrUtil;
 import com.qcloud.cos.COSClient;
 import com.qcloud.cos.event.ProgressEventType;
+import com.qcloud.cos.exception.MultiObjectDeleteException;
 import com.qcloud.cos.http.HttpMethodName;
 import com.qcloud.cos.model.*;
 import java.io.ByteArrayInputStream;
@@ -47,6 +48,8 @@ public class TencentCosFileStorage implements FileStorage {
     private String defaultAcl;
     private int multipartThreshold;
     private int multipartPartSize;
+    private int multipartConcurrency;
+    private int multipartRetryTimes;
     private FileStorageClientFactory<COSClient> clientFactory;
 
     public TencentCosFileStorage(TencentCosConfig config, FileStorageClientFactory<COSClient> clientFactory) {
@@ -57,6 +60,8 @@ public class TencentCosFileStorage implements FileStorage {
         defaultAcl = config.getDefaultAcl();
         multipartThreshold = config.getMultipartThreshold();
         multipartPartSize = config.getMultipartPartSize();
+        multipartConcurrency = config.getMultipartConcurrency();
+        multipartRetryTimes = config.getMultipartRetryTimes();
         this.clientFactory = clientFactory;
     }
 
@@ -87,29 +92,34 @@ public class TencentCosFileStorage implements FileStorage {
                 initiateMultipartUploadRequest.setCannedACL(fileAcl);
                 uploadId = client.initiateMultipartUpload(initiateMultipartUploadRequest)
                         .getUploadId();
-                List<PartETag> partList = new ArrayList<>();
-                int i = 0;
-                AtomicLong progressSize = new AtomicLong();
+                String finalUploadId = uploadId;
+                PartProgressTracker progressTracker = new PartProgressTracker(listener, fileInfo.getSize());
                 if (listener != null) listener.start();
-                while (true) {
-                    byte[] bytes = IoUtil.readBytes(in, multipartPartSize);
-                    if (bytes == null || bytes.length == 0) break;
-                    UploadPartRequest part = new UploadPartRequest();
-                    part.setBucketName(bucketName);
-                    part.setKey(newFileKey);
-                    part.setUploadId(uploadId);
-                    part.setInputStream(new ByteArrayInputStream(bytes));
-                    part.setPartSize(bytes.length); // 设置分片大小。除了最后一个分片没有大小限制，其他的分片最小为默认为5MB，可在控制台自行调整。
-                    part.setPartNumber(++i); // 设置要上传的分块编号，从 1 开始
-                    if (listener != null) {
-                        part.setGeneralProgressListener(e -> {
-                            if (e.getEventType() == ProgressEventType.REQUEST_BYTE_TRANSFER_EVENT) {
-                                listener.progress(progressSize.addAndGet(e.getBytes()), fileInfo.getSize());
+                List<PartETag> partList = ConcurrentPartUploader.upload(
+                        in,
+                        pre.getFileStorageService().getPartBufferPool(),
+                        pre.getFileStorageService().getPartUploadExecutor(),
+                        multipartPartSize,
+                        multipartConcurrency,
+                        multipartRetryTimes,
+                        (partNumber, partBuffer) -> {
+                            progressTracker.start(partNumber);
+                            UploadPartRequest part = new UploadPartRequest();
+                            part.setBucketName(bucketName);
+                            part.setKey(newFileKey);
+                            part.setUploadId(finalUploadId);
+                            part.setInputStream(partBuffer.getInputStream());
+                            part.setPartSize(partBuffer.getSize()); // 设置分片大小。除了最后一个分片没有大小限制，其他的分片最小为默认为5MB，可在控制台自行调整。
+                            part.setPartNumber(partNumber); // 设置要上传的分块编号，从 1 开始
+                            if (listener != null) {
+                                part.setGeneralProgressListener(e -> {
+                                    if (e.getEventType() == ProgressEventType.REQUEST_BYTE_TRANSFER_EVENT) {
+                                        progressTracker.progress(partNumber, e.getBytes());
+                                    }
+                                });
                             }
+                            return client.uploadPart(part).getPartETag();
                         });
-                    }
-                    partList.add(client.uploadPart(part).getPartETag());
-                }
                 client.completeMultipartUpload(
                         new CompleteMultipartUploadRequest(bucketName, newFileKey, uploadId, partList));
                 if (listener != null) listener.finish();
@@ -499,6 +509,32 @@ public class TencentCosFileStorage implements FileStorage {
         }
     }
 
+    @Override
+    public boolean isSupportDeleteBatch() {
+        return true;
+    }
+
+    @Override
+    public Set<String> deleteBatch(List<String> fileKeyList) {
+        try {
+            DeleteObjectsRequest request = new DeleteObjectsRequest(bucketName);
+            request.setKeys(fileKeyList.stream()
+                    .map(DeleteObjectsRequest.KeyVersion::new)
+                    .collect(Collectors.toList()));
+            request.setQuiet(true);
+            try {
+                getClient().deleteObjects(request);
+                return Collections.emptySet();
+            } catch (MultiObjectDeleteException e) {
+                return e.getErrors().stream()
+                        .map(MultiObjectDeleteException.DeleteError::getKey)
+                        .collect(Collectors.toSet());
+            }
+        } catch (Exception e) {
+            throw ExceptionFactory.deleteBatch(fileKeyList.size(), platform, e);
+        }
+    }
+
     @Override
     public boolean exists(FileInfo fileInfo) {
         try {
@@ -17,7 +17,6 @@ import com.volcengine.tos.model.object.*;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import lombok.Getter;
@@ -53,6 +52,8 @@ public class VolcengineTosFileStorage implements FileStorage {
     private String defaultAcl;
     private int multipartThreshold;
     private int multipartPartSize;
+    private int multipartConcurrency;
+    private int multipartRetryTimes;
     private FileStorageClientFactory<TOSV2> clientFactory;
 
     public VolcengineTosFileStorage(VolcengineTosConfig config, FileStorageClientFactory<TOSV2> clientFactory) {
@@ -63,6 +64,8 @@ public class VolcengineTosFileStorage implements FileStorage {
         defaultAcl = config.getDefaultAcl();
         multipartThreshold = config.getMultipartThreshold();
         multipartPartSize = config.getMultipartPartSize();
+        multipartConcurrency = config.getMultipartConcurrency();
+        multipartRetryTimes = config.getMultipartRetryTimes();
         this.clientFactory = clientFactory;
     }
 
@@ -93,31 +96,36 @@ public class VolcengineTosFileStorage implements FileStorage {
                                 .setOptions(metadata))
                         .getUploadID();
 
-                List<UploadedPartV2> partList = new ArrayList<>();
-                int i = 0;
-                AtomicLong progressSize = new AtomicLong();
+                String finalUploadId = uploadId;
+                PartProgressTracker progressTracker = new PartProgressTracker(listener, fileInfo.getSize());
                 if (listener != null) listener.start();
-                while (true) {
-                    byte[] bytes = IoUtil.readBytes(in, multipartPartSize);
-                    if (bytes == null || bytes.length == 0) break;
-                    UploadPartV2Input part = new UploadPartV2Input()
-                            .setBucket(bucketName)
-                            .setKey(newFileKey)
-                            .setUploadID(uploadId)
-                            .setPartNumber(++i)
-                            .setContentLength(bytes.length)
-                            .setContent(new ByteArrayInputStream(bytes));
-                    if (listener != null) {
-                        part.setDataTransferListener(e -> {
-                            if (e.getType() == DataTransferType.DATA_TRANSFER_RW) {
-                                listener.progress(progressSize.addAndGet(e.getRwOnceBytes()), fileInfo.getSize());
+                List<UploadedPartV2> partList = ConcurrentPartUploader.upload(
+                        in,
+                        pre.getFileStorageService().getPartBufferPool(),
+                        pre.getFileStorageService().getPartUploadExecutor(),
+                        multipartPartSize,
+                        multipartConcurrency,
+                        multipartRetryTimes,
+                        (partNumber, partBuffer) -> {
+                            progressTracker.start(partNumber);
+                            UploadPartV2Input part = new UploadPartV2Input()
+                                    .setBucket(bucketName)
+                                    .setKey(newFileKey)
+                                    .setUploadID(finalUploadId)
+                                    .setPartNumber(partNumber)
+                                    .setContentLength(partBuffer.getSize())
+                                    .setContent(partBuffer.getInputStream());
+                            if (listener != null) {
+                                part.setDataTransferListener(e -> {
+                                    if (e.getType() == DataTransferType.DATA_TRANSFER_RW) {
+                                        progressTracker.progress(partNumber, e.getRwOnceBytes());
+                                    }
+                                });
                             }
+                            return new UploadedPartV2()
+                                    .setPartNumber(partNumber)
+                                    .setEtag(client.uploadPart(part).getEtag());
                         });
-                    }
-                    partList.add(new UploadedPartV2()
-                            .setPartNumber(i)
-                            .setEtag(client.uploadPart(part).getEtag()));
-                }
                 client.completeMultipartUpload(new CompleteMultipartUploadV2Input()
                         .setBucket(bucketName)
                         .setKey(newFileKey)
@@ -562,6 +570,29 @@ public class VolcengineTosFileStorage implements FileStorage {
         }
     }
 
+    @Override
+    public boolean isSupportDeleteBatch() {
+        return true;
+    }
+
+    @Override
+    public Set<String> deleteBatch(List<String> fileKeyList) {
+        try {
+            List<ObjectTobeDeleted> objects = fileKeyList.stream()
+                    .map(key -> new ObjectTobeDeleted().setKey(key))
+                    .collect(Collectors.toList());
+            DeleteMultiObjectsV2Input input = new DeleteMultiObjectsV2Input()
+                    .setBucket(bucketName)
+                    .setObjects(objects)
+                    .setQuiet(true);
+            DeleteMultiObjectsV2Output output = getClient().deleteMultiObjects(input);
+            if (output.getErrors() == null) return Collections.emptySet();
+            return output.getErrors().stream().map(DeleteError::getKey).collect(Collectors.toSet());
+        } catch (Exception e) {
+            throw ExceptionFactory.deleteBatch(fileKeyList.size(), platform, e);
+        }
+    }
+
     @Override
     public boolean exists(FileInfo fileInfo) {
         try {
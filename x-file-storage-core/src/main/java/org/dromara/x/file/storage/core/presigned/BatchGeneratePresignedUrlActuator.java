@@ -0,0 +1,126 @@
+package org.dromara.x.file.storage.core.presigned;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import org.dromara.x.file.storage.core.FileStorageService;
+import org.dromara.x.file.storage.core.aspect.FileStorageAspect;
+import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
+import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.platform.FileStorageRegistry;
+
+/**
+ * 批量生成预签名 URL 执行器，按存储平台分组，每个存储平台只获取一次。
+ * 默认在当前线程中逐个生成，切面可以使用当前线程的上下文；开启并行生成后，数量较多时在共享的线程池中并行生成
+ */
+public class BatchGeneratePresignedUrlActuator {
+    /**
+     * 开启并行生成时，同一个存储平台的数量达到此值才会并行生成
+     */
+    public static final int PARALLEL_THRESHOLD = 256;
+    /**
+     * 每次批量生成同时生成的最大数量，线程由 {@link FileStorageService#getPresignedUrlExecutor()} 提供
+     */
+    public static final int PARALLELISM = 8;
+
+    private final FileStorageService fileStorageService;
+    private final List<GeneratePresignedUrlPretreatment> preList;
+    private final boolean parallel;
+
+    public BatchGeneratePresignedUrlActuator(
+            FileStorageService fileStorageService, List<GeneratePresignedUrlPretreatment> preList) {
+        this(fileStorageService, preList, false);
+    }
+
+    /**
+     * @param parallel 是否并行生成，并行生成时切面在线程池中执行，无法获取调用者线程的上下文（例如 ThreadLocal）
+     */
+    public BatchGeneratePresignedUrlActuator(
+            FileStorageService fileStorageService, List<GeneratePresignedUrlPretreatment> preList, boolean parallel) {
+        this.fileStorageService = fileStorageService;
+        this.preList = preList;
+        this.parallel = parallel;
+    }
+
+    /**
+     * 执行批量生成预签名 URL，返回的结果与传入的预处理器顺序一致，预处理器为 null 时对应的结果也为 null
+     */
+    public List<GeneratePresignedUrlResult> execute() {
+        GeneratePresignedUrlResult[] results = new GeneratePresignedUrlResult[preList.size()];
+        Map<String, List<Integer>> platformIndexMap = new LinkedHashMap<>();
+        for (int i = 0; i < preList.size(); i++) {
+            GeneratePresignedUrlPretreatment pre = preList.get(i);
+            if (pre == null) continue;
+            if (pre.getFileStorageService() == null) pre.setFileStorageService(fileStorageService);
+            String platform = pre.getPlatform() == null
+                    ? fileStorageService.getProperties().getDefaultPlatform()
+                    : pre.getPlatform();
+            platformIndexMap.computeIfAbsent(platform, k -> new ArrayList<>()).add(i);
+        }
+
+        List<FileStorageAspect> aspectList = fileStorageService.getAspectList();
+        platformIndexMap.forEach((platform, indexList) -> {
+            try (FileStorageRegistry.Lease lease = fileStorageService.acquireFileStorageVerify(platform)) {
+                FileStorage fileStorage = lease.getFileStorage();
+                ExecutorService executor = fileStorageService.getPresignedUrlExecutor();
+                if (parallel && executor != null && indexList.size() >= PARALLEL_THRESHOLD) {
+                    generateParallel(indexList, results, fileStorage, aspectList, executor);
+                } else {
+                    generate(indexList, results, fileStorage, aspectList);
+                }
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 在当前线程中逐个生成
+     */
+    private void generate(
+            List<Integer> indexList,
+            GeneratePresignedUrlResult[] results,
+            FileStorage fileStorage,
+            List<FileStorageAspect> aspectList) {
+        for (Integer i : indexList) {
+            results[i] = new GeneratePresignedUrlActuator(preList.get(i)).execute(fileStorage, aspectList);
+        }
+    }
+
+    /**
+     * 分成最多 {@link #PARALLELISM} 段，在共享的线程池中并行生成，线程池拒绝时在当前线程中生成
+     */
+    private void generateParallel(
+            List<Integer> indexList,
+            GeneratePresignedUrlResult[] results,
+            FileStorage fileStorage,
+            List<FileStorageAspect> aspectList,
+            ExecutorService executor) {
+        int size = (indexList.size() + PARALLELISM - 1) / PARALLELISM;
+        List<Future<?>> futureList = new ArrayList<>(PARALLELISM);
+        try {
+            for (int start = 0; start < indexList.size(); start += size) {
+                List<Integer> subList = indexList.subList(start, Math.min(start + size, indexList.size()));
+                try {
+                    futureList.add(executor.submit(() -> generate(subList, results, fileStorage, aspectList)));
+                } catch (RejectedExecutionException e) {
+                    generate(subList, results, fileStorage, aspectList);
+                }
+            }
+            for (Future<?> future : futureList) future.get();
+        } catch (InterruptedException e) {
+            for (Future<?> future : futureList) future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new FileStorageRuntimeException("批量生成预签名 URL 被中断！platform：" + fileStorage.getPlatform(), e);
+        } catch (ExecutionException e) {
+            for (Future<?> future : futureList) future.cancel(true);
+            if (e.getCause() instanceof FileStorageRuntimeException) throw (FileStorageRuntimeException) e.getCause();
+            throw new FileStorageRuntimeException(
+                    "批量生成预签名 URL 失败！platform：" + fileStorage.getPlatform(), e.getCause());
+        } catch (RuntimeException e) {
+            for (Future<?> future : futureList) future.cancel(true);
+            throw e;
+        }
+    }
+}
@@ -4,9 +4,11 @@ import java.util.HashMap;
 import java.util.List;
 import org.dromara.x.file.storage.core.FileStorageService;
 import org.dromara.x.file.storage.core.aspect.FileStorageAspect;
+import org.dromara.x.file.storage.core.aspect.FileStorageAspectTable;
 import org.dromara.x.file.storage.core.aspect.GeneratePresignedUrlAspectChain;
 import org.dromara.x.file.storage.core.exception.Check;
 import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.platform.FileStorageRegistry;
 
 /**
  * 生成预签名 URL 执行器
@@ -24,19 +26,31 @@ public class GeneratePresignedUrlActuator {
      * 执行生成预签名 URL
      */
     public GeneratePresignedUrlResult execute() {
-        return execute(fileStorageService.getFileStorageVerify(pre.getPlatform()), fileStorageService.getAspectList());
+        try (FileStorageRegistry.Lease lease = fileStorageService.acquireFileStorageVerify(pre.getPlatform())) {
+            return execute(lease.getFileStorage(), fileStorageService.getAspectList());
+        }
     }
 
     /**
      * 执行生成预签名 URL
      */
     public GeneratePresignedUrlResult execute(FileStorage fileStorage, List<FileStorageAspect> aspectList) {
+        FileStorageAspectTable aspectTable = fileStorageService.getAspectTable(aspectList);
         Check.generatePresignedUrl(pre);
-        return new GeneratePresignedUrlAspectChain(aspectList, (_pre, _fileStorage) -> {
-                    GeneratePresignedUrlResult result = _fileStorage.generatePresignedUrl(_pre);
-                    if (result.getHeaders() == null) result.setHeaders(new HashMap<>());
-                    return result;
+        PresignedUrlCache cache = fileStorageService.getPresignedUrlCache();
+        return new GeneratePresignedUrlAspectChain(aspectTable, (_pre, _fileStorage) -> {
+                    if (cache == null) return generate(_pre, _fileStorage);
+                    return cache.get(_fileStorage, _pre, () -> generate(_pre, _fileStorage));
                 })
                 .next(pre, fileStorage);
     }
+
+    /**
+     * 通过存储平台生成预签名 URL
+     */
+    private static GeneratePresignedUrlResult generate(GeneratePresignedUrlPretreatment pre, FileStorage fileStorage) {
+        GeneratePresignedUrlResult result = fileStorage.generatePresignedUrl(pre);
+        if (result.getHeaders() == null) result.setHeaders(new HashMap<>());
+        return result;
+    }
 }
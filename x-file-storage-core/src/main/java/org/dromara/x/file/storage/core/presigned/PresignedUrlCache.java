@@ -0,0 +1,187 @@
+package org.dromara.x.file.storage.core.presigned;
+
+import cn.hutool.core.map.FixedLinkedHashMap;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import lombok.Getter;
+import org.dromara.x.file.storage.core.FileStorageProperties.PresignedUrlCacheConfig;
+import org.dromara.x.file.storage.core.platform.FileStorage;
+
+/**
+ * 预签名 URL 缓存，按 存储平台 + 文件 + HTTP 请求方法 + 请求头 + 查询参数 等缓存生成的预签名 URL，
+ * 缓存的 URL 剩余有效期足够并且不晚于本次要求的到期时间时直接复用，避免重复签名。
+ * 例如每次都按当前时间生成有效期为 1 小时的 URL，默认配置下同一个文件在 30 分钟内返回的都是同一个 URL。
+ * 缓存的 URL 只会在生成它的存储平台对象上复用，存储平台被替换后旧的 URL 不会再被返回
+ */
+public class PresignedUrlCache {
+    /**
+     * 最大缓存数量
+     */
+    @Getter
+    private final int maxSize;
+    /**
+     * 缓存的 URL 剩余有效期至少为本次要求的有效期的多少比例时才复用
+     */
+    @Getter
+    private final double minRemainingRatio;
+
+    private final Map<String, Entry> cache;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public PresignedUrlCache(PresignedUrlCacheConfig config) {
+        this(config.getMaxSize(), config.getMinRemainingRatio());
+    }
+
+    /**
+     * @param maxSize 最大缓存数量
+     * @param minRemainingRatio 缓存的 URL 剩余有效期至少为本次要求的有效期的多少比例时才复用，取值 0 ~ 1
+     */
+    public PresignedUrlCache(int maxSize, double minRemainingRatio) {
+        this.maxSize = Math.max(1, maxSize);
+        this.minRemainingRatio = Math.max(0, Math.min(1, minRemainingRatio));
+        this.cache = Collections.synchronizedMap(new FixedLinkedHashMap<>(this.maxSize));
+    }
+
+    /**
+     * 获取预签名 URL，缓存中没有可以复用的 URL 时通过 loader 生成并缓存
+     * @param fileStorage 存储平台
+     * @param pre 生成预签名 URL 预处理器
+     * @param loader 生成预签名 URL
+     */
+    public GeneratePresignedUrlResult get(
+            FileStorage fileStorage,
+            GeneratePresignedUrlPretreatment pre,
+            Supplier<GeneratePresignedUrlResult> loader) {
+        Date expiration = pre.getExpiration();
+        if (expiration == null) return loader.get();
+        long now = System.currentTimeMillis();
+        long minRemaining = (long) ((expiration.getTime() - now) * minRemainingRatio);
+        String key = getKey(fileStorage, pre);
+
+        Entry entry = cache.get(key);
+        if (entry != null
+                && entry.fileStorage == fileStorage
+                && entry.expiration <= expiration.getTime()
+                && entry.expiration - now >= minRemaining
+                && entry.expiration > now) {
+            hitCount.increment();
+            return copy(entry.result);
+        }
+
+        missCount.increment();
+        GeneratePresignedUrlResult result = loader.get();
+        if (result != null && result.getUrl() != null) {
+            cache.put(key, new Entry(fileStorage, copy(result), expiration.getTime()));
+        }
+        return result;
+    }
+
+    /**
+     * 命中次数
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * 未命中次数
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 命中率，没有请求时返回 0
+     */
+    public double getHitRate() {
+        long hit = hitCount.sum();
+        long total = hit + missCount.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    /**
+     * 当前缓存数量
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * 清空缓存及统计数据
+     */
+    public void clear() {
+        cache.clear();
+        hitCount.reset();
+        missCount.reset();
+    }
+
+    /**
+     * 移除对应存储平台的全部缓存，存储平台被替换或移除时调用
+     */
+    public void invalidate(String platform) {
+        if (platform == null) return;
+        String prefix = platform + '\n';
+        synchronized (cache) {
+            cache.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    /**
+     * 获取缓存键，不包含到期时间
+     */
+    private static String getKey(FileStorage fileStorage, GeneratePresignedUrlPretreatment pre) {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append(fileStorage.getPlatform()).append('\n');
+        sb.append(pre.getPath()).append('\n');
+        sb.append(pre.getFilename()).append('\n');
+        sb.append(pre.getMethod()).append('\n');
+        sb.append(pre.getSpecialParam()).append('\n');
+        if (pre.getStartTime() != null) sb.append(pre.getStartTime().getTime());
+        sb.append('\n');
+        appendMap(sb, pre.getHeaders());
+        appendMap(sb, pre.getUserMetadata());
+        appendMap(sb, pre.getQueryParams());
+        appendMap(sb, pre.getResponseHeaders());
+        return sb.toString();
+    }
+
+    /**
+     * 按键排序后追加，保证与 Map 的顺序无关
+     */
+    private static void appendMap(StringBuilder sb, Map<String, String> map) {
+        if (map != null && !map.isEmpty()) {
+            new TreeMap<>(map).forEach((k, v) -> sb.append(k).append('=').append(v).append('&'));
+        }
+        sb.append('\n');
+    }
+
+    /**
+     * 复制结果，避免调用者修改缓存中的数据
+     */
+    private static GeneratePresignedUrlResult copy(GeneratePresignedUrlResult result) {
+        return new GeneratePresignedUrlResult()
+                .setPlatform(result.getPlatform())
+                .setBasePath(result.getBasePath())
+                .setPath(result.getPath())
+                .setFilename(result.getFilename())
+                .setUrl(result.getUrl())
+                .setHeaders(result.getHeaders() == null ? null : new HashMap<>(result.getHeaders()));
+    }
+
+    /**
+     * 缓存的预签名 URL
+     */
+    private static class Entry {
+        private final FileStorage fileStorage;
+        private final GeneratePresignedUrlResult result;
+        private final long expiration;
+
+        private Entry(FileStorage fileStorage, GeneratePresignedUrlResult result, long expiration) {
+            this.fileStorage = fileStorage;
+            this.result = result;
+            this.expiration = expiration;
+        }
+    }
+}
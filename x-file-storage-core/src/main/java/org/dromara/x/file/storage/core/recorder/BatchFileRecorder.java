@@ -0,0 +1,36 @@
+package org.dromara.x.file.storage.core.recorder;
+
+import java.util.List;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.upload.FilePartInfo;
+
+/**
+ * 支持批量操作的文件记录者接口，配合 {@link WriteBehindFileRecorder} 使用时可以一次保存多条记录，
+ * 批量删除文件时可以一次删除多条记录，例如通过一条 INSERT、DELETE 语句或者一个事务批量写入数据库
+ */
+public interface BatchFileRecorder extends FileRecorder {
+
+    /**
+     * 批量保存文件记录，默认逐条保存。
+     * 实现类需要保证要么全部保存成功，要么抛出异常并且一条都没有保存（例如在一个事务中写入），
+     * {@link WriteBehindFileRecorder} 在批量保存失败时会整批重试，部分保存成功的实现会导致记录被重复保存。
+     * 默认的逐条保存失败时不会回滚已保存的记录，配合 WriteBehindFileRecorder 使用时请覆盖此方法
+     */
+    default void saveBatch(List<FileInfo> fileInfoList) {
+        for (FileInfo fileInfo : fileInfoList) save(fileInfo);
+    }
+
+    /**
+     * 批量保存文件分片信息，默认逐条保存，与 {@link #saveBatch} 一样需要保证要么全部保存成功，要么一条都没有保存
+     */
+    default void saveFilePartBatch(List<FilePartInfo> filePartInfoList) {
+        for (FilePartInfo filePartInfo : filePartInfoList) saveFilePart(filePartInfo);
+    }
+
+    /**
+     * 根据 url 批量删除文件记录，默认逐条删除
+     */
+    default void deleteBatch(List<String> urlList) {
+        for (String url : urlList) delete(url);
+    }
+}
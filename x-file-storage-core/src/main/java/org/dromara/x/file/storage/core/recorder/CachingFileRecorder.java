@@ -0,0 +1,270 @@
+package org.dromara.x.file.storage.core.recorder;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.lang.Dict;
+import cn.hutool.core.map.FixedLinkedHashMap;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Getter;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.FileStorageProperties.RecorderCacheConfig;
+import org.dromara.x.file.storage.core.hash.HashInfo;
+import org.dromara.x.file.storage.core.upload.FilePartInfo;
+import org.dromara.x.file.storage.core.upload.ThumbnailVariantInfo;
+
+/**
+ * 带缓存的文件记录者，包装任意一个 FileRecorder，缓存 getByUrl 查询到的文件记录，
+ * 通过 save、update、delete 等方法修改记录时会清除对应的缓存。
+ * 缓存按 url 的哈希值分为多个段，每段单独加锁并按最近最少使用淘汰，多个线程同时查询时不会竞争同一把锁。
+ * 缓存及返回的都是文件记录的副本，调用者可以随意修改；通过其它方式修改的记录需要等待缓存过期或者手动清除
+ */
+public class CachingFileRecorder implements BatchFileRecorder {
+    /**
+     * 被包装的文件记录者
+     */
+    @Getter
+    private final FileRecorder delegate;
+    /**
+     * 缓存时间，单位毫秒
+     */
+    @Getter
+    private final long ttl;
+
+    private final Segment[] segments;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public CachingFileRecorder(FileRecorder delegate, RecorderCacheConfig config) {
+        this(delegate, config.getMaxSize(), config.getTtl(), config.getConcurrencyLevel());
+    }
+
+    /**
+     * @param delegate 被包装的文件记录者
+     * @param maxSize 最大缓存数量
+     * @param ttl 缓存时间，单位毫秒
+     * @param concurrencyLevel 分段数量，一般设置为同时查询的线程数
+     */
+    public CachingFileRecorder(FileRecorder delegate, int maxSize, long ttl, int concurrencyLevel) {
+        this.delegate = delegate;
+        this.ttl = ttl;
+        int segmentCount = 1;
+        while (segmentCount < Math.max(1, concurrencyLevel)) segmentCount <<= 1;
+        this.segments = new Segment[segmentCount];
+        int segmentSize = Math.max(1, (maxSize + segmentCount - 1) / segmentCount);
+        for (int i = 0; i < segmentCount; i++) segments[i] = new Segment(segmentSize);
+    }
+
+    @Override
+    public boolean save(FileInfo fileInfo) {
+        try {
+            return delegate.save(fileInfo);
+        } finally {
+            invalidate(fileInfo.getUrl());
+        }
+    }
+
+    @Override
+    public void update(FileInfo fileInfo) {
+        try {
+            delegate.update(fileInfo);
+        } finally {
+            invalidate(fileInfo.getUrl());
+        }
+    }
+
+    @Override
+    public FileInfo getByUrl(String url) {
+        if (url == null) return delegate.getByUrl(null);
+        Segment segment = getSegment(url);
+        Entry entry;
+        long version;
+        synchronized (segment) {
+            entry = segment.map.get(url);
+            version = segment.version;
+        }
+        if (entry != null && System.currentTimeMillis() < entry.expireTime) {
+            hitCount.increment();
+            return copy(entry.fileInfo);
+        }
+        missCount.increment();
+        FileInfo fileInfo = delegate.getByUrl(url);
+        if (fileInfo != null && ttl > 0) {
+            synchronized (segment) {
+                // 查询期间清除过缓存时不缓存，避免缓存修改前的记录
+                if (segment.version == version) {
+                    segment.map.put(url, new Entry(copy(fileInfo), System.currentTimeMillis() + ttl));
+                }
+            }
+        }
+        return fileInfo;
+    }
+
+    @Override
+    public boolean delete(String url) {
+        try {
+            return delegate.delete(url);
+        } finally {
+            invalidate(url);
+        }
+    }
+
+    @Override
+    public void saveBatch(List<FileInfo> fileInfoList) {
+        try {
+            if (delegate instanceof BatchFileRecorder) {
+                ((BatchFileRecorder) delegate).saveBatch(fileInfoList);
+            } else {
+                for (FileInfo fileInfo : fileInfoList) delegate.save(fileInfo);
+            }
+        } finally {
+            for (FileInfo fileInfo : fileInfoList) invalidate(fileInfo.getUrl());
+        }
+    }
+
+    @Override
+    public void deleteBatch(List<String> urlList) {
+        try {
+            if (delegate instanceof BatchFileRecorder) {
+                ((BatchFileRecorder) delegate).deleteBatch(urlList);
+            } else {
+                for (String url : urlList) delegate.delete(url);
+            }
+        } finally {
+            for (String url : urlList) invalidate(url);
+        }
+    }
+
+    @Override
+    public void saveFilePart(FilePartInfo filePartInfo) {
+        delegate.saveFilePart(filePartInfo);
+    }
+
+    @Override
+    public void saveFilePartBatch(List<FilePartInfo> filePartInfoList) {
+        if (delegate instanceof BatchFileRecorder) {
+            ((BatchFileRecorder) delegate).saveFilePartBatch(filePartInfoList);
+        } else {
+            for (FilePartInfo filePartInfo : filePartInfoList) delegate.saveFilePart(filePartInfo);
+        }
+    }
+
+    @Override
+    public void deleteFilePartByUploadId(String uploadId) {
+        delegate.deleteFilePartByUploadId(uploadId);
+    }
+
+    /**
+     * 清除指定 url 的缓存
+     */
+    public void invalidate(String url) {
+        if (url == null) return;
+        Segment segment = getSegment(url);
+        synchronized (segment) {
+            segment.version++;
+            segment.map.remove(url);
+        }
+    }
+
+    /**
+     * 清空缓存及统计数据
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.version++;
+                segment.map.clear();
+            }
+        }
+        hitCount.reset();
+        missCount.reset();
+    }
+
+    /**
+     * 命中次数
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * 未命中次数
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 当前缓存数量
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.map.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 复制文件记录，避免调用者修改缓存中的数据，Map、Dict、HashInfo、多规格缩略图信息及时间都会复制，ACL 不会复制
+     */
+    static FileInfo copy(FileInfo info) {
+        FileInfo copy = BeanUtil.copyProperties(info, FileInfo.class);
+        if (info.getThVariants() != null) {
+            Map<String, ThumbnailVariantInfo> thVariants = new LinkedHashMap<>();
+            for (Map.Entry<String, ThumbnailVariantInfo> variant : info.getThVariants().entrySet()) {
+                ThumbnailVariantInfo value = variant.getValue();
+                thVariants.put(
+                        variant.getKey(),
+                        value == null ? null : BeanUtil.copyProperties(value, ThumbnailVariantInfo.class));
+            }
+            copy.setThVariants(thVariants);
+        }
+        copy.setMetadata(info.getMetadata() == null ? null : new LinkedHashMap<>(info.getMetadata()));
+        copy.setUserMetadata(info.getUserMetadata() == null ? null : new LinkedHashMap<>(info.getUserMetadata()));
+        copy.setThMetadata(info.getThMetadata() == null ? null : new LinkedHashMap<>(info.getThMetadata()));
+        copy.setThUserMetadata(info.getThUserMetadata() == null ? null : new LinkedHashMap<>(info.getThUserMetadata()));
+        copy.setAttr(info.getAttr() == null ? null : new Dict(info.getAttr()));
+        copy.setHashInfo(info.getHashInfo() == null ? null : new HashInfo(info.getHashInfo()));
+        copy.setCreateTime(info.getCreateTime() == null ? null : new Date(info.getCreateTime().getTime()));
+        return copy;
+    }
+
+    private Segment getSegment(String url) {
+        int h = url.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (segments.length - 1)];
+    }
+
+    /**
+     * 缓存段，按最近最少使用淘汰
+     */
+    private static class Segment {
+        private final FixedLinkedHashMap<String, Entry> map;
+        /**
+         * 清除缓存的次数
+         */
+        private long version;
+
+        private Segment(int maxSize) {
+            this.map = new FixedLinkedHashMap<>(maxSize);
+        }
+    }
+
+    /**
+     * 缓存的文件记录
+     */
+    private static class Entry {
+        private final FileInfo fileInfo;
+        private final long expireTime;
+
+        private Entry(FileInfo fileInfo, long expireTime) {
+            this.fileInfo = fileInfo;
+            this.expireTime = expireTime;
+        }
+    }
+}
@@ -0,0 +1,792 @@
+package org.dromara.x.file.storage.core.recorder;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.FileStorageProperties.LogRecorderConfig;
+import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
+import org.dromara.x.file.storage.core.upload.FilePartInfo;
+
+/**
+ * 基于本地追加日志的文件记录者，不需要数据库即可使用通过 url 下载、删除、复制文件等功能。
+ * 文件记录及文件分片信息按顺序追加写入到存储目录下的日志段文件中，内存中只保存 url 到记录位置的索引，
+ * 已写满的日志段通过内存映射读取。后台线程定时刷盘，垃圾记录（被更新或删除的记录）占比超过阈值时从最旧的日志段开始整理。
+ * 启动时按顺序扫描全部日志段重建索引，只校验记录并解析键，不解析记录数据，末尾不完整的记录会被截断。
+ * 整理完的日志段编号会记录到整理检查点文件中，即使日志段文件没能删除，启动时也会跳过。
+ * 同一个存储目录同时只能被一个实例使用，通过存储目录下的锁文件保证
+ */
+@Slf4j
+public class LogFileRecorder implements BatchFileRecorder, AutoCloseable {
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String LOCK_FILE = "lock";
+    private static final String CHECKPOINT_FILE = "compact.checkpoint";
+    /**
+     * 当前进程中已锁定的存储目录，部分系统关闭同一个文件的任意通道都会释放进程持有的全部文件锁，
+     * 所以同一个进程中不能再次打开锁文件来判断是否已锁定
+     */
+    private static final Set<String> LOCKED_DIRS = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 存储目录
+     */
+    @Getter
+    private final File dir;
+    /**
+     * 每个日志段的最大大小，单位字节
+     */
+    @Getter
+    private final int segmentSize;
+    /**
+     * 垃圾记录占比超过此值时开始整理
+     */
+    @Getter
+    private final double compactRatio;
+
+    /**
+     * 全部日志段，按编号从旧到新排列，最后一个为当前写入的日志段
+     */
+    private final List<Segment> segments = new ArrayList<>();
+    /**
+     * url 到文件记录位置的索引
+     */
+    private final Map<String, Location> fileIndex = new ConcurrentHashMap<>();
+    /**
+     * uploadId 到文件分片信息位置的索引，只在持有写锁时访问
+     */
+    private final Map<String, List<Location>> partIndex = new HashMap<>();
+
+    private final Object writeLock = new Object();
+    /**
+     * 整理锁，保证同时只有一个线程在整理
+     */
+    private final Object compactLock = new Object();
+    /**
+     * 存储目录锁文件的通道，关闭时释放锁
+     */
+    private final FileChannel lockChannel;
+    /**
+     * 锁定的存储目录的规范路径
+     */
+    private final String lockPath;
+
+    private final ScheduledExecutorService executor;
+    private final boolean syncEveryWrite;
+    private Segment active;
+    /**
+     * 已整理完的最大日志段编号，编号小于等于此值的日志段在启动时会被跳过
+     */
+    private long compactedId;
+    /**
+     * 全部日志段的总大小
+     */
+    private long totalBytes;
+    /**
+     * 有效记录的总大小
+     */
+    private long liveBytes;
+
+    private volatile boolean dirty;
+    private volatile boolean closed;
+
+    public LogFileRecorder(LogRecorderConfig config) {
+        this(
+                new File(config.getStoragePath()),
+                config.getSegmentSize(),
+                config.getSyncInterval(),
+                config.getCompactRatio(),
+                config.getCompactInterval());
+    }
+
+    /**
+     * @param dir 存储目录
+     * @param segmentSize 每个日志段的最大大小，单位字节
+     * @param syncInterval 刷盘间隔，单位毫秒，小于等于 0 表示每次写入后立即刷盘
+     * @param compactRatio 垃圾记录占比超过此值时开始整理，取值范围 0~1
+     * @param compactInterval 检查是否需要整理的时间间隔，单位毫秒，小于等于 0 表示不自动整理
+     */
+    public LogFileRecorder(File dir, int segmentSize, long syncInterval, double compactRatio, long compactInterval) {
+        this.dir = dir;
+        this.segmentSize = Math.max(1024 * 1024, segmentSize);
+        this.compactRatio = compactRatio;
+        this.syncEveryWrite = syncInterval <= 0;
+        FileUtil.mkdir(dir);
+        this.lockPath = FileUtil.getCanonicalPath(dir);
+        this.lockChannel = lock(dir, lockPath);
+        try {
+            recover();
+        } catch (IOException e) {
+            closeSegments();
+            unlock();
+            throw new FileStorageRuntimeException("恢复文件记录失败：" + dir.getAbsolutePath(), e);
+        }
+        this.executor = Executors.newSingleThreadScheduledExecutor(
+                new NamedThreadFactory("x-file-storage-log-recorder-", true));
+        if (!syncEveryWrite) {
+            executor.scheduleWithFixedDelay(this::syncQuietly, syncInterval, syncInterval, TimeUnit.MILLISECONDS);
+        }
+        if (compactInterval > 0) {
+            executor.scheduleWithFixedDelay(
+                    this::compactQuietly, compactInterval, compactInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public boolean save(FileInfo fileInfo) {
+        checkUrl(fileInfo);
+        byte[] record = LogRecordCodec.encode(LogRecordCodec.TYPE_SAVE, fileInfo);
+        synchronized (writeLock) {
+            putFile(fileInfo.getUrl(), append(record));
+            afterWrite();
+        }
+        return true;
+    }
+
+    @Override
+    public void saveBatch(List<FileInfo> fileInfoList) {
+        List<byte[]> records = new ArrayList<>(fileInfoList.size());
+        for (FileInfo fileInfo : fileInfoList) {
+            checkUrl(fileInfo);
+            records.add(LogRecordCodec.encode(LogRecordCodec.TYPE_SAVE, fileInfo));
+        }
+        synchronized (writeLock) {
+            List<Location> locations = append(records);
+            for (int i = 0; i < locations.size(); i++) {
+                putFile(fileInfoList.get(i).getUrl(), locations.get(i));
+            }
+            afterWrite();
+        }
+    }
+
+    /**
+     * 更新文件记录，使用传入的文件记录替换 url 相同的记录，记录不存在时不做任何操作
+     */
+    @Override
+    public void update(FileInfo fileInfo) {
+        if (fileInfo.getUrl() == null) return;
+        byte[] record = LogRecordCodec.encode(LogRecordCodec.TYPE_UPDATE, fileInfo);
+        synchronized (writeLock) {
+            if (!fileIndex.containsKey(fileInfo.getUrl())) return;
+            putFile(fileInfo.getUrl(), append(record));
+            afterWrite();
+        }
+    }
+
+    @Override
+    public FileInfo getByUrl(String url) {
+        if (url == null) return null;
+        checkClosed();
+        for (int i = 0; ; i++) {
+            Location location = fileIndex.get(url);
+            if (location == null) return null;
+            try {
+                return LogRecordCodec.decodeFileInfo(location.segment.read(location.offset, location.length));
+            } catch (IOException e) {
+                // 读取期间日志段被整理，重新获取记录位置
+                if (i >= 3 || fileIndex.get(url) == location) {
+                    throw new FileStorageRuntimeException("读取文件记录失败：" + url, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean delete(String url) {
+        if (url == null) return false;
+        byte[] record = LogRecordCodec.encode(LogRecordCodec.TYPE_DELETE, url);
+        synchronized (writeLock) {
+            if (!fileIndex.containsKey(url)) return false;
+            append(record);
+            removeLive(fileIndex.remove(url));
+            afterWrite();
+        }
+        return true;
+    }
+
+    @Override
+    public void deleteBatch(List<String> urlList) {
+        Map<String, byte[]> recordMap = new LinkedHashMap<>();
+        for (String url : urlList) {
+            if (url != null) recordMap.computeIfAbsent(url, k -> LogRecordCodec.encode(LogRecordCodec.TYPE_DELETE, k));
+        }
+        synchronized (writeLock) {
+            List<String> existUrlList = new ArrayList<>(recordMap.size());
+            List<byte[]> records = new ArrayList<>(recordMap.size());
+            recordMap.forEach((url, record) -> {
+                if (fileIndex.containsKey(url)) {
+                    existUrlList.add(url);
+                    records.add(record);
+                }
+            });
+            if (records.isEmpty()) return;
+            append(records);
+            for (String url : existUrlList) removeLive(fileIndex.remove(url));
+            afterWrite();
+        }
+    }
+
+    @Override
+    public void saveFilePart(FilePartInfo filePartInfo) {
+        byte[] record = LogRecordCodec.encode(filePartInfo);
+        synchronized (writeLock) {
+            putPart(filePartInfo.getUploadId(), append(record));
+            afterWrite();
+        }
+    }
+
+    @Override
+    public void saveFilePartBatch(List<FilePartInfo> filePartInfoList) {
+        List<byte[]> records = new ArrayList<>(filePartInfoList.size());
+        for (FilePartInfo filePartInfo : filePartInfoList) records.add(LogRecordCodec.encode(filePartInfo));
+        synchronized (writeLock) {
+            List<Location> locations = append(records);
+            for (int i = 0; i < locations.size(); i++) {
+                putPart(filePartInfoList.get(i).getUploadId(), locations.get(i));
+            }
+            afterWrite();
+        }
+    }
+
+    @Override
+    public void deleteFilePartByUploadId(String uploadId) {
+        if (uploadId == null) return;
+        byte[] record = LogRecordCodec.encode(LogRecordCodec.TYPE_DELETE_PART, uploadId);
+        synchronized (writeLock) {
+            List<Location> locations = partIndex.remove(uploadId);
+            if (locations == null) return;
+            append(record);
+            for (Location location : locations) removeLive(location);
+            afterWrite();
+        }
+    }
+
+    /**
+     * 当前文件记录数量
+     */
+    public int size() {
+        return fileIndex.size();
+    }
+
+    /**
+     * 当前日志段数量
+     */
+    public int getSegmentCount() {
+        synchronized (writeLock) {
+            return segments.size();
+        }
+    }
+
+    /**
+     * 垃圾记录占比
+     */
+    public double getGarbageRatio() {
+        synchronized (writeLock) {
+            return totalBytes == 0 ? 0 : (double) (totalBytes - liveBytes) / totalBytes;
+        }
+    }
+
+    /**
+     * 立即刷盘
+     */
+    public void sync() {
+        synchronized (writeLock) {
+            checkClosed();
+            if (!dirty) return;
+            try {
+                active.channel.force(false);
+                dirty = false;
+            } catch (IOException e) {
+                throw new FileStorageRuntimeException("文件记录刷盘失败：" + active.file.getAbsolutePath(), e);
+            }
+        }
+    }
+
+    /**
+     * 整理日志段，垃圾记录占比超过阈值时，从最旧的日志段开始，将其中的有效记录追加到当前日志段后删除该日志段，
+     * 直到占比低于阈值或者整理完整理前已写满的全部日志段。同时只有一个线程在整理，其它线程会等待
+     */
+    public void compact() {
+        synchronized (compactLock) {
+            int count;
+            synchronized (writeLock) {
+                checkClosed();
+                count = segments.size() - 1;
+            }
+            // 最多整理一轮，避免有效记录在日志段之间反复搬运
+            for (int i = 0; i < count; i++) {
+                Segment oldest;
+                synchronized (writeLock) {
+                    checkClosed();
+                    if (segments.size() < 2 || totalBytes == 0) return;
+                    if ((double) (totalBytes - liveBytes) / totalBytes < compactRatio) return;
+                    oldest = segments.get(0);
+                }
+                try {
+                    compact(oldest);
+                } catch (IOException e) {
+                    throw new FileStorageRuntimeException("整理文件记录失败：" + oldest.file.getAbsolutePath(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 停止后台线程、刷盘并关闭全部日志段
+     */
+    @Override
+    public void close() {
+        synchronized (writeLock) {
+            if (closed) return;
+            executor.shutdown();
+            try {
+                if (dirty) active.channel.force(false);
+            } catch (IOException e) {
+                log.error("文件记录刷盘失败：{}", e.getMessage(), e);
+            }
+            closed = true;
+            closeSegments();
+            unlock();
+        }
+    }
+
+    /**
+     * 整理最旧的日志段，最旧的日志段之前没有其它记录，删除记录可以直接丢弃
+     */
+    private void compact(Segment segment) throws IOException {
+        ByteBuffer buffer = segment.mapped.duplicate();
+        int offset = 0;
+        while (offset + LogRecordCodec.HEADER_SIZE <= segment.size) {
+            buffer.position(offset);
+            int bodyLength = buffer.getInt();
+            buffer.getInt();
+            int length = LogRecordCodec.HEADER_SIZE + bodyLength;
+            byte[] record = new byte[length];
+            buffer.position(offset);
+            buffer.get(record);
+            byte type = record[LogRecordCodec.HEADER_SIZE];
+            if (type != LogRecordCodec.TYPE_DELETE && type != LogRecordCodec.TYPE_DELETE_PART) {
+                String key = LogRecordCodec.getKey(Arrays.copyOfRange(record, LogRecordCodec.HEADER_SIZE, length));
+                synchronized (writeLock) {
+                    checkClosed();
+                    moveIfLive(type, key, segment, offset, record);
+                }
+            }
+            offset += length;
+        }
+        synchronized (writeLock) {
+            checkClosed();
+            if (!segments.contains(segment)) return;
+            // 搬运的记录刷盘并写入检查点后才能丢弃旧的日志段，否则崩溃后可能丢失记录或者复活已删除的记录
+            active.channel.force(false);
+            dirty = false;
+            writeCheckpoint(segment.id);
+            segments.remove(segment);
+            totalBytes -= segment.size;
+        }
+        segment.close();
+        // 内存映射未释放时部分系统（例如 Windows）无法删除文件，检查点中已记录，启动时会跳过并再次删除
+        if (!segment.file.delete()) segment.file.deleteOnExit();
+    }
+
+    /**
+     * 原子的写入整理检查点，先写入临时文件并刷盘再替换，需要持有写锁
+     */
+    private void writeCheckpoint(long id) throws IOException {
+        File temp = new File(dir, CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(
+                temp.toPath(),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+        Files.move(
+                temp.toPath(),
+                new File(dir, CHECKPOINT_FILE).toPath(),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        compactedId = id;
+    }
+
+    /**
+     * 读取整理检查点，没有时返回 0
+     */
+    private long readCheckpoint() throws IOException {
+        File file = new File(dir, CHECKPOINT_FILE);
+        if (!file.exists()) return 0;
+        String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).trim();
+        try {
+            return Long.parseLong(content);
+        } catch (NumberFormatException e) {
+            throw new IOException("文件记录整理检查点损坏：" + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * 锁定存储目录，保证同一个存储目录同时只能被一个实例使用
+     */
+    private static FileChannel lock(File dir, String lockPath) {
+        if (!LOCKED_DIRS.add(lockPath)) {
+            throw new FileStorageRuntimeException("文件记录存储目录已被其它实例使用：" + dir.getAbsolutePath());
+        }
+        File file = new File(dir, LOCK_FILE);
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (channel.tryLock() != null) return channel;
+        } catch (IOException | OverlappingFileLockException e) {
+            IoUtil.close(channel);
+            LOCKED_DIRS.remove(lockPath);
+            throw new FileStorageRuntimeException("锁定文件记录存储目录失败：" + dir.getAbsolutePath(), e);
+        }
+        IoUtil.close(channel);
+        LOCKED_DIRS.remove(lockPath);
+        throw new FileStorageRuntimeException("文件记录存储目录已被其它进程使用：" + dir.getAbsolutePath());
+    }
+
+    /**
+     * 释放存储目录锁
+     */
+    private void unlock() {
+        IoUtil.close(lockChannel);
+        LOCKED_DIRS.remove(lockPath);
+    }
+
+    /**
+     * 记录依然有效时追加到当前日志段并更新索引
+     */
+    private void moveIfLive(byte type, String key, Segment segment, int offset, byte[] record) {
+        if (type == LogRecordCodec.TYPE_SAVE_PART) {
+            List<Location> locations = partIndex.get(key);
+            if (locations == null) return;
+            for (int i = 0; i < locations.size(); i++) {
+                Location location = locations.get(i);
+                if (location.segment == segment && location.offset == offset) {
+                    Location moved = append(record);
+                    locations.set(i, moved);
+                    liveBytes += moved.length - location.length;
+                    return;
+                }
+            }
+        } else {
+            Location location = fileIndex.get(key);
+            if (location == null || location.segment != segment || location.offset != offset) return;
+            Location moved = append(record);
+            fileIndex.put(key, moved);
+            liveBytes += moved.length - location.length;
+        }
+    }
+
+    private void putFile(String url, Location location) {
+        liveBytes += location.length;
+        removeLive(fileIndex.put(url, location));
+    }
+
+    private void putPart(String uploadId, Location location) {
+        liveBytes += location.length;
+        partIndex.computeIfAbsent(uploadId, k -> new ArrayList<>()).add(location);
+    }
+
+    private void removeLive(Location location) {
+        if (location != null) liveBytes -= location.length;
+    }
+
+    /**
+     * 追加一条记录，需要持有写锁
+     */
+    private Location append(byte[] record) {
+        return append(Collections.singletonList(record)).get(0);
+    }
+
+    /**
+     * 按顺序追加多条记录，尽量合并为一次写入，需要持有写锁
+     */
+    private List<Location> append(List<byte[]> records) {
+        checkClosed();
+        List<Location> locations = new ArrayList<>(records.size());
+        try {
+            int index = 0;
+            while (index < records.size()) {
+                if (active.size > 0 && active.size + records.get(index).length > segmentSize) roll();
+                // 合并当前日志段放得下的记录
+                int end = index;
+                long length = 0;
+                while (end < records.size()
+                        && (end == index || active.size + length + records.get(end).length <= segmentSize)) {
+                    length += records.get(end).length;
+                    end++;
+                }
+                ByteBuffer buffer = ByteBuffer.allocate((int) length);
+                for (int i = index; i < end; i++) {
+                    locations.add(new Location(active, active.size + buffer.position(), records.get(i).length));
+                    buffer.put(records.get(i));
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) active.channel.write(buffer, active.size + buffer.position());
+                active.size += length;
+                totalBytes += length;
+                index = end;
+            }
+        } catch (IOException e) {
+            throw new FileStorageRuntimeException("写入文件记录失败：" + active.file.getAbsolutePath(), e);
+        }
+        dirty = true;
+        return locations;
+    }
+
+    /**
+     * 写入完成后按配置刷盘，需要持有写锁
+     */
+    private void afterWrite() {
+        if (syncEveryWrite && dirty) {
+            try {
+                active.channel.force(false);
+                dirty = false;
+            } catch (IOException e) {
+                throw new FileStorageRuntimeException("文件记录刷盘失败：" + active.file.getAbsolutePath(), e);
+            }
+        }
+    }
+
+    /**
+     * 当前日志段写满后改为只读并创建新的日志段，需要持有写锁
+     */
+    private void roll() throws IOException {
+        active.channel.force(false);
+        active.seal();
+        active = openSegment(active.id + 1);
+        segments.add(active);
+    }
+
+    /**
+     * 按顺序扫描全部日志段重建索引
+     */
+    private void recover() throws IOException {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SEGMENT_SUFFIX));
+        List<Long> ids = new ArrayList<>();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                try {
+                    ids.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    log.warn("忽略无法识别的文件记录日志段：{}", file.getAbsolutePath());
+                }
+            }
+        }
+        Collections.sort(ids);
+        compactedId = readCheckpoint();
+        for (Long id : ids) {
+            if (id <= compactedId) {
+                // 已经整理完但之前没能删除的日志段
+                File file = getSegmentFile(id);
+                if (!file.delete()) log.warn("删除已整理的文件记录日志段失败：{}", file.getAbsolutePath());
+                continue;
+            }
+            Segment segment = openSegment(id);
+            segments.add(segment);
+            recover(segment);
+            totalBytes += segment.size;
+        }
+        if (segments.isEmpty() || segments.get(segments.size() - 1).size >= segmentSize) {
+            long id = segments.isEmpty() ? compactedId : segments.get(segments.size() - 1).id;
+            segments.add(openSegment(id + 1));
+        }
+        active = segments.get(segments.size() - 1);
+        for (Segment segment : segments) {
+            if (segment != active) segment.seal();
+        }
+    }
+
+    /**
+     * 扫描一个日志段，遇到不完整或者校验失败的记录时截断
+     */
+    private void recover(Segment segment) throws IOException {
+        long fileSize = segment.channel.size();
+        ByteBuffer header = ByteBuffer.allocate(LogRecordCodec.HEADER_SIZE);
+        long offset = 0;
+        while (true) {
+            header.clear();
+            if (readFully(segment.channel, header, offset) < LogRecordCodec.HEADER_SIZE) break;
+            header.flip();
+            int bodyLength = header.getInt();
+            int crc = header.getInt();
+            if (bodyLength <= 0 || offset + LogRecordCodec.HEADER_SIZE + bodyLength > fileSize) break;
+            ByteBuffer body = ByteBuffer.allocate(bodyLength);
+            if (readFully(segment.channel, body, offset + LogRecordCodec.HEADER_SIZE) < bodyLength) break;
+            if (!LogRecordCodec.check(body.array(), crc)) break;
+            int length = LogRecordCodec.HEADER_SIZE + bodyLength;
+            apply(body.array(), new Location(segment, offset, length));
+            offset += length;
+        }
+        if (offset < fileSize) {
+            log.warn("文件记录日志段 {} 在位置 {} 之后的数据不完整，已截断", segment.file.getAbsolutePath(), offset);
+            segment.channel.truncate(offset);
+        }
+        segment.size = offset;
+    }
+
+    /**
+     * 恢复时应用一条记录到索引
+     */
+    private void apply(byte[] body, Location location) {
+        String key = LogRecordCodec.getKey(body);
+        switch (LogRecordCodec.getType(body)) {
+            case LogRecordCodec.TYPE_SAVE:
+            case LogRecordCodec.TYPE_UPDATE:
+                putFile(key, location);
+                break;
+            case LogRecordCodec.TYPE_DELETE:
+                removeLive(fileIndex.remove(key));
+                break;
+            case LogRecordCodec.TYPE_SAVE_PART:
+                putPart(key, location);
+                break;
+            case LogRecordCodec.TYPE_DELETE_PART:
+                List<Location> locations = partIndex.remove(key);
+                if (locations != null) locations.forEach(this::removeLive);
+                break;
+            default:
+                log.warn("忽略无法识别的文件记录类型：{}", LogRecordCodec.getType(body));
+        }
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read < 0) break;
+            total += read;
+        }
+        return total;
+    }
+
+    private File getSegmentFile(long id) {
+        return new File(dir, String.format("%020d%s", id, SEGMENT_SUFFIX));
+    }
+
+    private Segment openSegment(long id) throws IOException {
+        File file = getSegmentFile(id);
+        FileChannel channel = FileChannel.open(
+                file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Segment segment = new Segment(id, file, channel);
+        segment.size = channel.size();
+        return segment;
+    }
+
+    private void closeSegments() {
+        for (Segment segment : segments) segment.close();
+    }
+
+    private static void checkUrl(FileInfo fileInfo) {
+        if (fileInfo.getUrl() == null) throw new FileStorageRuntimeException("文件记录的 url 不能为 null");
+    }
+
+    private void checkClosed() {
+        if (closed) throw new FileStorageRuntimeException("文件记录者已关闭：" + dir.getAbsolutePath());
+    }
+
+    private void syncQuietly() {
+        try {
+            if (dirty && !closed) sync();
+        } catch (Throwable e) {
+            log.error("文件记录刷盘失败：{}", e.getMessage(), e);
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (Throwable e) {
+            if (!closed) log.error("整理文件记录失败：{}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 日志段
+     */
+    private static class Segment {
+        private final long id;
+        private final File file;
+        private final FileChannel channel;
+        /**
+         * 已写入的大小，只在持有写锁时修改
+         */
+        private volatile long size;
+        /**
+         * 写满后的只读内存映射
+         */
+        private volatile MappedByteBuffer mapped;
+
+        private Segment(long id, File file, FileChannel channel) {
+            this.id = id;
+            this.file = file;
+            this.channel = channel;
+        }
+
+        /**
+         * 改为只读，之后通过内存映射读取
+         */
+        private void seal() throws IOException {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        private byte[] read(long offset, int length) throws IOException {
+            byte[] bytes = new byte[length];
+            MappedByteBuffer buffer = mapped;
+            if (buffer != null) {
+                ByteBuffer duplicate = buffer.duplicate();
+                duplicate.position((int) offset);
+                duplicate.get(bytes);
+                return bytes;
+            }
+            if (readFully(channel, ByteBuffer.wrap(bytes), offset) < length) {
+                throw new EOFException("文件记录不完整：" + file.getAbsolutePath());
+            }
+            return bytes;
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("关闭文件记录日志段失败：{}，{}", file.getAbsolutePath(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 记录位置
+     */
+    private static class Location {
+        private final Segment segment;
+        private final long offset;
+        private final int length;
+
+        private Location(Segment segment, long offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
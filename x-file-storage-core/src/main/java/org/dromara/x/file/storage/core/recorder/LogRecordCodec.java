@@ -0,0 +1,492 @@
+package org.dromara.x.file.storage.core.recorder;
+
+import cn.hutool.core.lang.Dict;
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.CRC32;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
+import org.dromara.x.file.storage.core.hash.HashInfo;
+import org.dromara.x.file.storage.core.upload.FilePartInfo;
+import org.dromara.x.file.storage.core.upload.ThumbnailVariantInfo;
+
+/**
+ * {@link LogFileRecorder} 的记录编解码工具类。
+ * 每条记录的格式为：记录体长度（int）+ 记录体的 CRC32（int）+ 记录体，
+ * 记录体为：类型（byte）+ 键（url 或 uploadId）+ 数据，恢复时只需要解析键，不用解析数据。
+ * 附加属性及 ACL 按值的类型逐个编码，不使用 Java 序列化，遇到不支持的类型时直接抛出异常
+ */
+class LogRecordCodec {
+    /**
+     * 记录头长度，包括记录体长度及 CRC32
+     */
+    static final int HEADER_SIZE = 8;
+
+    static final byte TYPE_SAVE = 1;
+    static final byte TYPE_UPDATE = 2;
+    static final byte TYPE_DELETE = 3;
+    static final byte TYPE_SAVE_PART = 4;
+    static final byte TYPE_DELETE_PART = 5;
+
+    /**
+     * 数据格式版本，修改数据格式时递增
+     */
+    private static final byte VERSION = 2;
+
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_STRING = 1;
+    private static final byte VALUE_BOOLEAN = 2;
+    private static final byte VALUE_BYTE = 3;
+    private static final byte VALUE_SHORT = 4;
+    private static final byte VALUE_INT = 5;
+    private static final byte VALUE_LONG = 6;
+    private static final byte VALUE_FLOAT = 7;
+    private static final byte VALUE_DOUBLE = 8;
+    private static final byte VALUE_CHAR = 9;
+    private static final byte VALUE_BIG_INTEGER = 10;
+    private static final byte VALUE_BIG_DECIMAL = 11;
+    private static final byte VALUE_DATE = 12;
+    private static final byte VALUE_BYTES = 13;
+    private static final byte VALUE_ENUM = 14;
+    private static final byte VALUE_LIST = 15;
+    private static final byte VALUE_SET = 16;
+    private static final byte VALUE_MAP = 17;
+    private static final byte VALUE_DICT = 18;
+
+    private LogRecordCodec() {}
+
+    /**
+     * 编码文件记录
+     */
+    static byte[] encode(byte type, FileInfo fileInfo) {
+        return encode(type, fileInfo.getUrl(), out -> writeFileInfo(out, fileInfo));
+    }
+
+    /**
+     * 编码文件分片信息
+     */
+    static byte[] encode(FilePartInfo filePartInfo) {
+        return encode(TYPE_SAVE_PART, filePartInfo.getUploadId(), out -> writeFilePart(out, filePartInfo));
+    }
+
+    /**
+     * 编码只有键的记录，例如删除
+     */
+    static byte[] encode(byte type, String key) {
+        return encode(type, key, out -> {});
+    }
+
+    private static byte[] encode(byte type, String key, DataWriter writer) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeByte(type);
+            writeString(out, key);
+            writer.write(out);
+            out.flush();
+            byte[] record = bytes.toByteArray();
+            int bodyLength = record.length - HEADER_SIZE;
+            CRC32 crc = new CRC32();
+            crc.update(record, HEADER_SIZE, bodyLength);
+            writeInt(record, 0, bodyLength);
+            writeInt(record, 4, (int) crc.getValue());
+            return record;
+        } catch (IOException e) {
+            throw new FileStorageRuntimeException("编码文件记录失败：" + key, e);
+        }
+    }
+
+    /**
+     * 校验记录体的 CRC32
+     */
+    static boolean check(byte[] body, int crc) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(body, 0, body.length);
+        return (int) crc32.getValue() == crc;
+    }
+
+    /**
+     * 获取记录体中的类型
+     */
+    static byte getType(byte[] body) {
+        return body[0];
+    }
+
+    /**
+     * 获取记录体中的键
+     */
+    static String getKey(byte[] body) {
+        try {
+            return readString(new DataInputStream(new ByteArrayInputStream(body, 1, body.length - 1)));
+        } catch (IOException e) {
+            throw new FileStorageRuntimeException("解析文件记录失败", e);
+        }
+    }
+
+    /**
+     * 解码文件记录，传入完整的记录（包括记录头）
+     */
+    static FileInfo decodeFileInfo(byte[] record) {
+        try {
+            DataInputStream in = openData(record);
+            FileInfo fileInfo = new FileInfo();
+            fileInfo.setId(readString(in));
+            fileInfo.setUrl(readString(in));
+            fileInfo.setSize(readLong(in));
+            fileInfo.setFilename(readString(in));
+            fileInfo.setOriginalFilename(readString(in));
+            fileInfo.setBasePath(readString(in));
+            fileInfo.setPath(readString(in));
+            fileInfo.setExt(readString(in));
+            fileInfo.setContentType(readString(in));
+            fileInfo.setPlatform(readString(in));
+            fileInfo.setThUrl(readString(in));
+            fileInfo.setThFilename(readString(in));
+            fileInfo.setThSize(readLong(in));
+            fileInfo.setThContentType(readString(in));
+            fileInfo.setThVariants(readThVariants(in));
+            fileInfo.setObjectId(readString(in));
+            fileInfo.setObjectType(readString(in));
+            fileInfo.setMetadata(readMap(in));
+            fileInfo.setUserMetadata(readMap(in));
+            fileInfo.setThMetadata(readMap(in));
+            fileInfo.setThUserMetadata(readMap(in));
+            fileInfo.setAttr((Dict) readValue(in));
+            fileInfo.setFileAcl(readValue(in));
+            fileInfo.setThFileAcl(readValue(in));
+            Map<String, String> hashInfo = readMap(in);
+            fileInfo.setHashInfo(hashInfo == null ? null : new HashInfo(hashInfo));
+            fileInfo.setUploadId(readString(in));
+            fileInfo.setUploadStatus(readInt(in));
+            fileInfo.setCreateTime(readDate(in));
+            return fileInfo;
+        } catch (IOException | ClassCastException e) {
+            throw new FileStorageRuntimeException("解码文件记录失败", e);
+        }
+    }
+
+    private static void writeFileInfo(DataOutputStream out, FileInfo fileInfo) throws IOException {
+        out.writeByte(VERSION);
+        writeString(out, fileInfo.getId());
+        writeString(out, fileInfo.getUrl());
+        writeLong(out, fileInfo.getSize());
+        writeString(out, fileInfo.getFilename());
+        writeString(out, fileInfo.getOriginalFilename());
+        writeString(out, fileInfo.getBasePath());
+        writeString(out, fileInfo.getPath());
+        writeString(out, fileInfo.getExt());
+        writeString(out, fileInfo.getContentType());
+        writeString(out, fileInfo.getPlatform());
+        writeString(out, fileInfo.getThUrl());
+        writeString(out, fileInfo.getThFilename());
+        writeLong(out, fileInfo.getThSize());
+        writeString(out, fileInfo.getThContentType());
+        writeThVariants(out, fileInfo.getThVariants());
+        writeString(out, fileInfo.getObjectId());
+        writeString(out, fileInfo.getObjectType());
+        writeMap(out, fileInfo.getMetadata());
+        writeMap(out, fileInfo.getUserMetadata());
+        writeMap(out, fileInfo.getThMetadata());
+        writeMap(out, fileInfo.getThUserMetadata());
+        writeValue(out, fileInfo.getAttr());
+        writeValue(out, fileInfo.getFileAcl());
+        writeValue(out, fileInfo.getThFileAcl());
+        writeMap(out, fileInfo.getHashInfo());
+        writeString(out, fileInfo.getUploadId());
+        writeInt(out, fileInfo.getUploadStatus());
+        writeDate(out, fileInfo.getCreateTime());
+    }
+
+    private static void writeFilePart(DataOutputStream out, FilePartInfo filePartInfo) throws IOException {
+        out.writeByte(VERSION);
+        writeString(out, filePartInfo.getId());
+        writeString(out, filePartInfo.getPlatform());
+        writeString(out, filePartInfo.getETag());
+        writeInt(out, filePartInfo.getPartNumber());
+        writeLong(out, filePartInfo.getPartSize());
+        writeMap(out, filePartInfo.getHashInfo());
+        writeDate(out, filePartInfo.getCreateTime());
+    }
+
+    /**
+     * 跳过记录头、类型、键及版本，返回数据的输入流
+     */
+    private static DataInputStream openData(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(record, HEADER_SIZE + 1, record.length - HEADER_SIZE - 1));
+        readString(in);
+        byte version = in.readByte();
+        if (version != VERSION) throw new IOException("不支持的数据格式版本：" + version);
+        return in;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeLong(value);
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeInt(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeInt(value);
+    }
+
+    private static Integer readInt(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeDate(DataOutputStream out, Date value) throws IOException {
+        writeLong(out, value == null ? null : value.getTime());
+    }
+
+    private static Date readDate(DataInputStream in) throws IOException {
+        Long time = readLong(in);
+        return time == null ? null : new Date(time);
+    }
+
+    private static void writeMap(DataOutputStream out, Map<String, String> map) throws IOException {
+        if (map == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    private static Map<String, String> readMap(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) return null;
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) map.put(readString(in), readString(in));
+        return map;
+    }
+
+    private static void writeThVariants(DataOutputStream out, Map<String, ThumbnailVariantInfo> map)
+            throws IOException {
+        if (map == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(map.size());
+        for (Map.Entry<String, ThumbnailVariantInfo> entry : map.entrySet()) {
+            writeString(out, entry.getKey());
+            ThumbnailVariantInfo info = entry.getValue();
+            out.writeBoolean(info != null);
+            if (info == null) continue;
+            writeString(out, info.getUrl());
+            writeString(out, info.getFilename());
+            writeLong(out, info.getSize());
+            writeString(out, info.getContentType());
+        }
+    }
+
+    private static Map<String, ThumbnailVariantInfo> readThVariants(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) return null;
+        Map<String, ThumbnailVariantInfo> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            String key = readString(in);
+            if (!in.readBoolean()) {
+                map.put(key, null);
+                continue;
+            }
+            ThumbnailVariantInfo info = new ThumbnailVariantInfo();
+            info.setUrl(readString(in));
+            info.setFilename(readString(in));
+            info.setSize(readLong(in));
+            info.setContentType(readString(in));
+            map.put(key, info);
+        }
+        return map;
+    }
+
+    /**
+     * 写入附加属性、ACL 等对象，只支持基本类型的包装类、字符串、大数、日期、字节数组、枚举以及由它们组成的 Map 和集合，
+     * 遇到其它类型时抛出异常，避免保存后丢失数据
+     */
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(VALUE_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(VALUE_STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(VALUE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(VALUE_BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Short) {
+            out.writeByte(VALUE_SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(VALUE_INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(VALUE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Float) {
+            out.writeByte(VALUE_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            out.writeByte(VALUE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Character) {
+            out.writeByte(VALUE_CHAR);
+            out.writeChar((Character) value);
+        } else if (value instanceof BigInteger) {
+            out.writeByte(VALUE_BIG_INTEGER);
+            writeString(out, value.toString());
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(VALUE_BIG_DECIMAL);
+            writeString(out, value.toString());
+        } else if (value instanceof Date) {
+            out.writeByte(VALUE_DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            out.writeByte(VALUE_BYTES);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else if (value instanceof Enum) {
+            out.writeByte(VALUE_ENUM);
+            writeString(out, ((Enum<?>) value).getDeclaringClass().getName());
+            writeString(out, ((Enum<?>) value).name());
+        } else if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            out.writeByte(value instanceof Set ? VALUE_SET : VALUE_LIST);
+            out.writeInt(collection.size());
+            for (Object item : collection) writeValue(out, item);
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(value instanceof Dict ? VALUE_DICT : VALUE_MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        } else {
+            String className = value.getClass().getName();
+            throw new IOException("不支持保存的附加属性或 ACL 类型：" + className + "，只支持基本类型、字符串、日期、枚举及其组成的 Map 和集合");
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_STRING:
+                return readString(in);
+            case VALUE_BOOLEAN:
+                return in.readBoolean();
+            case VALUE_BYTE:
+                return in.readByte();
+            case VALUE_SHORT:
+                return in.readShort();
+            case VALUE_INT:
+                return in.readInt();
+            case VALUE_LONG:
+                return in.readLong();
+            case VALUE_FLOAT:
+                return in.readFloat();
+            case VALUE_DOUBLE:
+                return in.readDouble();
+            case VALUE_CHAR:
+                return in.readChar();
+            case VALUE_BIG_INTEGER:
+                return new BigInteger(readString(in));
+            case VALUE_BIG_DECIMAL:
+                return new BigDecimal(readString(in));
+            case VALUE_DATE:
+                return new Date(in.readLong());
+            case VALUE_BYTES:
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                return bytes;
+            case VALUE_ENUM:
+                return readEnum(readString(in), readString(in));
+            case VALUE_LIST:
+            case VALUE_SET:
+                int size = in.readInt();
+                Collection<Object> collection = type == VALUE_SET ? new LinkedHashSet<>() : new ArrayList<>(size);
+                for (int i = 0; i < size; i++) collection.add(readValue(in));
+                return collection;
+            case VALUE_MAP:
+                int mapSize = in.readInt();
+                Map<Object, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < mapSize; i++) map.put(readValue(in), readValue(in));
+                return map;
+            case VALUE_DICT:
+                int dictSize = in.readInt();
+                Dict dict = new Dict();
+                for (int i = 0; i < dictSize; i++) dict.put((String) readValue(in), readValue(in));
+                return dict;
+            default:
+                throw new IOException("无法识别的附加属性或 ACL 类型：" + type);
+        }
+    }
+
+    /**
+     * 读取枚举，只加载类并检查是否为枚举，不会初始化其它类型的类
+     */
+    private static Object readEnum(String className, String name) throws IOException {
+        try {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            if (classLoader == null) classLoader = LogRecordCodec.class.getClassLoader();
+            Class<?> clazz = Class.forName(className, false, classLoader);
+            if (!clazz.isEnum()) throw new IOException("不是枚举类型：" + className);
+            return toEnum(clazz, name);
+        } catch (ClassNotFoundException | IllegalArgumentException e) {
+            throw new IOException("无法读取枚举：" + className + "." + name, e);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object toEnum(Class<?> clazz, String name) {
+        return Enum.valueOf((Class<? extends Enum>) clazz, name);
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    /**
+     * 写入数据
+     */
+    private interface DataWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
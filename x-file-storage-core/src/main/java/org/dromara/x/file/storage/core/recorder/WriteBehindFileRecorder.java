@@ -0,0 +1,438 @@
+package org.dromara.x.file.storage.core.recorder;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.FileStorageProperties.WriteBehindRecorderConfig;
+import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
+import org.dromara.x.file.storage.core.upload.FilePartInfo;
+
+/**
+ * 延迟批量写入的文件记录者，包装任意一个 FileRecorder，
+ * 保存文件记录及文件分片信息时先放入队列并立即返回，由后台线程按数量或时间间隔批量写入，
+ * 更新、删除等其它操作会先写入队列中的记录再执行，保证操作顺序不变。
+ * 被包装的 FileRecorder 实现了 {@link BatchFileRecorder} 时使用批量保存，批量保存失败时整批重试，否则逐条保存。
+ * 写入失败的记录会在之后的写入中重试，超过重试次数后丢弃，丢弃的记录会交给 {@link #setFailureListener(Consumer)} 并计入
+ * {@link #getFailedCount()}，{@link #flush()} 及 {@link #close()} 在有记录写入失败时抛出异常。
+ * 注意：save 方法返回时记录可能还没有写入，被包装的 FileRecorder 在保存时对 FileInfo 的修改（例如设置 ID）也会延迟生效
+ */
+@Slf4j
+public class WriteBehindFileRecorder implements BatchFileRecorder, AutoCloseable {
+    /**
+     * 被包装的文件记录者
+     */
+    @Getter
+    private final FileRecorder delegate;
+    /**
+     * 每批写入的最大数量，队列中的数量达到此值时立即写入
+     */
+    @Getter
+    private final int batchSize;
+    /**
+     * 通过 getByUrl 查询时是否先从队列中查找还未写入的记录
+     */
+    @Getter
+    private final boolean readPending;
+    /**
+     * 写入失败的记录最多重试的次数，每次写入时重试一次
+     */
+    @Getter
+    private final int maxRetries;
+    /**
+     * 重试次数用完后被丢弃的记录（FileInfo 或 FilePartInfo），在写入的线程中调用
+     */
+    @Getter
+    @Setter
+    private volatile Consumer<Object> failureListener;
+
+    private final BlockingQueue<Object> queue;
+    /**
+     * 还未写入的文件记录，按 url 索引
+     */
+    private final Map<String, FileInfo> pendingMap = new ConcurrentHashMap<>();
+
+    /**
+     * 写入失败等待重试的记录，按写入顺序排列，由 flushLock 保护
+     */
+    private final List<Retry> retryList = new ArrayList<>();
+    /**
+     * 重试次数用完后被丢弃的记录数量
+     */
+    private final LongAdder failedCount = new LongAdder();
+
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Object flushLock = new Object();
+    private volatile boolean closed;
+
+    public WriteBehindFileRecorder(FileRecorder delegate, WriteBehindRecorderConfig config) {
+        this(
+                delegate,
+                config.getBatchSize(),
+                config.getFlushInterval(),
+                config.getMaxQueueSize(),
+                Boolean.TRUE.equals(config.getReadPending()),
+                config.getMaxRetries());
+    }
+
+    /**
+     * @param delegate 被包装的文件记录者
+     * @param batchSize 每批写入的最大数量
+     * @param flushInterval 写入的时间间隔，单位毫秒
+     * @param maxQueueSize 队列最大长度，队列满了以后在调用者线程中写入，小于等于 0 表示不限制
+     * @param readPending 通过 getByUrl 查询时是否先从队列中查找还未写入的记录
+     * @param maxRetries 写入失败的记录最多重试的次数
+     */
+    public WriteBehindFileRecorder(
+            FileRecorder delegate,
+            int batchSize,
+            long flushInterval,
+            int maxQueueSize,
+            boolean readPending,
+            int maxRetries) {
+        this.delegate = delegate;
+        this.batchSize = Math.max(1, batchSize);
+        this.readPending = readPending;
+        this.maxRetries = Math.max(0, maxRetries);
+        this.queue = maxQueueSize > 0 ? new LinkedBlockingQueue<>(maxQueueSize) : new LinkedBlockingQueue<>();
+        this.executor = Executors.newSingleThreadScheduledExecutor(
+                new NamedThreadFactory("x-file-storage-recorder-", true));
+        long interval = Math.max(1, flushInterval);
+        executor.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean save(FileInfo fileInfo) {
+        if (fileInfo.getUrl() != null) pendingMap.put(fileInfo.getUrl(), fileInfo);
+        enqueue(fileInfo);
+        return true;
+    }
+
+    @Override
+    public void update(FileInfo fileInfo) {
+        flushInternal();
+        delegate.update(fileInfo);
+    }
+
+    /**
+     * 查询文件记录，开启 readPending 时先从队列中查找还未写入的记录，找到时返回它的副本，
+     * 避免调用者修改正在被后台线程写入的记录
+     */
+    @Override
+    public FileInfo getByUrl(String url) {
+        if (readPending && url != null) {
+            FileInfo fileInfo = pendingMap.get(url);
+            if (fileInfo != null) return CachingFileRecorder.copy(fileInfo);
+        }
+        return delegate.getByUrl(url);
+    }
+
+    @Override
+    public boolean delete(String url) {
+        flushInternal();
+        removeRetry(Collections.singleton(url), null);
+        return delegate.delete(url);
+    }
+
+    @Override
+    public void deleteBatch(List<String> urlList) {
+        flushInternal();
+        removeRetry(new HashSet<>(urlList), null);
+        if (delegate instanceof BatchFileRecorder) {
+            ((BatchFileRecorder) delegate).deleteBatch(urlList);
+        } else {
+            for (String url : urlList) delegate.delete(url);
+        }
+    }
+
+    @Override
+    public void saveFilePart(FilePartInfo filePartInfo) {
+        enqueue(filePartInfo);
+    }
+
+    @Override
+    public void deleteFilePartByUploadId(String uploadId) {
+        flushInternal();
+        removeRetry(Collections.emptySet(), uploadId);
+        delegate.deleteFilePartByUploadId(uploadId);
+    }
+
+    /**
+     * 当前队列中还未写入的数量，包括等待重试的记录
+     */
+    public int getPendingCount() {
+        synchronized (flushLock) {
+            return queue.size() + retryList.size();
+        }
+    }
+
+    /**
+     * 重试次数用完后被丢弃的记录数量
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    /**
+     * 立即写入队列中的全部记录及等待重试的记录，写入完成后返回，有记录写入失败时抛出异常，
+     * 写入失败的记录还没有超过重试次数时会在之后的写入中继续重试
+     */
+    public void flush() {
+        int failed = flushInternal();
+        if (failed > 0) throw new FileStorageRuntimeException("写入文件记录失败，失败数量：" + failed);
+    }
+
+    /**
+     * 停止后台线程并写入队列中的全部记录，写入失败的记录会立即重试，直到写入成功或者超过重试次数，
+     * 有记录被丢弃时抛出异常，之后的记录会直接写入
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdown();
+        long failed = failedCount.sum();
+        synchronized (flushLock) {
+            flushInternal();
+            while (!retryList.isEmpty()) flushInternal();
+        }
+        failed = failedCount.sum() - failed;
+        if (failed > 0) throw new FileStorageRuntimeException("关闭时有文件记录写入失败，丢弃数量：" + failed);
+    }
+
+    /**
+     * 先重试写入失败的记录，再写入队列中的全部记录，返回本次写入失败的数量
+     */
+    private int flushInternal() {
+        synchronized (flushLock) {
+            int failed = 0;
+            if (!retryList.isEmpty()) {
+                List<Retry> list = new ArrayList<>(retryList);
+                retryList.clear();
+                for (int start = 0; start < list.size(); start += batchSize) {
+                    List<Retry> subList = list.subList(start, Math.min(start + batchSize, list.size()));
+                    List<Object> batch = new ArrayList<>(subList.size());
+                    for (Retry retry : subList) batch.add(retry.record);
+                    Set<Object> failedSet = write(batch);
+                    for (Retry retry : subList) {
+                        onWritten(retry.record, failedSet.contains(retry.record), retry.retries + 1);
+                    }
+                    failed += failedSet.size();
+                }
+            }
+            List<Object> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                Set<Object> failedSet = write(batch);
+                for (Object record : batch) onWritten(record, failedSet.contains(record), 0);
+                failed += failedSet.size();
+                batch.clear();
+            }
+            return failed;
+        }
+    }
+
+    /**
+     * 处理一条记录的写入结果，写入失败且没有超过重试次数时等待重试，否则丢弃
+     * @param retries 已经重试的次数
+     */
+    private void onWritten(Object record, boolean failed, int retries) {
+        if (failed) {
+            if (retries < maxRetries) {
+                retryList.add(new Retry(record, retries));
+                return;
+            }
+            discard(record);
+        }
+        if (record instanceof FileInfo && ((FileInfo) record).getUrl() != null) {
+            pendingMap.remove(((FileInfo) record).getUrl(), record);
+        }
+    }
+
+    /**
+     * 丢弃重试次数用完的记录
+     */
+    private void discard(Object record) {
+        failedCount.increment();
+        if (record instanceof FileInfo) {
+            log.error("文件记录写入失败，已超过重试次数，丢弃：{}", ((FileInfo) record).getUrl());
+        } else {
+            FilePartInfo filePartInfo = (FilePartInfo) record;
+            log.error(
+                    "文件分片信息写入失败，已超过重试次数，丢弃：uploadId:{}，partNumber:{}",
+                    filePartInfo.getUploadId(),
+                    filePartInfo.getPartNumber());
+        }
+        Consumer<Object> listener = failureListener;
+        if (listener == null) return;
+        try {
+            listener.accept(record);
+        } catch (Exception e) {
+            log.error("处理写入失败的文件记录时出错：{}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 删除文件记录或文件分片信息后，不再重试写入对应的记录
+     */
+    private void removeRetry(Set<String> urlSet, String uploadId) {
+        synchronized (flushLock) {
+            Iterator<Retry> iterator = retryList.iterator();
+            while (iterator.hasNext()) {
+                Object record = iterator.next().record;
+                boolean remove = record instanceof FileInfo
+                        ? urlSet.contains(((FileInfo) record).getUrl())
+                        : uploadId != null && uploadId.equals(((FilePartInfo) record).getUploadId());
+                if (!remove) continue;
+                iterator.remove();
+                if (record instanceof FileInfo) pendingMap.remove(((FileInfo) record).getUrl(), record);
+            }
+        }
+    }
+
+    /**
+     * 放入队列，队列满了或者已关闭时在调用者线程中写入
+     */
+    private void enqueue(Object record) {
+        if (closed) {
+            List<Object> batch = Collections.singletonList(record);
+            synchronized (flushLock) {
+                if (!write(batch).isEmpty()) discard(record);
+            }
+            if (record instanceof FileInfo && ((FileInfo) record).getUrl() != null) {
+                pendingMap.remove(((FileInfo) record).getUrl(), record);
+            }
+            return;
+        }
+        while (!queue.offer(record)) {
+            flushInternal();
+        }
+        // 放入队列时刚好被关闭了，直接写入
+        if (closed) {
+            flushInternal();
+            return;
+        }
+        if (queue.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    flushScheduled.set(false);
+                    flushQuietly();
+                });
+            } catch (RejectedExecutionException e) {
+                flushScheduled.set(false);
+                flushInternal();
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flushInternal();
+        } catch (Throwable e) {
+            log.error("批量写入文件记录失败：{}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 按顺序写入，连续的同类记录一起批量写入，返回写入失败的记录
+     */
+    private Set<Object> write(List<Object> batch) {
+        Set<Object> failedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        int start = 0;
+        for (int i = 1; i <= batch.size(); i++) {
+            if (i == batch.size() || (batch.get(i) instanceof FileInfo) != (batch.get(start) instanceof FileInfo)) {
+                List<Object> group = batch.subList(start, i);
+                if (group.get(0) instanceof FileInfo) {
+                    writeFileInfo(cast(group), failedSet);
+                } else {
+                    writeFilePart(cast(group), failedSet);
+                }
+                start = i;
+            }
+        }
+        return failedSet;
+    }
+
+    /**
+     * 写入文件记录，批量保存失败时按 {@link BatchFileRecorder#saveBatch} 的约定整批都没有保存，
+     * 整批作为失败的记录，之后重试时同样批量保存，不会逐条保存，避免部分已提交的记录被重复保存
+     */
+    private void writeFileInfo(List<FileInfo> list, Set<Object> failedSet) {
+        if (delegate instanceof BatchFileRecorder && list.size() > 1) {
+            try {
+                ((BatchFileRecorder) delegate).saveBatch(list);
+            } catch (Exception e) {
+                log.error("批量保存文件记录失败，数量：{}，{}", list.size(), e.getMessage(), e);
+                failedSet.addAll(list);
+            }
+        } else {
+            for (FileInfo fileInfo : list) saveOne(fileInfo, failedSet);
+        }
+    }
+
+    private void saveOne(FileInfo fileInfo, Set<Object> failedSet) {
+        try {
+            if (delegate.save(fileInfo)) return;
+            log.error("保存文件记录失败：{}", fileInfo.getUrl());
+        } catch (Exception e) {
+            log.error("保存文件记录失败：{}，{}", fileInfo.getUrl(), e.getMessage(), e);
+        }
+        failedSet.add(fileInfo);
+    }
+
+    /**
+     * 写入文件分片信息，批量保存失败时与文件记录一样整批重试
+     */
+    private void writeFilePart(List<FilePartInfo> list, Set<Object> failedSet) {
+        if (delegate instanceof BatchFileRecorder && list.size() > 1) {
+            try {
+                ((BatchFileRecorder) delegate).saveFilePartBatch(list);
+            } catch (Exception e) {
+                log.error("批量保存文件分片信息失败，数量：{}，{}", list.size(), e.getMessage(), e);
+                failedSet.addAll(list);
+            }
+        } else {
+            for (FilePartInfo filePartInfo : list) saveFilePartOne(filePartInfo, failedSet);
+        }
+    }
+
+    private void saveFilePartOne(FilePartInfo filePartInfo, Set<Object> failedSet) {
+        try {
+            delegate.saveFilePart(filePartInfo);
+        } catch (Exception e) {
+            log.error(
+                    "保存文件分片信息失败：uploadId:{}，partNumber:{}，{}",
+                    filePartInfo.getUploadId(),
+                    filePartInfo.getPartNumber(),
+                    e.getMessage(),
+                    e);
+            failedSet.add(filePartInfo);
+        }
+    }
+
+    /**
+     * 写入失败等待重试的记录
+     */
+    private static class Retry {
+        private final Object record;
+        /**
+         * 已经重试的次数
+         */
+        private final int retries;
+
+        private Retry(Object record, int retries) {
+            this.record = record;
+            this.retries = retries;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> cast(List<Object> list) {
+        return (List<T>) (List<?>) list;
+    }
+}
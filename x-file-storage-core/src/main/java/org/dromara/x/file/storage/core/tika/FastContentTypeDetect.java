@@ -0,0 +1,291 @@
+package org.dromara.x.file.storage.core.tika;
+
+import cn.hutool.core.io.file.FileNameUtil;
+import cn.hutool.core.map.FixedLinkedHashMap;
+import cn.hutool.core.util.HexUtil;
+import cn.hutool.core.util.StrUtil;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import lombok.Getter;
+
+/**
+ * 快速识别文件的 MIME 类型，先通过内置的常见文件头识别，再查询按 扩展名 + 文件头 缓存的识别结果，都没有时再交给 Tika 识别。
+ * 内置的文件头只有在文件没有扩展名或者扩展名与文件头一致时才会使用，例如 PNG 图片被命名为 a.jpg 时依然交给 Tika 识别，
+ * 保证与 Tika 的识别结果一致，少于 4 个字节并且都是可打印字符的文件头（例如 SWF 的【FWS】、MP3 的【ID3】）
+ * 可能与普通文本的开头相同，只有扩展名一致时才会使用；ZIP、OLE、XML、文本等需要读取更多内容才能区分的类型每次都交给 Tika 识别，不会缓存识别结果，
+ * 例如 DOCX、XLSX、JAR 的文件头都是 ZIP，扩展名被修改过或者没有扩展名时只能读取完整内容才能区分。
+ * 适合大量上传小文件的场景
+ */
+@Getter
+public class FastContentTypeDetect implements ContentTypeDetect {
+    /**
+     * 识别时读取的文件头长度，同时也是缓存键中文件头的长度
+     */
+    public static final int SIGNATURE_LENGTH = 16;
+    /**
+     * 默认的缓存数量
+     */
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+
+    private static final List<Magic> MAGIC_LIST = new ArrayList<>();
+    /**
+     * 需要读取更多内容才能区分具体类型的文件头，识别结果不能按文件头缓存，依次为 ZIP、空 ZIP、分卷 ZIP、OLE、XML、带 BOM 的 XML
+     */
+    private static final byte[][] AMBIGUOUS_SIGNATURES = {
+        HexUtil.decodeHex("504B0304"),
+        HexUtil.decodeHex("504B0506"),
+        HexUtil.decodeHex("504B0708"),
+        HexUtil.decodeHex("D0CF11E0A1B11AE1"),
+        "<?xml".getBytes(StandardCharsets.ISO_8859_1),
+        HexUtil.decodeHex("EFBBBF3C3F786D6C")
+    };
+
+    static {
+        magic("image/jpeg", "jpg,jpeg,jpe,jfif", 0, "FFD8FF");
+        magic("image/png", "png", 0, "89504E470D0A1A0A");
+        magic("image/gif", "gif", 0, "GIF87a");
+        magic("image/gif", "gif", 0, "GIF89a");
+        magic("image/webp", "webp", 0, "RIFF", 8, "WEBP");
+        magic("image/bmp", "bmp,dib", 0, "BM", 6, "00000000");
+        magic("image/tiff", "tif,tiff", 0, "49492A00");
+        magic("image/tiff", "tif,tiff", 0, "4D4D002A");
+        magic("image/vnd.microsoft.icon", "ico", 0, "00000100");
+        magic("image/vnd.adobe.photoshop", "psd", 0, "8BPS");
+        magic("image/heic", "heic", 4, "ftypheic");
+        magic("application/pdf", "pdf", 0, "%PDF-");
+        magic("application/postscript", "ps", 0, "%!PS");
+        magic("application/rtf", "rtf", 0, "{\\rtf");
+        magic("application/gzip", "gz", 0, "1F8B08");
+        magic("application/x-7z-compressed", "7z", 0, "377ABCAF271C");
+        magic("application/x-xz", "xz", 0, "FD377A585A00");
+        magic("application/x-sqlite3", "sqlite,sqlite3", 0, "SQLite format 3");
+        magic("application/x-shockwave-flash", "swf", 0, "FWS");
+        magic("application/x-shockwave-flash", "swf", 0, "CWS");
+        magic("font/woff", "woff", 0, "wOFF");
+        magic("font/woff2", "woff2", 0, "wOF2");
+        magic("audio/mpeg", "mp3", 0, "ID3");
+        magic("audio/x-flac", "flac", 0, "fLaC");
+        magic("audio/vnd.wave", "wav", 0, "RIFF", 8, "WAVE");
+        magic("audio/midi", "mid,midi", 0, "MThd");
+        magic("audio/amr", "amr", 0, "#!AMR");
+        magic("audio/mp4", "m4a", 4, "ftypM4A ");
+        magic("video/mp4", "mp4", 4, "ftypisom");
+        magic("video/mp4", "mp4", 4, "ftypmp42");
+        magic("video/mp4", "mp4", 4, "ftypmp41");
+        magic("video/mp4", "mp4", 4, "ftypavc1");
+        magic("video/quicktime", "mov", 4, "ftypqt  ");
+        magic("video/x-msvideo", "avi", 0, "RIFF", 8, "AVI ");
+        magic("video/x-flv", "flv", 0, "464C5601");
+    }
+
+    /**
+     * 识别失败时使用的 ContentTypeDetect，一般是 TikaContentTypeDetect
+     */
+    private final ContentTypeDetect fallback;
+    /**
+     * 按 扩展名 + 文件头 缓存的识别结果
+     */
+    private final Map<String, String> cache;
+
+    public FastContentTypeDetect(ContentTypeDetect fallback) {
+        this(fallback, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param fallback 识别失败时使用的 ContentTypeDetect
+     * @param cacheSize 缓存数量，小于等于 0 时不缓存
+     */
+    public FastContentTypeDetect(ContentTypeDetect fallback, int cacheSize) {
+        this.fallback = fallback;
+        this.cache = cacheSize > 0 ? Collections.synchronizedMap(new FixedLinkedHashMap<>(cacheSize)) : null;
+    }
+
+    @Override
+    public String detect(File file) throws IOException {
+        byte[] head;
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            head = readHead(in);
+        }
+        return detect(head, file.getName(), () -> fallback.detect(file));
+    }
+
+    @Override
+    public String detect(byte[] bytes) {
+        return detectBytes(bytes, null, () -> fallback.detect(bytes));
+    }
+
+    @Override
+    public String detect(byte[] bytes, String filename) {
+        return detectBytes(bytes, filename, () -> fallback.detect(bytes, filename));
+    }
+
+    @Override
+    public String detect(InputStream in, String filename) throws IOException {
+        // 不支持标记和重置的流没法预读文件头，直接交给 Tika 识别
+        if (in == null || !in.markSupported()) return fallback.detect(in, filename);
+        byte[] head;
+        in.mark(SIGNATURE_LENGTH);
+        try {
+            head = readHead(in);
+        } finally {
+            in.reset();
+        }
+        return detect(head, filename, () -> fallback.detect(in, filename));
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clearCache() {
+        if (cache != null) cache.clear();
+    }
+
+    /**
+     * 依次通过内置的文件头、缓存、Tika 识别
+     */
+    private String detect(byte[] head, String filename, Detector detector) throws IOException {
+        String ext = filename == null ? StrUtil.EMPTY : FileNameUtil.extName(filename).toLowerCase();
+        for (Magic magic : MAGIC_LIST) {
+            if (magic.matches(head, ext)) return magic.contentType;
+        }
+        if (cache == null || isAmbiguous(head)) return detector.detect();
+        String key = ext + ":" + HexUtil.encodeHexStr(Arrays.copyOf(head, Math.min(head.length, SIGNATURE_LENGTH)));
+        String contentType = cache.get(key);
+        if (contentType == null) {
+            contentType = detector.detect();
+            if (contentType != null) cache.put(key, contentType);
+        }
+        return contentType;
+    }
+
+    /**
+     * 是否为需要读取更多内容才能区分具体类型的文件头，包括 ZIP、OLE、XML 以及看起来是文本的内容
+     */
+    private static boolean isAmbiguous(byte[] head) {
+        for (byte[] signature : AMBIGUOUS_SIGNATURES) {
+            if (startsWith(head, signature)) return true;
+        }
+        return isText(head);
+    }
+
+    /**
+     * 文件头中没有除了制表符、换行、换页、回车以外的控制字符时认为是文本（包括 UTF-8 等多字节编码的文本），
+     * 文本的具体类型（HTML、JSON、CSV、源代码等）需要根据内容识别
+     */
+    private static boolean isText(byte[] head) {
+        for (byte b : head) {
+            if (b >= 0 && b < 0x20 && b != '\t' && b != '\n' && b != '\f' && b != '\r') return false;
+        }
+        return true;
+    }
+
+    private static boolean startsWith(byte[] head, byte[] signature) {
+        if (head.length < signature.length) return false;
+        for (int i = 0; i < signature.length; i++) {
+            if (head[i] != signature[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 同上，用于不抛出 IOException 的识别方法
+     */
+    private String detectBytes(byte[] bytes, String filename, ByteDetector detector) {
+        try {
+            return detect(bytes == null ? new byte[0] : bytes, filename, (Detector) detector::detect);
+        } catch (IOException e) {
+            // ByteDetector 不会抛出 IOException
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 读取文件头
+     */
+    private static byte[] readHead(InputStream in) throws IOException {
+        byte[] head = new byte[SIGNATURE_LENGTH];
+        int length = 0;
+        while (length < head.length) {
+            int n = in.read(head, length, head.length - length);
+            if (n == -1) break;
+            length += n;
+        }
+        return length == head.length ? head : Arrays.copyOf(head, length);
+    }
+
+    /**
+     * 添加内置的文件头，文件头为偶数长度的十六进制字符串时按十六进制解析，否则按 ASCII 字符串解析
+     * @param contentType MIME 类型
+     * @param exts 对应的扩展名，多个用逗号分隔
+     * @param offsetAndSignatures 偏移量和文件头，需要同时匹配
+     */
+    private static void magic(String contentType, String exts, Object... offsetAndSignatures) {
+        int[] offsets = new int[offsetAndSignatures.length / 2];
+        byte[][] signatures = new byte[offsets.length][];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = (Integer) offsetAndSignatures[i * 2];
+            String signature = (String) offsetAndSignatures[i * 2 + 1];
+            signatures[i] = signature.matches("([0-9A-F]{2})+")
+                    ? HexUtil.decodeHex(signature)
+                    : signature.getBytes(StandardCharsets.ISO_8859_1);
+        }
+        MAGIC_LIST.add(new Magic(contentType, new HashSet<>(StrUtil.split(exts, ',')), offsets, signatures));
+    }
+
+    /**
+     * 内置的文件头
+     */
+    private static class Magic {
+        private final String contentType;
+        private final Set<String> exts;
+        private final int[] offsets;
+        private final byte[][] signatures;
+        /**
+         * 文件头少于 4 个字节并且都是可打印字符时，可能与普通文本的开头相同，只有扩展名一致时才使用
+         */
+        private final boolean requireExt;
+
+        private Magic(String contentType, Set<String> exts, int[] offsets, byte[][] signatures) {
+            this.contentType = contentType;
+            this.exts = exts;
+            this.offsets = offsets;
+            this.signatures = signatures;
+            int length = 0;
+            boolean printable = true;
+            for (byte[] signature : signatures) {
+                length += signature.length;
+                for (byte b : signature) printable &= b >= 0x20 && b < 0x7F;
+            }
+            this.requireExt = length < 4 && printable;
+        }
+
+        /**
+         * 没有扩展名或者扩展名一致，并且文件头全部匹配，文件头太短时必须扩展名一致
+         */
+        private boolean matches(byte[] head, String ext) {
+            if (ext.isEmpty() ? requireExt : !exts.contains(ext)) return false;
+            for (int i = 0; i < offsets.length; i++) {
+                byte[] signature = signatures[i];
+                if (head.length < offsets[i] + signature.length) return false;
+                for (int j = 0; j < signature.length; j++) {
+                    if (head[offsets[i] + j] != signature[j]) return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Detector {
+        String detect() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ByteDetector {
+        String detect();
+    }
+}
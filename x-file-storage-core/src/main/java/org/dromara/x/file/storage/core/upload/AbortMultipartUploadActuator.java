@@ -5,8 +5,10 @@ import org.dromara.x.file.storage.core.FileInfo;
 import org.dromara.x.file.storage.core.FileStorageService;
 import org.dromara.x.file.storage.core.aspect.AbortMultipartUploadAspectChain;
 import org.dromara.x.file.storage.core.aspect.FileStorageAspect;
+import org.dromara.x.file.storage.core.aspect.FileStorageAspectTable;
 import org.dromara.x.file.storage.core.exception.Check;
 import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.platform.FileStorageRegistry;
 import org.dromara.x.file.storage.core.recorder.FileRecorder;
 
 /**
@@ -28,11 +30,20 @@ public class AbortMultipartUploadActuator {
         FileInfo fileInfo = pre.getFileInfo();
         Check.abortMultipartUpload(fileInfo);
 
-        FileStorage fileStorage = fileStorageService.getFileStorageVerify(fileInfo.getPlatform());
+        try (FileStorageRegistry.Lease lease = fileStorageService.acquireFileStorageVerify(fileInfo.getPlatform())) {
+            return execute(fileInfo, lease.getFileStorage());
+        }
+    }
+
+    /**
+     * 在指定的存储平台上执行取消
+     */
+    private FileInfo execute(FileInfo fileInfo, FileStorage fileStorage) {
         CopyOnWriteArrayList<FileStorageAspect> aspectList = fileStorageService.getAspectList();
+        FileStorageAspectTable aspectTable = fileStorageService.getAspectTable(aspectList);
         FileRecorder fileRecorder = fileStorageService.getFileRecorder();
 
-        return new AbortMultipartUploadAspectChain(aspectList, (_pre, _fileStorage, _fileRecorder) -> {
+        return new AbortMultipartUploadAspectChain(aspectTable, (_pre, _fileStorage, _fileRecorder) -> {
                     FileInfo _fileInfo = _pre.getFileInfo();
                     _fileStorage.abortMultipartUpload(_pre);
                     _fileRecorder.deleteFilePartByUploadId(_fileInfo.getUploadId());
@@ -9,9 +9,11 @@ import org.dromara.x.file.storage.core.FileInfo;
 import org.dromara.x.file.storage.core.FileStorageService;
 import org.dromara.x.file.storage.core.aspect.CompleteMultipartUploadAspectChain;
 import org.dromara.x.file.storage.core.aspect.FileStorageAspect;
+import org.dromara.x.file.storage.core.aspect.FileStorageAspectTable;
 import org.dromara.x.file.storage.core.constant.Constant;
 import org.dromara.x.file.storage.core.exception.Check;
 import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.platform.FileStorageRegistry;
 import org.dromara.x.file.storage.core.recorder.FileRecorder;
 import org.dromara.x.file.storage.core.tika.ContentTypeDetect;
 
@@ -33,15 +35,24 @@ public class CompleteMultipartUploadActuator {
     public FileInfo execute() {
         FileInfo fileInfo = pre.getFileInfo();
         Check.completeMultipartUpload(fileInfo);
-        FileStorage fileStorage = fileStorageService.getFileStorageVerify(fileInfo.getPlatform());
+        try (FileStorageRegistry.Lease lease = fileStorageService.acquireFileStorageVerify(fileInfo.getPlatform())) {
+            return execute(fileInfo, lease.getFileStorage());
+        }
+    }
+
+    /**
+     * 在指定的存储平台上执行完成
+     */
+    private FileInfo execute(FileInfo fileInfo, FileStorage fileStorage) {
         fileInfo.setUploadStatus(Constant.FileInfoUploadStatus.COMPLETE);
         CopyOnWriteArrayList<FileStorageAspect> aspectList = fileStorageService.getAspectList();
+        FileStorageAspectTable aspectTable = fileStorageService.getAspectTable(aspectList);
         FileRecorder fileRecorder = fileStorageService.getFileRecorder();
         ContentTypeDetect contentTypeDetect = fileStorageService.getContentTypeDetect();
 
         // 处理切面
         return new CompleteMultipartUploadAspectChain(
-                        aspectList, (_pre, _fileStorage, _fileRecorder, _contentTypeDetect) -> {
+                        aspectTable, (_pre, _fileStorage, _fileRecorder, _contentTypeDetect) -> {
                             FileInfo _fileInfo = _pre.getFileInfo();
                             MultipartUploadSupportInfo supportInfo =
                                     fileStorageService.isSupportMultipartUpload(_fileStorage);
@@ -60,7 +71,7 @@ public class CompleteMultipartUploadActuator {
                             // 文件上传完成，识别文件 ContentType
                             if (StrUtil.isNotBlank(_fileInfo.getContentType())) {
                                 try {
-                                    new Downloader(_fileInfo, aspectList, _fileStorage, Downloader.TARGET_FILE)
+                                    new Downloader(_fileInfo, aspectTable, _fileStorage, Downloader.TARGET_FILE)
                                             .inputStream(in -> {
                                                 try {
                                                     _fileInfo.setContentType(_contentTypeDetect.detect(
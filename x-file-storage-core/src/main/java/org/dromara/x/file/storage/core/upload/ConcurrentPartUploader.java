@@ -0,0 +1,251 @@
+package org.dromara.x.file.storage.core.upload;
+
+import cn.hutool.core.io.IoUtil;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 自动分片上传时使用的并发分片上传器。
+ * 当前线程负责按顺序读取分片数据（保证进度监听及哈希计算的顺序），读取完成的分片交给共享的线程池并发上传，
+ * 每次上传同时上传中的分片数量不超过并发数量，再加上当前线程正在读取的分片，最多会同时占用 (并发数量 + 1) * 分片大小 的内存，
+ * 分片数据优先从 {@link PartBufferPool} 中借用缓冲区保存，上传完成后归还
+ */
+@Slf4j
+public class ConcurrentPartUploader {
+
+    /**
+     * 读取并上传全部分片
+     *
+     * @param in          源
+     * @param pool        分片缓冲池，为 null 时每个分片都重新分配内存
+     * @param executor    共享的分片上传线程池，为 null 时在当前线程中逐个上传
+     * @param partSize    分片大小
+     * @param concurrency 并发数量，小于等于 1 时在当前线程中逐个上传
+     * @param retryTimes  单个分片上传失败后的重试次数，重试时使用已读取的分片数据重新上传
+     * @param uploader    分片上传函数
+     * @return 按分片号从小到大排列的上传结果
+     */
+    public static <T> List<T> upload(
+            InputStream in,
+            PartBufferPool pool,
+            ExecutorService executor,
+            int partSize,
+            int concurrency,
+            int retryTimes,
+            PartUploader<T> uploader)
+            throws Exception {
+        if (executor == null || concurrency <= 1) {
+            List<T> list = new ArrayList<>();
+            int partNumber = 0;
+            while (true) {
+                PartBuffer part = readPart(in, pool, partSize);
+                if (part == null) break;
+                try (PartBuffer ignored = part) {
+                    list.add(uploadPart(++partNumber, part, retryTimes, uploader));
+                }
+            }
+            return list;
+        }
+
+        // 线程池是多个上传共享的，这里通过信号量限制当前这次上传同时提交的分片数量
+        Semaphore semaphore = new Semaphore(concurrency);
+        AtomicReference<Exception> error = new AtomicReference<>();
+        List<Future<T>> futureList = new ArrayList<>();
+        Map<Future<T>, PartTask<T>> taskMap = new IdentityHashMap<>();
+        try {
+            int partNumber = 0;
+            while (error.get() == null) {
+                PartBuffer part = readPart(in, pool, partSize);
+                if (part == null) break;
+                PartTask<T> task = new PartTask<>(++partNumber, part, retryTimes, uploader, semaphore, error);
+                try {
+                    semaphore.acquire();
+                } catch (InterruptedException e) {
+                    part.close();
+                    throw e;
+                }
+                if (error.get() != null) {
+                    part.close();
+                    semaphore.release();
+                    break;
+                }
+                try {
+                    Future<T> future = executor.submit(task);
+                    futureList.add(future);
+                    taskMap.keySet().removeIf(Future::isDone);
+                    taskMap.put(future, task);
+                } catch (RuntimeException e) {
+                    part.close();
+                    semaphore.release();
+                    throw e;
+                }
+            }
+            if (error.get() != null) throw error.get();
+
+            List<T> list = new ArrayList<>(futureList.size());
+            for (Future<T> future : futureList) {
+                try {
+                    list.add(future.get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    throw cause instanceof Exception ? (Exception) cause : e;
+                }
+            }
+            return list;
+        } catch (Exception e) {
+            // 读取分片失败等情况同样通知已开始上传的分片不再重试
+            error.compareAndSet(null, e);
+            throw e;
+        } finally {
+            // 还未开始上传的分片不会再执行，需要在这里取消并归还缓冲区，已开始上传的分片会自行归还
+            List<Future<T>> runningList = new ArrayList<>();
+            taskMap.forEach((future, task) -> {
+                if (task.claim()) {
+                    future.cancel(false);
+                    task.part.close();
+                    semaphore.release();
+                } else {
+                    runningList.add(future);
+                }
+            });
+            // 上传失败后调用者会取消分片上传，需要等待已开始上传的分片全部结束后再返回，
+            // 否则取消后才完成的分片可能会被保留下来（例如 S3），这些分片出错时已经不会再重试
+            for (Future<T> future : runningList) awaitQuietly(future);
+        }
+    }
+
+    /**
+     * 等待分片上传结束，忽略上传的结果及当前线程的中断，等待结束后恢复中断状态
+     */
+    private static void awaitQuietly(Future<?> future) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                future.get();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (ExecutionException | CancellationException e) {
+                break;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * 读取一个分片，读取到末尾时返回 null
+     */
+    private static PartBuffer readPart(InputStream in, PartBufferPool pool, int partSize) throws Exception {
+        if (pool != null) return pool.read(in, partSize);
+        byte[] bytes = IoUtil.readBytes(in, partSize);
+        if (bytes == null || bytes.length == 0) return null;
+        return PartBuffer.of(bytes);
+    }
+
+    /**
+     * 上传单个分片，失败后按照重试次数重新上传
+     */
+    private static <T> T uploadPart(int partNumber, PartBuffer part, int retryTimes, PartUploader<T> uploader)
+            throws Exception {
+        return uploadPart(partNumber, part, retryTimes, uploader, null);
+    }
+
+    /**
+     * 上传单个分片，失败后按照重试次数重新上传，其它分片已经上传失败时不再重试
+     */
+    private static <T> T uploadPart(
+            int partNumber,
+            PartBuffer part,
+            int retryTimes,
+            PartUploader<T> uploader,
+            AtomicReference<Exception> error)
+            throws Exception {
+        for (int i = 0; ; i++) {
+            try {
+                return uploader.upload(partNumber, part);
+            } catch (Exception e) {
+                if (i >= retryTimes || (error != null && error.get() != null)) throw e;
+                log.warn("分片上传失败，正在进行第 {} 次重试，partNumber：{}，{}", i + 1, partNumber, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 提交到线程池中的单个分片上传任务
+     */
+    private static class PartTask<T> implements Callable<T> {
+        private final int partNumber;
+        private final PartBuffer part;
+        private final int retryTimes;
+        private final PartUploader<T> uploader;
+        private final Semaphore semaphore;
+        private final AtomicReference<Exception> error;
+        /**
+         * 任务是否已经被线程池执行或者被取消，用来保证分片缓冲区只会被归还一次
+         */
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private PartTask(
+                int partNumber,
+                PartBuffer part,
+                int retryTimes,
+                PartUploader<T> uploader,
+                Semaphore semaphore,
+                AtomicReference<Exception> error) {
+            this.partNumber = partNumber;
+            this.part = part;
+            this.retryTimes = retryTimes;
+            this.uploader = uploader;
+            this.semaphore = semaphore;
+            this.error = error;
+        }
+
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        @Override
+        public T call() throws Exception {
+            if (!claim()) return null;
+            try {
+                // 其它分片已经上传失败，整个上传都会被取消，不需要再上传
+                if (error.get() != null) return null;
+                return uploadPart(partNumber, part, retryTimes, uploader, error);
+            } catch (Exception e) {
+                error.compareAndSet(null, e);
+                throw e;
+            } finally {
+                part.close();
+                semaphore.release();
+            }
+        }
+    }
+
+    /**
+     * 分片上传函数
+     */
+    @FunctionalInterface
+    public interface PartUploader<T> {
+
+        /**
+         * 上传一个分片，重试时会使用相同的参数再次调用，所以每次调用都需要重新创建请求
+         *
+         * @param partNumber 分片号，从 1 开始
+         * @param part       分片数据，通过 {@link PartBuffer#getInputStream()} 读取，不需要关闭
+         * @return 上传结果，一般是分片的 ETag 信息
+         */
+        T upload(int partNumber, PartBuffer part) throws Exception;
+    }
+}
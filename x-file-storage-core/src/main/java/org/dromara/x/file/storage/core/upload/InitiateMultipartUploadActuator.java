@@ -8,10 +8,12 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import org.dromara.x.file.storage.core.FileInfo;
 import org.dromara.x.file.storage.core.FileStorageService;
 import org.dromara.x.file.storage.core.aspect.FileStorageAspect;
+import org.dromara.x.file.storage.core.aspect.FileStorageAspectTable;
 import org.dromara.x.file.storage.core.aspect.InitiateMultipartUploadAspectChain;
 import org.dromara.x.file.storage.core.constant.Constant;
 import org.dromara.x.file.storage.core.exception.ExceptionFactory;
 import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.platform.FileStorageRegistry;
 import org.dromara.x.file.storage.core.recorder.FileRecorder;
 
 /**
@@ -30,7 +32,15 @@ public class InitiateMultipartUploadActuator {
      * 执行初始化
      */
     public FileInfo execute() {
-        FileStorage fileStorage = fileStorageService.getFileStorageVerify(pre.getPlatform());
+        try (FileStorageRegistry.Lease lease = fileStorageService.acquireFileStorageVerify(pre.getPlatform())) {
+            return execute(lease.getFileStorage());
+        }
+    }
+
+    /**
+     * 在指定的存储平台上执行初始化
+     */
+    private FileInfo execute(FileStorage fileStorage) {
         FileInfo fileInfo = new FileInfo();
         fileInfo.setCreateTime(new Date());
         fileInfo.setSize(pre.getSize());
@@ -55,10 +65,11 @@ public class InitiateMultipartUploadActuator {
         fileInfo.setContentType(pre.getContentType());
 
         CopyOnWriteArrayList<FileStorageAspect> aspectList = fileStorageService.getAspectList();
+        FileStorageAspectTable aspectTable = fileStorageService.getAspectTable(aspectList);
         FileRecorder fileRecorder = fileStorageService.getFileRecorder();
 
         // 处理切面
-        return new InitiateMultipartUploadAspectChain(aspectList, (_fileInfo, _pre, _fileStorage, _fileRecorder) -> {
+        return new InitiateMultipartUploadAspectChain(aspectTable, (_fileInfo, _pre, _fileStorage, _fileRecorder) -> {
                     // 真正开始保存
                     _fileStorage.initiateMultipartUpload(_fileInfo, _pre);
                     try {
@@ -4,9 +4,11 @@ import java.util.ArrayList;
 import java.util.List;
 import org.dromara.x.file.storage.core.FileStorageService;
 import org.dromara.x.file.storage.core.aspect.FileStorageAspect;
+import org.dromara.x.file.storage.core.aspect.FileStorageAspectTable;
 import org.dromara.x.file.storage.core.aspect.ListPartsAspectChain;
 import org.dromara.x.file.storage.core.exception.Check;
 import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.platform.FileStorageRegistry;
 
 /**
  * 手动分片上传-列举已上传的分片执行器
@@ -24,17 +26,19 @@ public class ListPartsActuator {
      * 执行列举已上传的分片
      */
     public FilePartInfoList execute() {
-        return execute(
-                fileStorageService.getFileStorageVerify(pre.getFileInfo().getPlatform()),
-                fileStorageService.getAspectList());
+        try (FileStorageRegistry.Lease lease =
+                fileStorageService.acquireFileStorageVerify(pre.getFileInfo().getPlatform())) {
+            return execute(lease.getFileStorage(), fileStorageService.getAspectList());
+        }
     }
 
     /**
      * 执行列举已上传的分片
      */
     public FilePartInfoList execute(FileStorage fileStorage, List<FileStorageAspect> aspectList) {
+        FileStorageAspectTable aspectTable = fileStorageService.getAspectTable(aspectList);
         Check.listParts(pre.getFileInfo());
-        return new ListPartsAspectChain(aspectList, (_pre, _fileStorage) -> {
+        return new ListPartsAspectChain(aspectTable, (_pre, _fileStorage) -> {
                     MultipartUploadSupportInfo supportInfo = fileStorageService.isSupportMultipartUpload(_fileStorage);
 
                     // 获取对应存储平台每次获取的最大分片数，对象存储一般是 1000
@@ -0,0 +1,158 @@
+package org.dromara.x.file.storage.core.upload;
+
+import cn.hutool.core.io.IoUtil;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 分片缓冲区，保存一个分片的数据，数据可能在堆内存、堆外内存或临时文件中。
+ * 可以多次调用 {@link #getInputStream()} 重复读取（例如重试时），使用完毕后需要关闭以归还缓冲区
+ */
+@Slf4j
+public class PartBuffer implements Closeable {
+    /**
+     * 所属的分片缓冲池，为 null 表示不是从缓冲池中借出的
+     */
+    private final PartBufferPool pool;
+    /**
+     * 内存缓冲区，数据写入临时文件时为 null
+     */
+    private final ByteBuffer buffer;
+    /**
+     * 临时文件，数据在内存中时为 null
+     */
+    private final File file;
+    /**
+     * 分片数据的大小
+     */
+    @Getter
+    private final int size;
+
+    /**
+     * 已打开的临时文件输入流，关闭时一起关闭
+     */
+    private final List<InputStream> fileInputStreamList = new ArrayList<>();
+
+    private boolean closed;
+
+    PartBuffer(PartBufferPool pool, ByteBuffer buffer, File file, int size) {
+        this.pool = pool;
+        this.buffer = buffer;
+        this.file = file;
+        this.size = size;
+    }
+
+    /**
+     * 使用 byte[] 创建一个不属于缓冲池的分片缓冲区
+     */
+    public static PartBuffer of(byte[] bytes) {
+        return new PartBuffer(null, ByteBuffer.wrap(bytes), null, bytes.length);
+    }
+
+    /**
+     * 数据是否已写入临时文件
+     */
+    public boolean isSpilled() {
+        return file != null;
+    }
+
+    /**
+     * 获取一个新的输入流，每次调用都会从头开始读取
+     */
+    public InputStream getInputStream() throws IOException {
+        if (file != null) {
+            synchronized (this) {
+                if (closed) throw new IOException("分片缓冲区已关闭");
+                InputStream in = new BufferedInputStream(new FileInputStream(file));
+                fileInputStreamList.add(in);
+                return in;
+            }
+        }
+        if (buffer.hasArray()) {
+            return new ByteArrayInputStream(buffer.array(), buffer.arrayOffset(), size);
+        }
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(0).limit(size);
+        return new ByteBufferInputStream(duplicate);
+    }
+
+    /**
+     * 归还缓冲区或删除临时文件，重复调用无影响
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        if (file != null) {
+            fileInputStreamList.forEach(IoUtil::close);
+            fileInputStreamList.clear();
+            if (!file.delete() && file.exists()) {
+                log.warn("删除分片临时文件失败：{}", file.getAbsolutePath());
+            }
+            if (pool != null) pool.releaseSpill();
+        } else if (pool != null) {
+            pool.release(buffer);
+        }
+    }
+
+    /**
+     * 读取 ByteBuffer 的输入流，用于堆外内存
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+            // 与 ByteArrayInputStream 一致，没有标记时重置到开头
+            this.buffer.mark();
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skip = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skip);
+            return skip;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+        /**
+         * 支持标记及重置，上传失败重试时 SDK 可以重新读取分片而不用缓存一份副本，标记不受 readLimit 限制
+         */
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int readLimit) {
+            buffer.mark();
+        }
+
+        @Override
+        public synchronized void reset() {
+            buffer.reset();
+        }
+    }
+}
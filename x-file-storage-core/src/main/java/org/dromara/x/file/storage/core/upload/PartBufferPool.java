@@ -0,0 +1,356 @@
+package org.dromara.x.file.storage.core.upload;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.util.StrUtil;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.FileStorageProperties.PartBufferPoolConfig;
+import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
+
+/**
+ * 分片缓冲池，自动分片上传时复用分片缓冲区，避免每个分片都重新分配一块分片大小的内存。
+ * 可以设置全部缓冲区的内存上限，达到上限后会阻塞等待其它分片归还缓冲区，或者将分片写入临时文件
+ */
+@Slf4j
+public class PartBufferPool {
+    /**
+     * 读取数据到堆外内存时使用的中转缓冲区大小
+     */
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    /**
+     * 空闲的缓冲区，按容量分组
+     */
+    private final Map<Integer, Deque<ByteBuffer>> idleMap = new HashMap<>();
+
+    /**
+     * 是否使用堆外内存
+     */
+    @Getter
+    private final boolean direct;
+    /**
+     * 内存上限，小于等于 0 表示不限制
+     */
+    @Getter
+    private final long memoryLimit;
+    /**
+     * 空闲缓冲区最多保留的大小
+     */
+    @Getter
+    private final long maxIdleSize;
+    /**
+     * 内存达到上限时是否写入临时文件
+     */
+    @Getter
+    private final boolean spillToDisk;
+    /**
+     * 临时文件所在目录，为 null 表示系统临时目录
+     */
+    @Getter
+    private final File spillDir;
+
+    private long usedSize;
+    private long idleSize;
+    private int waitingCount;
+    private int spillingCount;
+    private long spillTotalCount;
+
+    public PartBufferPool(PartBufferPoolConfig config) {
+        this(
+                Boolean.TRUE.equals(config.getDirect()),
+                config.getMemoryLimit(),
+                config.getMaxIdleSize(),
+                Boolean.TRUE.equals(config.getSpillToDisk()),
+                StrUtil.isBlank(config.getSpillDir()) ? null : new File(config.getSpillDir()));
+    }
+
+    public PartBufferPool(boolean direct, long memoryLimit, long maxIdleSize, boolean spillToDisk, File spillDir) {
+        this.direct = direct;
+        this.memoryLimit = memoryLimit;
+        this.maxIdleSize = maxIdleSize;
+        this.spillToDisk = spillToDisk;
+        this.spillDir = spillDir;
+    }
+
+    /**
+     * 从输入流中读取一个分片，读取到末尾时返回 null
+     *
+     * @param in       输入流
+     * @param partSize 分片大小
+     */
+    public PartBuffer read(InputStream in, int partSize) throws IOException, InterruptedException {
+        ByteBuffer buffer = acquire(partSize);
+        if (buffer == null) return readToFile(in, partSize);
+        int size;
+        try {
+            size = readFully(in, buffer, partSize);
+        } catch (IOException | RuntimeException e) {
+            release(buffer);
+            throw e;
+        }
+        if (size == 0) {
+            release(buffer);
+            return null;
+        }
+        return new PartBuffer(this, buffer, null, size);
+    }
+
+    /**
+     * 借出一个缓冲区，内存达到上限时等待或返回 null（需要写入临时文件）
+     */
+    private ByteBuffer acquire(int capacity) throws InterruptedException {
+        lock.lock();
+        try {
+            if (memoryLimit > 0 && capacity > memoryLimit) {
+                if (spillToDisk) {
+                    spillingCount++;
+                    spillTotalCount++;
+                    return null;
+                }
+                throw new FileStorageRuntimeException(
+                        StrUtil.format("分片大小 {} 超过了分片缓冲池的内存上限 {}", capacity, memoryLimit));
+            }
+            while (true) {
+                Deque<ByteBuffer> idleList = idleMap.get(capacity);
+                if (idleList != null && !idleList.isEmpty()) {
+                    ByteBuffer buffer = idleList.pop();
+                    idleSize -= capacity;
+                    usedSize += capacity;
+                    buffer.clear();
+                    return buffer;
+                }
+                if (memoryLimit <= 0 || usedSize + idleSize + capacity <= memoryLimit) {
+                    usedSize += capacity;
+                    break;
+                }
+                if (idleSize > 0) {
+                    // 释放其它容量的空闲缓冲区来腾出空间
+                    idleMap.clear();
+                    idleSize = 0;
+                    continue;
+                }
+                if (spillToDisk) {
+                    spillingCount++;
+                    spillTotalCount++;
+                    return null;
+                }
+                waitingCount++;
+                try {
+                    released.await();
+                } finally {
+                    waitingCount--;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        // 在锁外分配内存，分配失败时归还占用的额度
+        try {
+            return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+        } catch (Throwable t) {
+            lock.lock();
+            try {
+                usedSize -= capacity;
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            throw t;
+        }
+    }
+
+    /**
+     * 归还缓冲区
+     */
+    void release(ByteBuffer buffer) {
+        int capacity = buffer.capacity();
+        lock.lock();
+        try {
+            usedSize -= capacity;
+            if (idleSize + capacity <= maxIdleSize) {
+                idleMap.computeIfAbsent(capacity, k -> new ArrayDeque<>()).push(buffer);
+                idleSize += capacity;
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 写入临时文件的分片使用完毕
+     */
+    void releaseSpill() {
+        lock.lock();
+        try {
+            spillingCount--;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 读取数据到缓冲区，直到读满分片大小或读取到末尾，返回读取到的大小
+     */
+    private int readFully(InputStream in, ByteBuffer buffer, int partSize) throws IOException {
+        int size = 0;
+        if (buffer.hasArray()) {
+            byte[] array = buffer.array();
+            int offset = buffer.arrayOffset();
+            while (size < partSize) {
+                int n = in.read(array, offset + size, partSize - size);
+                if (n < 0) break;
+                size += n;
+            }
+        } else {
+            byte[] bytes = new byte[Math.min(COPY_BUFFER_SIZE, partSize)];
+            while (size < partSize) {
+                int n = in.read(bytes, 0, Math.min(bytes.length, partSize - size));
+                if (n < 0) break;
+                buffer.put(bytes, 0, n);
+                size += n;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 读取一个分片到临时文件中
+     */
+    private PartBuffer readToFile(InputStream in, int partSize) throws IOException {
+        File file = null;
+        try {
+            if (spillDir != null) FileUtil.mkdir(spillDir);
+            file = File.createTempFile("x-file-storage-part-", ".tmp", spillDir);
+            long size;
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+                size = IoUtil.copy(new BoundedInputStream(in, partSize), out);
+            }
+            if (size > 0) {
+                log.debug("分片缓冲池内存不足，分片已写入临时文件：{}", file.getAbsolutePath());
+                return new PartBuffer(this, null, file, (int) size);
+            }
+        } catch (IOException | RuntimeException e) {
+            releaseSpill();
+            FileUtil.del(file);
+            throw e;
+        }
+        releaseSpill();
+        FileUtil.del(file);
+        return null;
+    }
+
+    /**
+     * 释放全部空闲的缓冲区
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            idleMap.clear();
+            idleSize = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取正在使用中的缓冲区大小
+     */
+    public long getUsedSize() {
+        lock.lock();
+        try {
+            return usedSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取空闲的缓冲区大小
+     */
+    public long getIdleSize() {
+        lock.lock();
+        try {
+            return idleSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取正在等待缓冲区的线程数量
+     */
+    public int getWaitingCount() {
+        lock.lock();
+        try {
+            return waitingCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取当前写入临时文件中的分片数量
+     */
+    public int getSpillingCount() {
+        lock.lock();
+        try {
+            return spillingCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取累计写入临时文件的分片数量
+     */
+    public long getSpillTotalCount() {
+        lock.lock();
+        try {
+            return spillTotalCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 限制最多读取指定大小的输入流，关闭时不会关闭源输入流
+     */
+    private static class BoundedInputStream extends InputStream {
+        private final InputStream in;
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long size) {
+            this.in = in;
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) return -1;
+            int b = in.read();
+            if (b >= 0) remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            if (remaining <= 0) return -1;
+            int n = in.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) remaining -= n;
+            return n;
+        }
+    }
+}
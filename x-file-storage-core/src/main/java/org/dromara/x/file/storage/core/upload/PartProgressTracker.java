@@ -0,0 +1,54 @@
+package org.dromara.x.file.storage.core.upload;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.dromara.x.file.storage.core.ProgressListener;
+
+/**
+ * 并发分片上传时的总进度统计，按分片记录每次上传尝试已统计的字节数，
+ * 分片重试时先扣除上一次尝试已统计的字节数，避免总进度超过文件大小
+ */
+public class PartProgressTracker {
+    private final ProgressListener listener;
+    private final Long size;
+    private final AtomicLong progressSize = new AtomicLong();
+    private final Map<Integer, AtomicLong> partMap = new ConcurrentHashMap<>();
+
+    /**
+     * @param listener 进度监听器，为 null 时只统计不通知
+     * @param size     文件总大小，未知时为 null
+     */
+    public PartProgressTracker(ProgressListener listener, Long size) {
+        this.listener = listener;
+        this.size = size;
+    }
+
+    /**
+     * 开始一次分片上传尝试，需要在每次调用分片上传函数时最先调用
+     *
+     * @param partNumber 分片号
+     */
+    public void start(int partNumber) {
+        AtomicLong last = partMap.put(partNumber, new AtomicLong());
+        if (last != null) progressSize.addAndGet(-last.get());
+    }
+
+    /**
+     * 当前分片又上传了一部分数据
+     *
+     * @param partNumber 分片号
+     * @param size       本次新上传的字节数
+     */
+    public void progress(int partNumber, long size) {
+        partMap.computeIfAbsent(partNumber, k -> new AtomicLong()).addAndGet(size);
+        ProgressListener.quickProgress(listener, progressSize.addAndGet(size), this.size);
+    }
+
+    /**
+     * 获取当前总进度
+     */
+    public long getProgressSize() {
+        return progressSize.get();
+    }
+}
@@ -0,0 +1,206 @@
+package org.dromara.x.file.storage.core.upload;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import net.coobird.thumbnailator.Thumbnails;
+import net.coobird.thumbnailator.filters.ImageFilter;
+import net.coobird.thumbnailator.util.exif.ExifFilterUtils;
+import net.coobird.thumbnailator.util.exif.ExifUtils;
+import net.coobird.thumbnailator.util.exif.Orientation;
+
+/**
+ * 缩略图解码器，生成缩略图时先从图片头部读取宽高，再通过 {@link ImageReadParam#setSourceSubsampling} 降采样解码，
+ * 只解码接近目标大小的图片，避免将超大图片完整解码到内存中。
+ * 为了保证缩放质量，降采样后的图片至少保留目标大小的 2 倍，无法识别的图片格式使用原来的完整解码方式
+ */
+public class ThumbnailDecoder {
+    /**
+     * 降采样后的图片相对于目标大小至少保留的倍数
+     */
+    private static final int OVERSAMPLING = 2;
+
+    /**
+     * 创建缩略图处理构造器，能降采样解码时使用降采样后的图片，否则使用原图数据
+     * @param source 原图数据
+     * @param width 目标宽度，小于等于 0 表示不降采样
+     * @param height 目标高度，小于等于 0 表示不降采样
+     */
+    public static Thumbnails.Builder<? extends InputStream> of(byte[] source, int width, int height) {
+        BufferedImage image = decode(source, width, height);
+        if (image == null) return Thumbnails.of(new ByteArrayInputStream(source));
+        return of(image);
+    }
+
+    /**
+     * 创建缩略图处理构造器，能降采样解码时直接从流中降采样解码，否则重置流后使用原图数据，
+     * 不会将原图数据读取到内存中，流不支持 mark/reset 时不降采样，操作完成后不会自动关闭流
+     * @param in 原图数据
+     * @param width 目标宽度，小于等于 0 表示不降采样
+     * @param height 目标高度，小于等于 0 表示不降采样
+     */
+    public static Thumbnails.Builder<? extends InputStream> of(InputStream in, int width, int height)
+            throws IOException {
+        BufferedImage image = decodeOrReset(in, width, height);
+        if (image == null) return Thumbnails.of(in);
+        return of(image);
+    }
+
+    /**
+     * Builder 的方法都不依赖来源类型，这里转换后可以直接交给原有的图片处理方法
+     */
+    @SuppressWarnings("unchecked")
+    private static Thumbnails.Builder<? extends InputStream> of(BufferedImage image) {
+        return (Thumbnails.Builder<? extends InputStream>) (Thumbnails.Builder<?>) Thumbnails.of(image);
+    }
+
+    /**
+     * 读取图片，能降采样解码时直接从流中降采样解码，否则重置流后完整解码，两种方式都会按照 EXIF 中的方向旋转图片，
+     * 流不支持 mark/reset 时不降采样，操作完成后不会自动关闭流
+     * @param in 原图数据
+     * @param width 目标宽度，小于等于 0 表示不降采样
+     * @param height 目标高度，小于等于 0 表示不降采样
+     */
+    public static BufferedImage read(InputStream in, int width, int height) throws IOException {
+        BufferedImage image = decodeOrReset(in, width, height);
+        if (image != null) return image;
+        return Thumbnails.of(in).scale(1).asBufferedImage();
+    }
+
+    /**
+     * 按目标大小降采样解码图片，不能降采样时将流重置到解码前的位置并返回 null
+     */
+    private static BufferedImage decodeOrReset(InputStream in, int width, int height) throws IOException {
+        if (width <= 0 || height <= 0 || !in.markSupported()) return null;
+        in.mark(Integer.MAX_VALUE);
+        BufferedImage image = decode(in, width, height);
+        if (image == null) in.reset();
+        return image;
+    }
+
+    /**
+     * 按目标大小降采样解码图片，会按照 EXIF 中的方向旋转图片，图片格式不支持或不需要降采样时返回 null
+     * @param source 原图数据
+     * @param width 目标宽度
+     * @param height 目标高度
+     */
+    public static BufferedImage decode(byte[] source, int width, int height) {
+        return decode(new ByteArrayInputStream(source), width, height);
+    }
+
+    /**
+     * 从流中按目标大小降采样解码图片，会按照 EXIF 中的方向旋转图片，图片格式不支持或不需要降采样时返回 null，
+     * 解码时只缓存 ImageIO 需要回读的数据（开启 ImageIO 缓存时缓存在临时文件中），不会将原图数据读取到内存中，
+     * 返回 null 时流中的数据可能已被读取，操作完成后不会自动关闭流
+     * @param source 原图数据
+     * @param width 目标宽度
+     * @param height 目标高度
+     */
+    public static BufferedImage decode(InputStream source, int width, int height) {
+        if (width <= 0 || height <= 0) return null;
+        try (ImageInputStream in = createImageInputStream(source)) {
+            ImageReader reader = getImageReader(in);
+            if (reader == null) return null;
+            try {
+                reader.setInput(in, true, false);
+                Orientation orientation = ExifUtils.getExifOrientation(reader, 0);
+                // 旋转 90 度的图片，原图的宽对应缩略图的高
+                boolean swap = orientation == Orientation.LEFT_TOP
+                        || orientation == Orientation.RIGHT_TOP
+                        || orientation == Orientation.RIGHT_BOTTOM
+                        || orientation == Orientation.LEFT_BOTTOM;
+                int subsampling = getSubsampling(
+                        reader.getWidth(0), reader.getHeight(0), swap ? height : width, swap ? width : height);
+                if (subsampling <= 1) return null;
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage image = reader.read(0, param);
+                if (orientation != null && orientation != Orientation.TOP_LEFT) {
+                    ImageFilter filter = ExifFilterUtils.getFilterForOrientation(orientation);
+                    image = filter.apply(image);
+                }
+                return image;
+            } finally {
+                reader.dispose();
+            }
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 估算解码图片需要占用的内存，单位字节，按 宽 * 高 * 4 计算，能降采样时按降采样后的大小计算，无法识别时返回 0
+     * @param source 原图数据
+     * @param width 目标宽度，小于等于 0 表示不降采样
+     * @param height 目标高度，小于等于 0 表示不降采样
+     */
+    public static long estimateMemory(byte[] source, int width, int height) {
+        return estimateMemory(new ByteArrayInputStream(source), width, height);
+    }
+
+    /**
+     * 从流中读取图片头部估算解码图片需要占用的内存，单位字节，按 宽 * 高 * 4 计算，能降采样时按降采样后的大小计算，
+     * 无法识别时返回 0，操作完成后不会自动关闭流
+     * @param source 原图数据
+     * @param width 目标宽度，小于等于 0 表示不降采样
+     * @param height 目标高度，小于等于 0 表示不降采样
+     */
+    public static long estimateMemory(InputStream source, int width, int height) {
+        try (ImageInputStream in = createImageInputStream(source)) {
+            ImageReader reader = getImageReader(in);
+            if (reader == null) return 0;
+            try {
+                reader.setInput(in, true, true);
+                int srcWidth = reader.getWidth(0);
+                int srcHeight = reader.getHeight(0);
+                int subsampling = getSubsampling(srcWidth, srcHeight, width, height);
+                long decodeWidth = (srcWidth + subsampling - 1) / subsampling;
+                long decodeHeight = (srcHeight + subsampling - 1) / subsampling;
+                return decodeWidth * decodeHeight * 4;
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 计算降采样的步长，保证降采样后的宽高都不小于目标宽高的 2 倍，
+     * 这样无论是等比缩放还是裁剪都不会损失最终缩略图的清晰度
+     * @param srcWidth 原图宽度
+     * @param srcHeight 原图高度
+     * @param width 目标宽度
+     * @param height 目标高度
+     * @return 步长，1 表示不降采样
+     */
+    public static int getSubsampling(int srcWidth, int srcHeight, int width, int height) {
+        if (width <= 0 || height <= 0 || srcWidth <= 0 || srcHeight <= 0) return 1;
+        int subsampling = Math.min(srcWidth / width, srcHeight / height) / OVERSAMPLING;
+        return Math.max(1, subsampling);
+    }
+
+    /**
+     * 创建 ImageInputStream，内存中的数据直接在内存中缓存，其它的流按 ImageIO 的缓存设置创建，关闭时不会关闭原始的流
+     */
+    private static ImageInputStream createImageInputStream(InputStream in) throws IOException {
+        if (in instanceof ByteArrayInputStream) return new MemoryCacheImageInputStream(in);
+        return ImageIO.createImageInputStream(in);
+    }
+
+    /**
+     * 获取图片格式对应的 ImageReader，不支持时返回 null
+     */
+    private static ImageReader getImageReader(ImageInputStream in) {
+        if (in == null) return null;
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+        return readers.hasNext() ? readers.next() : null;
+    }
+}
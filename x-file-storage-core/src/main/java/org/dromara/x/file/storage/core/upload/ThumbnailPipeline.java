@@ -0,0 +1,335 @@
+package org.dromara.x.file.storage.core.upload;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.coobird.thumbnailator.Thumbnails;
+import org.dromara.x.file.storage.core.FileStorageProperties.ThumbnailConfig;
+import org.dromara.x.file.storage.core.IOExceptionFunction;
+import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
+
+/**
+ * 异步缩略图流水线，缩略图在独立的有界线程池中生成，不占用调用者线程。
+ * 同时解码的图片按 宽 * 高 * 4 估算占用的像素内存（降采样解码时按降采样后的大小计算），达到内存上限后新的任务会等待其它任务完成，
+ * 等待生成的原图数据通过 {@link ThumbnailSource} 保存，超过内存阈值的部分在临时文件中，不会在内存中保留整个原图，
+ * 生成的缩略图由 {@link UploadActuator} 与原文件同时上传
+ */
+@Slf4j
+public class ThumbnailPipeline {
+    /**
+     * 关闭时等待还没有完成的缩略图上传的超时时间，单位毫秒
+     */
+    public static final long CLOSE_TIMEOUT = 30000;
+    /**
+     * 内存许可的单位，1 个许可表示 1KB
+     */
+    private static final int PERMIT_UNIT = 1024;
+    /**
+     * 生成缩略图的线程池
+     */
+    @Getter
+    private final ExecutorService executor;
+    /**
+     * 上传缩略图的线程池，上传是 IO 操作，不占用生成缩略图的线程，为 null 时在生成缩略图的线程中上传
+     */
+    @Getter
+    private final ExecutorService uploadExecutor;
+    /**
+     * 是否由当前对象创建的线程池，关闭时只关闭自己创建的线程池
+     */
+    private final boolean ownExecutor;
+    /**
+     * 像素内存信号量，为 null 表示不限制
+     */
+    private final Semaphore memorySemaphore;
+    /**
+     * 像素内存许可总数
+     */
+    private final int memoryPermits;
+    /**
+     * 是否不等待缩略图上传完成
+     */
+    @Getter
+    private final boolean fireAndForget;
+    /**
+     * 还没有完成的缩略图上传，关闭时等待它们完成
+     */
+    private final Set<CompletableFuture<?>> pendingUploadSet = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 根据配置创建异步缩略图流水线，使用内部创建的生成缩略图线程池
+     * @param config 缩略图配置
+     * @param uploadExecutor 上传缩略图的线程池，关闭时不会被关闭
+     */
+    public ThumbnailPipeline(ThumbnailConfig config, ExecutorService uploadExecutor) {
+        this(config, null, uploadExecutor);
+    }
+
+    /**
+     * 根据配置创建异步缩略图流水线
+     * @param config 缩略图配置
+     * @param executor 生成缩略图的线程池，为 null 时根据配置创建
+     * @param uploadExecutor 上传缩略图的线程池，关闭时不会被关闭
+     */
+    public ThumbnailPipeline(ThumbnailConfig config, ExecutorService executor, ExecutorService uploadExecutor) {
+        if (executor == null) {
+            int poolSize = config.getPoolSize() > 0 ? config.getPoolSize() : Runtime.getRuntime().availableProcessors();
+            BlockingQueue<Runnable> queue = config.getQueueCapacity() > 0
+                    ? new ArrayBlockingQueue<>(config.getQueueCapacity())
+                    : new LinkedBlockingQueue<>();
+            // 队列满了以后在调用者线程中生成，起到限流的作用，线程池关闭后直接拒绝，避免任务被静默丢弃
+            this.executor = new ThreadPoolExecutor(
+                    poolSize,
+                    poolSize,
+                    60,
+                    TimeUnit.SECONDS,
+                    queue,
+                    new NamedThreadFactory("x-file-storage-thumbnail-", true),
+                    (r, e) -> {
+                        if (e.isShutdown()) throw new RejectedExecutionException("缩略图线程池已关闭");
+                        r.run();
+                    });
+            this.ownExecutor = true;
+        } else {
+            this.executor = executor;
+            this.ownExecutor = false;
+        }
+        this.uploadExecutor = uploadExecutor;
+        long memoryLimit = config.getMemoryLimit();
+        if (memoryLimit > 0) {
+            this.memoryPermits = (int) Math.max(1, Math.min(Integer.MAX_VALUE, memoryLimit / PERMIT_UNIT));
+            this.memorySemaphore = new Semaphore(memoryPermits, true);
+        } else {
+            this.memoryPermits = 0;
+            this.memorySemaphore = null;
+        }
+        this.fireAndForget = Boolean.TRUE.equals(config.getFireAndForget());
+    }
+
+    /**
+     * 在生成缩略图的线程池中处理图片，source 完成后才会开始处理，生成完成后会释放原图数据
+     * @param source 原图数据，结果为 null 时直接返回 null
+     * @param format 输出的图片格式
+     * @param width 目标宽度，用于降采样解码，小于等于 0 表示不降采样
+     * @param height 目标高度，用于降采样解码，小于等于 0 表示不降采样
+     * @param consumer 图片处理
+     * @return 生成的缩略图
+     */
+    public CompletableFuture<byte[]> submit(
+            CompletableFuture<ThumbnailSource> source,
+            String format,
+            int width,
+            int height,
+            Consumer<Thumbnails.Builder<? extends InputStream>> consumer) {
+        return submit(source, thSource -> generate(thSource, format, width, height, consumer));
+    }
+
+    /**
+     * 在当前线程中生成缩略图，生成前会先获取原图解码后占用的像素内存
+     */
+    public byte[] generate(
+            byte[] source,
+            String format,
+            int width,
+            int height,
+            Consumer<Thumbnails.Builder<? extends InputStream>> consumer)
+            throws IOException {
+        return generate(ThumbnailSource.of(source), format, width, height, consumer);
+    }
+
+    /**
+     * 在当前线程中生成缩略图，生成前会先获取原图解码后占用的像素内存，
+     * 能降采样时直接从原图数据的流中降采样解码，生成完成后不会释放原图数据
+     */
+    public byte[] generate(
+            ThumbnailSource source,
+            String format,
+            int width,
+            int height,
+            Consumer<Thumbnails.Builder<? extends InputStream>> consumer)
+            throws IOException {
+        int permits = acquire(source, width, height);
+        try (InputStream in = source.openStream()) {
+            Thumbnails.Builder<? extends InputStream> builder = ThumbnailDecoder.of(in, width, height);
+            builder.outputFormat(format);
+            consumer.accept(builder);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            builder.toOutputStream(out);
+            return out.toByteArray();
+        } finally {
+            release(permits);
+        }
+    }
+
+    /**
+     * 在生成缩略图的线程池中生成多规格缩略图，source 完成后才会开始处理，生成完成后会释放原图数据
+     * @param source 原图数据，结果为 null 时直接返回 null
+     * @param defaultFormat 规格未指定后缀时使用的图片格式
+     * @param variantList 规格列表
+     * @return 规格名称与缩略图数据
+     */
+    public CompletableFuture<Map<String, byte[]>> submitVariants(
+            CompletableFuture<ThumbnailSource> source, String defaultFormat, List<ThumbnailVariant> variantList) {
+        int maxWidth = variantList.stream().mapToInt(ThumbnailVariant::getWidth).max().orElse(0);
+        int maxHeight = variantList.stream().mapToInt(ThumbnailVariant::getHeight).max().orElse(0);
+        return submit(source, thSource -> {
+            int permits = acquire(thSource, maxWidth, maxHeight);
+            try (InputStream in = thSource.openStream()) {
+                return ThumbnailVariantGenerator.generate(in, defaultFormat, variantList);
+            } finally {
+                release(permits);
+            }
+        });
+    }
+
+    /**
+     * 在生成缩略图的线程池中处理原图数据，处理完成或者没能处理时都会释放原图数据
+     */
+    private <T> CompletableFuture<T> submit(
+            CompletableFuture<ThumbnailSource> source, IOExceptionFunction<ThumbnailSource, T> task) {
+        CompletableFuture<T> future;
+        try {
+            future = source.thenApplyAsync(
+                    thSource -> {
+                        if (thSource == null) return null;
+                        try {
+                            return task.apply(thSource);
+                        } catch (IOException e) {
+                            throw new CompletionException(e);
+                        } finally {
+                            thSource.release();
+                        }
+                    },
+                    executor);
+        } catch (RuntimeException e) {
+            source.thenAccept(ThumbnailPipeline::releaseSource);
+            throw e;
+        }
+        // 线程池关闭等原因导致任务没有执行时，同样删除原图数据的临时文件
+        future.whenComplete((v, e) -> {
+            if (e != null) source.thenAccept(ThumbnailPipeline::releaseSource);
+        });
+        return future;
+    }
+
+    /**
+     * 释放原图数据
+     */
+    private static void releaseSource(ThumbnailSource source) {
+        if (source != null) source.release();
+    }
+
+    /**
+     * 获取解码图片需要占用的像素内存，返回获取到的许可数量
+     */
+    private int acquire(ThumbnailSource source, int width, int height) {
+        int permits = getPermits(source, width, height);
+        if (permits > 0) {
+            try {
+                memorySemaphore.acquire(permits);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new FileStorageRuntimeException("等待缩略图内存时被中断", e);
+            }
+        }
+        return permits;
+    }
+
+    /**
+     * 归还像素内存
+     */
+    private void release(int permits) {
+        if (permits > 0) memorySemaphore.release(permits);
+    }
+
+    /**
+     * 获取当前正在使用的像素内存，单位字节
+     */
+    public long getUsedMemory() {
+        if (memorySemaphore == null) return 0;
+        return (long) (memoryPermits - memorySemaphore.availablePermits()) * PERMIT_UNIT;
+    }
+
+    /**
+     * 获取正在等待像素内存的任务数量
+     */
+    public int getWaitingCount() {
+        return memorySemaphore == null ? 0 : memorySemaphore.getQueueLength();
+    }
+
+    /**
+     * 计算解码图片需要占用的内存许可，只读取图片头部，超过总数时按总数计算，保证超大图片也能单独处理
+     */
+    private int getPermits(ThumbnailSource source, int width, int height) {
+        if (memorySemaphore == null) return 0;
+        long memory;
+        try (InputStream in = source.openStream()) {
+            memory = ThumbnailDecoder.estimateMemory(in, width, height);
+        } catch (IOException e) {
+            memory = 0;
+        }
+        if (memory <= 0) return 0;
+        return (int) Math.max(1, Math.min(memoryPermits, memory / PERMIT_UNIT));
+    }
+
+    /**
+     * 等待缩略图生成完成
+     */
+    public static byte[] join(CompletableFuture<byte[]> future) {
+        try {
+            return future.join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            if (cause instanceof FileStorageRuntimeException) throw (FileStorageRuntimeException) cause;
+            throw new FileStorageRuntimeException("生成缩略图失败！", cause);
+        }
+    }
+
+    /**
+     * 记录一个还没有完成的缩略图上传，完成后自动移除，关闭时会等待它完成
+     */
+    public void track(CompletableFuture<?> upload) {
+        pendingUploadSet.add(upload);
+        upload.whenComplete((v, e) -> pendingUploadSet.remove(upload));
+    }
+
+    /**
+     * 获取还没有完成的缩略图上传数量
+     */
+    public int getPendingUploadCount() {
+        return pendingUploadSet.size();
+    }
+
+    /**
+     * 关闭线程池，并等待还没有完成的缩略图生成及上传完成（最多等待 {@link #CLOSE_TIMEOUT} 毫秒），
+     * 外部传入的生成缩略图线程池及上传缩略图线程池不会被关闭
+     */
+    public void close() {
+        if (ownExecutor) executor.shutdown();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT);
+        for (CompletableFuture<?> upload : new ArrayList<>(pendingUploadSet)) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                log.warn("等待缩略图上传完成超时，剩余 {} 个上传", pendingUploadSet.size());
+                return;
+            }
+            try {
+                upload.get(remaining, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException | CancellationException | TimeoutException ignored) {
+                // 上传失败已经由上传方处理，超时在下一次循环中记录
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package org.dromara.x.file.storage.core.upload;
+
+import java.io.*;
+import java.nio.file.Files;
+import org.dromara.x.file.storage.core.FileStorageProperties.ReplayableStreamConfig;
+
+/**
+ * 交给异步缩略图流水线的原图数据，原图与原文件同时上传，不能共用原文件的流，所以需要保存一份原图数据。
+ * 不超过内存阈值的原图保存在内存中，超过的写入临时文件，避免等待生成缩略图时在内存中保留整个原图，
+ * 生成完成后调用 {@link #release()} 删除临时文件
+ */
+public class ThumbnailSource {
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * 保存在内存中的原图数据，写入临时文件时为 null
+     */
+    private final byte[] bytes;
+    /**
+     * 保存原图数据的临时文件，保存在内存中时为 null
+     */
+    private volatile File file;
+
+    private ThumbnailSource(byte[] bytes, File file) {
+        this.bytes = bytes;
+        this.file = file;
+    }
+
+    /**
+     * 使用内存中的原图数据，例如已生成的缩略图
+     */
+    public static ThumbnailSource of(byte[] bytes) {
+        return bytes == null ? null : new ThumbnailSource(bytes, null);
+    }
+
+    /**
+     * 从流中读取原图数据，超过内存阈值时写入临时文件，操作完成后不会自动关闭流
+     * @param in 原图数据
+     * @param config 可重复读取的流配置，使用其中的内存阈值及临时文件目录，为 null 时使用默认配置
+     */
+    public static ThumbnailSource of(InputStream in, ReplayableStreamConfig config) throws IOException {
+        if (config == null) config = new ReplayableStreamConfig();
+        int memoryThreshold = (int) Math.max(0, Math.min(config.getMemoryThreshold(), Integer.MAX_VALUE - 8));
+        ByteArrayOutputStream head = new ByteArrayOutputStream(Math.min(memoryThreshold, BUFFER_SIZE));
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int n;
+        while (head.size() <= memoryThreshold) {
+            n = in.read(buffer, 0, (int) Math.min(buffer.length, memoryThreshold + 1L - head.size()));
+            if (n == -1) return new ThumbnailSource(head.toByteArray(), null);
+            head.write(buffer, 0, n);
+        }
+        File tempDir = config.getTempDir() == null ? null : new File(config.getTempDir());
+        File file = File.createTempFile("x-file-storage-thumbnail-", ".tmp", tempDir);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file.toPath()))) {
+            head.writeTo(out);
+            head = null;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (!file.delete()) file.deleteOnExit();
+            throw e;
+        }
+        return new ThumbnailSource(null, file);
+    }
+
+    /**
+     * 打开原图数据的流，支持 mark/reset，并且重置时不需要额外的内存，使用完后需要关闭
+     */
+    public InputStream openStream() throws IOException {
+        if (bytes != null) return new ByteArrayInputStream(bytes);
+        File file = this.file;
+        if (file == null) throw new IOException("缩略图原图数据已释放");
+        return new FileSourceInputStream(new RandomAccessFile(file, "r"));
+    }
+
+    /**
+     * 是否写入了临时文件
+     */
+    public boolean isSpilled() {
+        return bytes == null;
+    }
+
+    /**
+     * 删除临时文件，可以重复调用
+     */
+    public void release() {
+        File file = this.file;
+        this.file = null;
+        if (file != null && !file.delete()) file.deleteOnExit();
+    }
+
+    /**
+     * 读取临时文件的流，通过记录文件位置实现 mark/reset，不会像 BufferedInputStream 一样在内存中保存标记后读取的数据
+     */
+    private static class FileSourceInputStream extends InputStream {
+        private final RandomAccessFile file;
+        private long markPosition;
+
+        private FileSourceInputStream(RandomAccessFile file) {
+            this.file = file;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return file.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return file.read(b, off, len);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            if (n <= 0) return 0;
+            long position = file.getFilePointer();
+            long skip = Math.min(n, file.length() - position);
+            file.seek(position + skip);
+            return skip;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(Integer.MAX_VALUE, file.length() - file.getFilePointer());
+        }
+
+        @Override
+        public synchronized void mark(int readlimit) {
+            try {
+                markPosition = file.getFilePointer();
+            } catch (IOException e) {
+                markPosition = -1;
+            }
+        }
+
+        @Override
+        public synchronized void reset() throws IOException {
+            if (markPosition < 0) throw new IOException("Resetting to invalid mark");
+            file.seek(markPosition);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            file.close();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.dromara.x.file.storage.core.upload;
+
+import java.io.InputStream;
+import java.util.function.Consumer;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+import net.coobird.thumbnailator.Thumbnails;
+
+/**
+ * 多规格缩略图中的一个规格，例如列表图、卡片图、详情图，
+ * 同一张图片的所有规格只解码一次，每个规格都从已生成的最接近的较大规格缩放得到
+ */
+@Data
+@Accessors(chain = true)
+@NoArgsConstructor
+public class ThumbnailVariant {
+    /**
+     * 规格名称，例如 list、card、detail，同一个文件中不能重复
+     */
+    private String name;
+    /**
+     * 宽度
+     */
+    private int width;
+    /**
+     * 高度
+     */
+    private int height;
+    /**
+     * 缩略图后缀，例如【.list.jpg】，为空时使用【.规格名称】加上全局缩略图后缀中的扩展名，
+     * 扩展名部分必须是 thumbnailator 支持的图片格式
+     */
+    private String suffix;
+    /**
+     * 缩放到指定大小后的图片处理，可以继续进行裁剪、水印等操作，为 null 时只进行缩放。
+     * 规格从降采样解码后的中间图缩放得到，图片处理中的坐标（例如 sourceRegion 的裁剪区域）对应中间图而不是原图
+     */
+    private Consumer<Thumbnails.Builder<? extends InputStream>> consumer;
+
+    public ThumbnailVariant(String name, int width, int height) {
+        this.name = name;
+        this.width = width;
+        this.height = height;
+    }
+}
@@ -0,0 +1,125 @@
+package org.dromara.x.file.storage.core.upload;
+
+import cn.hutool.core.io.file.FileNameUtil;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import net.coobird.thumbnailator.Thumbnails;
+
+/**
+ * 多规格缩略图生成器，原图只解码一次（能降采样时按最大的规格降采样解码），
+ * 然后按从大到小的顺序生成各个规格，每个规格都从已生成的最接近的较大中间图缩放得到，
+ * 避免每个规格都重新解码原图或者都从原图缩放
+ */
+public class ThumbnailVariantGenerator {
+
+    /**
+     * 生成多规格缩略图
+     * @param source 原图数据
+     * @param defaultFormat 规格未指定后缀时使用的图片格式
+     * @param variantList 规格列表
+     * @return 规格名称与缩略图数据，顺序与规格列表一致
+     */
+    public static Map<String, byte[]> generate(byte[] source, String defaultFormat, List<ThumbnailVariant> variantList)
+            throws IOException {
+        return generate(new ByteArrayInputStream(source), defaultFormat, variantList);
+    }
+
+    /**
+     * 从流中生成多规格缩略图，能降采样时直接从流中降采样解码，不会将原图数据读取到内存中，
+     * 不能降采样时重置流后完整解码，流不支持 mark/reset 时不降采样，操作完成后不会自动关闭流
+     * @param source 原图数据
+     * @param defaultFormat 规格未指定后缀时使用的图片格式
+     * @param variantList 规格列表
+     * @return 规格名称与缩略图数据，顺序与规格列表一致
+     */
+    public static Map<String, byte[]> generate(
+            InputStream source, String defaultFormat, List<ThumbnailVariant> variantList) throws IOException {
+        int maxWidth = 0;
+        int maxHeight = 0;
+        for (ThumbnailVariant variant : variantList) {
+            maxWidth = Math.max(maxWidth, variant.getWidth());
+            maxHeight = Math.max(maxHeight, variant.getHeight());
+        }
+        BufferedImage base = ThumbnailDecoder.read(source, maxWidth, maxHeight);
+
+        List<ThumbnailVariant> sortedList = new ArrayList<>(variantList);
+        sortedList.sort(Comparator.comparingLong((ThumbnailVariant v) -> (long) v.getWidth() * v.getHeight())
+                .reversed());
+        List<BufferedImage> intermediateList = new ArrayList<>();
+        intermediateList.add(base);
+        Map<String, byte[]> bytesMap = new HashMap<>();
+        for (ThumbnailVariant variant : sortedList) {
+            BufferedImage from = getNearestLarger(intermediateList, variant.getWidth(), variant.getHeight());
+            BufferedImage resized = Thumbnails.of(from)
+                    .size(variant.getWidth(), variant.getHeight())
+                    .asBufferedImage();
+            intermediateList.add(resized);
+
+            Thumbnails.Builder<BufferedImage> builder;
+            if (variant.getConsumer() == null) {
+                builder = Thumbnails.of(resized).scale(1);
+            } else {
+                // 图片处理的结果不能作为中间图，这里从较大的中间图重新缩放
+                builder = Thumbnails.of(from).size(variant.getWidth(), variant.getHeight());
+            }
+            builder.outputFormat(getFormat(variant, defaultFormat));
+            if (variant.getConsumer() != null) variant.getConsumer().accept(cast(builder));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            builder.toOutputStream(out);
+            bytesMap.put(variant.getName(), out.toByteArray());
+        }
+
+        Map<String, byte[]> result = new LinkedHashMap<>();
+        for (ThumbnailVariant variant : variantList) {
+            result.put(variant.getName(), bytesMap.get(variant.getName()));
+        }
+        return result;
+    }
+
+    /**
+     * 获取规格的缩略图后缀
+     * @param variant 规格
+     * @param thumbnailSuffix 全局缩略图后缀
+     */
+    public static String getSuffix(ThumbnailVariant variant, String thumbnailSuffix) {
+        if (variant.getSuffix() != null && !variant.getSuffix().isEmpty()) return variant.getSuffix();
+        return "." + variant.getName() + "." + FileNameUtil.extName(thumbnailSuffix);
+    }
+
+    /**
+     * 获取规格的输出图片格式，未指定后缀时使用默认格式
+     */
+    private static String getFormat(ThumbnailVariant variant, String defaultFormat) {
+        if (variant.getSuffix() != null && !variant.getSuffix().isEmpty()) {
+            return FileNameUtil.extName(variant.getSuffix());
+        }
+        return defaultFormat;
+    }
+
+    /**
+     * 获取宽高都不小于目标大小的中间图中最小的一张，没有时使用最大的一张（即原图）
+     */
+    private static BufferedImage getNearestLarger(List<BufferedImage> intermediateList, int width, int height) {
+        BufferedImage nearest = null;
+        for (BufferedImage image : intermediateList) {
+            if (image.getWidth() < width || image.getHeight() < height) continue;
+            if (nearest == null || (long) image.getWidth() * image.getHeight()
+                    < (long) nearest.getWidth() * nearest.getHeight()) {
+                nearest = image;
+            }
+        }
+        return nearest == null ? intermediateList.get(0) : nearest;
+    }
+
+    /**
+     * Builder 的方法都不依赖来源类型，这里转换后可以直接交给原有的图片处理方法
+     */
+    @SuppressWarnings("unchecked")
+    private static Thumbnails.Builder<? extends InputStream> cast(Thumbnails.Builder<?> builder) {
+        return (Thumbnails.Builder<? extends InputStream>) builder;
+    }
+}
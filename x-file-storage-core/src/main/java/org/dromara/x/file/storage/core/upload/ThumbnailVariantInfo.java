@@ -0,0 +1,33 @@
+package org.dromara.x.file.storage.core.upload;
+
+import java.io.Serializable;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+/**
+ * 多规格缩略图中一个规格的文件信息，与原文件保存在同一个存储路径下
+ */
+@Data
+@Accessors(chain = true)
+@NoArgsConstructor
+public class ThumbnailVariantInfo implements Serializable {
+    /**
+     * 缩略图访问路径
+     */
+    private String url;
+    /**
+     * 缩略图名称
+     */
+    private String filename;
+    /**
+     * 缩略图大小，单位字节
+     */
+    private Long size;
+    /**
+     * 缩略图 MIME 类型
+     */
+    private String contentType;
+
+    private static final long serialVersionUID = 1L;
+}
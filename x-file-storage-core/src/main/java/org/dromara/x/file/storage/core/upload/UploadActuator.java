@@ -1,25 +1,40 @@
 package org.dromara.x.file.storage.core.upload;
 
+import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.io.file.FileNameUtil;
 import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.StrUtil;
-import java.util.Date;
-import java.util.List;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
 import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.FileStorageProperties.ReplayableStreamConfig;
 import org.dromara.x.file.storage.core.FileStorageService;
 import org.dromara.x.file.storage.core.aspect.FileStorageAspect;
+import org.dromara.x.file.storage.core.aspect.FileStorageAspectTable;
 import org.dromara.x.file.storage.core.aspect.UploadAspectChain;
 import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
+import org.dromara.x.file.storage.core.file.ByteFileWrapper;
 import org.dromara.x.file.storage.core.file.FileWrapper;
+import org.dromara.x.file.storage.core.hash.HashCalculatorManager;
 import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.platform.FileStorageRegistry;
 import org.dromara.x.file.storage.core.recorder.FileRecorder;
 
 /**
  * 上传执行器
  */
+@Slf4j
 public class UploadActuator {
     private final FileStorageService fileStorageService;
     private final UploadPretreatment pre;
+    /**
+     * 正在使用的存储平台，单独上传缩略图时会转交给缩略图上传任务，在缩略图全部上传完成后再关闭
+     */
+    private FileStorageRegistry.Lease lease;
 
     /**
      * 通过旧的 UploadPretreatment 构造
@@ -41,16 +56,24 @@ public class UploadActuator {
      * 执行上传
      */
     public FileInfo execute() {
-        return execute(
-                fileStorageService.getFileStorage(pre.getPlatform()),
-                fileStorageService.getFileRecorder(),
-                fileStorageService.getAspectList());
+        // 存储平台不存在时 lease 为 null，由后面的检查抛出异常
+        lease = fileStorageService.getFileStorageRegistry().acquire(pre.getPlatform());
+        try {
+            return execute(
+                    lease == null ? null : lease.getFileStorage(),
+                    fileStorageService.getFileRecorder(),
+                    fileStorageService.getAspectList());
+        } finally {
+            if (lease != null) lease.close();
+            lease = null;
+        }
     }
 
     /**
      * 上传文件，成功返回文件信息，失败返回 null
      */
     public FileInfo execute(FileStorage fileStorage, FileRecorder fileRecorder, List<FileStorageAspect> aspectList) {
+        FileStorageAspectTable aspectTable = fileStorageService.getAspectTable(aspectList);
         if (fileStorage == null)
             throw new FileStorageRuntimeException(StrUtil.format("没有找到对应的存储平台！platform:{}", pre.getPlatform()));
 
@@ -83,6 +106,14 @@ public class UploadActuator {
         fileInfo.setContentType(file.getContentType());
 
         byte[] thumbnailBytes = pre.getThumbnailBytes();
+        CompletableFuture<byte[]> thumbnailFuture = pre.getThumbnailFuture();
+        ThumbnailPipeline thumbnailPipeline = fileStorageService.getThumbnailPipeline();
+        if (thumbnailFuture != null && (thumbnailPipeline == null || !fileStorage.isSupportSeparateThumbnail())) {
+            // 不能单独上传缩略图时，等待缩略图生成完成后随原文件一起上传
+            thumbnailBytes = ThumbnailPipeline.join(thumbnailFuture);
+            pre.setThumbnailBytes(thumbnailBytes);
+            thumbnailFuture = null;
+        }
         if (thumbnailBytes != null) {
             fileInfo.setThSize((long) thumbnailBytes.length);
             if (StrUtil.isNotBlank(pre.getSaveThFilename())) {
@@ -98,8 +129,32 @@ public class UploadActuator {
             }
         }
 
+        // 多规格缩略图，原图只解码一次
+        CompletableFuture<Map<String, byte[]>> variantFuture = null;
+        if (!pre.getThumbnailVariantList().isEmpty()) {
+            if (!fileStorage.isSupportSeparateThumbnail()) {
+                throw new FileStorageRuntimeException(
+                        StrUtil.format("当前存储平台不支持多规格缩略图！platform:{}", pre.getPlatform()));
+            }
+            variantFuture = generateThumbnailVariants(file, thumbnailPipeline);
+        }
+
         // 处理切面
-        return new UploadAspectChain(aspectList, (_fileInfo, _pre, _fileStorage, _fileRecorder) -> {
+        CompletableFuture<byte[]> _thumbnailFuture = thumbnailFuture;
+        CompletableFuture<Map<String, byte[]>> _variantFuture = variantFuture;
+        boolean fireAndForget = thumbnailPipeline != null && thumbnailPipeline.isFireAndForget();
+        return new UploadAspectChain(aspectTable, (_fileInfo, _pre, _fileStorage, _fileRecorder) -> {
+                    if (_thumbnailFuture != null || _variantFuture != null) {
+                        return saveWithSeparateThumbnail(
+                                _fileInfo,
+                                _pre,
+                                _fileStorage,
+                                _fileRecorder,
+                                aspectTable,
+                                _thumbnailFuture,
+                                _variantFuture,
+                                fireAndForget);
+                    }
                     // 真正开始保存
                     if (_fileStorage.save(_fileInfo, _pre)) {
                         _fileInfo.setHashInfo(_pre.getHashCalculatorManager().getHashInfo());
@@ -111,4 +166,249 @@ public class UploadActuator {
                 })
                 .next(fileInfo, pre, fileStorage, fileRecorder);
     }
+
+    /**
+     * 生成多规格缩略图，开启异步生成缩略图时在缩略图线程池中生成，否则在当前线程中直接从原文件的流中生成
+     */
+    private CompletableFuture<Map<String, byte[]>> generateThumbnailVariants(
+            FileWrapper file, ThumbnailPipeline thumbnailPipeline) {
+        List<ThumbnailVariant> variantList = new ArrayList<>(pre.getThumbnailVariantList());
+        String defaultFormat = FileNameUtil.extName(pre.getThumbnailSuffix());
+        CompletableFuture<Map<String, byte[]>> future;
+        try {
+            if (thumbnailPipeline != null) {
+                // 原文件同时在上传，这里保存一份原图数据交给缩略图线程池，超过内存阈值的部分写入临时文件
+                ReplayableStreamConfig config = fileStorageService.getProperties() == null
+                        ? null
+                        : fileStorageService.getProperties().getReplayableStream();
+                ThumbnailSource source = file.getInputStreamMaskResetReturn(in -> ThumbnailSource.of(in, config));
+                future = thumbnailPipeline.submitVariants(
+                        CompletableFuture.completedFuture(source), defaultFormat, variantList);
+            } else {
+                future = CompletableFuture.completedFuture(file.getInputStreamMaskResetReturn(
+                        in -> ThumbnailVariantGenerator.generate(in, defaultFormat, variantList)));
+            }
+        } catch (IOException | RuntimeException e) {
+            if (!pre.isIgnoreThumbnailException()) throw new FileStorageRuntimeException("生成多规格缩略图失败！", e);
+            return CompletableFuture.completedFuture(Collections.emptyMap());
+        }
+        if (pre.isIgnoreThumbnailException()) future = future.exceptionally(e -> Collections.emptyMap());
+        return future;
+    }
+
+    /**
+     * 上传原文件的同时单独上传缩略图及多规格缩略图，
+     * 开启 fireAndForget 时不等待缩略图上传完成，缩略图上传完成后在文件信息的副本上填充缩略图相关的属性并更新记录，
+     * 不会修改已经返回给调用者的文件信息
+     */
+    private FileInfo saveWithSeparateThumbnail(
+            FileInfo fileInfo,
+            UploadPretreatment pre,
+            FileStorage fileStorage,
+            FileRecorder fileRecorder,
+            FileStorageAspectTable aspectTable,
+            CompletableFuture<byte[]> thumbnailFuture,
+            CompletableFuture<Map<String, byte[]>> variantFuture,
+            boolean fireAndForget) {
+        String thName = StrUtil.isNotBlank(pre.getSaveThFilename()) ? pre.getSaveThFilename() : fileInfo.getFilename();
+        CompletableFuture<FileInfo> thUpload = thumbnailFuture == null
+                ? null
+                : uploadThumbnail(
+                        fileInfo,
+                        pre,
+                        fileStorage,
+                        fileRecorder,
+                        aspectTable,
+                        thumbnailFuture,
+                        thName + pre.getThumbnailSuffix(),
+                        pre.getThContentType());
+        Map<String, CompletableFuture<FileInfo>> variantUploadMap = new LinkedHashMap<>();
+        if (variantFuture != null) {
+            for (ThumbnailVariant variant : pre.getThumbnailVariantList()) {
+                String name = variant.getName();
+                String filename = thName + ThumbnailVariantGenerator.getSuffix(variant, pre.getThumbnailSuffix());
+                CompletableFuture<byte[]> bytesFuture = variantFuture.thenApply(map -> map.get(name));
+                variantUploadMap.put(
+                        name,
+                        uploadThumbnail(
+                                fileInfo, pre, fileStorage, fileRecorder, aspectTable, bytesFuture, filename, null));
+            }
+        }
+        List<CompletableFuture<FileInfo>> uploadList = new ArrayList<>(variantUploadMap.values());
+        if (thUpload != null) uploadList.add(thUpload);
+        CompletableFuture<Void> allUpload = CompletableFuture.allOf(uploadList.toArray(new CompletableFuture[0]));
+
+        // 缩略图全部上传完成前存储平台都在使用中，由缩略图上传完成后关闭
+        FileStorageRegistry.Lease uploadLease = lease;
+        lease = null;
+        boolean success = false;
+        FileInfo updateFileInfo = null;
+        try {
+            if (fileStorage.save(fileInfo, pre)) {
+                fileInfo.setHashInfo(pre.getHashCalculatorManager().getHashInfo());
+                if (!fireAndForget) {
+                    try {
+                        allUpload.join();
+                    } catch (Exception e) {
+                        try {
+                            fileStorage.delete(fileInfo);
+                        } catch (Exception ignored) {
+                        }
+                        throw new FileStorageRuntimeException("上传缩略图失败！", e.getCause() == null ? e : e.getCause());
+                    }
+                    setThumbnailInfo(fileInfo, thUpload, variantUploadMap);
+                }
+                if (fileRecorder.save(fileInfo)) {
+                    success = true;
+                    if (fireAndForget) updateFileInfo = BeanUtil.copyProperties(fileInfo, FileInfo.class);
+                    return fileInfo;
+                }
+            }
+            return null;
+        } finally {
+            boolean _success = success;
+            FileInfo _updateFileInfo = updateFileInfo;
+            CompletableFuture<Void> done = allUpload.whenComplete((v, e) -> {
+                try {
+                    if (!_success) {
+                        // 原文件上传失败，删除已经单独上传的缩略图
+                        for (CompletableFuture<FileInfo> upload : uploadList) {
+                            FileInfo thFileInfo = getNow(upload);
+                            if (thFileInfo == null) continue;
+                            try {
+                                fileStorage.delete(thFileInfo);
+                            } catch (Exception ex) {
+                                log.error("删除缩略图失败，文件：{}", thFileInfo.getUrl(), ex);
+                            }
+                        }
+                    } else if (_updateFileInfo != null) {
+                        if (e != null) log.error("上传缩略图失败，文件：{}", _updateFileInfo.getUrl(), e);
+                        if (setThumbnailInfo(_updateFileInfo, thUpload, variantUploadMap)) {
+                            try {
+                                fileRecorder.update(_updateFileInfo);
+                            } catch (Exception ex) {
+                                log.error("更新缩略图信息失败，文件：{}", _updateFileInfo.getUrl(), ex);
+                            }
+                        }
+                    }
+                } finally {
+                    if (uploadLease != null) uploadLease.close();
+                }
+            });
+            // 销毁时等待缩略图上传完成及文件记录更新完成后再关闭存储平台及文件记录者
+            ThumbnailPipeline thumbnailPipeline = fileStorageService.getThumbnailPipeline();
+            if (thumbnailPipeline != null) thumbnailPipeline.track(done);
+        }
+    }
+
+    /**
+     * 在缩略图生成完成后，将缩略图作为一个单独的文件上传，缩略图的存储路径与随原文件一起上传时相同，
+     * 上传时同样会经过上传切面，但缩略图不会单独保存文件记录
+     */
+    private CompletableFuture<FileInfo> uploadThumbnail(
+            FileInfo fileInfo,
+            UploadPretreatment pre,
+            FileStorage fileStorage,
+            FileRecorder fileRecorder,
+            FileStorageAspectTable aspectTable,
+            CompletableFuture<byte[]> thumbnailFuture,
+            String thFilename,
+            String thContentType) {
+        Date createTime = fileInfo.getCreateTime();
+        String platform = fileInfo.getPlatform();
+        String path = fileInfo.getPath();
+        Map<String, String> thMetadata = fileInfo.getThMetadata();
+        Map<String, String> thUserMetadata = fileInfo.getThUserMetadata();
+        Object thFileAcl = fileInfo.getThFileAcl();
+        Function<byte[], FileInfo> upload = bytes -> {
+            if (bytes == null) return null;
+            String contentType = StrUtil.isNotBlank(thContentType)
+                    ? thContentType
+                    : fileStorageService.getContentTypeDetect().detect(bytes, thFilename);
+            FileInfo thFileInfo = new FileInfo();
+            thFileInfo.setCreateTime(createTime);
+            thFileInfo.setSize((long) bytes.length);
+            thFileInfo.setOriginalFilename(thFilename);
+            thFileInfo.setExt(FileNameUtil.getSuffix(thFilename));
+            thFileInfo.setFilename(thFilename);
+            thFileInfo.setContentType(contentType);
+            thFileInfo.setPath(path);
+            thFileInfo.setPlatform(platform);
+            thFileInfo.setMetadata(thMetadata);
+            thFileInfo.setUserMetadata(thUserMetadata);
+            thFileInfo.setFileAcl(thFileAcl);
+
+            UploadPretreatment thPre = new UploadPretreatment(pre);
+            thPre.setFileWrapper(new ByteFileWrapper(bytes, thFilename, contentType, (long) bytes.length));
+            thPre.setThumbnailBytes(null);
+            thPre.setProgressListener(null);
+            thPre.setInputStreamPlus(null);
+            thPre.setHashCalculatorManager(new HashCalculatorManager());
+            thPre.setMetadata(thMetadata);
+            thPre.setUserMetadata(thUserMetadata);
+            thPre.setThMetadata(null);
+            thPre.setThUserMetadata(null);
+            thPre.setFileAcl(thFileAcl);
+            thPre.setThFileAcl(null);
+            FileInfo result = new UploadAspectChain(
+                            aspectTable,
+                            (_fileInfo, _pre, _fileStorage, _fileRecorder) ->
+                                    _fileStorage.save(_fileInfo, _pre) ? _fileInfo : null)
+                    .next(thFileInfo, thPre, fileStorage, fileRecorder);
+            if (result == null) {
+                throw new FileStorageRuntimeException("上传缩略图失败！platform:" + platform);
+            }
+            return result;
+        };
+        ThumbnailPipeline thumbnailPipeline = fileStorageService.getThumbnailPipeline();
+        Executor uploadExecutor = thumbnailPipeline != null && thumbnailPipeline.getUploadExecutor() != null
+                ? thumbnailPipeline.getUploadExecutor()
+                : fileStorageService.getThumbnailUploadExecutor();
+        // 没有上传缩略图的线程池时在生成缩略图的线程中上传
+        if (uploadExecutor == null) return thumbnailFuture.thenApply(upload);
+        return thumbnailFuture.thenApplyAsync(upload, uploadExecutor);
+    }
+
+    /**
+     * 将已经上传成功的缩略图及多规格缩略图信息填充到原文件信息中，有填充时返回 true
+     */
+    private static boolean setThumbnailInfo(
+            FileInfo fileInfo,
+            CompletableFuture<FileInfo> thUpload,
+            Map<String, CompletableFuture<FileInfo>> variantUploadMap) {
+        boolean changed = false;
+        FileInfo thFileInfo = getNow(thUpload);
+        if (thFileInfo != null) {
+            fileInfo.setThUrl(thFileInfo.getUrl());
+            fileInfo.setThFilename(thFileInfo.getFilename());
+            fileInfo.setThSize(thFileInfo.getSize());
+            fileInfo.setThContentType(thFileInfo.getContentType());
+            changed = true;
+        }
+        Map<String, ThumbnailVariantInfo> thVariants = new LinkedHashMap<>();
+        variantUploadMap.forEach((name, upload) -> {
+            FileInfo variantFileInfo = getNow(upload);
+            if (variantFileInfo == null) return;
+            thVariants.put(
+                    name,
+                    new ThumbnailVariantInfo()
+                            .setUrl(variantFileInfo.getUrl())
+                            .setFilename(variantFileInfo.getFilename())
+                            .setSize(variantFileInfo.getSize())
+                            .setContentType(variantFileInfo.getContentType()));
+        });
+        if (!thVariants.isEmpty()) {
+            fileInfo.setThVariants(thVariants);
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * 获取已经上传成功的缩略图信息，未完成或失败时返回 null
+     */
+    private static FileInfo getNow(CompletableFuture<FileInfo> upload) {
+        if (upload == null || !upload.isDone() || upload.isCompletedExceptionally()) return null;
+        return upload.join();
+    }
 }
@@ -4,9 +4,11 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import org.dromara.x.file.storage.core.FileInfo;
 import org.dromara.x.file.storage.core.FileStorageService;
 import org.dromara.x.file.storage.core.aspect.FileStorageAspect;
+import org.dromara.x.file.storage.core.aspect.FileStorageAspectTable;
 import org.dromara.x.file.storage.core.aspect.UploadPartAspectChain;
 import org.dromara.x.file.storage.core.exception.Check;
 import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.platform.FileStorageRegistry;
 import org.dromara.x.file.storage.core.recorder.FileRecorder;
 
 /**
@@ -28,11 +30,20 @@ public class UploadPartActuator {
         FileInfo fileInfo = pre.getFileInfo();
         Check.uploadPart(fileInfo);
 
-        FileStorage fileStorage = fileStorageService.getFileStorageVerify(fileInfo.getPlatform());
+        try (FileStorageRegistry.Lease lease = fileStorageService.acquireFileStorageVerify(fileInfo.getPlatform())) {
+            return execute(fileInfo, lease.getFileStorage());
+        }
+    }
+
+    /**
+     * 在指定的存储平台上执行上传
+     */
+    private FilePartInfo execute(FileInfo fileInfo, FileStorage fileStorage) {
         CopyOnWriteArrayList<FileStorageAspect> aspectList = fileStorageService.getAspectList();
+        FileStorageAspectTable aspectTable = fileStorageService.getAspectTable(aspectList);
         FileRecorder fileRecorder = fileStorageService.getFileRecorder();
 
-        return new UploadPartAspectChain(aspectList, (_pre, _fileStorage, _fileRecorder) -> {
+        return new UploadPartAspectChain(aspectTable, (_pre, _fileStorage, _fileRecorder) -> {
                     FilePartInfo filePartInfo = _fileStorage.uploadPart(_pre);
                     filePartInfo.setHashInfo(_pre.getHashCalculatorManager().getHashInfo());
                     _fileRecorder.saveFilePart(filePartInfo);
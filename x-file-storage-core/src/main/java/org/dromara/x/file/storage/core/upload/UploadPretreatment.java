@@ -1,10 +1,13 @@
 package org.dromara.x.file.storage.core.upload;
 
 import cn.hutool.core.lang.Dict;
+import cn.hutool.core.util.StrUtil;
 import java.io.InputStream;
 import java.security.MessageDigest;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import lombok.Getter;
@@ -14,6 +17,7 @@ import lombok.experimental.Accessors;
 import net.coobird.thumbnailator.Thumbnails;
 import org.dromara.x.file.storage.core.*;
 import org.dromara.x.file.storage.core.aspect.FileStorageAspect;
+import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
 import org.dromara.x.file.storage.core.file.FileWrapper;
 import org.dromara.x.file.storage.core.hash.HashCalculator;
 import org.dromara.x.file.storage.core.hash.HashCalculatorManager;
@@ -29,6 +33,11 @@ import org.dromara.x.file.storage.core.recorder.FileRecorder;
 @Accessors(chain = true)
 public class UploadPretreatment extends org.dromara.x.file.storage.core.UploadPretreatment {
 
+    /**
+     * 多规格缩略图的规格列表，上传时原图只解码一次，然后生成全部规格并与原文件同时上传
+     */
+    private List<ThumbnailVariant> thumbnailVariantList = new ArrayList<>();
+
     /**
      * 通过旧的 UploadPretreatment 创建新的 UploadPretreatment
      */
@@ -38,6 +47,7 @@ public class UploadPretreatment extends org.dromara.x.file.storage.core.UploadPr
         setPlatform(pre.getPlatform());
         setFileWrapper(pre.getFileWrapper());
         setThumbnailBytes(pre.getThumbnailBytes());
+        setThumbnailFuture(pre.getThumbnailFuture());
         setThumbnailSuffix(pre.getThumbnailSuffix());
         setIgnoreThumbnailException(pre.isIgnoreThumbnailException());
         setObjectId(pre.getObjectId());
@@ -196,6 +206,14 @@ public class UploadPretreatment extends org.dromara.x.file.storage.core.UploadPr
         return (UploadPretreatment) super.setThumbnailBytes(thumbnailBytes);
     }
 
+    /**
+     * 异步生成中的缩略图，仅内部使用
+     */
+    @Override
+    protected UploadPretreatment setThumbnailFuture(CompletableFuture<byte[]> thumbnailFuture) {
+        return (UploadPretreatment) super.setThumbnailFuture(thumbnailFuture);
+    }
+
     /**
      * 缩略图后缀，不是扩展名但包含扩展名，例如【.min.jpg】【.png】。
      * 只能在缩略图生成前进行修改后缀中的扩展名部分。
@@ -809,6 +827,17 @@ public class UploadPretreatment extends org.dromara.x.file.storage.core.UploadPr
         return (UploadPretreatment) super.thumbnail(width, height);
     }
 
+    /**
+     * 生成缩略图并缩放到指定大小后再进行图片处理，可以继续进行裁剪、旋转、水印等操作，默认输出图片格式通过 thumbnailSuffix 获取。
+     * 图片处理中的坐标（例如 sourceRegion 的裁剪区域）对应原图，所以这里使用完整解码，
+     * 对超大图片生成缩略图请使用 {@link #thumbnail(int, int)}
+     */
+    @Override
+    public UploadPretreatment thumbnail(
+            int width, int height, Consumer<Thumbnails.Builder<? extends InputStream>> consumer) {
+        return (UploadPretreatment) super.thumbnail(width, height, consumer);
+    }
+
     /**
      * 生成缩略图并缩放到 200*200 大小，默认输出图片格式通过 thumbnailSuffix 获取
      */
@@ -825,6 +854,61 @@ public class UploadPretreatment extends org.dromara.x.file.storage.core.UploadPr
         return (UploadPretreatment) super.thumbnail();
     }
 
+    /**
+     * 添加一个多规格缩略图的规格（如果条件为 true）
+     */
+    public UploadPretreatment thumbnailVariant(boolean flag, String name, int width, int height) {
+        if (flag) thumbnailVariant(name, width, height);
+        return this;
+    }
+
+    /**
+     * 添加一个多规格缩略图的规格，缩略图后缀为【.规格名称】加上全局缩略图后缀中的扩展名，例如【.list.jpg】
+     * <pre class="code">
+     * fileStorageService.of(file)
+     *         .thumbnailVariant("list", 200, 200)
+     *         .thumbnailVariant("card", 480, 320)
+     *         .thumbnailVariant("detail", 1080, 1080)
+     *         .upload();
+     * </pre>
+     * @param name 规格名称，同一个文件中不能重复
+     * @param width 宽度
+     * @param height 高度
+     */
+    public UploadPretreatment thumbnailVariant(String name, int width, int height) {
+        return thumbnailVariant(new ThumbnailVariant(name, width, height));
+    }
+
+    /**
+     * 添加一个多规格缩略图的规格，缩放到指定大小后再进行图片处理，可以继续进行裁剪、水印等操作，
+     * 各个规格从降采样解码后的中间图缩放得到，图片处理中的坐标（例如 sourceRegion 的裁剪区域）对应中间图而不是原图
+     * @param name 规格名称，同一个文件中不能重复
+     * @param width 宽度
+     * @param height 高度
+     * @param consumer 图片处理
+     */
+    public UploadPretreatment thumbnailVariant(
+            String name, int width, int height, Consumer<Thumbnails.Builder<? extends InputStream>> consumer) {
+        return thumbnailVariant(new ThumbnailVariant(name, width, height).setConsumer(consumer));
+    }
+
+    /**
+     * 添加一个多规格缩略图的规格
+     */
+    public UploadPretreatment thumbnailVariant(ThumbnailVariant variant) {
+        if (StrUtil.isBlank(variant.getName())) throw new FileStorageRuntimeException("缩略图规格名称不能为空！");
+        if (variant.getWidth() <= 0 || variant.getHeight() <= 0) {
+            throw new FileStorageRuntimeException("缩略图规格 " + variant.getName() + " 的宽高必须大于 0 ！");
+        }
+        for (ThumbnailVariant item : thumbnailVariantList) {
+            if (item.getName().equals(variant.getName())) {
+                throw new FileStorageRuntimeException("缩略图规格名称重复：" + variant.getName());
+            }
+        }
+        thumbnailVariantList.add(variant);
+        return this;
+    }
+
     /**
      * 设置文件的访问控制列表，一般情况下只有对象存储支持该功能
      */
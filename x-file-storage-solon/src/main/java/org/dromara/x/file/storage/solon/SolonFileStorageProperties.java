@@ -48,6 +48,38 @@ public class SolonFileStorageProperties {
      * 移动时不支持 ACL 时抛出异常
      */
     private Boolean moveNotSupportAclThrowException = true;
+    /**
+     * 自动分片上传时使用的分片缓冲池
+     */
+    private PartBufferPoolConfig partBufferPool = new PartBufferPoolConfig();
+    /**
+     * 缩略图生成配置
+     */
+    private ThumbnailConfig thumbnail = new ThumbnailConfig();
+    /**
+     * 可重复读取的流配置，上传 InputStream、URI、HttpServletRequest 时使用
+     */
+    private ReplayableStreamConfig replayableStream = new ReplayableStreamConfig();
+    /**
+     * 预签名 URL 缓存配置
+     */
+    private PresignedUrlCacheConfig presignedUrlCache = new PresignedUrlCacheConfig();
+    /**
+     * 文件元数据缓存配置
+     */
+    private MetadataCacheConfig metadataCache = new MetadataCacheConfig();
+    /**
+     * 本地日志文件记录者配置
+     */
+    private LogRecorderConfig logRecorder = new LogRecorderConfig();
+    /**
+     * 文件记录延迟批量写入配置
+     */
+    private WriteBehindRecorderConfig writeBehindRecorder = new WriteBehindRecorderConfig();
+    /**
+     * 文件记录缓存配置
+     */
+    private RecorderCacheConfig recorderCache = new RecorderCacheConfig();
     /**
      * 启用 byte[] 文件包装适配器
      */
@@ -182,6 +214,14 @@ public class SolonFileStorageProperties {
         properties.setCopyNotSupportAclThrowException(copyNotSupportAclThrowException);
         properties.setMoveNotSupportMetadataThrowException(moveNotSupportMetadataThrowException);
         properties.setMoveNotSupportAclThrowException(moveNotSupportAclThrowException);
+        properties.setPartBufferPool(partBufferPool);
+        properties.setThumbnail(thumbnail);
+        properties.setReplayableStream(replayableStream);
+        properties.setPresignedUrlCache(presignedUrlCache);
+        properties.setMetadataCache(metadataCache);
+        properties.setLogRecorder(logRecorder);
+        properties.setWriteBehindRecorder(writeBehindRecorder);
+        properties.setRecorderCache(recorderCache);
         properties.setLocal(
                 local.stream().filter(SolonLocalConfig::getEnableStorage).collect(Collectors.toList()));
         properties.setLocalPlus(localPlus.stream()
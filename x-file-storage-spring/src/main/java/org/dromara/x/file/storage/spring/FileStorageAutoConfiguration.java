@@ -49,7 +49,9 @@ public class FileStorageAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean(FileRecorder.class)
     public FileRecorder fileRecorder() {
-        log.warn("没有找到 FileRecorder 的实现类，文件上传之外的部分功能无法正常使用，必须实现该接口才能使用完整功能！");
+        if (!Boolean.TRUE.equals(properties.getLogRecorder().getEnable())) {
+            log.warn("没有找到 FileRecorder 的实现类，文件上传之外的部分功能无法正常使用，必须实现该接口才能使用完整功能！");
+        }
         return new DefaultFileRecorder();
     }
 
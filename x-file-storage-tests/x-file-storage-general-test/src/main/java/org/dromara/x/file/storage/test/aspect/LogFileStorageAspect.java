@@ -4,12 +4,15 @@ import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.util.ArrayUtil;
 import java.io.InputStream;
 import java.util.Date;
+import java.util.List;
 import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
 import org.dromara.x.file.storage.core.FileInfo;
 import org.dromara.x.file.storage.core.UploadPretreatment;
 import org.dromara.x.file.storage.core.aspect.*;
 import org.dromara.x.file.storage.core.copy.CopyPretreatment;
+import org.dromara.x.file.storage.core.delete.DeleteDirPretreatment;
+import org.dromara.x.file.storage.core.delete.DeleteDirResult;
 import org.dromara.x.file.storage.core.get.*;
 import org.dromara.x.file.storage.core.move.MovePretreatment;
 import org.dromara.x.file.storage.core.platform.FileStorage;
@@ -174,6 +177,33 @@ public class LogFileStorageAspect implements FileStorageAspect {
         return res;
     }
 
+    /**
+     * 批量删除文件，返回与传入的文件顺序一致的结果
+     */
+    @Override
+    public List<Boolean> deleteBatchAround(
+            DeleteBatchAspectChain chain,
+            List<FileInfo> fileInfoList,
+            FileStorage fileStorage,
+            FileRecorder fileRecorder) {
+        log.info("批量删除文件 before -> {}", fileInfoList.size());
+        List<Boolean> res = chain.next(fileInfoList, fileStorage, fileRecorder);
+        log.info("批量删除文件 after -> {}", res);
+        return res;
+    }
+
+    /**
+     * 删除目录
+     */
+    @Override
+    public DeleteDirResult deleteDirAround(
+            DeleteDirAspectChain chain, DeleteDirPretreatment pre, FileStorage fileStorage) {
+        log.info("删除目录 before -> {}", pre.getPath());
+        DeleteDirResult res = chain.next(pre, fileStorage);
+        log.info("删除目录 after -> {}", res);
+        return res;
+    }
+
     /**
      * 文件是否存在
      */
@@ -97,6 +97,12 @@ public class FileDetail {
     @TableField(value = "th_content_type")
     private String thContentType;
 
+    /**
+     * 多规格缩略图
+     */
+    @TableField(value = "th_variants")
+    private String thVariants;
+
     /**
      * 文件所属对象id
      */
@@ -191,6 +197,8 @@ public class FileDetail {
 
     public static final String COL_TH_CONTENT_TYPE = "th_content_type";
 
+    public static final String COL_TH_VARIANTS = "th_variants";
+
     public static final String COL_OBJECT_ID = "object_id";
 
     public static final String COL_OBJECT_TYPE = "object_type";
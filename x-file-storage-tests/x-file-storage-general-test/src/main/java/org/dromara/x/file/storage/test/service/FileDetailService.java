@@ -8,12 +8,14 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import lombok.SneakyThrows;
 import org.dromara.x.file.storage.core.FileInfo;
 import org.dromara.x.file.storage.core.hash.HashInfo;
 import org.dromara.x.file.storage.core.recorder.FileRecorder;
 import org.dromara.x.file.storage.core.upload.FilePartInfo;
+import org.dromara.x.file.storage.core.upload.ThumbnailVariantInfo;
 import org.dromara.x.file.storage.test.mapper.FileDetailMapper;
 import org.dromara.x.file.storage.test.model.FileDetail;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -98,13 +100,23 @@ public class FileDetailService extends ServiceImpl<FileDetailMapper, FileDetail>
      */
     public FileDetail toFileDetail(FileInfo info) throws JsonProcessingException {
         FileDetail detail = BeanUtil.copyProperties(
-                info, FileDetail.class, "metadata", "userMetadata", "thMetadata", "thUserMetadata", "attr", "hashInfo");
+                info,
+                FileDetail.class,
+                "metadata",
+                "userMetadata",
+                "thMetadata",
+                "thUserMetadata",
+                "thVariants",
+                "attr",
+                "hashInfo");
 
         // 这里手动获 元数据 并转成 json 字符串，方便存储在数据库中
         detail.setMetadata(valueToJson(info.getMetadata()));
         detail.setUserMetadata(valueToJson(info.getUserMetadata()));
         detail.setThMetadata(valueToJson(info.getThMetadata()));
         detail.setThUserMetadata(valueToJson(info.getThUserMetadata()));
+        // 这里手动获 多规格缩略图 并转成 json 字符串，方便存储在数据库中
+        detail.setThVariants(valueToJson(info.getThVariants()));
         // 这里手动获 取附加属性字典 并转成 json 字符串，方便存储在数据库中
         detail.setAttr(valueToJson(info.getAttr()));
         // 这里手动获 哈希信息 并转成 json 字符串，方便存储在数据库中
@@ -117,13 +129,23 @@ public class FileDetailService extends ServiceImpl<FileDetailMapper, FileDetail>
      */
     public FileInfo toFileInfo(FileDetail detail) throws JsonProcessingException {
         FileInfo info = BeanUtil.copyProperties(
-                detail, FileInfo.class, "metadata", "userMetadata", "thMetadata", "thUserMetadata", "attr", "hashInfo");
+                detail,
+                FileInfo.class,
+                "metadata",
+                "userMetadata",
+                "thMetadata",
+                "thUserMetadata",
+                "thVariants",
+                "attr",
+                "hashInfo");
 
         // 这里手动获取数据库中的 json 字符串 并转成 元数据，方便使用
         info.setMetadata(jsonToMetadata(detail.getMetadata()));
         info.setUserMetadata(jsonToMetadata(detail.getUserMetadata()));
         info.setThMetadata(jsonToMetadata(detail.getThMetadata()));
         info.setThUserMetadata(jsonToMetadata(detail.getThUserMetadata()));
+        // 这里手动获取数据库中的 json 字符串 并转成 多规格缩略图，方便使用
+        info.setThVariants(jsonToThVariants(detail.getThVariants()));
         // 这里手动获取数据库中的 json 字符串 并转成 附加属性字典，方便使用
         info.setAttr(jsonToDict(detail.getAttr()));
         // 这里手动获取数据库中的 json 字符串 并转成 哈希信息，方便使用
@@ -147,6 +169,14 @@ public class FileDetailService extends ServiceImpl<FileDetailMapper, FileDetail>
         return objectMapper.readValue(json, new TypeReference<Map<String, String>>() {});
     }
 
+    /**
+     * 将 json 字符串转换成多规格缩略图
+     */
+    public Map<String, ThumbnailVariantInfo> jsonToThVariants(String json) throws JsonProcessingException {
+        if (StrUtil.isBlank(json)) return null;
+        return objectMapper.readValue(json, new TypeReference<LinkedHashMap<String, ThumbnailVariantInfo>>() {});
+    }
+
     /**
      * 将 json 字符串转换成字典对象
      */
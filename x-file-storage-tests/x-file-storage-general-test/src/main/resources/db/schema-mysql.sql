@@ -22,6 +22,7 @@ CREATE TABLE `file_detail`
     `th_filename`       varchar(256) DEFAULT NULL COMMENT '缩略图名称',
     `th_size`           bigint(20)   DEFAULT NULL COMMENT '缩略图大小，单位字节',
     `th_content_type`   varchar(128) DEFAULT NULL COMMENT '缩略图MIME类型',
+    `th_variants`       text COMMENT '多规格缩略图',
     `object_id`         varchar(32)  DEFAULT NULL COMMENT '文件所属对象id',
     `object_type`       varchar(32)  DEFAULT NULL COMMENT '文件所属对象类型，例如用户头像，评价图片',
     `metadata`          text COMMENT '文件元数据',
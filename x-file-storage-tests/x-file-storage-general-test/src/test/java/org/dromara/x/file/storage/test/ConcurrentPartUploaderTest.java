@@ -0,0 +1,111 @@
+package org.dromara.x.file.storage.test;
+
+import cn.hutool.core.lang.Assert;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
+import org.dromara.x.file.storage.core.upload.ConcurrentPartUploader;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 并发分片上传器测试类
+ */
+@Slf4j
+public class ConcurrentPartUploaderTest {
+    private static final int PART_SIZE = 1024;
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(4);
+
+    @AfterAll
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+
+    /**
+     * 全部分片上传成功时按分片号返回结果
+     */
+    @Test
+    public void testUpload() throws Exception {
+        InputStream in = new ByteArrayInputStream(new byte[PART_SIZE * 10 + 1]);
+        List<Integer> list = ConcurrentPartUploader.upload(
+                in, null, EXECUTOR, PART_SIZE, 4, 0, (partNumber, part) -> partNumber);
+        Assert.isTrue(list.size() == 11, "分片数量错误：{}", list.size());
+        for (int i = 0; i < list.size(); i++) {
+            Assert.isTrue(list.get(i) == i + 1, "分片顺序错误：{}", list);
+        }
+    }
+
+    /**
+     * 分片上传失败时，等待已开始上传的分片全部结束后再抛出异常，返回后不会再有分片上传
+     */
+    @Test
+    public void testWaitRunningPartsOnFailure() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicBoolean returned = new AtomicBoolean();
+        AtomicInteger lateCount = new AtomicInteger();
+        InputStream in = new ByteArrayInputStream(new byte[PART_SIZE * 20]);
+        try {
+            ConcurrentPartUploader.upload(in, null, EXECUTOR, PART_SIZE, 4, 1, (partNumber, part) -> {
+                if (returned.get()) lateCount.incrementAndGet();
+                running.incrementAndGet();
+                try {
+                    if (partNumber == 2) throw new FileStorageRuntimeException("模拟分片上传失败");
+                    TimeUnit.MILLISECONDS.sleep(200);
+                    return partNumber;
+                } finally {
+                    running.decrementAndGet();
+                    if (returned.get()) lateCount.incrementAndGet();
+                }
+            });
+            Assert.isTrue(false, "分片上传失败时没有抛出异常");
+        } catch (FileStorageRuntimeException e) {
+            log.info("分片上传失败：{}", e.getMessage());
+        }
+        returned.set(true);
+        Assert.isTrue(running.get() == 0, "返回时还有 {} 个分片正在上传", running.get());
+        TimeUnit.MILLISECONDS.sleep(500);
+        Assert.isTrue(lateCount.get() == 0, "返回后还有分片在上传");
+    }
+
+    /**
+     * 读取分片失败时，同样等待已开始上传的分片全部结束后再抛出异常
+     */
+    @Test
+    public void testWaitRunningPartsOnReadFailure() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        InputStream in = new InputStream() {
+            private int count;
+
+            @Override
+            public int read() throws IOException {
+                if (++count > PART_SIZE * 3) throw new IOException("模拟读取失败");
+                return 0;
+            }
+        };
+        boolean failed = false;
+        try {
+            ConcurrentPartUploader.upload(in, null, EXECUTOR, PART_SIZE, 4, 0, (partNumber, part) -> {
+                running.incrementAndGet();
+                try {
+                    TimeUnit.MILLISECONDS.sleep(300);
+                    return partNumber;
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+        } catch (Exception e) {
+            failed = true;
+            log.info("读取分片失败：{}", e.getMessage());
+        }
+        Assert.isTrue(failed, "读取分片失败时没有抛出异常");
+        Assert.isTrue(running.get() == 0, "返回时还有 {} 个分片正在上传", running.get());
+    }
+}
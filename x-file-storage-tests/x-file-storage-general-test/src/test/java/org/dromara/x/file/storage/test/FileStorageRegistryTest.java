@@ -0,0 +1,168 @@
+package org.dromara.x.file.storage.test;
+
+import cn.hutool.core.lang.Assert;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.UploadPretreatment;
+import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.platform.FileStorageRegistry;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 存储平台注册表测试类
+ */
+@Slf4j
+public class FileStorageRegistryTest {
+
+    /**
+     * 只记录是否已释放资源的存储平台
+     */
+    private static class TestFileStorage implements FileStorage {
+        private String platform;
+        private final CountDownLatch closedLatch = new CountDownLatch(1);
+
+        private TestFileStorage(String platform) {
+            this.platform = platform;
+        }
+
+        private boolean isClosed() {
+            return closedLatch.getCount() == 0;
+        }
+
+        private boolean awaitClosed(long timeout) throws InterruptedException {
+            return closedLatch.await(timeout, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public String getPlatform() {
+            return platform;
+        }
+
+        @Override
+        public void setPlatform(String platform) {
+            this.platform = platform;
+        }
+
+        @Override
+        public boolean save(FileInfo fileInfo, UploadPretreatment pre) {
+            return true;
+        }
+
+        @Override
+        public boolean delete(FileInfo fileInfo) {
+            return true;
+        }
+
+        @Override
+        public boolean exists(FileInfo fileInfo) {
+            return true;
+        }
+
+        @Override
+        public void download(FileInfo fileInfo, Consumer<InputStream> consumer) {}
+
+        @Override
+        public void downloadTh(FileInfo fileInfo, Consumer<InputStream> consumer) {}
+
+        @Override
+        public void close() {
+            closedLatch.countDown();
+        }
+    }
+
+    /**
+     * 没有正在进行的操作时，替换后立即释放资源
+     */
+    @Test
+    public void testReplaceWithoutInFlight() {
+        FileStorageRegistry registry = new FileStorageRegistry();
+        TestFileStorage old = new TestFileStorage("test");
+        registry.add(old);
+        TestFileStorage current = new TestFileStorage("test");
+        Assert.isTrue(registry.replace(current) == old, "返回的被替换的存储平台错误");
+        Assert.isTrue(old.isClosed(), "没有正在进行的操作时没有立即释放资源");
+        Assert.isTrue(registry.get("test") == current, "替换后获取到的存储平台错误");
+        registry.closeAll();
+        Assert.isTrue(current.isClosed(), "closeAll 没有释放资源");
+    }
+
+    /**
+     * 正在使用中的存储平台被替换后，等待 Lease 关闭后再释放资源
+     */
+    @Test
+    public void testReplaceWhileInFlight() throws InterruptedException {
+        FileStorageRegistry registry = new FileStorageRegistry();
+        TestFileStorage old = new TestFileStorage("test");
+        registry.add(old);
+        FileStorageRegistry.Lease lease = registry.acquire("test");
+        Assert.isTrue(lease.getFileStorage() == old, "获取到的存储平台错误");
+
+        TestFileStorage current = new TestFileStorage("test");
+        registry.replace(current);
+        FileStorageRegistry.Lease newLease = registry.acquire("test");
+        Assert.isTrue(newLease.getFileStorage() == current, "替换后获取到的存储平台错误");
+        newLease.close();
+        Assert.isFalse(old.awaitClosed(200), "还有正在进行的操作时释放了资源");
+
+        lease.close();
+        Assert.isTrue(old.awaitClosed(5000), "Lease 关闭后没有释放资源");
+        Assert.isFalse(current.isClosed(), "新的存储平台不应该被释放");
+        registry.closeAll();
+    }
+
+    /**
+     * 正在使用中的存储平台被替换后，Lease 一直不关闭时在 drainTimeout 后释放资源
+     */
+    @Test
+    public void testReplaceDrainTimeout() throws InterruptedException {
+        FileStorageRegistry registry = new FileStorageRegistry();
+        registry.setDrainTimeout(300);
+        TestFileStorage old = new TestFileStorage("test");
+        registry.add(old);
+        FileStorageRegistry.Lease lease = registry.acquire("test");
+
+        long start = System.nanoTime();
+        registry.remove("test");
+        Assert.isNull(registry.acquire("test"), "移除后还能获取到存储平台");
+        Assert.isFalse(old.awaitClosed(100), "还有正在进行的操作时释放了资源");
+        Assert.isTrue(old.awaitClosed(5000), "超过 drainTimeout 后没有释放资源");
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assert.isTrue(elapsed >= 300, "在 drainTimeout 之前释放了资源：{}ms", elapsed);
+
+        // 超时释放后再关闭 Lease 不会重复释放，也不会出错
+        lease.close();
+        registry.closeAll();
+    }
+
+    /**
+     * closeAll 会等待被替换的存储平台正在进行的操作完成，最多等待 drainTimeout
+     */
+    @Test
+    public void testCloseAllWaitsRetiring() throws InterruptedException {
+        FileStorageRegistry registry = new FileStorageRegistry();
+        registry.setDrainTimeout(5000);
+        TestFileStorage old = new TestFileStorage("test");
+        registry.add(old);
+        FileStorageRegistry.Lease lease = registry.acquire("test");
+        registry.replace(new TestFileStorage("test"));
+
+        Thread thread = new Thread(() -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(200);
+            } catch (InterruptedException ignored) {
+            }
+            lease.close();
+        });
+        thread.start();
+        long start = System.nanoTime();
+        registry.closeAll();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assert.isTrue(old.isClosed(), "closeAll 后被替换的存储平台没有释放资源");
+        Assert.isTrue(elapsed >= 100 && elapsed < 5000, "closeAll 没有等待正在进行的操作完成：{}ms", elapsed);
+        thread.join();
+    }
+}
@@ -6,15 +6,23 @@ import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.lang.Assert;
 import cn.hutool.crypto.SecureUtil;
 import java.io.InputStream;
-import java.util.Date;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
 import org.dromara.x.file.storage.core.Downloader;
 import org.dromara.x.file.storage.core.FileInfo;
 import org.dromara.x.file.storage.core.FileStorageService;
 import org.dromara.x.file.storage.core.ProgressListener;
+import org.dromara.x.file.storage.core.UploadPretreatment;
 import org.dromara.x.file.storage.core.constant.Constant;
 import org.dromara.x.file.storage.core.hash.HashInfo;
 import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.recorder.BatchFileRecorder;
+import org.dromara.x.file.storage.core.recorder.FileRecorder;
+import org.dromara.x.file.storage.core.upload.FilePartInfo;
+import org.dromara.x.file.storage.core.upload.ThumbnailVariantInfo;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -187,6 +195,224 @@ class FileStorageServiceBaseTest {
         log.info("文件删除成功：{}", fileInfo);
     }
 
+    /**
+     * 保存在内存中的存储平台，记录每次批量删除的数量，可以指定删除失败的文件全路径
+     */
+    private static class MemoryFileStorage implements FileStorage {
+        private String platform;
+        private final boolean supportDeleteBatch;
+        private final Set<String> keySet = ConcurrentHashMap.newKeySet();
+        private final Set<String> failedKeySet = ConcurrentHashMap.newKeySet();
+        private final List<Integer> batchSizeList = new CopyOnWriteArrayList<>();
+
+        private MemoryFileStorage(String platform, boolean supportDeleteBatch) {
+            this.platform = platform;
+            this.supportDeleteBatch = supportDeleteBatch;
+        }
+
+        @Override
+        public String getPlatform() {
+            return platform;
+        }
+
+        @Override
+        public void setPlatform(String platform) {
+            this.platform = platform;
+        }
+
+        @Override
+        public boolean save(FileInfo fileInfo, UploadPretreatment pre) {
+            return true;
+        }
+
+        private boolean deleteKey(String key) {
+            if (failedKeySet.contains(key)) return false;
+            keySet.remove(key);
+            return true;
+        }
+
+        @Override
+        public boolean delete(FileInfo fileInfo) {
+            String thKey = getThFileKey(fileInfo);
+            boolean success = deleteKey(getFileKey(fileInfo));
+            return (thKey == null || deleteKey(thKey)) && success;
+        }
+
+        @Override
+        public boolean isSupportDeleteBatch() {
+            return supportDeleteBatch;
+        }
+
+        @Override
+        public int getDeleteBatchMaxSize() {
+            return 2;
+        }
+
+        @Override
+        public Set<String> deleteBatch(List<String> fileKeyList) {
+            batchSizeList.add(fileKeyList.size());
+            Set<String> failedSet = new HashSet<>();
+            for (String key : fileKeyList) {
+                if (!deleteKey(key)) failedSet.add(key);
+            }
+            return failedSet;
+        }
+
+        @Override
+        public boolean exists(FileInfo fileInfo) {
+            return keySet.contains(getFileKey(fileInfo));
+        }
+
+        @Override
+        public void download(FileInfo fileInfo, Consumer<InputStream> consumer) {}
+
+        @Override
+        public void downloadTh(FileInfo fileInfo, Consumer<InputStream> consumer) {}
+    }
+
+    /**
+     * 保存在内存中的文件记录者，记录每次批量删除的 url
+     */
+    private static class MemoryFileRecorder implements BatchFileRecorder {
+        private final Map<String, FileInfo> fileInfoMap = new ConcurrentHashMap<>();
+        private final List<List<String>> deleteBatchList = new CopyOnWriteArrayList<>();
+
+        @Override
+        public boolean save(FileInfo fileInfo) {
+            fileInfoMap.put(fileInfo.getUrl(), fileInfo);
+            return true;
+        }
+
+        @Override
+        public void update(FileInfo fileInfo) {
+            fileInfoMap.put(fileInfo.getUrl(), fileInfo);
+        }
+
+        @Override
+        public FileInfo getByUrl(String url) {
+            return fileInfoMap.get(url);
+        }
+
+        @Override
+        public boolean delete(String url) {
+            return fileInfoMap.remove(url) != null;
+        }
+
+        @Override
+        public void deleteBatch(List<String> urlList) {
+            deleteBatchList.add(new ArrayList<>(urlList));
+            for (String url : urlList) fileInfoMap.remove(url);
+        }
+
+        @Override
+        public void saveFilePart(FilePartInfo filePartInfo) {}
+
+        @Override
+        public void deleteFilePartByUploadId(String uploadId) {}
+    }
+
+    /**
+     * 在内存存储平台及文件记录者中创建一个文件，包含缩略图，variantCount 大于 0 时包含多规格缩略图
+     */
+    private FileInfo createMemoryFile(
+            MemoryFileStorage storage, MemoryFileRecorder recorder, String name, int variantCount) {
+        FileInfo fileInfo = new FileInfo("base/", "test/", name + ".jpg")
+                .setPlatform(storage.getPlatform())
+                .setUrl("https://example.com/" + storage.getPlatform() + "/test/" + name + ".jpg")
+                .setThFilename(name + ".min.jpg");
+        storage.keySet.add(storage.getFileKey(fileInfo));
+        storage.keySet.add(storage.getThFileKey(fileInfo));
+        if (variantCount > 0) {
+            Map<String, ThumbnailVariantInfo> variants = new LinkedHashMap<>();
+            for (int i = 0; i < variantCount; i++) {
+                ThumbnailVariantInfo variant = new ThumbnailVariantInfo().setFilename(name + ".v" + i + ".jpg");
+                variants.put("v" + i, variant);
+                FileInfo variantFileInfo = fileStorageService.getThumbnailVariantFileInfo(fileInfo, variant);
+                storage.keySet.add(storage.getFileKey(variantFileInfo));
+            }
+            fileInfo.setThVariants(variants);
+        }
+        recorder.save(fileInfo);
+        return fileInfo;
+    }
+
+    /**
+     * 测试批量删除文件，按存储平台分组，支持批量删除的存储平台按 getDeleteBatchMaxSize 分批删除，
+     * 多规格缩略图删除失败时不删除文件记录，成功的文件记录通过 BatchFileRecorder.deleteBatch 批量删除
+     */
+    @Test
+    public void deleteBatch() {
+        MemoryFileStorage batchStorage = new MemoryFileStorage("delete-batch-test-1", true);
+        MemoryFileStorage oneByOneStorage = new MemoryFileStorage("delete-batch-test-2", false);
+        MemoryFileRecorder recorder = new MemoryFileRecorder();
+        FileRecorder oldRecorder = fileStorageService.getFileRecorder();
+        fileStorageService.addFileStorage(batchStorage);
+        fileStorageService.addFileStorage(oneByOneStorage);
+        fileStorageService.setFileRecorder(recorder);
+        try {
+            FileInfo a1 = createMemoryFile(batchStorage, recorder, "a1", 0);
+            FileInfo a2 = createMemoryFile(batchStorage, recorder, "a2", 2);
+            FileInfo a3 = createMemoryFile(batchStorage, recorder, "a3", 2);
+            FileInfo b1 = createMemoryFile(oneByOneStorage, recorder, "b1", 1);
+            FileInfo b2 = createMemoryFile(oneByOneStorage, recorder, "b2", 1);
+            FileInfo c1 = new FileInfo("base/", "test/", "c1.jpg")
+                    .setPlatform("delete-batch-test-not-exists")
+                    .setUrl("https://example.com/not-exists/c1.jpg");
+            // 每个平台各有一个多规格缩略图删除失败
+            batchStorage.failedKeySet.add(batchStorage.getFileKey(
+                    fileStorageService.getThumbnailVariantFileInfo(a3, a3.getThVariants().get("v1"))));
+            oneByOneStorage.failedKeySet.add(oneByOneStorage.getFileKey(
+                    fileStorageService.getThumbnailVariantFileInfo(b2, b2.getThVariants().get("v0"))));
+
+            List<Boolean> resultList = fileStorageService.deleteBatch(Arrays.asList(b1, a1, null, a2, c1, a3, b2));
+            log.info("批量删除文件结果：{}", resultList);
+            Assert.isTrue(
+                    resultList.equals(Arrays.asList(true, true, true, true, false, false, false)),
+                    "批量删除文件的结果错误：{}",
+                    resultList);
+
+            // a1 2 个，a2 4 个，a3 4 个，共 10 个文件全路径，每批最多 2 个
+            Assert.isTrue(
+                    batchStorage.batchSizeList.equals(Arrays.asList(2, 2, 2, 2, 2)),
+                    "没有按 getDeleteBatchMaxSize 分批删除：{}",
+                    batchStorage.batchSizeList);
+            Assert.isTrue(oneByOneStorage.batchSizeList.isEmpty(), "不支持批量删除的存储平台不应该调用批量删除");
+            Assert.isTrue(
+                    batchStorage.keySet.equals(Collections.singleton(batchStorage.getFileKey(
+                            fileStorageService.getThumbnailVariantFileInfo(a3, a3.getThVariants().get("v1"))))),
+                    "存储平台中残留的文件错误：{}",
+                    batchStorage.keySet);
+
+            // 每个存储平台批量删除一次文件记录，删除失败的文件保留文件记录
+            Assert.isTrue(
+                    recorder.deleteBatchList.size() == 2, "没有按存储平台批量删除文件记录：{}", recorder.deleteBatchList);
+            Set<String> deletedUrlSet = new HashSet<>();
+            recorder.deleteBatchList.forEach(deletedUrlSet::addAll);
+            Assert.isTrue(
+                    deletedUrlSet.equals(new HashSet<>(Arrays.asList(a1.getUrl(), a2.getUrl(), b1.getUrl()))),
+                    "批量删除的文件记录错误：{}",
+                    deletedUrlSet);
+            Assert.isTrue(
+                    recorder.fileInfoMap.keySet().equals(new HashSet<>(Arrays.asList(a3.getUrl(), b2.getUrl()))),
+                    "保留的文件记录错误：{}",
+                    recorder.fileInfoMap.keySet());
+
+            // 修复后根据 url 重新删除
+            batchStorage.failedKeySet.clear();
+            oneByOneStorage.failedKeySet.clear();
+            resultList = fileStorageService.deleteBatchByUrl(Arrays.asList(a3.getUrl(), b2.getUrl()));
+            Assert.isTrue(resultList.equals(Arrays.asList(true, true)), "根据 url 批量删除文件的结果错误：{}", resultList);
+            Assert.isTrue(batchStorage.keySet.isEmpty(), "存储平台中还有残留的文件：{}", batchStorage.keySet);
+            Assert.isTrue(oneByOneStorage.keySet.isEmpty(), "存储平台中还有残留的文件：{}", oneByOneStorage.keySet);
+            Assert.isTrue(recorder.fileInfoMap.isEmpty(), "还有残留的文件记录：{}", recorder.fileInfoMap.keySet());
+            log.info("批量删除文件测试通过");
+        } finally {
+            fileStorageService.setFileRecorder(oldRecorder);
+            fileStorageService.removeFileStorage(batchStorage.getPlatform());
+            fileStorageService.removeFileStorage(oneByOneStorage.getPlatform());
+        }
+    }
+
     /**
      * 测试上传并验证文件是否存在
      */
@@ -12,6 +12,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.dromara.x.file.storage.core.FileInfo;
 import org.dromara.x.file.storage.core.FileStorageService;
 import org.dromara.x.file.storage.core.constant.Constant;
+import org.dromara.x.file.storage.core.upload.ThumbnailVariantInfo;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -133,4 +134,56 @@ class FileStorageServiceCopyTest {
                 .copy();
         log.info("测试复制到其它存储平台下完成：{}", destFileInfo);
     }
+
+    /**
+     * 测试复制多规格缩略图，同存储平台及跨存储平台复制后目标文件中的规格信息与文件都存在
+     */
+    @Test
+    public void thumbnailVariant() {
+        for (String platform : new String[] {fileStorageService.getProperties().getDefaultPlatform(), "local-plus-1"}) {
+            InputStream in = this.getClass().getClassLoader().getResourceAsStream("image.jpg");
+            FileInfo fileInfo = fileStorageService
+                    .of(in)
+                    .setOriginalFilename("image.jpg")
+                    .setPath("test/")
+                    .setSaveFilename("aaa.jpg")
+                    .setSaveThFilename("bbb")
+                    .thumbnail(200, 200)
+                    .thumbnailVariant("list", 100, 100)
+                    .thumbnailVariant("card", 150, 100)
+                    .upload();
+            Assert.notNull(fileInfo, "文件上传失败！");
+            Assert.isTrue(fileInfo.getThVariants().size() == 2, "多规格缩略图上传失败：{}", fileInfo.getThVariants());
+            ThreadUtil.sleep(1000);
+
+            FileInfo destFileInfo = fileStorageService
+                    .copy(fileInfo)
+                    .setPlatform(platform)
+                    .setFilename("aaaCopy.jpg")
+                    .setThFilename("aaaCopy.min.jpg")
+                    .copy();
+            log.info("测试复制多规格缩略图到存储平台 {} 完成：{}", platform, destFileInfo);
+            Assert.isTrue(
+                    destFileInfo.getThVariants() != null && destFileInfo.getThVariants().size() == 2,
+                    "多规格缩略图信息丢失");
+            for (String name : fileInfo.getThVariants().keySet()) {
+                ThumbnailVariantInfo variant = destFileInfo.getThVariants().get(name);
+                Assert.isTrue(
+                        ("aaaCopy." + name + ".jpg").equals(variant.getFilename()),
+                        "多规格缩略图文件名错误：{}",
+                        variant.getFilename());
+                FileInfo variantFileInfo = fileStorageService.getThumbnailVariantFileInfo(destFileInfo, variant);
+                Assert.isTrue(fileStorageService.exists(variantFileInfo), "复制后多规格缩略图不存在：{}", name);
+                FileInfo srcVariantFileInfo = fileStorageService.getThumbnailVariantFileInfo(
+                        fileInfo, fileInfo.getThVariants().get(name));
+                Assert.isTrue(fileStorageService.exists(srcVariantFileInfo), "复制后源多规格缩略图不存在：{}", name);
+            }
+            Assert.isTrue(fileStorageService.delete(fileInfo), "删除源文件失败");
+            Assert.isTrue(fileStorageService.delete(destFileInfo), "删除复制后的文件失败");
+            Assert.isFalse(
+                    fileStorageService.exists(fileStorageService.getThumbnailVariantFileInfo(
+                            destFileInfo, destFileInfo.getThVariants().get("list"))),
+                    "删除后多规格缩略图依然存在");
+        }
+    }
 }
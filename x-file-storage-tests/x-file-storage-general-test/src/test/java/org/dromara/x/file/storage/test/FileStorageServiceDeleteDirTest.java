@@ -0,0 +1,198 @@
+package org.dromara.x.file.storage.test;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.lang.Assert;
+import cn.hutool.core.util.IdUtil;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.FileStorageProperties.LocalPlusConfig;
+import org.dromara.x.file.storage.core.FileStorageService;
+import org.dromara.x.file.storage.core.delete.DeleteDirResult;
+import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
+import org.dromara.x.file.storage.core.get.ListFilesSupportInfo;
+import org.dromara.x.file.storage.core.get.ParallelListFilesIterator;
+import org.dromara.x.file.storage.core.platform.LocalPlusFileStorage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@Slf4j
+@SpringBootTest
+class FileStorageServiceDeleteDirTest {
+
+    /**
+     * 支持原生递归删除目录的存储平台
+     */
+    private static final String NATIVE_PLATFORM = "local-plus-1";
+    /**
+     * 与 local-plus-1 使用相同的存储路径，但不支持原生递归删除目录，每页只列举 2 个，用于测试逐页列举并批量删除
+     */
+    private static final String LIST_PLATFORM = "local-plus-delete-dir-test";
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    /**
+     * 上传一个多级目录，返回上传的文件数量
+     */
+    private int uploadTree(String platform, String path) {
+        byte[] bytes = "delete-dir".getBytes(StandardCharsets.UTF_8);
+        int count = 0;
+        for (String dir : new String[] {"", "a/", "a/b/", "a/b/c/", "d/"}) {
+            for (int i = 0; i < 3; i++) {
+                FileInfo fileInfo = fileStorageService
+                        .of(bytes)
+                        .setPlatform(platform)
+                        .setPath(path + dir)
+                        .setSaveFilename(i + ".txt")
+                        .upload();
+                Assert.notNull(fileInfo, "文件上传失败！");
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 递归列举目录中剩余的文件数量
+     */
+    private int countFiles(String platform, String path) {
+        int count = 0;
+        try (ParallelListFilesIterator iterator = fileStorageService
+                .listFiles()
+                .setPlatform(platform)
+                .setPath(path)
+                .parallelIterator(1, false)) {
+            while (iterator.hasNext()) {
+                log.info("剩余的文件：{}", iterator.next());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 添加一个不支持原生递归删除目录的存储平台，存储路径与 local-plus-1 相同
+     */
+    private void addListPlatform() {
+        LocalPlusConfig config = fileStorageService.getProperties().getLocalPlus().stream()
+                .filter(c -> NATIVE_PLATFORM.equals(c.getPlatform()))
+                .findFirst()
+                .orElseThrow(() -> new FileStorageRuntimeException("没有找到存储平台：" + NATIVE_PLATFORM));
+        LocalPlusConfig listConfig = BeanUtil.copyProperties(config, LocalPlusConfig.class);
+        listConfig.setPlatform(LIST_PLATFORM);
+        fileStorageService.addFileStorage(new LocalPlusFileStorage(listConfig) {
+            @Override
+            public boolean isSupportDeleteDir() {
+                return false;
+            }
+
+            @Override
+            public ListFilesSupportInfo isSupportListFiles() {
+                return ListFilesSupportInfo.supportAll().setSupportMaxFiles(2);
+            }
+        });
+    }
+
+    /**
+     * 测试通过存储平台原生的递归删除目录删除
+     */
+    @Test
+    public void deleteDirNative() {
+        String path = "test/delete-dir/" + IdUtil.objectId() + "/";
+        uploadTree(NATIVE_PLATFORM, path);
+        Assert.isTrue(
+                fileStorageService.getFileStorage(NATIVE_PLATFORM).isSupportDeleteDir(),
+                "存储平台应该支持原生递归删除目录");
+
+        DeleteDirResult result = fileStorageService
+                .deleteDir()
+                .setPlatform(NATIVE_PLATFORM)
+                .setPath(path)
+                .deleteDir();
+        log.info("删除目录结果：{}", result);
+        Assert.isTrue(result.getNativeDelete(), "没有通过原生的递归删除目录删除");
+        Assert.isTrue(result.isSuccess(), "删除目录失败：{}", result);
+        Assert.isTrue(countFiles(NATIVE_PLATFORM, path) == 0, "删除后目录中还有文件");
+    }
+
+    /**
+     * 测试逐页列举并批量删除，检查删除数量、目录数量及删除进度
+     */
+    @Test
+    public void deleteDirByList() {
+        addListPlatform();
+        try {
+            String path = "test/delete-dir/" + IdUtil.objectId() + "/";
+            int fileCount = uploadTree(LIST_PLATFORM, path);
+            // 同级的目录，不应该被删除
+            String siblingPath = path.substring(0, path.length() - 1) + "-sibling/";
+            int siblingCount = uploadTree(LIST_PLATFORM, siblingPath);
+
+            List<DeleteDirResult> progressList = new ArrayList<>();
+            DeleteDirResult result = fileStorageService
+                    .deleteDir()
+                    .setPlatform(LIST_PLATFORM)
+                    .setPath(path)
+                    .setProgressListener(r -> progressList.add(BeanUtil.copyProperties(r, DeleteDirResult.class)))
+                    .deleteDir();
+            log.info("删除目录结果：{}", result);
+            Assert.isFalse(result.getNativeDelete(), "不应该通过原生的递归删除目录删除");
+            Assert.isTrue(result.isSuccess(), "删除目录失败：{}", result);
+            Assert.isTrue(
+                    result.getDeletedCount() == fileCount,
+                    "删除的文件数量错误，应为：{}，实际为：{}",
+                    fileCount,
+                    result.getDeletedCount());
+            Assert.isTrue(result.getDirCount() == 5, "列举的目录数量错误：{}", result.getDirCount());
+            Assert.isTrue(countFiles(LIST_PLATFORM, path) == 0, "删除后目录中还有文件");
+            Assert.isTrue(countFiles(LIST_PLATFORM, siblingPath) == siblingCount, "同级的目录中的文件被删除了");
+
+            // 每页最多 2 个，会多次回调进度，数量是递增的累计值，最后一次为全部完成
+            Assert.isTrue(progressList.size() > 2, "删除进度回调次数错误：{}", progressList.size());
+            for (int i = 1; i < progressList.size(); i++) {
+                Assert.isTrue(
+                        progressList.get(i).getDeletedCount() >= progressList.get(i - 1).getDeletedCount(),
+                        "删除进度中的数量不是累计值：{}",
+                        progressList);
+            }
+            for (int i = 0; i < progressList.size() - 1; i++) {
+                Assert.isFalse(progressList.get(i).getFinished(), "没有全部完成时进度为已完成：{}", progressList.get(i));
+            }
+            DeleteDirResult last = progressList.get(progressList.size() - 1);
+            Assert.isTrue(last.getFinished(), "最后一次进度应为全部完成");
+            Assert.isTrue(last.getDeletedCount() == fileCount, "最后一次进度的删除数量错误：{}", last);
+
+            fileStorageService.deleteDir().setPlatform(LIST_PLATFORM).setPath(siblingPath).deleteDir();
+        } finally {
+            fileStorageService.removeFileStorage(LIST_PLATFORM);
+        }
+    }
+
+    /**
+     * 测试拒绝删除空目录、根目录及包含 “.”、“..” 等的目录，防止误删其它文件
+     */
+    @Test
+    public void deleteDirRejectTraversal() {
+        String path = "test/delete-dir/" + IdUtil.objectId() + "/";
+        int fileCount = uploadTree(NATIVE_PLATFORM, path);
+        String[] badPaths = {
+            null, "", "/", "test", "/" + path, "../", path + "../", path + "./", path + "a//", path + "a\\b/"
+        };
+        for (String badPath : badPaths) {
+            boolean rejected = false;
+            try {
+                fileStorageService.deleteDir().setPlatform(NATIVE_PLATFORM).setPath(badPath).deleteDir();
+            } catch (FileStorageRuntimeException e) {
+                rejected = true;
+                log.info("拒绝删除目录：{}，{}", badPath, e.getMessage());
+            }
+            Assert.isTrue(rejected, "没有拒绝删除目录：{}", badPath);
+        }
+        Assert.isTrue(countFiles(NATIVE_PLATFORM, path) == fileCount, "被拒绝删除的目录中的文件被删除了");
+        fileStorageService.deleteDir().setPlatform(NATIVE_PLATFORM).setPath(path).deleteDir();
+    }
+}
@@ -1,14 +1,25 @@
 package org.dromara.x.file.storage.test;
 
+import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.lang.Assert;
+import cn.hutool.core.util.IdUtil;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.slf4j.Slf4j;
 import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.FileStorageProperties.LocalPlusConfig;
 import org.dromara.x.file.storage.core.FileStorageService;
 import org.dromara.x.file.storage.core.constant.Constant;
-import org.dromara.x.file.storage.core.get.ListFilesResult;
-import org.dromara.x.file.storage.core.get.ListFilesSupportInfo;
-import org.dromara.x.file.storage.core.get.RemoteFileInfo;
+import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
+import org.dromara.x.file.storage.core.get.*;
+import org.dromara.x.file.storage.core.platform.LocalPlusFileStorage;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -40,6 +51,197 @@ class FileStorageServiceGetTest {
         log.info("列举文件全部结果：{}", result);
     }
 
+    /**
+     * 测试并发递归列举文件，要求顺序时按深度优先顺序返回，maxFiles 限制返回的文件数量
+     */
+    @Test
+    public void parallelListFiles() {
+        String platform = "local-plus-1";
+        String path = "test/parallel-list/" + IdUtil.objectId() + "/";
+        byte[] bytes = "parallel-list".getBytes(StandardCharsets.UTF_8);
+        List<FileInfo> fileInfoList = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        // 子目录数量超过同时列举的分区数量
+        for (String dir : new String[] {"", "a/", "b/", "b/c/", "d/", "e/", "f/"}) {
+            for (int i = 0; i < 3; i++) {
+                FileInfo fileInfo = fileStorageService
+                        .of(bytes)
+                        .setPlatform(platform)
+                        .setPath(path + dir)
+                        .setSaveFilename(i + ".txt")
+                        .upload();
+                Assert.notNull(fileInfo, "文件上传失败！");
+                fileInfoList.add(fileInfo);
+                expected.add(path + dir + i + ".txt");
+            }
+        }
+        try {
+            for (int maxFiles : new int[] {Integer.MAX_VALUE, 7, 1}) {
+                int size = Math.min(maxFiles, expected.size());
+                List<String> ordered = listParallel(platform, path, maxFiles, true);
+                Assert.isTrue(
+                        expected.subList(0, size).equals(ordered),
+                        "要求顺序时列举结果错误，maxFiles：{}，应为：{}，实际为：{}",
+                        maxFiles,
+                        expected.subList(0, size),
+                        ordered);
+                List<String> unordered = listParallel(platform, path, maxFiles, false);
+                Assert.isTrue(unordered.size() == size, "不要求顺序时列举数量错误，maxFiles：{}，实际为：{}", maxFiles, unordered);
+                Assert.isTrue(
+                        new HashSet<>(expected).containsAll(unordered) && new HashSet<>(unordered).size() == size,
+                        "不要求顺序时列举结果错误，maxFiles：{}，实际为：{}",
+                        maxFiles,
+                        unordered);
+            }
+            log.info("并发递归列举文件测试通过");
+        } finally {
+            fileInfoList.forEach(fileStorageService::delete);
+        }
+    }
+
+    private List<String> listParallel(String platform, String path, int maxFiles, boolean ordered) {
+        List<String> list = new ArrayList<>();
+        try (ParallelListFilesIterator iterator = fileStorageService
+                .listFiles()
+                .setPlatform(platform)
+                .setPath(path)
+                .setMaxFiles(maxFiles)
+                .parallelIterator(1, ordered)) {
+            while (iterator.hasNext()) {
+                RemoteFileInfo info = iterator.next();
+                list.add(info.getPath() + info.getFilename());
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 与 local-plus-1 使用相同的存储路径，每页只列举 3 个，记录列举次数，
+     * block 为 true 时列举第一页之后的页会一直等待，直到被中断或 releaseLatch 释放
+     */
+    private static class PagingFileStorage extends LocalPlusFileStorage {
+        private final AtomicInteger listCount = new AtomicInteger();
+        private final CountDownLatch releaseLatch = new CountDownLatch(1);
+        private final CountDownLatch interruptedLatch = new CountDownLatch(1);
+        private volatile boolean block;
+
+        private PagingFileStorage(LocalPlusConfig config) {
+            super(config);
+        }
+
+        @Override
+        public ListFilesSupportInfo isSupportListFiles() {
+            return ListFilesSupportInfo.supportAll().setSupportMaxFiles(3);
+        }
+
+        @Override
+        public ListFilesResult listFiles(ListFilesPretreatment pre) {
+            listCount.incrementAndGet();
+            if (block && pre.getMarker() != null) {
+                try {
+                    releaseLatch.await();
+                } catch (InterruptedException e) {
+                    interruptedLatch.countDown();
+                    Thread.currentThread().interrupt();
+                    throw new FileStorageRuntimeException("列举文件被中断", e);
+                }
+            }
+            return super.listFiles(pre);
+        }
+    }
+
+    private List<String> listByIterator(String platform, String path, Integer maxFiles) {
+        List<String> list = new ArrayList<>();
+        try (ListFilesIterator iterator = fileStorageService
+                .listFiles()
+                .setPlatform(platform)
+                .setPath(path)
+                .setMaxFiles(maxFiles)
+                .iterator()) {
+            while (iterator.hasNext()) list.add(iterator.next().getFilename());
+            Assert.isFalse(iterator.hasNext(), "遍历完成后 hasNext 应为 false");
+            try {
+                iterator.next();
+                Assert.isTrue(false, "遍历完成后 next 没有抛出异常");
+            } catch (NoSuchElementException e) {
+                log.info("遍历完成后 next 抛出异常：{}", e.toString());
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 测试逐页列举文件的迭代器，文件数量超过一页时按需逐页列举，maxFiles 限制返回的文件数量，
+     * 没有遍历完时 close 会取消后台正在列举的下一页
+     */
+    @Test
+    public void listFilesIterator() throws InterruptedException {
+        LocalPlusConfig config = BeanUtil.copyProperties(
+                fileStorageService.getProperties().getLocalPlus().stream()
+                        .filter(c -> "local-plus-1".equals(c.getPlatform()))
+                        .findFirst()
+                        .orElseThrow(() -> new FileStorageRuntimeException("没有找到存储平台：local-plus-1")),
+                LocalPlusConfig.class);
+        String platform = "local-plus-iterator-test";
+        config.setPlatform(platform);
+        PagingFileStorage storage = new PagingFileStorage(config);
+        fileStorageService.addFileStorage(storage);
+
+        String path = "test/list-iterator/" + IdUtil.objectId() + "/";
+        byte[] bytes = "list-iterator".getBytes(StandardCharsets.UTF_8);
+        List<FileInfo> fileInfoList = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        try {
+            for (int i = 0; i < 10; i++) {
+                String filename = String.format("%02d.txt", i);
+                FileInfo fileInfo = fileStorageService
+                        .of(bytes)
+                        .setPlatform(platform)
+                        .setPath(path)
+                        .setSaveFilename(filename)
+                        .upload();
+                Assert.notNull(fileInfo, "文件上传失败！");
+                fileInfoList.add(fileInfo);
+                expected.add(filename);
+            }
+
+            // 不限制数量时返回全部文件，10 个文件每页 3 个，共列举 4 次
+            storage.listCount.set(0);
+            List<String> all = listByIterator(platform, path, null);
+            Assert.isTrue(expected.equals(all), "迭代器列举结果错误，应为：{}，实际为：{}", expected, all);
+            Assert.isTrue(storage.listCount.get() == 4, "列举次数错误：{}", storage.listCount.get());
+
+            // maxFiles 为 7 时只返回前 7 个，最后一页只列举 1 个，共列举 3 次
+            storage.listCount.set(0);
+            List<String> limited = listByIterator(platform, path, 7);
+            Assert.isTrue(
+                    expected.subList(0, 7).equals(limited),
+                    "迭代器列举结果错误，应为：{}，实际为：{}",
+                    expected.subList(0, 7),
+                    limited);
+            Assert.isTrue(storage.listCount.get() == 3, "列举次数错误：{}", storage.listCount.get());
+
+            // 遍历第一页时 close，取消后台正在列举的第二页
+            storage.block = true;
+            ListFilesIterator iterator = fileStorageService
+                    .listFiles()
+                    .setPlatform(platform)
+                    .setPath(path)
+                    .iterator();
+            Assert.isTrue(iterator.hasNext(), "没有列举到文件");
+            Assert.isTrue(expected.get(0).equals(iterator.next().getFilename()), "第一个文件错误");
+            iterator.close();
+            Assert.isTrue(storage.interruptedLatch.await(5, TimeUnit.SECONDS), "close 后没有取消后台正在列举的下一页");
+            Assert.isFalse(iterator.hasNext(), "close 后 hasNext 应为 false");
+            log.info("逐页列举文件的迭代器测试通过");
+        } finally {
+            storage.block = false;
+            storage.releaseLatch.countDown();
+            fileInfoList.forEach(fileStorageService::delete);
+            fileStorageService.removeFileStorage(platform);
+        }
+    }
+
     public FileInfo upload() {
         String filename = "image.jpg";
         InputStream in = this.getClass().getClassLoader().getResourceAsStream(filename);
@@ -3,14 +3,22 @@ package org.dromara.x.file.storage.test;
 import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.lang.Assert;
 import cn.hutool.core.util.HexUtil;
+import java.io.File;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
 import org.dromara.x.file.storage.core.constant.Constant;
-import org.dromara.x.file.storage.core.hash.HashCalculator;
-import org.dromara.x.file.storage.core.hash.HashCalculatorManager;
-import org.dromara.x.file.storage.core.hash.HashInfo;
+import org.dromara.x.file.storage.core.hash.*;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -119,4 +127,148 @@ public class HashCalculatorTest {
                 hashInfo.getSha512());
         log.info("SHA512 对比结果一致");
     }
+
+    /**
+     * 使用公开的测试向量校验 CRC32C、CRC64、xxHash64
+     */
+    @Test
+    public void testChecksumVectors() {
+        byte[] check = "123456789".getBytes(StandardCharsets.US_ASCII);
+
+        // CRC-32C (Castagnoli)，RFC 3720 中的校验值
+        assertHash(new Crc32cHashCalculator(), check, "e3069283");
+        assertHash(new Crc32cHashCalculator(), new byte[0], "00000000");
+
+        // CRC-64/XZ 的校验值 0x995DC9BBDF1939FA，这里是无符号十进制形式
+        assertHash(new Crc64HashCalculator(), check, "11051210869376104954");
+        assertHash(new Crc64HashCalculator(), new byte[0], "0");
+
+        // xxHash64 官方实现在种子为 0 时的结果
+        assertHash(new XxHash64HashCalculator(), new byte[0], "ef46db3751d8e999");
+        assertHash(new XxHash64HashCalculator(), "a".getBytes(StandardCharsets.US_ASCII), "d24ec4f1a98c6e5b");
+        assertHash(new XxHash64HashCalculator(), "abc".getBytes(StandardCharsets.US_ASCII), "44bc2cf5ad770999");
+        assertHash(
+                new XxHash64HashCalculator(),
+                "Nobody inspects the spammish repetition".getBytes(StandardCharsets.US_ASCII),
+                "fbcea83c8a378bf1");
+        log.info("CRC32C、CRC64、xxHash64 测试向量对比结果一致");
+    }
+
+    /**
+     * 按 Amazon S3 Glacier 的 Tree Hash 规则校验树形哈希，包括落单的分块直接进入下一层的情况
+     */
+    @Test
+    public void testTreeHash() throws Exception {
+        // 不足一个分块时等于整个数据的 SHA-256
+        assertHash(
+                new TreeHashCalculator(),
+                new byte[0],
+                "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855");
+
+        int chunkSize = 1024;
+        byte[] data = randomBytes(chunkSize * 5 + 100);
+        // 6 个分块：(((h0 h1) (h2 h3)) ((h4 h5)))
+        List<byte[]> level = new ArrayList<>();
+        for (int off = 0; off < data.length; off += chunkSize) {
+            level.add(sha256(data, off, Math.min(chunkSize, data.length - off)));
+        }
+        while (level.size() > 1) {
+            List<byte[]> next = new ArrayList<>();
+            for (int i = 0; i < level.size(); i += 2) {
+                next.add(i + 1 < level.size() ? sha256(concat(level.get(i), level.get(i + 1))) : level.get(i));
+            }
+            level = next;
+        }
+        String expected = HexUtil.encodeHexStr(level.get(0));
+        assertHash(
+                new TreeHashCalculator(Constant.Hash.Tree.SHA256, Constant.Hash.MessageDigest.SHA256, chunkSize),
+                data,
+                expected);
+
+        // 并行计算及不传线程池时逐段计算本地文件的结果与增量计算一致
+        File file = File.createTempFile("x-file-storage-tree-hash-", ".tmp");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Files.write(file.toPath(), data);
+            try (FileChannel channel = FileChannel.open(file.toPath())) {
+                String parallel = TreeHashCalculator.compute(
+                        channel, Constant.Hash.MessageDigest.SHA256, chunkSize, 4, executor);
+                Assert.isTrue(expected.equals(parallel), "并行计算树形哈希不一致，应为：{}，实际为：{}", expected, parallel);
+                String serial =
+                        TreeHashCalculator.compute(channel, Constant.Hash.MessageDigest.SHA256, chunkSize, 4, null);
+                Assert.isTrue(expected.equals(serial), "逐段计算树形哈希不一致，应为：{}，实际为：{}", expected, serial);
+            }
+        } finally {
+            executor.shutdown();
+            Files.deleteIfExists(file.toPath());
+        }
+        log.info("树形哈希对比结果一致");
+    }
+
+    /**
+     * 将数据任意拆分后增量计算，结果与一次计算全部数据一致
+     */
+    @Test
+    public void testSplitUpdate() {
+        List<Supplier<HashCalculator>> list = new ArrayList<>();
+        list.add(Crc32cHashCalculator::new);
+        list.add(Crc64HashCalculator::new);
+        list.add(XxHash64HashCalculator::new);
+        list.add(() -> new TreeHashCalculator(Constant.Hash.Tree.SHA256, Constant.Hash.MessageDigest.SHA256, 1000));
+
+        Random random = new Random(20240101);
+        byte[] data = randomBytes(10000);
+        for (Supplier<HashCalculator> supplier : list) {
+            HashCalculator whole = supplier.get();
+            whole.update(data);
+            String expected = whole.getValue();
+            for (int round = 0; round < 20; round++) {
+                HashCalculator split = supplier.get();
+                int off = 0;
+                while (off < data.length) {
+                    // 包含 0 长度以及跨越内部 32 字节、8 字节、分块边界的拆分
+                    int len = Math.min(data.length - off, random.nextInt(70));
+                    split.update(data, off, len);
+                    off += len;
+                }
+                Assert.isTrue(
+                        expected.equals(split.getValue()),
+                        "{} 拆分计算结果不一致，应为：{}，实际为：{}",
+                        split.getName(),
+                        expected,
+                        split.getValue());
+            }
+        }
+        log.info("拆分增量计算结果一致");
+    }
+
+    private static void assertHash(HashCalculator calculator, byte[] data, String expected) {
+        calculator.update(data);
+        String value = calculator.getValue();
+        Assert.isTrue(
+                expected.equals(value), "{} 与测试向量不一致，应为：{}，实际为：{}", calculator.getName(), expected, value);
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] bytes = new byte[a.length + b.length];
+        System.arraycopy(a, 0, bytes, 0, a.length);
+        System.arraycopy(b, 0, bytes, a.length, b.length);
+        return bytes;
+    }
+
+    private static byte[] sha256(byte[] bytes) throws NoSuchAlgorithmException {
+        return sha256(bytes, 0, bytes.length);
+    }
+
+    private static byte[] sha256(byte[] bytes, int off, int len) throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance(Constant.Hash.MessageDigest.SHA256);
+        digest.update(bytes, off, len);
+        return digest.digest();
+    }
 }
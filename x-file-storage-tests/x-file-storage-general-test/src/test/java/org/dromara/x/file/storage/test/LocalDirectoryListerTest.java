@@ -0,0 +1,145 @@
+package org.dromara.x.file.storage.test;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.lang.Assert;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.FileStorageProperties.LocalConfig;
+import org.dromara.x.file.storage.core.get.ListFilesPretreatment;
+import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.platform.FileStorage.ListFilesMatchResult;
+import org.dromara.x.file.storage.core.platform.LocalDirectoryLister;
+import org.dromara.x.file.storage.core.platform.LocalFileStorage;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 本地目录列举工具测试类，分页结果与之前读取整个目录后通过 listFilesMatch 排序分页的结果一致
+ */
+@Slf4j
+public class LocalDirectoryListerTest {
+    private static final String[] PREFIXES = {"", "img-", "dir-", "a", "none-"};
+    private static final int[] MAX_FILES = {1, 7, 50, Integer.MAX_VALUE};
+
+    /**
+     * 创建测试目录，包含文件、子目录及各种前缀的名称
+     */
+    private File createDir() throws IOException {
+        File dir = Files.createTempDirectory("x-file-storage-lister-").toFile();
+        for (int i = 0; i < 120; i++) FileUtil.touch(new File(dir, String.format("img-%03d.jpg", (i * 37) % 120)));
+        for (int i = 0; i < 40; i++) FileUtil.touch(new File(dir, "doc-" + i + ".txt"));
+        for (int i = 0; i < 15; i++) FileUtil.mkdir(new File(dir, "dir-" + i));
+        for (String name : new String[] {"a", "a.txt", "aa", "B.txt", "b.txt", "中文.txt", "_x", "0"}) {
+            FileUtil.touch(new File(dir, name));
+        }
+        return dir;
+    }
+
+    /**
+     * 之前的做法：读取整个目录，通过 listFilesMatch 匹配前缀、排序并分页
+     */
+    private ListFilesMatchResult<File> listByMatch(FileStorage fileStorage, File dir, ListFilesPretreatment pre) {
+        List<File> fileList = Arrays.stream(FileUtil.ls(dir.getAbsolutePath()))
+                .filter(f -> f.isFile() || f.isDirectory())
+                .collect(Collectors.toList());
+        return fileStorage.listFilesMatch(fileList, File::getName, pre, true);
+    }
+
+    private List<String> getNames(ListFilesMatchResult<File> result) {
+        return result.getList().stream().map(File::getName).collect(Collectors.toList());
+    }
+
+    /**
+     * 按各种前缀及每页数量分页列举到最后一页，每一页都与之前的做法一致
+     */
+    private void assertPaging(LocalDirectoryLister lister, File dir) throws IOException {
+        LocalFileStorage fileStorage = new LocalFileStorage(new LocalConfig());
+        for (String prefix : PREFIXES) {
+            for (int maxFiles : MAX_FILES) {
+                String marker = null;
+                List<String> all = new ArrayList<>();
+                for (int page = 0; ; page++) {
+                    ListFilesPretreatment pre = new ListFilesPretreatment()
+                            .setFilenamePrefix(prefix)
+                            .setMaxFiles(maxFiles)
+                            .setMarker(marker);
+                    ListFilesMatchResult<File> actual = lister.list(dir.getAbsolutePath(), pre);
+                    ListFilesMatchResult<File> expected = listByMatch(fileStorage, dir, pre);
+                    Assert.isTrue(
+                            getNames(expected).equals(getNames(actual)),
+                            "前缀 {}，每页 {} 个，第 {} 页的列表不一致，应为：{}，实际为：{}",
+                            prefix,
+                            maxFiles,
+                            page,
+                            getNames(expected),
+                            getNames(actual));
+                    Assert.isTrue(
+                            expected.getIsTruncated().equals(actual.getIsTruncated()),
+                            "前缀 {}，每页 {} 个，第 {} 页的 isTruncated 不一致",
+                            prefix,
+                            maxFiles,
+                            page);
+                    Assert.isTrue(
+                            String.valueOf(expected.getNextMarker()).equals(String.valueOf(actual.getNextMarker())),
+                            "前缀 {}，每页 {} 个，第 {} 页的 nextMarker 不一致，应为：{}，实际为：{}",
+                            prefix,
+                            maxFiles,
+                            page,
+                            expected.getNextMarker(),
+                            actual.getNextMarker());
+                    all.addAll(getNames(actual));
+                    if (!actual.getIsTruncated()) break;
+                    marker = actual.getNextMarker();
+                }
+                List<String> expectedAll = getNames(listByMatch(
+                        fileStorage, dir, new ListFilesPretreatment().setFilenamePrefix(prefix)));
+                Assert.isTrue(expectedAll.equals(all), "前缀 {}，每页 {} 个，全部页合并后不一致", prefix, maxFiles);
+            }
+        }
+    }
+
+    /**
+     * 不使用缓存时通过大顶堆选出每一页
+     */
+    @Test
+    public void testPaging() throws IOException {
+        File dir = createDir();
+        try {
+            assertPaging(new LocalDirectoryLister(0), dir);
+            log.info("本地目录分页列举测试通过");
+        } finally {
+            FileUtil.del(dir);
+        }
+    }
+
+    /**
+     * 使用缓存时通过二分查找定位每一页，目录修改后重新读取
+     */
+    @Test
+    public void testPagingWithCache() throws IOException {
+        File dir = createDir();
+        try {
+            // 修改时间在精度范围之外才会缓存
+            Assert.isTrue(dir.setLastModified(System.currentTimeMillis() - 60000), "设置目录的修改时间失败");
+            LocalDirectoryLister lister = new LocalDirectoryLister(16);
+            assertPaging(lister, dir);
+
+            // 增加及删除文件后目录的修改时间变化，不会返回缓存中过期的名称
+            FileUtil.touch(new File(dir, "img-new.jpg"));
+            FileUtil.del(new File(dir, "img-000.jpg"));
+            assertPaging(lister, dir);
+            List<String> names = getNames(lister.list(
+                    dir.getAbsolutePath(), new ListFilesPretreatment().setFilenamePrefix("img-")));
+            Assert.isTrue(names.contains("img-new.jpg"), "没有列举出新增的文件");
+            Assert.isFalse(names.contains("img-000.jpg"), "列举出了已删除的文件");
+            log.info("本地目录缓存分页列举测试通过");
+        } finally {
+            FileUtil.del(dir);
+        }
+    }
+}
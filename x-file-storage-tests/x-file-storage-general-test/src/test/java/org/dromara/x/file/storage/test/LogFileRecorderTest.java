@@ -0,0 +1,215 @@
+package org.dromara.x.file.storage.test;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.lang.Assert;
+import cn.hutool.core.lang.Dict;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
+import org.dromara.x.file.storage.core.recorder.LogFileRecorder;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 本地日志文件记录者测试类
+ */
+@Slf4j
+public class LogFileRecorderTest {
+    private static final int SEGMENT_SIZE = 1024 * 1024;
+
+    private LogFileRecorder open(File dir, double compactRatio) {
+        return new LogFileRecorder(dir, SEGMENT_SIZE, 0, compactRatio, 0);
+    }
+
+    private FileInfo createFileInfo(int i, int version, int attrSize) {
+        char[] chars = new char[attrSize];
+        Arrays.fill(chars, (char) ('a' + i % 26));
+        return new FileInfo()
+                .setUrl("https://example.com/file/" + i + ".txt")
+                .setFilename(i + ".txt")
+                .setSize((long) i * 100)
+                .setPlatform("local-plus-1")
+                .setCreateTime(new Date(1700000000000L + i))
+                .setAttr(Dict.create().set("version", version).set("data", new String(chars)));
+    }
+
+    private void assertFileInfo(LogFileRecorder recorder, int i, Integer version) {
+        String url = "https://example.com/file/" + i + ".txt";
+        FileInfo fileInfo = recorder.getByUrl(url);
+        if (version == null) {
+            Assert.isNull(fileInfo, "已删除的文件记录又出现了：{}", url);
+            return;
+        }
+        Assert.notNull(fileInfo, "文件记录丢失：{}", url);
+        Assert.isTrue((i + ".txt").equals(fileInfo.getFilename()), "文件名错误：{}", fileInfo.getFilename());
+        Assert.isTrue(fileInfo.getSize() == i * 100L, "文件大小错误：{}", fileInfo.getSize());
+        Object actual = fileInfo.getAttr().get("version");
+        Assert.isTrue(version.equals(actual), "文件记录 {} 的版本应为 {}，实际为 {}", url, version, actual);
+    }
+
+    private File lastSegment(File dir) {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".log"));
+        Assert.isTrue(files != null && files.length > 0, "没有日志段");
+        Arrays.sort(files);
+        return files[files.length - 1];
+    }
+
+    /**
+     * 末尾的记录只写入了一部分时，启动后截断这条记录，之前的记录完整，之后的写入也能正常恢复
+     */
+    @Test
+    public void testRecoverTruncatedTail() throws IOException {
+        File dir = Files.createTempDirectory("x-file-storage-log-recorder-").toFile();
+        try {
+            LogFileRecorder recorder = open(dir, 0.5);
+            for (int i = 0; i < 100; i++) recorder.save(createFileInfo(i, 1, 100));
+            for (int i = 0; i < 10; i++) recorder.update(createFileInfo(i, 2, 100));
+            for (int i = 10; i < 20; i++) recorder.delete("https://example.com/file/" + i + ".txt");
+            recorder.save(createFileInfo(100, 1, 100));
+            recorder.close();
+
+            // 模拟最后一条记录只写入了一部分
+            File segment = lastSegment(dir);
+            try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+                file.setLength(file.length() - 10);
+            }
+
+            recorder = open(dir, 0.5);
+            Assert.isTrue(recorder.size() == 90, "恢复后的文件记录数量错误：{}", recorder.size());
+            for (int i = 0; i < 10; i++) assertFileInfo(recorder, i, 2);
+            for (int i = 10; i < 20; i++) assertFileInfo(recorder, i, null);
+            for (int i = 20; i < 100; i++) assertFileInfo(recorder, i, 1);
+            assertFileInfo(recorder, 100, null);
+
+            // 截断后继续写入，再次恢复时不会被残留的数据影响
+            recorder.save(createFileInfo(101, 1, 100));
+            recorder.close();
+            recorder = open(dir, 0.5);
+            Assert.isTrue(recorder.size() == 91, "再次恢复后的文件记录数量错误：{}", recorder.size());
+            assertFileInfo(recorder, 101, 1);
+            recorder.close();
+            log.info("截断末尾不完整记录后恢复测试通过");
+        } finally {
+            FileUtil.del(dir);
+        }
+    }
+
+    /**
+     * 整理后重新启动，有效记录都在，已删除的记录不会因为没能删除的旧日志段而复活
+     */
+    @Test
+    public void testRecoverAfterCompaction() throws IOException {
+        File dir = Files.createTempDirectory("x-file-storage-log-recorder-").toFile();
+        try {
+            LogFileRecorder recorder = open(dir, 0.3);
+            for (int i = 0; i < 200; i++) recorder.save(createFileInfo(i, 1, 10000));
+            for (int i = 0; i < 200; i += 2) recorder.update(createFileInfo(i, 2, 10000));
+            for (int i = 1; i < 200; i += 4) recorder.delete("https://example.com/file/" + i + ".txt");
+            int segmentCount = recorder.getSegmentCount();
+            double garbageRatio = recorder.getGarbageRatio();
+            Assert.isTrue(segmentCount > 2, "日志段数量太少：{}", segmentCount);
+
+            // 保留最旧的日志段的副本，模拟整理后由于内存映射未释放没能删除
+            File oldest = new File(dir, String.format("%020d.log", 1));
+            byte[] oldestBytes = Files.readAllBytes(oldest.toPath());
+            recorder.compact();
+            Assert.isFalse(oldest.exists(), "整理后最旧的日志段没有删除");
+            Assert.isTrue(
+                    recorder.getGarbageRatio() < garbageRatio,
+                    "整理后垃圾记录占比没有降低：{} -> {}",
+                    garbageRatio,
+                    recorder.getGarbageRatio());
+            log.info(
+                    "整理前日志段 {} 个，垃圾记录占比 {}，整理后日志段 {} 个，垃圾记录占比 {}",
+                    segmentCount,
+                    garbageRatio,
+                    recorder.getSegmentCount(),
+                    recorder.getGarbageRatio());
+            recorder.close();
+            Files.write(oldest.toPath(), oldestBytes);
+
+            recorder = open(dir, 0.3);
+            Assert.isTrue(recorder.size() == 150, "整理后恢复的文件记录数量错误：{}", recorder.size());
+            for (int i = 0; i < 200; i++) {
+                Integer version = i % 4 == 1 ? null : Integer.valueOf(i % 2 == 0 ? 2 : 1);
+                assertFileInfo(recorder, i, version);
+            }
+            Assert.isFalse(oldest.exists(), "已整理的日志段在启动时没有删除");
+            recorder.close();
+            log.info("整理后恢复测试通过");
+        } finally {
+            FileUtil.del(dir);
+        }
+    }
+
+    /**
+     * 附加属性按类型保存，不支持的类型直接抛出异常
+     */
+    @Test
+    public void testAttr() throws IOException {
+        File dir = Files.createTempDirectory("x-file-storage-log-recorder-").toFile();
+        try {
+            LogFileRecorder recorder = open(dir, 0.5);
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("list", Arrays.asList(1, 2L, "3", null));
+            map.put("unit", TimeUnit.SECONDS);
+            Dict attr = Dict.create()
+                    .set("map", map)
+                    .set("date", new Date(1700000000000L))
+                    .set("bytes", new byte[] {1, 2, 3})
+                    .set("set", new LinkedHashSet<>(Arrays.asList("a", "b")));
+            FileInfo fileInfo = createFileInfo(1, 1, 10).setFileAcl("public-read");
+            fileInfo.getAttr().putAll(attr);
+            recorder.save(fileInfo);
+            recorder.close();
+
+            recorder = open(dir, 0.5);
+            FileInfo actual = recorder.getByUrl(fileInfo.getUrl());
+            Assert.isTrue("public-read".equals(actual.getFileAcl()), "ACL 错误：{}", actual.getFileAcl());
+            Assert.isTrue(map.equals(actual.getAttr().get("map")), "Map 错误：{}", actual.getAttr().get("map"));
+            Assert.isTrue(attr.get("date").equals(actual.getAttr().get("date")), "日期错误");
+            Assert.isTrue(Arrays.equals(new byte[] {1, 2, 3}, actual.getAttr().getBytes("bytes")), "字节数组错误");
+            Assert.isTrue(attr.get("set").equals(actual.getAttr().get("set")), "Set 错误");
+
+            boolean failed = false;
+            try {
+                recorder.save(createFileInfo(2, 1, 10).setFileAcl(new Object()));
+            } catch (FileStorageRuntimeException e) {
+                log.info("保存不支持的类型失败：{}", e.getCause().getMessage());
+                failed = true;
+            }
+            Assert.isTrue(failed, "保存不支持的类型没有抛出异常");
+            Assert.isNull(recorder.getByUrl("https://example.com/file/2.txt"), "保存失败的文件记录被写入了");
+            recorder.close();
+        } finally {
+            FileUtil.del(dir);
+        }
+    }
+
+    /**
+     * 同一个存储目录同时只能被一个实例使用
+     */
+    @Test
+    public void testLock() throws IOException {
+        File dir = Files.createTempDirectory("x-file-storage-log-recorder-").toFile();
+        try {
+            LogFileRecorder recorder = open(dir, 0.5);
+            boolean failed = false;
+            try {
+                open(dir, 0.5).close();
+            } catch (FileStorageRuntimeException e) {
+                failed = true;
+            }
+            Assert.isTrue(failed, "同一个存储目录被两个实例同时使用");
+            recorder.close();
+            open(dir, 0.5).close();
+        } finally {
+            FileUtil.del(dir);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.dromara.x.file.storage.test;
+
+import cn.hutool.core.lang.Assert;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.hash.HashCalculatorManager;
+import org.dromara.x.file.storage.core.hash.HashInfo;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 并行哈希计算流水线测试类
+ */
+@Slf4j
+public class ParallelHashPipelineTest {
+    /**
+     * 少于哈希计算器数量的线程，工作任务需要排队执行
+     */
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(3);
+
+    @AfterAll
+    public static void shutdown() {
+        EXECUTOR.shutdown();
+    }
+
+    /**
+     * 创建计算全部内置哈希的哈希计算器管理器
+     */
+    private HashCalculatorManager createManager() {
+        return new HashCalculatorManager()
+                .setHashCalculatorMd5()
+                .setHashCalculatorSha1()
+                .setHashCalculatorSha256()
+                .setHashCalculatorSha512()
+                .setHashCalculatorCrc32c()
+                .setHashCalculatorCrc64()
+                .setHashCalculatorXxHash64()
+                .setHashCalculatorTreeSha256();
+    }
+
+    /**
+     * 使用很小的环形缓冲区，让读取线程频繁等待，结果与逐个计算完全一致
+     */
+    @Test
+    public void test() {
+        byte[] data = new byte[3 * 1024 * 1024 + 123];
+        new Random(1).nextBytes(data);
+
+        HashCalculatorManager serial = createManager();
+        serial.update(data);
+        HashInfo expected = serial.getHashInfo();
+
+        HashCalculatorManager parallel = createManager().setParallel(EXECUTOR, 2, 1000);
+        Random random = new Random(2);
+        int off = 0;
+        while (off < data.length) {
+            int len = Math.min(data.length - off, random.nextInt(5000));
+            if (random.nextBoolean()) {
+                parallel.update(data, off, len);
+            } else {
+                parallel.update(ByteBuffer.wrap(data, off, len));
+            }
+            off += len;
+        }
+        HashInfo actual = parallel.getHashInfo();
+
+        log.info("并行哈希计算结果：{}", actual);
+        Assert.isTrue(expected.equals(actual), "并行计算的哈希与逐个计算不一致，应为：{}，实际为：{}", expected, actual);
+        log.info("并行哈希计算结果与逐个计算一致");
+    }
+
+    /**
+     * 没有数据时也能正常结束
+     */
+    @Test
+    public void testEmpty() {
+        HashInfo expected = createManager().getHashInfo();
+        HashInfo actual = createManager().setParallel(EXECUTOR).getHashInfo();
+        Assert.isTrue(expected.equals(actual), "空数据的并行哈希与逐个计算不一致，应为：{}，实际为：{}", expected, actual);
+    }
+
+    /**
+     * 开启并行计算但没有线程池时在读取数据的线程中逐个计算
+     */
+    @Test
+    public void testWithoutExecutor() {
+        byte[] data = new byte[100 * 1024 + 7];
+        new Random(3).nextBytes(data);
+        HashInfo expected = createManager().update(data).getHashInfo();
+        HashInfo actual = createManager().setParallel(true).update(data).getHashInfo();
+        Assert.isTrue(expected.equals(actual), "没有线程池时的哈希与逐个计算不一致，应为：{}，实际为：{}", expected, actual);
+    }
+}
@@ -0,0 +1,140 @@
+package org.dromara.x.file.storage.test;
+
+import cn.hutool.core.lang.Assert;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.file.ReplayableInputStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 可重复读取的 InputStream 测试类
+ */
+@Slf4j
+public class ReplayableInputStreamTest {
+    private static final int MEMORY_THRESHOLD = 1000;
+
+    private byte[] createData(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    /**
+     * 按随机长度读取，包含单字节读取，直到读取 size 个字节或者到达末尾
+     */
+    private byte[] read(ReplayableInputStream in, int size, Random random) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        while (out.size() < size) {
+            if (random.nextInt(4) == 0) {
+                int b = in.read();
+                if (b == -1) break;
+                out.write(b);
+            } else {
+                byte[] bytes = new byte[Math.min(size - out.size(), 1 + random.nextInt(3000))];
+                int n = in.read(bytes, 0, bytes.length);
+                if (n == -1) break;
+                out.write(bytes, 0, n);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private void assertRange(byte[] data, int from, byte[] actual) {
+        byte[] expected = Arrays.copyOfRange(data, from, from + actual.length);
+        Assert.isTrue(Arrays.equals(expected, actual), "从 {} 开始读取的 {} 个字节与原始数据不一致", from, actual.length);
+    }
+
+    /**
+     * 标记后读取的数据超过内存阈值写入临时文件，重置后能完整重新读取，并继续读取原始的流
+     */
+    @Test
+    public void testResetAcrossSpill() throws IOException {
+        byte[] data = createData(50000);
+        Random random = new Random(1);
+        ReplayableInputStream in = new ReplayableInputStream(new ByteArrayInputStream(data), MEMORY_THRESHOLD, null);
+
+        in.mark(Integer.MAX_VALUE);
+        byte[] first = read(in, 20000, random);
+        Assert.isTrue(first.length == 20000, "读取长度错误：{}", first.length);
+        assertRange(data, 0, first);
+        File spillFile = in.getSpillFile();
+        Assert.notNull(spillFile, "超过内存阈值后没有写入临时文件");
+        Assert.isTrue(spillFile.exists(), "临时文件不存在");
+
+        // 第一次重置，重新读取内存及临时文件中的数据，再继续读取原始的流
+        in.reset();
+        byte[] second = read(in, 30000, random);
+        assertRange(data, 0, second);
+
+        // 再次重置，全部读取到末尾
+        in.reset();
+        byte[] all = read(in, Integer.MAX_VALUE, random);
+        Assert.isTrue(Arrays.equals(data, all), "重置后读取的全部数据与原始数据不一致");
+        Assert.isTrue(in.read() == -1, "到达末尾后还能读取到数据");
+
+        in.close();
+        Assert.isFalse(spillFile.exists(), "关闭后临时文件没有被删除");
+        log.info("跨越内存和临时文件的 mark/reset 测试通过");
+    }
+
+    /**
+     * 重新读取已保存的数据时再次标记，重置到内存与临时文件的边界附近
+     */
+    @Test
+    public void testMarkDuringReplay() throws IOException {
+        byte[] data = createData(10000);
+        Random random = new Random(2);
+        ReplayableInputStream in = new ReplayableInputStream(new ByteArrayInputStream(data), MEMORY_THRESHOLD, null);
+
+        in.mark(0);
+        assertRange(data, 0, read(in, 6000, random));
+        in.reset();
+
+        // 在内存阈值前 10 个字节处标记，之后的读取会跨越内存和临时文件
+        int markPosition = MEMORY_THRESHOLD - 10;
+        assertRange(data, 0, read(in, markPosition, random));
+        in.mark(0);
+        assertRange(data, markPosition, read(in, 3000, random));
+        in.reset();
+        byte[] rest = read(in, Integer.MAX_VALUE, random);
+        Assert.isTrue(rest.length == data.length - markPosition, "读取长度错误：{}", rest.length);
+        assertRange(data, markPosition, rest);
+        in.close();
+    }
+
+    /**
+     * 重新读取完已保存的数据后释放内存并删除临时文件，之后直接读取原始的流
+     */
+    @Test
+    public void testReleaseAfterReplay() throws IOException {
+        byte[] data = createData(8000);
+        Random random = new Random(3);
+        ReplayableInputStream in = new ReplayableInputStream(new ByteArrayInputStream(data), MEMORY_THRESHOLD, null);
+
+        in.mark(0);
+        assertRange(data, 0, read(in, 5000, random));
+        File spillFile = in.getSpillFile();
+        Assert.notNull(spillFile, "超过内存阈值后没有写入临时文件");
+        in.reset();
+        in.releaseAfterReplay();
+
+        byte[] all = read(in, Integer.MAX_VALUE, random);
+        Assert.isTrue(Arrays.equals(data, all), "释放前后读取的数据与原始数据不一致");
+        Assert.isFalse(spillFile.exists(), "重新读取完已保存的数据后临时文件没有被删除");
+        Assert.isTrue(in.getSpillFile() == null, "释放后还有临时文件");
+
+        boolean resetFailed = false;
+        try {
+            in.reset();
+        } catch (IOException e) {
+            resetFailed = true;
+        }
+        Assert.isTrue(resetFailed, "释放后还能重置");
+        in.close();
+    }
+}
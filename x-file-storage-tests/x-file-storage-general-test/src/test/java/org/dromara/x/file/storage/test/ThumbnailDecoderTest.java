@@ -0,0 +1,87 @@
+package org.dromara.x.file.storage.test;
+
+import cn.hutool.core.lang.Assert;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import javax.imageio.ImageIO;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.file.ReplayableInputStream;
+import org.dromara.x.file.storage.core.upload.ThumbnailDecoder;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 缩略图解码器测试类
+ */
+@Slf4j
+public class ThumbnailDecoderTest {
+
+    private byte[] createImage(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, (x * 255 / width) << 16 | (y * 255 / height) << 8);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * 从超过内存阈值的可重复读取的流中直接降采样解码
+     */
+    @Test
+    public void testDecodeFromStream() throws IOException {
+        byte[] data = createImage(2000, 1000);
+        ReplayableInputStream in = new ReplayableInputStream(new ByteArrayInputStream(data), 1000, null);
+        in.mark(Integer.MAX_VALUE);
+        BufferedImage image = ThumbnailDecoder.read(in, 100, 100);
+        // 宽高都保留目标大小的 2 倍以上，1000 / 100 / 2 = 5
+        Assert.isTrue(
+                image.getWidth() == 400 && image.getHeight() == 200,
+                "降采样后的大小错误：{}*{}",
+                image.getWidth(),
+                image.getHeight());
+        in.close();
+    }
+
+    /**
+     * 不需要降采样时重置流后完整解码
+     */
+    @Test
+    public void testFallbackAfterReset() throws IOException {
+        byte[] data = createImage(300, 200);
+        ReplayableInputStream in = new ReplayableInputStream(new ByteArrayInputStream(data), 1000, null);
+        BufferedImage image = ThumbnailDecoder.of(in, 200, 200).size(100, 100).asBufferedImage();
+        Assert.isTrue(
+                image.getWidth() == 100 && image.getHeight() <= 100,
+                "缩略图大小错误：{}*{}",
+                image.getWidth(),
+                image.getHeight());
+        in.close();
+    }
+
+    /**
+     * 不支持 mark/reset 的流不降采样，直接完整解码
+     */
+    @Test
+    public void testWithoutMarkSupported() throws IOException {
+        byte[] data = createImage(2000, 1000);
+        InputStream in = new FilterInputStream(new ByteArrayInputStream(data)) {
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        };
+        BufferedImage image = ThumbnailDecoder.read(in, 100, 100);
+        Assert.isTrue(
+                image.getWidth() == 2000 && image.getHeight() == 1000,
+                "图片大小错误：{}*{}",
+                image.getWidth(),
+                image.getHeight());
+    }
+}
@@ -0,0 +1,206 @@
+package org.dromara.x.file.storage.test;
+
+import cn.hutool.core.lang.Assert;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.exception.FileStorageRuntimeException;
+import org.dromara.x.file.storage.core.recorder.BatchFileRecorder;
+import org.dromara.x.file.storage.core.recorder.WriteBehindFileRecorder;
+import org.dromara.x.file.storage.core.upload.FilePartInfo;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 延迟批量写入的文件记录者测试类
+ */
+@Slf4j
+public class WriteBehindFileRecorderTest {
+
+    /**
+     * 保存在内存中的文件记录者，可以指定接下来失败的次数
+     */
+    private static class MemoryFileRecorder implements BatchFileRecorder {
+        private final Map<String, FileInfo> fileInfoMap = new ConcurrentHashMap<>();
+        private final List<FilePartInfo> filePartList = new CopyOnWriteArrayList<>();
+        private final List<Integer> batchSizeList = new CopyOnWriteArrayList<>();
+        private final AtomicInteger saveCount = new AtomicInteger();
+        private final AtomicInteger failTimes = new AtomicInteger();
+
+        private void checkFail() {
+            if (failTimes.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new FileStorageRuntimeException("模拟写入失败");
+            }
+        }
+
+        @Override
+        public boolean save(FileInfo fileInfo) {
+            saveCount.incrementAndGet();
+            checkFail();
+            fileInfoMap.put(fileInfo.getUrl(), fileInfo);
+            return true;
+        }
+
+        @Override
+        public void saveBatch(List<FileInfo> fileInfoList) {
+            batchSizeList.add(fileInfoList.size());
+            checkFail();
+            for (FileInfo fileInfo : fileInfoList) fileInfoMap.put(fileInfo.getUrl(), fileInfo);
+        }
+
+        @Override
+        public void update(FileInfo fileInfo) {
+            fileInfoMap.put(fileInfo.getUrl(), fileInfo);
+        }
+
+        @Override
+        public FileInfo getByUrl(String url) {
+            return fileInfoMap.get(url);
+        }
+
+        @Override
+        public boolean delete(String url) {
+            return fileInfoMap.remove(url) != null;
+        }
+
+        @Override
+        public void saveFilePart(FilePartInfo filePartInfo) {
+            filePartList.add(filePartInfo);
+        }
+
+        @Override
+        public void deleteFilePartByUploadId(String uploadId) {
+            filePartList.removeIf(p -> uploadId.equals(p.getUploadId()));
+        }
+    }
+
+    private FileInfo createFileInfo(int i) {
+        return new FileInfo()
+                .setUrl("https://example.com/file/" + i + ".txt")
+                .setFilename(i + ".txt")
+                .setSize((long) i);
+    }
+
+    private void waitFor(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            Assert.isTrue(System.currentTimeMillis() < deadline, message);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * 队列中的数量达到 batchSize 时立即批量写入，不等待时间间隔
+     */
+    @Test
+    public void testFlushOnSize() throws InterruptedException {
+        MemoryFileRecorder delegate = new MemoryFileRecorder();
+        WriteBehindFileRecorder recorder = new WriteBehindFileRecorder(delegate, 10, 60000, 0, false, 3);
+        for (int i = 0; i < 10; i++) recorder.save(createFileInfo(i));
+        waitFor(() -> delegate.fileInfoMap.size() == 10, "队列达到 batchSize 后没有立即写入");
+        Assert.isTrue(
+                delegate.batchSizeList.equals(Collections.singletonList(10)),
+                "批量写入的数量错误：{}",
+                delegate.batchSizeList);
+        Assert.isTrue(delegate.saveCount.get() == 0, "不应该逐条保存");
+        recorder.close();
+    }
+
+    /**
+     * 队列中的数量没有达到 batchSize 时按时间间隔写入
+     */
+    @Test
+    public void testFlushOnTime() throws InterruptedException {
+        MemoryFileRecorder delegate = new MemoryFileRecorder();
+        WriteBehindFileRecorder recorder = new WriteBehindFileRecorder(delegate, 1000, 100, 0, false, 3);
+        for (int i = 0; i < 3; i++) recorder.save(createFileInfo(i));
+        waitFor(() -> delegate.fileInfoMap.size() == 3, "没有按时间间隔写入");
+        Assert.isTrue(recorder.getPendingCount() == 0, "写入后队列中还有记录：{}", recorder.getPendingCount());
+        recorder.close();
+    }
+
+    /**
+     * 批量保存失败时整批重试，不会逐条保存
+     */
+    @Test
+    public void testRetryBatch() {
+        MemoryFileRecorder delegate = new MemoryFileRecorder();
+        WriteBehindFileRecorder recorder = new WriteBehindFileRecorder(delegate, 1000, 60000, 0, false, 3);
+        for (int i = 0; i < 5; i++) recorder.save(createFileInfo(i));
+        delegate.failTimes.set(1);
+        try {
+            recorder.flush();
+            Assert.isTrue(false, "写入失败时 flush 没有抛出异常");
+        } catch (FileStorageRuntimeException e) {
+            log.info("第一次写入失败：{}", e.getMessage());
+        }
+        Assert.isTrue(recorder.getPendingCount() == 5, "写入失败的记录没有等待重试：{}", recorder.getPendingCount());
+
+        recorder.flush();
+        Assert.isTrue(delegate.fileInfoMap.size() == 5, "重试后记录数量错误：{}", delegate.fileInfoMap.size());
+        Assert.isTrue(delegate.batchSizeList.equals(Arrays.asList(5, 5)), "没有整批重试：{}", delegate.batchSizeList);
+        Assert.isTrue(delegate.saveCount.get() == 0, "批量保存失败后不应该逐条保存");
+        Assert.isTrue(recorder.getFailedCount() == 0, "不应该丢弃记录");
+        recorder.close();
+    }
+
+    /**
+     * 超过重试次数后丢弃，并交给 failureListener
+     */
+    @Test
+    public void testFailureListener() {
+        MemoryFileRecorder delegate = new MemoryFileRecorder();
+        WriteBehindFileRecorder recorder = new WriteBehindFileRecorder(delegate, 1000, 60000, 0, false, 2);
+        List<Object> failedList = new CopyOnWriteArrayList<>();
+        recorder.setFailureListener(failedList::add);
+        for (int i = 0; i < 5; i++) recorder.save(createFileInfo(i));
+        delegate.failTimes.set(Integer.MAX_VALUE);
+        // 第一次写入及 2 次重试都失败后丢弃
+        for (int i = 0; i < 3; i++) {
+            try {
+                recorder.flush();
+                Assert.isTrue(false, "写入失败时 flush 没有抛出异常");
+            } catch (FileStorageRuntimeException e) {
+                log.info("第 {} 次写入失败：{}", i + 1, e.getMessage());
+            }
+        }
+        Assert.isTrue(failedList.size() == 5, "丢弃的记录没有交给 failureListener：{}", failedList.size());
+        Assert.isTrue(recorder.getFailedCount() == 5, "丢弃的数量错误：{}", recorder.getFailedCount());
+        Assert.isTrue(recorder.getPendingCount() == 0, "丢弃后还有等待重试的记录：{}", recorder.getPendingCount());
+        delegate.failTimes.set(0);
+        recorder.close();
+    }
+
+    /**
+     * 关闭时写入队列中的全部记录，之后的记录直接写入，readPending 时查询到的是还未写入的记录的副本
+     */
+    @Test
+    public void testCloseDrains() {
+        MemoryFileRecorder delegate = new MemoryFileRecorder();
+        WriteBehindFileRecorder recorder = new WriteBehindFileRecorder(delegate, 1000, 60000, 0, true, 3);
+        List<FileInfo> list = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            FileInfo fileInfo = createFileInfo(i);
+            list.add(fileInfo);
+            recorder.save(fileInfo);
+        }
+        FileInfo pending = recorder.getByUrl(list.get(0).getUrl());
+        Assert.notNull(pending, "没有查询到还未写入的记录");
+        Assert.isTrue(pending != list.get(0), "应该返回还未写入的记录的副本");
+        Assert.isTrue(pending.getFilename().equals(list.get(0).getFilename()), "副本的内容错误");
+        pending.setFilename("modified.txt");
+        Assert.isTrue(delegate.fileInfoMap.isEmpty(), "没有达到写入条件时不应该写入");
+
+        recorder.close();
+        Assert.isTrue(delegate.fileInfoMap.size() == 20, "关闭时没有写入全部记录：{}", delegate.fileInfoMap.size());
+        Assert.isTrue(recorder.getPendingCount() == 0, "关闭后队列中还有记录：{}", recorder.getPendingCount());
+        Assert.isTrue(
+                "0.txt".equals(delegate.getByUrl(list.get(0).getUrl()).getFilename()), "修改副本影响了写入的记录");
+
+        recorder.save(createFileInfo(100));
+        Assert.notNull(delegate.getByUrl(createFileInfo(100).getUrl()), "关闭后的记录没有直接写入");
+    }
+}